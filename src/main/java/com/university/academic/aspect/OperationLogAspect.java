@@ -1,38 +1,70 @@
 package com.university.academic.aspect;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
 import com.university.academic.annotation.OperationLog;
-import com.university.academic.repository.OperationLogRepository;
+import com.university.academic.security.AcademicPrincipal;
+import com.university.academic.service.OperationLogPipeline;
+import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
 
 /**
  * 操作日志切面
  * 自动记录标注了@OperationLog注解的方法的操作日志
+ * 日志提交到 {@link OperationLogPipeline} 由后台线程序列化请求参数并批量写入，不在业务线程中访问数据库
+ * <p>
+ * 请求参数中名称含 password、token、secret 的字段一律掩码，上传文件只记录文件名和大小，不序列化文件内容
  *
  * @author Academic System Team
  */
 @Aspect
-//@Component  // 暂时禁用，避免AspectJ编译错误
-@RequiredArgsConstructor
+@Component
 public class OperationLogAspect {
 
     private static final org.slf4j.Logger logger = 
             org.slf4j.LoggerFactory.getLogger(OperationLogAspect.class);
 
-    private final OperationLogRepository logRepository;
-    private final ObjectMapper objectMapper;
+    private static final String MASK = "******";
+
+    private static final List<String> SENSITIVE_NAMES = List.of("password", "token", "secret");
+
+    private final OperationLogPipeline operationLogPipeline;
+
+    /**
+     * 记录请求参数专用的序列化器，掩码敏感字段并跳过上传文件内容
+     */
+    private final ObjectMapper paramsMapper;
+
+    public OperationLogAspect(OperationLogPipeline operationLogPipeline, ObjectMapper objectMapper) {
+        this.operationLogPipeline = operationLogPipeline;
+        this.paramsMapper = objectMapper.copy().registerModule(new SimpleModule("OperationLogParams")
+                .addSerializer(MultipartFile.class, new MultipartFileSerializer())
+                .setSerializerModifier(new SensitivePropertyModifier()));
+    }
 
     /**
      * 环绕通知，记录操作日志
@@ -61,36 +93,30 @@ public class OperationLogAspect {
             if (authentication != null && authentication.isAuthenticated() && 
                 !"anonymousUser".equals(authentication.getPrincipal())) {
                 log.setUsername(authentication.getName());
-                // 这里可以根据需要获取userId
+                if (authentication.getPrincipal() instanceof AcademicPrincipal principal) {
+                    log.setUserId(principal.getUserId());
+                }
             }
         } catch (Exception e) {
             logger.error("获取用户信息失败", e);
         }
 
-        // 获取请求参数
-        try {
-            Object[] args = joinPoint.getArgs();
-            if (args != null && args.length > 0) {
-                // 过滤掉不需要序列化的参数（如HttpServletRequest等）
-                Object[] filteredArgs = new Object[args.length];
-                for (int i = 0; i < args.length; i++) {
-                    if (args[i] instanceof HttpServletRequest || 
-                        args[i] instanceof Authentication) {
-                        filteredArgs[i] = args[i].getClass().getSimpleName();
-                    } else {
-                        filteredArgs[i] = args[i];
-                    }
+        // 获取请求参数，由写入线程序列化
+        Supplier<String> params = null;
+        Object[] args = joinPoint.getArgs();
+        if (args != null && args.length > 0) {
+            // 过滤掉不需要序列化的参数（如HttpServletRequest等）
+            Object[] filteredArgs = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof HttpServletRequest ||
+                    args[i] instanceof ServletResponse ||
+                    args[i] instanceof Authentication) {
+                    filteredArgs[i] = args[i].getClass().getSimpleName();
+                } else {
+                    filteredArgs[i] = args[i];
                 }
-                String params = objectMapper.writeValueAsString(filteredArgs);
-                // 限制参数长度
-                if (params.length() > 2000) {
-                    params = params.substring(0, 2000) + "...";
-                }
-                log.setParams(params);
             }
-        } catch (Exception e) {
-            log.setParams("参数序列化失败: " + e.getMessage());
-            logger.error("记录请求参数失败", e);
+            params = () -> serializeParams(filteredArgs);
         }
 
         // 获取IP地址
@@ -125,13 +151,30 @@ public class OperationLogAspect {
             
             // 异步保存日志（避免影响主业务）
             try {
-                logRepository.save(log);
+                operationLogPipeline.submit(log, params);
             } catch (Exception e) {
                 logger.error("保存操作日志失败", e);
             }
         }
     }
 
+    /**
+     * 序列化请求参数（在写入线程中执行）
+     */
+    private String serializeParams(Object[] args) {
+        try {
+            String params = paramsMapper.writeValueAsString(args);
+            // 限制参数长度
+            if (params.length() > 2000) {
+                params = params.substring(0, 2000) + "...";
+            }
+            return params;
+        } catch (Exception e) {
+            logger.error("记录请求参数失败", e);
+            return "参数序列化失败: " + e.getMessage();
+        }
+    }
+
     /**
      * 获取客户端IP地址
      */
@@ -158,5 +201,49 @@ public class OperationLogAspect {
         }
         return ip;
     }
-}
 
+    /**
+     * 敏感字段掩码：字段名含 password、token、secret（不区分大小写）时只输出掩码
+     */
+    private static class SensitivePropertyModifier extends BeanSerializerModifier {
+
+        @Override
+        public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
+                                                         BeanDescription beanDesc,
+                                                         List<BeanPropertyWriter> beanProperties) {
+            for (int i = 0; i < beanProperties.size(); i++) {
+                String name = beanProperties.get(i).getName().toLowerCase(Locale.ROOT);
+                if (SENSITIVE_NAMES.stream().anyMatch(name::contains)) {
+                    beanProperties.set(i, new MaskedPropertyWriter(beanProperties.get(i)));
+                }
+            }
+            return beanProperties;
+        }
+    }
+
+    private static class MaskedPropertyWriter extends BeanPropertyWriter {
+
+        MaskedPropertyWriter(BeanPropertyWriter base) {
+            super(base);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            gen.writeStringField(getName(), MASK);
+        }
+    }
+
+    /**
+     * 上传文件只记录文件名和大小
+     */
+    private static class MultipartFileSerializer extends JsonSerializer<MultipartFile> {
+
+        @Override
+        public void serialize(MultipartFile file, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("filename", file.getOriginalFilename());
+            gen.writeNumberField("size", file.getSize());
+            gen.writeEndObject();
+        }
+    }
+}
@@ -24,7 +24,6 @@ public class CacheConfig {
     public static final String CACHE_DEPARTMENTS = "departments";
     public static final String CACHE_MAJORS = "majors";
     public static final String CACHE_SEMESTERS = "semesters";
-    public static final String CACHE_ACTIVE_SEMESTER = "activeSemester";
     public static final String CACHE_EXAMS = "exams";
     public static final String CACHE_EXAM_ROOMS = "examRooms";
     public static final String CACHE_EVALUATION_PERIODS = "evaluationPeriods";
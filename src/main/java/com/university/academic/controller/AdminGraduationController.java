@@ -3,8 +3,10 @@ package com.university.academic.controller;
 import com.university.academic.annotation.OperationLog;
 import com.university.academic.dto.*;
 import com.university.academic.entity.GraduationAudit;
+import com.university.academic.service.CreditSummaryRecomputeService;
 import com.university.academic.service.GraduateManagementService;
 import com.university.academic.service.GraduationAuditService;
+import com.university.academic.service.GraduationCohortAuditService;
 import com.university.academic.service.GraduationRequirementService;
 import com.university.academic.vo.Result;
 import io.swagger.v3.oas.annotations.Operation;
@@ -41,7 +43,9 @@ public class AdminGraduationController {
 
     private final GraduationRequirementService graduationRequirementService;
     private final GraduationAuditService graduationAuditService;
+    private final GraduationCohortAuditService graduationCohortAuditService;
     private final GraduateManagementService graduateManagementService;
+    private final CreditSummaryRecomputeService creditSummaryRecomputeService;
 
     // ==================== 毕业要求管理 ====================
 
@@ -154,6 +158,32 @@ public class AdminGraduationController {
         return Result.success(result);
     }
 
+    /**
+     * 整届毕业审核
+     */
+    @PostMapping("/audit/cohort")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ACADEMIC_AFFAIRS')")
+    @OperationLog(value = "整届毕业审核", type = "CREATE")
+    @Operation(summary = "整届毕业审核", description = "对某一届（可按专业）在读学生提交批量毕业审核任务，立即返回任务进度")
+    public Result<CohortAuditProgressDTO> startCohortAudit(
+            @RequestParam @Parameter(description = "入学年份") Integer enrollmentYear,
+            @RequestParam(required = false) @Parameter(description = "专业ID") Long majorId) {
+        log.info("整届毕业审核: enrollmentYear={}, majorId={}", enrollmentYear, majorId);
+
+        CohortAuditProgressDTO result = graduationCohortAuditService.startCohortAudit(enrollmentYear, majorId);
+        return Result.success(result);
+    }
+
+    /**
+     * 查询整届审核进度
+     */
+    @GetMapping("/audit/cohort/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ACADEMIC_AFFAIRS')")
+    @Operation(summary = "查询整届审核进度", description = "查询整届毕业审核任务的进度和已完成部分的结果")
+    public Result<CohortAuditProgressDTO> getCohortAuditProgress(@PathVariable String jobId) {
+        return Result.success(graduationCohortAuditService.getProgress(jobId));
+    }
+
     /**
      * 查询审核记录
      */
@@ -182,6 +212,35 @@ public class AdminGraduationController {
         return Result.success(result);
     }
 
+    // ==================== 学分汇总重算 ====================
+
+    /**
+     * 批量重算学分汇总
+     */
+    @PostMapping("/credits/recompute")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ACADEMIC_AFFAIRS')")
+    @OperationLog(value = "批量重算学分汇总", type = "UPDATE")
+    @Operation(summary = "批量重算学分汇总", description = "异步重算指定学生的学分汇总，未指定学生时重算全部学生，返回初始进度")
+    public Result<CreditRecomputeResultDTO> recomputeCreditSummaries(
+            @RequestBody(required = false) @Parameter(description = "学生ID列表") List<Long> studentIds) {
+        log.info("批量重算学分汇总: count={}", studentIds != null ? studentIds.size() : "ALL");
+
+        CreditRecomputeResultDTO result = studentIds == null || studentIds.isEmpty()
+                ? creditSummaryRecomputeService.recomputeAll()
+                : creditSummaryRecomputeService.recompute(studentIds);
+        return Result.success(result);
+    }
+
+    /**
+     * 查询学分汇总重算进度
+     */
+    @GetMapping("/credits/recompute/progress")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ACADEMIC_AFFAIRS')")
+    @Operation(summary = "查询学分重算进度", description = "查询最近一次学分汇总批量重算的进度")
+    public Result<CreditRecomputeResultDTO> getCreditRecomputeProgress() {
+        return Result.success(creditSummaryRecomputeService.getProgress());
+    }
+
     // ==================== 毕业生管理 ====================
 
     /**
@@ -12,7 +12,9 @@ import com.university.academic.exception.ErrorCode;
 import com.university.academic.repository.StudentRepository;
 import com.university.academic.repository.TeacherRepository;
 import com.university.academic.repository.UserRepository;
+import com.university.academic.security.TokenVersionRegistry;
 import com.university.academic.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import com.university.academic.vo.Result;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -40,6 +42,7 @@ public class AuthController {
     private final TeacherRepository teacherRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     @Value("${jwt.expiration:86400000}")
     private Long jwtExpiration;
@@ -68,12 +71,14 @@ public class AuthController {
         }
 
         // 生成令牌
+        long tokenVersion = tokenVersionRegistry.currentVersion(user);
         String accessToken = jwtUtil.generateToken(
                 user.getUsername(),
                 user.getId(),
-                user.getRole().name()
+                user.getRole().name(),
+                tokenVersion
         );
-        String refreshToken = jwtUtil.generateRefreshToken(user.getUsername());
+        String refreshToken = jwtUtil.generateRefreshToken(user.getUsername(), tokenVersion);
 
         // 构建响应
         // 获取真实姓名
@@ -121,12 +126,13 @@ public class AuthController {
 
         try {
             // 验证刷新令牌
-            if (!jwtUtil.validateToken(refreshToken)) {
+            Claims claims = jwtUtil.parseClaims(refreshToken);
+            if (claims == null) {
                 throw new BusinessException(ErrorCode.TOKEN_EXPIRED);
             }
 
             // 从令牌中获取用户名
-            String username = jwtUtil.getUsernameFromToken(refreshToken);
+            String username = claims.getSubject();
 
             // 查找用户
             User user = userRepository.findByUsername(username)
@@ -137,11 +143,18 @@ public class AuthController {
                 throw new BusinessException(ErrorCode.ACCOUNT_DISABLED);
             }
 
+            // 重置密码前签发的刷新令牌已失效，以刚加载的用户令牌版本为准
+            long tokenVersion = tokenVersionRegistry.currentVersion(user);
+            if (JwtUtil.getTokenVersion(claims) < tokenVersion) {
+                throw new BusinessException(ErrorCode.TOKEN_INVALID);
+            }
+
             // 生成新的访问令牌
             String newAccessToken = jwtUtil.generateToken(
                     user.getUsername(),
                     user.getId(),
-                    user.getRole().name()
+                    user.getRole().name(),
+                    tokenVersion
             );
 
             // 构建响应
@@ -1,18 +1,29 @@
 package com.university.academic.controller;
 
+import com.university.academic.dto.BatchSelectionResultDTO;
 import com.university.academic.dto.CourseOfferingDTO;
 import com.university.academic.dto.CourseSelectionDTO;
-import com.university.academic.entity.CourseOffering;
+import com.university.academic.dto.CourseWaitlistDTO;
+import com.university.academic.dto.SelectionTicketDTO;
 import com.university.academic.entity.CourseSelection;
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
 import com.university.academic.security.CustomUserDetailsService;
+import com.university.academic.service.CourseSelectionAdmissionService;
 import com.university.academic.service.CourseSelectionService;
+import com.university.academic.service.CourseWaitlistService;
+import com.university.academic.service.OfferingCatalogueService;
 import com.university.academic.util.DtoConverter;
 import com.university.academic.vo.Result;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -33,22 +44,32 @@ import java.util.stream.Collectors;
 public class CourseSelectionController {
 
     private final CourseSelectionService selectionService;
+    private final OfferingCatalogueService offeringCatalogue;
+    private final CourseSelectionAdmissionService admissionService;
+    private final CourseWaitlistService waitlistService;
     private final DtoConverter dtoConverter;
     private final CustomUserDetailsService userDetailsService;
 
     /**
      * 获取可选课程列表
+     * 支持 If-None-Match，目录和已选人数均未变化时返回304
      */
     @GetMapping("/offerings")
-    public Result<List<CourseOfferingDTO>> getAvailableOfferings() {
-        log.info("查询可选课程列表");
-
-        List<CourseOffering> offerings = selectionService.findAvailableOfferings();
-        List<CourseOfferingDTO> offeringDTOList = offerings.stream()
-                .map(dtoConverter::toCourseOfferingDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<Result<List<CourseOfferingDTO>>> getAvailableOfferings(WebRequest webRequest) {
+        String eTag = offeringCatalogue.currentETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
 
-        return Result.success(offeringDTOList);
+        log.info("查询可选课程列表");
+        List<CourseOfferingDTO> offeringDTOList = offeringCatalogue.findAvailableOfferings();
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(Result.success(offeringDTOList));
     }
 
     /**
@@ -89,6 +110,96 @@ public class CourseSelectionController {
         return Result.success("选课成功", selectionDTO);
     }
 
+    /**
+     * 批量选课（提交选课清单）
+     */
+    @PostMapping("/selections/batch")
+    public Result<BatchSelectionResultDTO> selectCourses(
+            @RequestBody Map<String, List<Long>> request,
+            Authentication authentication) {
+
+        Long studentId = userDetailsService.getStudentIdFromAuth(authentication);
+        List<Long> offeringIds = request.get("offeringIds");
+        if (offeringIds == null || offeringIds.isEmpty()) {
+            throw new BusinessException(ErrorCode.PARAM_ERROR, "选课清单不能为空");
+        }
+
+        log.info("学生批量选课: studentId={}, offeringIds={}", studentId, offeringIds);
+
+        BatchSelectionResultDTO result = selectionService.selectCourses(studentId, offeringIds);
+        return Result.success(String.format("选课完成：成功%d门，失败%d门",
+                result.getSuccessCount(), result.getFailCount()), result);
+    }
+
+    /**
+     * 排队选课（选课高峰期使用）
+     * 请求进入学期排队队列后立即返回排队凭证，队列已满时直接拒绝
+     */
+    @PostMapping("/selections/queue")
+    public Result<SelectionTicketDTO> enqueueSelection(
+            @RequestBody Map<String, Long> request,
+            Authentication authentication) {
+
+        Long studentId = userDetailsService.getStudentIdFromAuth(authentication);
+        Long offeringId = request.get("offeringId");
+
+        log.info("学生排队选课: studentId={}, offeringId={}", studentId, offeringId);
+
+        SelectionTicketDTO ticket = admissionService.submit(studentId, offeringId);
+        return Result.success("已进入选课队列", ticket);
+    }
+
+    /**
+     * 查询排队选课结果
+     */
+    @GetMapping("/selections/queue/{ticketId}")
+    public Result<SelectionTicketDTO> getSelectionTicket(
+            @PathVariable String ticketId,
+            Authentication authentication) {
+
+        Long studentId = userDetailsService.getStudentIdFromAuth(authentication);
+        return Result.success(admissionService.getTicket(studentId, ticketId));
+    }
+
+    /**
+     * 加入候补（课程已满时）
+     */
+    @PostMapping("/waitlist")
+    public Result<CourseWaitlistDTO> joinWaitlist(
+            @RequestBody Map<String, Long> request,
+            Authentication authentication) {
+
+        Long studentId = userDetailsService.getStudentIdFromAuth(authentication);
+        Long offeringId = request.get("offeringId");
+
+        log.info("学生加入候补: studentId={}, offeringId={}", studentId, offeringId);
+
+        CourseWaitlistDTO waitlist = waitlistService.join(studentId, offeringId);
+        return Result.success("已加入候补队列", waitlist);
+    }
+
+    /**
+     * 获取我的候补列表
+     */
+    @GetMapping("/waitlist")
+    public Result<List<CourseWaitlistDTO>> getMyWaitlist(Authentication authentication) {
+        Long studentId = userDetailsService.getStudentIdFromAuth(authentication);
+        return Result.success(waitlistService.findByStudent(studentId));
+    }
+
+    /**
+     * 退出候补
+     */
+    @DeleteMapping("/waitlist/{id}")
+    public Result<String> leaveWaitlist(@PathVariable Long id, Authentication authentication) {
+        Long studentId = userDetailsService.getStudentIdFromAuth(authentication);
+        log.info("学生退出候补: studentId={}, waitlistId={}", studentId, id);
+
+        waitlistService.leave(studentId, id);
+
+        return Result.success("已退出候补队列");
+    }
+
     /**
      * 退课
      */
@@ -1,6 +1,8 @@
 package com.university.academic.controller;
 
 import com.university.academic.dto.OperationLogDTO;
+import com.university.academic.dto.OperationLogPipelineStatsDTO;
+import com.university.academic.service.OperationLogPipeline;
 import com.university.academic.service.OperationLogService;
 import com.university.academic.vo.Result;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +32,7 @@ import java.util.Map;
 public class OperationLogController {
 
     private final OperationLogService logService;
+    private final OperationLogPipeline operationLogPipeline;
 
     /**
      * 查询所有操作日志（分页）
@@ -101,5 +104,12 @@ public class OperationLogController {
         Map<String, Object> statistics = logService.getStatistics(startTime, endTime);
         return Result.success(statistics);
     }
-}
 
+    /**
+     * 获取日志写入管道运行指标（队列深度、丢弃数等）
+     */
+    @GetMapping("/pipeline")
+    public Result<OperationLogPipelineStatsDTO> getPipelineStats() {
+        return Result.success(operationLogPipeline.getStats());
+    }
+}
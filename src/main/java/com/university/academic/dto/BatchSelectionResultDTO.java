@@ -0,0 +1,85 @@
+package com.university.academic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量选课结果数据传输对象
+ *
+ * @author Academic System Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSelectionResultDTO {
+
+    /**
+     * 提交的课程数
+     */
+    private Integer totalCount;
+
+    /**
+     * 选课成功数
+     */
+    private Integer successCount;
+
+    /**
+     * 选课失败数
+     */
+    private Integer failCount;
+
+    /**
+     * 选课后本学期已选学分
+     */
+    private Integer totalCredits;
+
+    /**
+     * 逐项结果（与提交顺序一致）
+     */
+    private List<Item> items;
+
+    /**
+     * 单门课程的选课结果
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        /**
+         * 开课计划ID
+         */
+        private Long offeringId;
+
+        /**
+         * 课程名称
+         */
+        private String courseName;
+
+        /**
+         * 是否成功
+         */
+        private Boolean success;
+
+        /**
+         * 选课记录ID（成功时）
+         */
+        private Long selectionId;
+
+        /**
+         * 错误码（失败时）
+         */
+        private Integer errorCode;
+
+        /**
+         * 错误信息（失败时）
+         */
+        private String message;
+    }
+}
@@ -0,0 +1,58 @@
+package com.university.academic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 整届毕业审核任务进度DTO
+ *
+ * @author Academic System Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "整届毕业审核任务进度")
+public class CohortAuditProgressDTO {
+
+    @Schema(description = "任务ID")
+    private String jobId;
+
+    @Schema(description = "入学年份", example = "2021")
+    private Integer enrollmentYear;
+
+    @Schema(description = "专业ID（为空表示全部专业）")
+    private Long majorId;
+
+    @Schema(description = "是否正在执行", example = "true")
+    private Boolean running;
+
+    @Schema(description = "学生总数", example = "5000")
+    private Integer totalStudents;
+
+    @Schema(description = "已处理学生数", example = "1200")
+    private Integer processedStudents;
+
+    @Schema(description = "分批总数", example = "25")
+    private Integer totalChunks;
+
+    @Schema(description = "已完成批数", example = "6")
+    private Integer completedChunks;
+
+    @Schema(description = "开始时间")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "结束时间")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "耗时（毫秒）", example = "42000")
+    private Long elapsedMillis;
+
+    @Schema(description = "当前（部分）审核结果汇总")
+    private BatchAuditResultDTO result;
+}
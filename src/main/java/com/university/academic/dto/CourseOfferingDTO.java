@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
  * @author Academic System Team
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class CourseOfferingDTO {
@@ -0,0 +1,70 @@
+package com.university.academic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 选课候补数据传输对象
+ *
+ * @author Academic System Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseWaitlistDTO {
+
+    /**
+     * 候补记录ID
+     */
+    private Long id;
+
+    /**
+     * 开课计划ID
+     */
+    private Long offeringId;
+
+    /**
+     * 课程名称
+     */
+    private String courseName;
+
+    /**
+     * 授课教师姓名
+     */
+    private String teacherName;
+
+    /**
+     * 候补状态
+     */
+    private String status;
+
+    /**
+     * 状态描述
+     */
+    private String statusDescription;
+
+    /**
+     * 候补位次（仅候补中有值，从1开始）
+     */
+    private Long position;
+
+    /**
+     * 递补失败原因
+     */
+    private String failReason;
+
+    /**
+     * 加入候补时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 处理时间
+     */
+    private LocalDateTime processedAt;
+}
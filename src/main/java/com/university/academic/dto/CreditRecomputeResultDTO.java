@@ -0,0 +1,52 @@
+package com.university.academic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 学分汇总批量重算结果/进度DTO
+ *
+ * @author Academic System Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "学分汇总批量重算结果")
+public class CreditRecomputeResultDTO {
+
+    @Schema(description = "是否正在执行", example = "false")
+    private Boolean running;
+
+    @Schema(description = "学生总数", example = "5000")
+    private Integer totalStudents;
+
+    @Schema(description = "已处理学生数", example = "5000")
+    private Integer processedStudents;
+
+    @Schema(description = "更新成功学生数", example = "4998")
+    private Integer updatedStudents;
+
+    @Schema(description = "失败学生数", example = "2")
+    private Integer failedStudents;
+
+    @Schema(description = "分批总数", example = "10")
+    private Integer totalChunks;
+
+    @Schema(description = "已完成批数", example = "10")
+    private Integer completedChunks;
+
+    @Schema(description = "开始时间")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "结束时间")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "耗时（毫秒）", example = "3200")
+    private Long elapsedMillis;
+}
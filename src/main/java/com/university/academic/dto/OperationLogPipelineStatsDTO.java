@@ -0,0 +1,47 @@
+package com.university.academic.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 操作日志写入管道运行指标DTO
+ *
+ * @author Academic System Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "操作日志写入管道运行指标")
+public class OperationLogPipelineStatsDTO {
+
+    @Schema(description = "队列容量", example = "10000")
+    private Integer capacity;
+
+    @Schema(description = "当前队列深度", example = "12")
+    private Integer queueDepth;
+
+    @Schema(description = "队列满时的处理策略", example = "CALLER_RUNS")
+    private String overflowPolicy;
+
+    @Schema(description = "已入队日志数", example = "52031")
+    private Long enqueued;
+
+    @Schema(description = "已写入日志数", example = "52019")
+    private Long written;
+
+    @Schema(description = "队列满时由调用线程直接写入的日志数", example = "0")
+    private Long callerRuns;
+
+    @Schema(description = "队列满时丢弃的日志数", example = "0")
+    private Long dropped;
+
+    @Schema(description = "写入失败的日志数", example = "0")
+    private Long failed;
+
+    @Schema(description = "已执行的批量写入次数", example = "830")
+    private Long batches;
+}
@@ -0,0 +1,70 @@
+package com.university.academic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 选课排队凭证数据传输对象
+ *
+ * @author Academic System Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SelectionTicketDTO {
+
+    /**
+     * 排队凭证ID
+     */
+    private String ticketId;
+
+    /**
+     * 开课计划ID
+     */
+    private Long offeringId;
+
+    /**
+     * 状态 (QUEUED/PROCESSING/SUCCEEDED/FAILED)
+     */
+    private String status;
+
+    /**
+     * 状态描述
+     */
+    private String statusDescription;
+
+    /**
+     * 当前排队位置（仅排队中有效，从1开始）
+     */
+    private Long position;
+
+    /**
+     * 选课成功后的选课记录ID
+     */
+    private Long selectionId;
+
+    /**
+     * 失败时的错误码
+     */
+    private Integer errorCode;
+
+    /**
+     * 失败时的错误信息
+     */
+    private String errorMessage;
+
+    /**
+     * 提交时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 完成时间
+     */
+    private LocalDateTime finishedAt;
+}
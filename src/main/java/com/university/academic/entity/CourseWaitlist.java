@@ -0,0 +1,64 @@
+package com.university.academic.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 选课候补实体类
+ * 课程已满时学生进入候补队列，按加入先后（ID顺序）依次递补
+ *
+ * @author Academic System Team
+ */
+@Entity
+@Table(name = "course_waitlist", indexes = {
+    @Index(name = "idx_waitlist_offering_status", columnList = "course_offering_id, status"),
+    @Index(name = "idx_waitlist_student_status", columnList = "student_id, status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseWaitlist extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private Student student;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_offering_id", nullable = false)
+    private CourseOffering offering;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    @Column(name = "fail_reason", length = 255)
+    private String failReason;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    /**
+     * 候补状态枚举
+     */
+    public enum WaitlistStatus {
+        WAITING("候补中"),
+        PROMOTED("已递补"),
+        SKIPPED("递补失败"),
+        CANCELLED("已取消");
+
+        private final String description;
+
+        WaitlistStatus(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+}
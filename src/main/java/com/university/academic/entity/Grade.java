@@ -81,6 +81,23 @@ public class Grade extends BaseEntity {
      * 获取绩点（4分制）
      */
     public BigDecimal getGradePoint() {
+        return gradePointOf(totalScore);
+    }
+
+    /**
+     * 是否及格
+     */
+    public boolean isPassed() {
+        return isPassingScore(totalScore);
+    }
+
+    /**
+     * 总评成绩对应的绩点（4分制）
+     *
+     * @param totalScore 总评成绩
+     * @return 绩点，成绩为空时为0
+     */
+    public static BigDecimal gradePointOf(BigDecimal totalScore) {
         if (totalScore == null) {
             return BigDecimal.ZERO;
         }
@@ -109,10 +126,12 @@ public class Grade extends BaseEntity {
     }
 
     /**
-     * 是否及格
+     * 总评成绩是否及格
+     *
+     * @param totalScore 总评成绩
+     * @return 是否及格
      */
-    public boolean isPassed() {
+    public static boolean isPassingScore(BigDecimal totalScore) {
         return totalScore != null && totalScore.compareTo(new BigDecimal("60")) >= 0;
     }
 }
-
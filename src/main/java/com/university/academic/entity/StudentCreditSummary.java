@@ -42,11 +42,44 @@ public class StudentCreditSummary extends BaseEntity {
     @Builder.Default
     private Double practicalCredits = 0.0;
 
+    /**
+     * 加权绩点和（Σ学分×绩点），为空表示账本尚未初始化，需要先全量计算
+     */
+    @Column(name = "grade_points")
+    private Double gradePoints;
+
     @Column(name = "gpa", nullable = false)
     @Builder.Default
     private Double gpa = 0.0;
 
     @Column(name = "last_updated", nullable = false)
     private LocalDateTime lastUpdated;
+
+    /**
+     * 账本是否已初始化（可以增量更新）
+     */
+    public boolean isLedgerInitialized() {
+        return gradePoints != null;
+    }
+
+    /**
+     * 增量计入一门课程的学分和绩点，并重新计算GPA
+     *
+     * @param credits          总学分增量
+     * @param required         必修学分增量
+     * @param elective         选修学分增量
+     * @param practical        实践学分增量
+     * @param weightedPoints   加权绩点增量（学分×绩点）
+     */
+    public void addCredits(double credits, double required, double elective, double practical,
+                           double weightedPoints) {
+        totalCredits += credits;
+        requiredCredits += required;
+        electiveCredits += elective;
+        practicalCredits += practical;
+        gradePoints = (gradePoints != null ? gradePoints : 0.0) + weightedPoints;
+        gpa = totalCredits > 0 ? Math.round(gradePoints / totalCredits * 100.0) / 100.0 : 0.0;
+        lastUpdated = LocalDateTime.now();
+    }
 }
 
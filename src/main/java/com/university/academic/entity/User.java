@@ -35,6 +35,13 @@ public class User extends BaseEntity {
     @Column(name = "first_login", nullable = false)
     private Boolean firstLogin = true;
 
+    /**
+     * 令牌版本，签发时写入令牌，版本小于该值的令牌已撤销
+     */
+    @Builder.Default
+    @Column(name = "token_version", nullable = false)
+    private Long tokenVersion = 0L;
+
     /**
      * 用户角色枚举
      */
@@ -0,0 +1,35 @@
+package com.university.academic.event;
+
+import com.university.academic.service.ConfigSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 运行时配置快照变更事件
+ * 新快照替换完成后发布，依赖配置或活动学期的组件据此重建自身状态
+ *
+ * @author Academic System Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigSnapshotChangedEvent {
+
+    /**
+     * 变更前的快照（首次加载时为null）
+     */
+    private ConfigSnapshot previous;
+
+    /**
+     * 变更后的快照
+     */
+    private ConfigSnapshot current;
+
+    /**
+     * 活动学期是否发生变化（切换学期或学期信息被修改）
+     */
+    public boolean isActiveSemesterChanged() {
+        return previous == null || !previous.hasSameActiveSemester(current);
+    }
+}
@@ -34,6 +34,16 @@ public class GradePublishEvent {
      */
     private Long courseOfferingId;
 
+    /**
+     * 开课学期ID
+     */
+    private Long semesterId;
+
+    /**
+     * 课程ID
+     */
+    private Long courseId;
+
     /**
      * 成绩分数
      */
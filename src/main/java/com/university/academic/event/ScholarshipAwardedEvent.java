@@ -0,0 +1,22 @@
+package com.university.academic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 奖学金获奖名单公示事件
+ * 获奖记录批量创建时发布，用于刷新奖学金统计
+ *
+ * @author Academic System Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScholarshipAwardedEvent {
+
+    /**
+     * 学年
+     */
+    private String academicYear;
+}
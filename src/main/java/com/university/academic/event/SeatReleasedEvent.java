@@ -0,0 +1,22 @@
+package com.university.academic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 选课名额释放事件
+ * 退课或扩容事务提交、内存名额已归还后发布，用于触发候补递补
+ *
+ * @author Academic System Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatReleasedEvent {
+
+    /**
+     * 开课计划ID
+     */
+    private Long offeringId;
+}
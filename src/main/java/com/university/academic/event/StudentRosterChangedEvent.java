@@ -0,0 +1,22 @@
+package com.university.academic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 学生名册变更事件
+ * 学生新增、修改专业或删除时发布，用于刷新学生分布统计
+ *
+ * @author Academic System Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentRosterChangedEvent {
+
+    /**
+     * 学生ID（批量变更时为null）
+     */
+    private Long studentId;
+}
@@ -0,0 +1,22 @@
+package com.university.academic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 学籍异动申请变更事件
+ * 异动申请提交、撤销、审批或超时标记时发布，用于刷新学籍异动统计
+ *
+ * @author Academic System Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentStatusChangeUpdatedEvent {
+
+    /**
+     * 异动申请ID
+     */
+    private Long statusChangeId;
+}
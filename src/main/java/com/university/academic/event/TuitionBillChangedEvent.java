@@ -0,0 +1,22 @@
+package com.university.academic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 学费账单变更事件
+ * 账单生成或缴费入账时发布，用于刷新学费统计
+ *
+ * @author Academic System Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TuitionBillChangedEvent {
+
+    /**
+     * 学年
+     */
+    private String academicYear;
+}
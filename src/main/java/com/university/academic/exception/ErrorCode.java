@@ -60,6 +60,7 @@ public enum ErrorCode {
     INVALID_CREDIT_REQUIREMENTS(3153, "学分要求不合理"),
     GRADUATION_AUDIT_NOT_FOUND(3154, "毕业审核记录不存在"),
     STUDENT_CREDIT_SUMMARY_NOT_FOUND(3155, "学生学分汇总不存在"),
+    GRADUATION_AUDIT_JOB_NOT_FOUND(3156, "批量审核任务不存在或已过期"),
 
     // ========== 课程管理错误码 3200-3299 ==========
     COURSE_NOT_FOUND(3201, "课程不存在"),
@@ -110,6 +111,12 @@ public enum ErrorCode {
     SELECTION_ALREADY_DROPPED(3611, "已退选该课程"),
     SELECTION_DROP_DEADLINE_PASSED(3612, "已超过退课截止日期"),
     SELECTION_CANNOT_DROP(3613, "无法退选该课程"),
+    SELECTION_QUEUE_FULL(3614, "选课排队人数已满，请稍后再试"),
+    SELECTION_TICKET_NOT_FOUND(3615, "选课排队凭证不存在或已过期"),
+    SELECTION_WAITLIST_ALREADY_JOINED(3616, "已在该课程的候补队列中"),
+    SELECTION_WAITLIST_NOT_FOUND(3617, "候补记录不存在"),
+    SELECTION_WAITLIST_LIMIT_EXCEEDED(3618, "超过候补课程数量上限"),
+    SELECTION_COURSE_NOT_FULL(3619, "课程尚有名额，请直接选课"),
 
     // ========== 成绩管理错误码 3700-3799 ==========
     GRADE_NOT_FOUND(3701, "成绩记录不存在"),
@@ -272,6 +279,9 @@ public enum ErrorCode {
     
     SCHEDULING_CONFLICT(5231, "排课冲突"),
     SCHEDULING_FAILED(5232, "排课失败"),
+    SCHEDULING_JOB_NOT_FOUND(5233, "排课任务不存在"),
+    SCHEDULING_JOB_QUEUE_FULL(5234, "排课任务队列已满，请稍后再试"),
+    SCHEDULING_JOB_RUNNING(5235, "该方案已有正在执行的排课任务"),
     
     // ========== 学生处分管理模块错误码 5300-5399 ==========
     DISCIPLINE_NOT_FOUND(5301, "处分记录不存在"),
@@ -14,7 +14,7 @@ import java.util.List;
 
 /**
  * 成绩公布事件监听器
- * 用于在成绩公布后自动更新学生学分汇总
+ * 用于在成绩公布后刷新学生学分汇总缓存，以及批量重算学分汇总
  *
  * @author Academic System Team
  */
@@ -27,28 +27,17 @@ public class GradePublishListener {
 
     /**
      * 监听成绩公布事件（单个学生）
-     * 在事务提交后异步执行学分更新
+     * 学分账本已在成绩公布事务中增量更新，事务提交后只需清除学分汇总缓存
      *
      * @param event 成绩公布事件
      */
     @Async
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void handleGradePublish(GradePublishEvent event) {
-        log.info("监听到成绩公布事件: studentId={}, gradeId={}", 
+        log.debug("监听到成绩公布事件: studentId={}, gradeId={}",
                 event.getStudentId(), event.getGradeId());
 
-        try {
-            // 清除缓存
-            creditCalculationService.evictStudentCreditCache(event.getStudentId());
-            
-            // 重新计算并更新学分
-            creditCalculationService.updateStudentCreditSummary(event.getStudentId());
-            
-            log.info("学分更新完成: studentId={}", event.getStudentId());
-        } catch (Exception e) {
-            log.error("学分更新失败: studentId={}, error={}", 
-                    event.getStudentId(), e.getMessage(), e);
-        }
+        creditCalculationService.evictStudentCreditCache(event.getStudentId());
     }
 
     /**
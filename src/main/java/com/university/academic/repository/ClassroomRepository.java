@@ -61,6 +61,13 @@ public interface ClassroomRepository extends JpaRepository<Classroom, Long> {
      * @return 教室列表
      */
     Page<Classroom> findByDeletedFalse(Pageable pageable);
+
+    /**
+     * 查询所有未删除的教室
+     *
+     * @return 教室列表
+     */
+    List<Classroom> findByDeletedFalse();
     
     /**
      * 根据容量范围查询教室
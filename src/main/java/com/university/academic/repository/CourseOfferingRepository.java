@@ -4,11 +4,14 @@ import com.university.academic.entity.CourseOffering;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -51,6 +54,34 @@ public interface CourseOfferingRepository extends JpaRepository<CourseOffering,
            "WHERE co.semester.id = :semesterId")
     List<CourseOffering> findBySemesterId(@Param("semesterId") Long semesterId);
 
+    /**
+     * 查询学期内已发布的开课计划（带关联实体，按课程编号排序，构建可选课程目录使用）
+     *
+     * @param semesterId 学期ID
+     * @return 开课计划列表
+     */
+    @Query("SELECT DISTINCT co FROM CourseOffering co " +
+           "LEFT JOIN FETCH co.semester " +
+           "LEFT JOIN FETCH co.course c " +
+           "LEFT JOIN FETCH c.department " +
+           "LEFT JOIN FETCH co.teacher t " +
+           "LEFT JOIN FETCH t.department " +
+           "WHERE co.semester.id = :semesterId AND co.status = 'PUBLISHED' " +
+           "ORDER BY c.courseNo, co.id")
+    List<CourseOffering> findPublishedBySemesterId(@Param("semesterId") Long semesterId);
+
+    /**
+     * 根据ID批量查询开课计划（带课程和教师）
+     *
+     * @param ids 开课计划ID集合
+     * @return 开课计划列表
+     */
+    @Query("SELECT DISTINCT co FROM CourseOffering co " +
+           "LEFT JOIN FETCH co.course " +
+           "LEFT JOIN FETCH co.teacher " +
+           "WHERE co.id IN :ids")
+    List<CourseOffering> findAllWithCourseAndTeacherByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
      * 根据学期ID分页查询开课计划
      *
@@ -201,5 +232,70 @@ public interface CourseOfferingRepository extends JpaRepository<CourseOffering,
             "co.semester.id = :semesterId AND " +
             "co.status = 'PUBLISHED'")
     Page<CourseOffering> findPublishedBySemester(@Param("semesterId") Long semesterId, Pageable pageable);
-}
 
+    /**
+     * 查询数据库中已提交的已选人数（选课名额账本初始化计数器使用，不经过持久化上下文）
+     *
+     * @param offeringId 开课计划ID
+     * @return 已选人数，开课计划不存在时为null
+     */
+    @Query("SELECT co.enrolled FROM CourseOffering co WHERE co.id = :offeringId")
+    Integer findEnrolledById(@Param("offeringId") Long offeringId);
+
+    /**
+     * 按增量更新已选人数（选课名额账本批量回写使用）
+     * 同时递增版本号，使并发的整行保存走乐观锁冲突而不是覆盖已选人数
+     *
+     * @param offeringId 开课计划ID
+     * @param delta      已选人数增量（可为负数）
+     * @return 更新的行数
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CourseOffering co " +
+            "SET co.enrolled = co.enrolled + :delta, co.version = co.version + 1 " +
+            "WHERE co.id = :offeringId")
+    int incrementEnrolled(@Param("offeringId") Long offeringId, @Param("delta") int delta);
+
+    /**
+     * 清空学期内所有开课计划的排课信息（应用排课方案覆盖旧方案时使用）
+     * 同时递增版本号，避免并发的整行保存覆盖清空结果
+     *
+     * @param semesterId 学期ID
+     * @return 更新的行数
+     */
+    @Modifying
+    @Query("UPDATE CourseOffering co " +
+            "SET co.schedule = NULL, co.location = NULL, co.version = co.version + 1 " +
+            "WHERE co.semester.id = :semesterId " +
+            "AND (co.schedule IS NOT NULL OR co.location IS NOT NULL)")
+    int clearScheduleBySemesterId(@Param("semesterId") Long semesterId);
+
+    /**
+     * 根据ID列表批量查询开课计划（带关联实体）
+     *
+     * @param ids 开课计划ID列表
+     * @return 开课计划列表
+     */
+    @Query("SELECT DISTINCT co FROM CourseOffering co " +
+           "LEFT JOIN FETCH co.semester " +
+           "LEFT JOIN FETCH co.course c " +
+           "LEFT JOIN FETCH c.department " +
+           "LEFT JOIN FETCH co.teacher t " +
+           "LEFT JOIN FETCH t.department " +
+           "WHERE co.id IN :ids")
+    List<CourseOffering> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按教师汇总授课工作量（统计报表使用）
+     *
+     * @param semesterId 学期ID（为空时统计全部学期）
+     * @return [教师ID, 开课数, 课程数, 授课学生总人数, 总学时]
+     */
+    @Query("SELECT o.teacher.id, COUNT(o), COUNT(DISTINCT c.id), " +
+            "COALESCE(SUM(o.enrolled), 0), COALESCE(SUM(c.hours), 0) " +
+            "FROM CourseOffering o JOIN o.course c " +
+            "WHERE (:semesterId IS NULL OR o.semester.id = :semesterId) " +
+            "GROUP BY o.teacher.id")
+    List<Object[]> aggregateWorkloadGroupByTeacher(@Param("semesterId") Long semesterId);
+}
@@ -81,5 +81,12 @@ public interface CoursePrerequisiteRepository extends JpaRepository<CoursePrereq
     boolean hasCircularDependency(
             @Param("courseId") Long courseId,
             @Param("prerequisiteCourseId") Long prerequisiteCourseId);
-}
 
+    /**
+     * 查询所有先修课程关系（课程ID, 先修课程ID），用于构建先修课程图
+     *
+     * @return [courseId, prerequisiteCourseId] 列表
+     */
+    @Query("SELECT cp.course.id, cp.prerequisiteCourse.id FROM CoursePrerequisite cp")
+    List<Object[]> findAllEdges();
+}
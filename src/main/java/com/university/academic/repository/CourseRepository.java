@@ -131,5 +131,13 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
             "FROM CourseSelection cs " +
             "WHERE cs.offering.course.id = :courseId")
     boolean hasStudentSelections(@Param("courseId") Long courseId);
-}
 
+    /**
+     * 查询指定类型的所有课程ID
+     *
+     * @param type 课程类型
+     * @return 课程ID列表
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.type = :type")
+    List<Long> findIdsByType(@Param("type") Course.CourseType type);
+}
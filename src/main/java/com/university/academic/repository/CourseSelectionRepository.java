@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -242,5 +243,61 @@ public interface CourseSelectionRepository extends JpaRepository<CourseSelection
             "WHERE cs.offering.id = :offeringId " +
             "AND cs.status = 'SELECTED'")
     long countActiveByOfferingId(@Param("offeringId") Long offeringId);
-}
 
+    /**
+     * 按开课计划批量统计选课人数（已选课程）
+     *
+     * @param offeringIds 开课计划ID集合
+     * @return [offeringId, count] 列表，没有选课记录的开课计划不出现在结果中
+     */
+    @Query("SELECT cs.offering.id, COUNT(cs) " +
+            "FROM CourseSelection cs " +
+            "WHERE cs.offering.id IN :offeringIds " +
+            "AND cs.status = 'SELECTED' " +
+            "GROUP BY cs.offering.id")
+    List<Object[]> countActiveGroupByOfferingIds(@Param("offeringIds") Collection<Long> offeringIds);
+
+    /**
+     * 查询学生的所有选课记录（预加载开课计划、课程和学期，用于批量选课校验）
+     *
+     * @param studentId 学生ID
+     * @return 选课记录列表
+     */
+    @Query("SELECT cs FROM CourseSelection cs " +
+            "JOIN FETCH cs.offering co " +
+            "JOIN FETCH co.course " +
+            "JOIN FETCH co.semester " +
+            "WHERE cs.student.id = :studentId")
+    List<CourseSelection> findByStudentIdWithOffering(@Param("studentId") Long studentId);
+
+    /**
+     * 查询学生已完成课程的修读结果（课程ID, 成绩状态, 总评成绩）
+     *
+     * @param studentId 学生ID
+     * @return [courseId, gradeStatus, totalScore] 列表
+     */
+    @Query("SELECT co.course.id, g.status, g.totalScore " +
+            "FROM CourseSelection cs " +
+            "JOIN cs.offering co " +
+            "LEFT JOIN cs.grade g " +
+            "WHERE cs.student.id = :studentId " +
+            "AND cs.status = 'COMPLETED'")
+    List<Object[]> findCompletedCourseOutcomes(@Param("studentId") Long studentId);
+
+    /**
+     * 批量查询学生已完成且成绩已公布的课程学分明细（学分汇总批量重算使用）
+     * 返回：学生ID、课程ID、学分、课程类型、课程名称、总评成绩
+     *
+     * @param studentIds 学生ID集合
+     * @return 学分明细行
+     */
+    @Query("SELECT cs.student.id, c.id, c.credits, c.type, c.name, g.totalScore " +
+            "FROM CourseSelection cs " +
+            "JOIN cs.grade g " +
+            "JOIN cs.offering co " +
+            "JOIN co.course c " +
+            "WHERE cs.student.id IN :studentIds " +
+            "AND cs.status = com.university.academic.entity.CourseSelection.SelectionStatus.COMPLETED " +
+            "AND g.status = com.university.academic.entity.Grade.GradeStatus.PUBLISHED")
+    List<Object[]> findPublishedCreditRowsByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+}
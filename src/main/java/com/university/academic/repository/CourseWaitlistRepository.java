@@ -0,0 +1,90 @@
+package com.university.academic.repository;
+
+import com.university.academic.entity.CourseWaitlist;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 选课候补数据访问接口
+ *
+ * @author Academic System Team
+ */
+@Repository
+public interface CourseWaitlistRepository extends JpaRepository<CourseWaitlist, Long> {
+
+    /**
+     * 查询开课计划候补队列头部的记录（带学生及用户信息）
+     *
+     * @param offeringId 开课计划ID
+     * @param pageable   分页参数（取第一条）
+     * @return 候补记录列表
+     */
+    @Query("SELECT w FROM CourseWaitlist w " +
+            "JOIN FETCH w.student s " +
+            "JOIN FETCH s.user " +
+            "WHERE w.offering.id = :offeringId AND w.status = 'WAITING' " +
+            "ORDER BY w.id ASC")
+    List<CourseWaitlist> findWaitingHead(@Param("offeringId") Long offeringId, Pageable pageable);
+
+    /**
+     * 查询学生的候补记录（带开课计划信息）
+     *
+     * @param studentId 学生ID
+     * @return 候补记录列表
+     */
+    @Query("SELECT w FROM CourseWaitlist w " +
+            "JOIN FETCH w.offering co " +
+            "JOIN FETCH co.course " +
+            "JOIN FETCH co.teacher " +
+            "WHERE w.student.id = :studentId " +
+            "ORDER BY w.id DESC")
+    List<CourseWaitlist> findByStudentIdWithOffering(@Param("studentId") Long studentId);
+
+    /**
+     * 检查学生是否已在开课计划的候补队列中
+     */
+    boolean existsByStudentIdAndOfferingIdAndStatus(Long studentId, Long offeringId,
+                                                   CourseWaitlist.WaitlistStatus status);
+
+    /**
+     * 统计学生指定状态的候补数量
+     */
+    long countByStudentIdAndStatus(Long studentId, CourseWaitlist.WaitlistStatus status);
+
+    /**
+     * 统计排在指定候补记录之前的候补人数
+     *
+     * @param offeringId 开课计划ID
+     * @param waitlistId 候补记录ID
+     * @return 前面的候补人数
+     */
+    @Query("SELECT COUNT(w) FROM CourseWaitlist w " +
+            "WHERE w.offering.id = :offeringId AND w.status = 'WAITING' AND w.id < :waitlistId")
+    long countWaitingAhead(@Param("offeringId") Long offeringId, @Param("waitlistId") Long waitlistId);
+
+    /**
+     * 按开课计划统计候补人数
+     *
+     * @return [offeringId, count] 列表
+     */
+    @Query("SELECT w.offering.id, COUNT(w) FROM CourseWaitlist w " +
+            "WHERE w.status = 'WAITING' GROUP BY w.offering.id")
+    List<Object[]> countWaitingGroupByOffering();
+
+    /**
+     * 取消开课计划的全部候补
+     *
+     * @param offeringId 开课计划ID
+     * @return 更新的记录数
+     */
+    @Modifying
+    @Query("UPDATE CourseWaitlist w SET w.status = 'CANCELLED', w.failReason = '开课计划已取消', " +
+            "w.processedAt = CURRENT_TIMESTAMP WHERE w.offering.id = :offeringId AND w.status = 'WAITING'")
+    int cancelWaitingByOffering(@Param("offeringId") Long offeringId);
+}
@@ -130,5 +130,35 @@ public interface GradeRepository extends JpaRepository<Grade, Long> {
             "WHERE g.courseSelection.offering.teacher.id = :teacherId " +
             "AND g.status = 'DRAFT'")
     long countPendingByTeacherId(@Param("teacherId") Long teacherId);
-}
 
+    /**
+     * 统计成绩总数和已发布成绩数（统计报表使用）
+     *
+     * @param semesterId 学期ID（为空时统计全部学期）
+     * @return 单行 [成绩总数, 已发布成绩数]
+     */
+    @Query("SELECT COUNT(g), " +
+            "COALESCE(SUM(CASE WHEN g.status = com.university.academic.entity.Grade.GradeStatus.PUBLISHED " +
+            "THEN 1 ELSE 0 END), 0) " +
+            "FROM Grade g JOIN g.courseSelection cs JOIN cs.offering o " +
+            "WHERE (:semesterId IS NULL OR o.semester.id = :semesterId)")
+    List<Object[]> countTotalAndPublished(@Param("semesterId") Long semesterId);
+
+    /**
+     * 按开课计划汇总已发布成绩（统计报表使用）
+     *
+     * @param semesterId 学期ID（为空时统计全部学期）
+     * @return [开课计划ID, 课程名称, 教师姓名, 成绩数, 平均分, 及格数, 良好及以上数, 优秀数, 最高分, 最低分]
+     */
+    @Query("SELECT o.id, c.name, t.name, COUNT(g), AVG(g.totalScore), " +
+            "SUM(CASE WHEN g.totalScore >= 60 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN g.totalScore >= 80 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN g.totalScore >= 90 THEN 1 ELSE 0 END), " +
+            "MAX(g.totalScore), MIN(g.totalScore) " +
+            "FROM Grade g JOIN g.courseSelection cs JOIN cs.offering o JOIN o.course c JOIN o.teacher t " +
+            "WHERE g.status = com.university.academic.entity.Grade.GradeStatus.PUBLISHED " +
+            "AND g.totalScore IS NOT NULL " +
+            "AND (:semesterId IS NULL OR o.semester.id = :semesterId) " +
+            "GROUP BY o.id, c.name, t.name")
+    List<Object[]> aggregatePublishedScoresGroupByOffering(@Param("semesterId") Long semesterId);
+}
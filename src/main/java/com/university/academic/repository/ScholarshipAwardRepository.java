@@ -115,4 +115,20 @@ public interface ScholarshipAwardRepository extends JpaRepository<ScholarshipAwa
            "JOIN FETCH sa.scholarship " +
            "ORDER BY sa.awardedAt DESC")
     Page<ScholarshipAward> findAllWithDetails(Pageable pageable);
+
+    /**
+     * 按院系、专业、入学年份、奖学金汇总指定学年的获奖记录（统计汇总使用）
+     *
+     * @param academicYear 学年
+     * @return [院系ID, 院系名称, 专业名称, 入学年份, 奖学金等级, 奖学金名称, 获奖人数, 获奖总金额]
+     */
+    @Query("SELECT d.id, d.name, m.name, s.enrollmentYear, sch.level, sch.name, COUNT(sa), SUM(sa.amount) " +
+           "FROM ScholarshipAward sa " +
+           "JOIN sa.student s " +
+           "JOIN s.major m " +
+           "JOIN m.department d " +
+           "JOIN sa.scholarship sch " +
+           "WHERE sa.academicYear = :academicYear " +
+           "GROUP BY d.id, d.name, m.id, m.name, s.enrollmentYear, sch.id, sch.level, sch.name")
+    List<Object[]> aggregateByAcademicYear(@Param("academicYear") String academicYear);
 }
@@ -1,12 +1,17 @@
 package com.university.academic.repository;
 
+import com.university.academic.entity.CourseSelection;
 import com.university.academic.entity.StudentCreditSummary;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -95,5 +100,30 @@ public interface StudentCreditSummaryRepository extends JpaRepository<StudentCre
     @Query("SELECT scs FROM StudentCreditSummary scs " +
            "WHERE scs.student.enrollmentYear = :enrollmentYear")
     List<StudentCreditSummary> findByEnrollmentYear(@Param("enrollmentYear") Integer enrollmentYear);
-}
 
+    /**
+     * 按学生ID批量查询学分汇总并加行锁（按学生ID排序加锁，避免并发公布成绩时死锁）
+     *
+     * @param studentIds 学生ID集合
+     * @return 学分汇总列表
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT scs FROM StudentCreditSummary scs WHERE scs.student.id IN :studentIds ORDER BY scs.student.id")
+    List<StudentCreditSummary> findByStudentIdInForUpdate(@Param("studentIds") Collection<Long> studentIds);
+
+    /**
+     * 将修读过指定课程的学生的学分账本标记为未初始化（课程学分、类型、名称变更后调用）
+     * 标记后查询时实时计算，下次成绩公布时全量重建
+     *
+     * @param courseId 课程ID
+     * @param status   选课状态（已完成）
+     * @return 更新行数
+     */
+    @Modifying
+    @Query("UPDATE StudentCreditSummary scs SET scs.gradePoints = NULL " +
+           "WHERE scs.gradePoints IS NOT NULL AND scs.student.id IN (" +
+           "SELECT cs.student.id FROM CourseSelection cs " +
+           "WHERE cs.offering.course.id = :courseId AND cs.status = :status)")
+    int invalidateLedgersByCourse(@Param("courseId") Long courseId,
+                                  @Param("status") CourseSelection.SelectionStatus status);
+}
@@ -14,6 +14,7 @@ import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -91,5 +92,14 @@ public interface StudentDisciplineRepository extends JpaRepository<StudentDiscip
            "AND d.status = 'ACTIVE' " +
            "AND d.deleted = false")
     boolean hasActiveDiscipline(@Param("studentId") Long studentId);
-}
 
+    /**
+     * 批量查询学生未解除的处分记录（整届毕业审核使用）
+     */
+    @Query("SELECT d FROM StudentDiscipline d " +
+           "WHERE d.student.id IN :studentIds " +
+           "AND d.status = 'ACTIVE' " +
+           "AND d.deleted = false " +
+           "ORDER BY d.student.id, d.id")
+    List<StudentDiscipline> findActiveByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+}
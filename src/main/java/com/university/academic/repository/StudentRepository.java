@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -138,6 +139,15 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     @Query("SELECT s FROM Student s WHERE s.user.id = :userId AND s.deleted = false")
     Optional<Student> findByUserIdWithDetails(@Param("userId") Long userId);
 
+    /**
+     * 根据用户ID查询学生ID和所属院系ID（认证主体使用，只查询ID列）
+     *
+     * @param userId 用户ID
+     * @return [学生ID, 院系ID]
+     */
+    @Query("SELECT s.id, m.department.id FROM Student s LEFT JOIN s.major m WHERE s.user.id = :userId")
+    List<Object[]> findIdentityByUserId(@Param("userId") Long userId);
+
     /**
      * 根据ID查询学生详情 - 预加载所有关联
      *
@@ -155,5 +165,55 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
      */
     @Query("SELECT s FROM Student s WHERE s.deleted = false AND s.status = 'ACTIVE'")
     List<Student> findAllActive();
-}
 
+    /**
+     * 查询存在且未删除的学生ID
+     *
+     * @param ids 学生ID集合
+     * @return 存在的学生ID列表
+     */
+    @Query("SELECT s.id FROM Student s WHERE s.id IN :ids AND s.deleted = false")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 查询所有未删除学生的ID
+     *
+     * @return 学生ID列表
+     */
+    @Query("SELECT s.id FROM Student s WHERE s.deleted = false ORDER BY s.id")
+    List<Long> findAllNonDeletedIds();
+
+    /**
+     * 批量查询学生（预加载专业信息）
+     *
+     * @param ids 学生ID集合
+     * @return 学生列表
+     */
+    @EntityGraph(attributePaths = {"major"})
+    @Query("SELECT s FROM Student s WHERE s.id IN :ids AND s.deleted = false")
+    List<Student> findByIdInWithMajor(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 查询某一届在读学生的ID（可按专业过滤）
+     *
+     * @param enrollmentYear 入学年份
+     * @param majorId        专业ID（为空时不过滤）
+     * @return 学生ID列表
+     */
+    @Query("SELECT s.id FROM Student s WHERE s.deleted = false AND s.status = 'ACTIVE' " +
+           "AND s.enrollmentYear = :enrollmentYear " +
+           "AND (:majorId IS NULL OR s.major.id = :majorId) " +
+           "ORDER BY s.id")
+    List<Long> findCohortIds(@Param("enrollmentYear") Integer enrollmentYear, @Param("majorId") Long majorId);
+
+    /**
+     * 按院系、专业、入学年份、性别统计在籍学生数（统计汇总使用）
+     *
+     * @return [院系名称, 专业名称, 入学年份, 性别, 学生数]
+     */
+    @Query("SELECT d.name, m.name, s.enrollmentYear, s.gender, COUNT(s) " +
+            "FROM Student s LEFT JOIN s.major m LEFT JOIN m.department d " +
+            "WHERE s.deleted = false " +
+            "GROUP BY d.id, d.name, m.id, m.name, s.enrollmentYear, s.gender")
+    List<Object[]> countActiveGroupByRoster();
+}
@@ -330,5 +330,17 @@ public interface StudentStatusChangeRepository extends JpaRepository<StudentStat
             @Param("targetMajorId") Long targetMajorId,
             @Param("year") int year
     );
-}
 
+    /**
+     * 按申请日期、类型、状态、是否超时、目标专业汇总异动申请（统计汇总使用）
+     *
+     * @return [申请日期, 类型, 状态, 是否超时, 目标专业名称, 申请数, 审批天数合计]
+     */
+    @Query(value = "SELECT DATE(sc.created_at), sc.type, sc.status, sc.is_overdue, m.name, COUNT(*), " +
+                   "COALESCE(SUM(DATEDIFF(sc.updated_at, sc.created_at)), 0) " +
+                   "FROM student_status_change sc " +
+                   "LEFT JOIN major m ON sc.target_major_id = m.id " +
+                   "WHERE sc.deleted = 0 " +
+                   "GROUP BY DATE(sc.created_at), sc.type, sc.status, sc.is_overdue, m.name", nativeQuery = true)
+    List<Object[]> aggregateByDay();
+}
@@ -126,5 +126,21 @@ public interface TeacherRepository extends JpaRepository<Teacher, Long> {
      */
     @Query("SELECT t FROM Teacher t LEFT JOIN FETCH t.department LEFT JOIN FETCH t.user WHERE t.user.id = :userId")
     Optional<Teacher> findByUserId(@Param("userId") Long userId);
-}
 
+    /**
+     * 根据用户ID查询教师ID和所属院系ID（认证主体使用，只查询ID列）
+     *
+     * @param userId 用户ID
+     * @return [教师ID, 院系ID]
+     */
+    @Query("SELECT t.id, t.department.id FROM Teacher t WHERE t.user.id = :userId")
+    List<Object[]> findIdentityByUserId(@Param("userId") Long userId);
+
+    /**
+     * 查询全部教师的基本信息（统计报表使用，只查询所需列）
+     *
+     * @return [教师ID, 工号, 姓名, 院系名称, 职称]
+     */
+    @Query("SELECT t.id, t.teacherNo, t.name, d.name, t.title FROM Teacher t LEFT JOIN t.department d")
+    List<Object[]> findWorkloadProfiles();
+}
@@ -178,5 +178,20 @@ public interface TuitionBillRepository extends JpaRepository<TuitionBill, Long>
         @Param("studentName") String studentName,
         Pageable pageable
     );
-}
 
+    /**
+     * 按院系、专业、账单状态汇总指定学年的账单（统计汇总使用）
+     *
+     * @param academicYear 学年
+     * @return [院系ID, 院系名称, 专业ID, 专业名称, 账单状态, 账单数, 学生数, 应缴总额, 已缴总额]
+     */
+    @Query("SELECT d.id, d.name, m.id, m.name, tb.status, COUNT(tb), COUNT(DISTINCT s.id), " +
+           "SUM(tb.totalAmount), SUM(tb.paidAmount) " +
+           "FROM TuitionBill tb " +
+           "JOIN tb.student s " +
+           "JOIN s.major m " +
+           "JOIN m.department d " +
+           "WHERE tb.academicYear = :academicYear " +
+           "GROUP BY d.id, d.name, m.id, m.name, tb.status")
+    List<Object[]> aggregateByAcademicYear(@Param("academicYear") String academicYear);
+}
@@ -33,6 +33,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByUsername(String username);
 
+    /**
+     * 查询所有用户的令牌状态
+     *
+     * @return [用户ID, 令牌版本, 启用状态]
+     */
+    @Query("SELECT u.id, u.tokenVersion, u.enabled FROM User u")
+    List<Object[]> findTokenStates();
+
+    /**
+     * 查询用户的令牌版本
+     *
+     * @param id 用户ID
+     * @return 令牌版本，用户不存在时为空
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+
     /**
      * 根据角色查询用户列表
      *
@@ -58,4 +75,3 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.role = 'TEACHER' AND u.enabled = true ORDER BY u.id LIMIT 1")
     Optional<User> findFirstTeacher();
 }
-
@@ -0,0 +1,103 @@
+package com.university.academic.security;
+
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * 认证主体
+ * 认证时一次性构建：用户ID和角色取自令牌声明，学生ID、教师ID和院系ID取自 {@link UserProfileCache}。
+ * 请求内通过 {@link SecurityUtils#getCurrentPrincipal()} 或控制器参数 {@code @AuthenticationPrincipal} 获取，
+ * 不再按用户名查询用户表、学生表和教师表。
+ *
+ * @author Academic System Team
+ */
+@Getter
+public class AcademicPrincipal implements UserDetails {
+
+    private final Long userId;
+    private final String username;
+
+    /**
+     * 用户角色（不含ROLE_前缀）
+     */
+    private final String role;
+
+    private final Long studentId;
+    private final Long teacherId;
+    private final Long departmentId;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public AcademicPrincipal(Long userId, String username, String role, UserProfileCache.UserProfile profile) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.studentId = profile.studentId();
+        this.teacherId = profile.teacherId();
+        this.departmentId = profile.departmentId();
+        // 为角色添加ROLE_前缀（Spring Security要求）
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    /**
+     * 获取学生ID
+     *
+     * @return 学生ID
+     * @throws BusinessException 当前用户不是学生时
+     */
+    public Long requireStudentId() {
+        if (studentId == null) {
+            throw new BusinessException(ErrorCode.STUDENT_NOT_FOUND);
+        }
+        return studentId;
+    }
+
+    /**
+     * 获取教师ID
+     *
+     * @return 教师ID
+     * @throws BusinessException 当前用户不是教师时
+     */
+    public Long requireTeacherId() {
+        if (teacherId == null) {
+            throw new BusinessException(ErrorCode.TEACHER_NOT_FOUND);
+        }
+        return teacherId;
+    }
+
+    @Override
+    public String getPassword() {
+        return "";
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "AcademicPrincipal{userId=" + userId + ", username=" + username + ", role=" + role + "}";
+    }
+}
@@ -25,6 +25,8 @@ import java.util.Collections;
 /**
  * 自定义用户详情服务
  * 用于Spring Security从数据库加载用户信息
+ * <p>
+ * getXxxFromAuth 系列方法优先读取JWT认证时构建的 {@link AcademicPrincipal}，其他认证方式回退为按用户名查询
  *
  * @author Academic System Team
  */
@@ -90,6 +92,10 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Transactional(readOnly = true)
     public Long getStudentIdFromAuth(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AcademicPrincipal principal) {
+            return principal.requireStudentId();
+        }
+
         String username = authentication.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND));
@@ -108,6 +114,10 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Transactional(readOnly = true)
     public Long getTeacherIdFromAuth(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AcademicPrincipal principal) {
+            return principal.requireTeacherId();
+        }
+
         String username = authentication.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND));
@@ -126,6 +136,10 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Transactional(readOnly = true)
     public Long getUserIdFromAuth(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AcademicPrincipal principal) {
+            return principal.getUserId();
+        }
+
         String username = authentication.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND));
@@ -141,6 +155,10 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Transactional(readOnly = true)
     public String getRoleFromAuth(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AcademicPrincipal principal) {
+            return principal.getRole();
+        }
+
         String username = authentication.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND));
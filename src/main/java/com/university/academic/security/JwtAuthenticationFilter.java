@@ -1,6 +1,7 @@
 package com.university.academic.security;
 
 import com.university.academic.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,8 +11,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -22,6 +21,10 @@ import java.io.IOException;
 /**
  * JWT认证过滤器
  * 从请求头中提取JWT令牌并验证，然后设置Spring Security上下文
+ * <p>
+ * 用户ID和角色直接取自令牌声明，验签只做一次，不再按请求查询用户表；
+ * 禁用、删除的用户和重置密码前签发的令牌由 {@link TokenVersionRegistry} 按用户表的令牌版本拒绝。
+ * 认证主体为 {@link AcademicPrincipal}，学生ID、教师ID和院系ID取自 {@link UserProfileCache}
  *
  * @author Academic System Team
  */
@@ -31,7 +34,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final UserProfileCache userProfileCache;
 
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
@@ -44,31 +48,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 从请求头中提取JWT令牌
             String jwt = extractJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                // 从令牌中获取用户名
-                String username = jwtUtil.getUsernameFromToken(jwt);
-
-                // 加载用户详情
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                // 验证令牌是否与用户匹配
-                if (jwtUtil.validateToken(jwt, username)) {
-                    // 创建认证对象
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities()
-                            );
-
-                    // 设置请求详情
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                    // 设置到Spring Security上下文
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                    log.debug("已为用户 '{}' 设置认证信息", username);
-                }
+            // 验证令牌并解析声明
+            Claims claims = StringUtils.hasText(jwt) ? jwtUtil.parseClaims(jwt) : null;
+            if (claims != null) {
+                authenticate(claims, request);
             }
         } catch (Exception e) {
             log.error("无法设置用户认证信息: {}", e.getMessage());
@@ -78,6 +61,45 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 根据令牌声明设置认证信息
+     *
+     * @param claims  令牌声明
+     * @param request HTTP请求
+     */
+    private void authenticate(Claims claims, HttpServletRequest request) {
+        String username = claims.getSubject();
+        Long userId = claims.get(JwtUtil.CLAIM_USER_ID, Long.class);
+        String role = claims.get(JwtUtil.CLAIM_ROLE, String.class);
+
+        // 刷新令牌不含用户ID和角色，不能用于访问接口
+        if (!StringUtils.hasText(username) || userId == null || !StringUtils.hasText(role)) {
+            log.debug("令牌缺少访问声明: {}", username);
+            return;
+        }
+
+        // 检查用户是否被禁用、令牌是否已被撤销
+        if (!tokenVersionRegistry.isAccepted(userId, JwtUtil.getTokenVersion(claims))) {
+            log.debug("令牌已被撤销: userId={}", userId);
+            return;
+        }
+
+        // 构建认证主体
+        AcademicPrincipal principal = new AcademicPrincipal(userId, username, role, userProfileCache.get(userId));
+
+        // 创建认证对象
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+        // 设置请求详情
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        // 设置到Spring Security上下文
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        log.debug("已为用户 '{}' 设置认证信息", username);
+    }
+
     /**
      * 从请求头中提取JWT令牌
      *
@@ -94,4 +116,3 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 }
-
@@ -1,5 +1,6 @@
 package com.university.academic.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -86,6 +87,9 @@ public class SecurityConfig {
                 
                 // 配置授权规则
                 .authorizeHttpRequests(auth -> auth
+                        // 异步分派（如 SSE 推送结束）沿用原请求的授权结果，不再重复校验
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // 允许访问登录、刷新令牌接口（无需认证）
                         .requestMatchers("/api/auth/**").permitAll()
                         
@@ -50,12 +50,30 @@ public class SecurityUtils {
         // 工具类，禁止实例化
     }
 
+    /**
+     * 获取当前认证主体
+     *
+     * @return 认证主体，未登录或非JWT认证时返回null
+     */
+    public static AcademicPrincipal getCurrentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AcademicPrincipal principal) {
+            return principal;
+        }
+        return null;
+    }
+
     /**
      * 获取当前登录用户ID
      *
      * @return 用户ID
      */
     public static Long getCurrentUserId() {
+        AcademicPrincipal principal = getCurrentPrincipal();
+        if (principal != null) {
+            return principal.getUserId();
+        }
+
         String username = getCurrentUsername();
         if (username == null) {
             return null;
@@ -80,6 +98,11 @@ public class SecurityUtils {
      * @return 教师ID
      */
     public static Long getCurrentTeacherId() {
+        AcademicPrincipal principal = getCurrentPrincipal();
+        if (principal != null) {
+            return principal.requireTeacherId();
+        }
+
         String username = getCurrentUsername();
         if (username == null) {
             throw new BusinessException(ErrorCode.UNAUTHORIZED);
@@ -114,6 +137,11 @@ public class SecurityUtils {
      * @return 学生ID
      */
     public static Long getCurrentStudentId() {
+        AcademicPrincipal principal = getCurrentPrincipal();
+        if (principal != null) {
+            return principal.requireStudentId();
+        }
+
         String username = getCurrentUsername();
         if (username == null) {
             throw new BusinessException(ErrorCode.UNAUTHORIZED);
@@ -0,0 +1,195 @@
+package com.university.academic.security;
+
+import com.university.academic.entity.User;
+import com.university.academic.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 令牌版本登记
+ * 访问令牌中携带签发时的令牌版本，认证时只与内存中的版本比较，不再按请求查询用户表。
+ * 重置密码、修改用户名或角色、禁用后用户表的令牌版本在同一事务中递增，此前签发的令牌全部失效；
+ * 禁用和删除的用户单独登记，其令牌一律拒绝。
+ * <p>
+ * 令牌版本以用户表的 token_version 为准：启动时全量加载，事务提交后更新本实例，
+ * 并定时从数据库同步其他实例的修改（其他实例的撤销最迟在一个同步周期后生效）；
+ * 内存中没有登记的用户按需查询数据库，查不到的用户视为已删除。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenVersionRegistry {
+
+    private final UserRepository userRepository;
+
+    /**
+     * 用户令牌版本（userId -> 版本）
+     */
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 已删除用户ID（用户ID不会复用，只增不减）
+     */
+    private final Set<Long> deletedUsers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 已禁用用户ID
+     */
+    private volatile Set<Long> disabledUsers = Set.of();
+
+    @PostConstruct
+    public void init() {
+        reload();
+        log.info("令牌版本登记初始化完成: 用户数={}, 禁用用户数={}", versions.size(), disabledUsers.size());
+    }
+
+    /**
+     * 当前令牌版本（签发令牌时写入），以刚从数据库加载的用户为准
+     *
+     * @param user 用户
+     * @return 令牌版本
+     */
+    public long currentVersion(User user) {
+        return versions.merge(user.getId(), user.getTokenVersion(), Math::max);
+    }
+
+    /**
+     * 令牌是否仍然有效
+     *
+     * @param userId       用户ID
+     * @param tokenVersion 令牌中的版本
+     * @return true-有效，false-已撤销
+     */
+    public boolean isAccepted(Long userId, long tokenVersion) {
+        if (disabledUsers.contains(userId) || deletedUsers.contains(userId)) {
+            return false;
+        }
+        Long current = versions.get(userId);
+        if (current == null) {
+            Optional<Long> persisted = userRepository.findTokenVersionById(userId);
+            if (persisted.isEmpty()) {
+                deletedUsers.add(userId);
+                return false;
+            }
+            current = versions.merge(userId, persisted.get(), Math::max);
+        }
+        if (tokenVersion > current) {
+            // 其他实例撤销后签发的令牌，本实例尚未同步，顺带提升版本
+            versions.merge(userId, tokenVersion, Math::max);
+        }
+        return tokenVersion >= current;
+    }
+
+    /**
+     * 撤销用户已签发的全部令牌
+     * 令牌版本在调用方事务中随用户一同保存，事务提交后更新本实例
+     *
+     * @param user 受管理的用户实体
+     */
+    public void revoke(User user) {
+        Long userId = user.getId();
+        long version = user.getTokenVersion() + 1;
+        user.setTokenVersion(version);
+        afterCommit(() -> {
+            versions.merge(userId, version, Math::max);
+            log.info("用户令牌已撤销: userId={}, version={}", userId, version);
+        });
+    }
+
+    /**
+     * 登记用户启用状态，禁用时同时撤销已签发的令牌
+     *
+     * @param user    受管理的用户实体
+     * @param enabled 启用状态
+     */
+    public void setEnabled(User user, boolean enabled) {
+        Long userId = user.getId();
+        if (!enabled) {
+            revoke(user);
+        }
+        afterCommit(() -> {
+            Set<Long> next = new HashSet<>(disabledUsers);
+            if (enabled) {
+                next.remove(userId);
+            } else {
+                next.add(userId);
+            }
+            disabledUsers = Set.copyOf(next);
+        });
+    }
+
+    /**
+     * 登记已删除的用户（事务提交后执行），其令牌一律拒绝
+     *
+     * @param userId 用户ID
+     */
+    public void delete(Long userId) {
+        afterCommit(() -> {
+            deletedUsers.add(userId);
+            versions.remove(userId);
+            log.info("已删除用户的令牌已撤销: userId={}", userId);
+        });
+    }
+
+    /**
+     * 定时从数据库同步令牌版本和禁用用户，兜底其他实例或直接改库的修改
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-refresh-interval:60000}",
+            initialDelayString = "${jwt.revocation-refresh-interval:60000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("同步令牌版本失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void reload() {
+        List<Object[]> states = userRepository.findTokenStates();
+        Set<Long> existing = new HashSet<>(states.size() * 2);
+        Set<Long> disabled = new HashSet<>();
+        for (Object[] state : states) {
+            Long userId = (Long) state[0];
+            existing.add(userId);
+            versions.merge(userId, (Long) state[1], Math::max);
+            if (!Boolean.TRUE.equals(state[2])) {
+                disabled.add(userId);
+            }
+        }
+        // 快照中不存在的用户已在其他实例删除，逐个确认以免误伤快照之后新建并登录的用户
+        for (Long userId : versions.keySet()) {
+            if (!existing.contains(userId) && userRepository.findTokenVersionById(userId).isEmpty()) {
+                versions.remove(userId);
+                deletedUsers.add(userId);
+            }
+        }
+        disabledUsers = Set.copyOf(disabled);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
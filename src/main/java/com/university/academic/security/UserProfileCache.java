@@ -0,0 +1,100 @@
+package com.university.academic.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.university.academic.repository.StudentRepository;
+import com.university.academic.repository.TeacherRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户身份档案缓存
+ * 缓存用户对应的学生ID、教师ID和所属院系ID（userId -> 档案），
+ * 认证时据此构建 {@link AcademicPrincipal}，同一用户在有效期内只查询一次学生表和教师表。
+ * <p>
+ * 学生专业、教师院系修改后（事务提交后）使对应用户的档案失效；删除学生或教师会禁用其账户，令牌随之失效，无需单独处理。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserProfileCache {
+
+    private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+
+    /**
+     * 用户身份档案（userId -> 档案）
+     */
+    private final Cache<Long, UserProfile> profiles = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterWrite(30, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * 获取用户身份档案
+     *
+     * @param userId 用户ID
+     * @return 身份档案（非学生、非教师用户各ID为null）
+     */
+    public UserProfile get(Long userId) {
+        return profiles.get(userId, this::load);
+    }
+
+    /**
+     * 使用户身份档案失效（有事务时在提交后执行）
+     *
+     * @param userId 用户ID
+     */
+    public void evict(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            profiles.invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                profiles.invalidate(userId);
+            }
+        });
+    }
+
+    private UserProfile load(Long userId) {
+        Long studentId = null;
+        Long teacherId = null;
+        Long departmentId = null;
+
+        List<Object[]> students = studentRepository.findIdentityByUserId(userId);
+        if (!students.isEmpty()) {
+            studentId = (Long) students.get(0)[0];
+            departmentId = (Long) students.get(0)[1];
+        } else {
+            List<Object[]> teachers = teacherRepository.findIdentityByUserId(userId);
+            if (!teachers.isEmpty()) {
+                teacherId = (Long) teachers.get(0)[0];
+                departmentId = (Long) teachers.get(0)[1];
+            }
+        }
+
+        log.debug("加载用户身份档案: userId={}, studentId={}, teacherId={}, departmentId={}",
+                userId, studentId, teacherId, departmentId);
+        return new UserProfile(studentId, teacherId, departmentId);
+    }
+
+    /**
+     * 用户身份档案
+     *
+     * @param studentId    学生ID
+     * @param teacherId    教师ID
+     * @param departmentId 所属院系ID
+     */
+    public record UserProfile(Long studentId, Long teacherId, Long departmentId) {
+    }
+}
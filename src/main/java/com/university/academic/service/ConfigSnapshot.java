@@ -0,0 +1,58 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.Semester;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 运行时配置快照（不可变）
+ * 由 {@link ConfigSnapshotService} 从系统配置表和当前活动学期构建，变更后整体替换，
+ * 热点路径读取配置时只需读取一次 volatile 引用，不访问数据库。
+ *
+ * @param version                快照版本号，每次重建递增
+ * @param maxCreditsPerSemester  每学期最大学分
+ * @param maxCoursesPerSemester  每学期最多课程数
+ * @param dropDeadlineDays       退课截止天数（学期开始后）
+ * @param maintenanceMode        是否处于系统维护模式
+ * @param systemName             系统名称
+ * @param activeSemester         当前活动学期，没有活动学期时为null（只读，不要修改）
+ * @param values                 全部系统配置（configKey -> configValue）
+ * @author Academic System Team
+ */
+public record ConfigSnapshot(long version,
+                             int maxCreditsPerSemester,
+                             int maxCoursesPerSemester,
+                             int dropDeadlineDays,
+                             boolean maintenanceMode,
+                             String systemName,
+                             Semester activeSemester,
+                             Map<String, String> values) {
+
+    /**
+     * 获取原始配置值
+     *
+     * @param key          配置键
+     * @param defaultValue 默认值
+     * @return 配置值
+     */
+    public String value(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    /**
+     * 与另一快照的活动学期是否相同（同一学期且未被修改）
+     *
+     * @param other 另一快照
+     * @return 是否相同
+     */
+    public boolean hasSameActiveSemester(ConfigSnapshot other) {
+        Semester mine = activeSemester;
+        Semester theirs = other.activeSemester();
+        if (mine == null || theirs == null) {
+            return mine == theirs;
+        }
+        return mine.getId().equals(theirs.getId())
+                && Objects.equals(mine.getUpdatedAt(), theirs.getUpdatedAt());
+    }
+}
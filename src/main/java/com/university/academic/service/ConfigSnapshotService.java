@@ -0,0 +1,188 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.Semester;
+import com.university.academic.entity.SystemConfig;
+import com.university.academic.event.ConfigSnapshotChangedEvent;
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
+import com.university.academic.repository.SemesterRepository;
+import com.university.academic.repository.SystemConfigRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 运行时配置快照服务
+ * 系统配置和当前活动学期统一加载为不可变的 {@link ConfigSnapshot}，变更时整体重建并原子替换，
+ * 替换后发布 {@link ConfigSnapshotChangedEvent} 通知依赖方。选课等热点路径读取配置只读取 volatile 引用。
+ * <p>
+ * 配置或学期在本实例修改时，事务提交后立即重建；另有定时重建兜底其他实例的修改和直接改库的情况，
+ * 内容未变化时不替换快照也不发布事件。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+public class ConfigSnapshotService {
+
+    /**
+     * 旧版选课代码使用的配置键（兼容读取）
+     */
+    private static final String LEGACY_MAX_CREDITS_PER_SEMESTER = "max_credits_per_semester";
+    private static final String LEGACY_MAX_COURSES_PER_SEMESTER = "max_courses_per_semester";
+    private static final String LEGACY_DROP_DEADLINE_DAYS = "drop_deadline_days";
+
+    private final SystemConfigRepository configRepository;
+    private final SemesterRepository semesterRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * application.yml 中的默认规则（系统配置表中没有对应配置时使用）
+     */
+    private final int defaultMaxCredits;
+    private final int defaultMaxCourses;
+    private final int defaultDropDeadlineDays;
+
+    private volatile ConfigSnapshot snapshot;
+
+    public ConfigSnapshotService(
+            SystemConfigRepository configRepository,
+            SemesterRepository semesterRepository,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${academic.rules.max-credits-per-semester:30}") int defaultMaxCredits,
+            @Value("${academic.rules.max-courses-per-semester:8}") int defaultMaxCourses,
+            @Value("${academic.rules.drop-deadline-days:14}") int defaultDropDeadlineDays) {
+        this.configRepository = configRepository;
+        this.semesterRepository = semesterRepository;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultMaxCredits = defaultMaxCredits;
+        this.defaultMaxCourses = defaultMaxCourses;
+        this.defaultDropDeadlineDays = defaultDropDeadlineDays;
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+        log.info("运行时配置快照初始化完成: 配置数={}, 活动学期={}", snapshot.values().size(),
+                snapshot.activeSemester() != null ? snapshot.activeSemester().getSemesterName() : "无");
+    }
+
+    /**
+     * 当前配置快照
+     */
+    public ConfigSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * 当前活动学期
+     *
+     * @return 活动学期（只读）
+     * @throws BusinessException 没有活动学期时
+     */
+    public Semester activeSemester() {
+        Semester activeSemester = snapshot.activeSemester();
+        if (activeSemester == null) {
+            throw new BusinessException(ErrorCode.SEMESTER_NOT_ACTIVE);
+        }
+        return activeSemester;
+    }
+
+    /**
+     * 配置或学期变更后重建快照（有事务时在提交后执行）
+     */
+    public void refresh() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    /**
+     * 定时重建快照，兜底其他实例或直接改库的修改
+     */
+    @Scheduled(fixedDelayString = "${academic.config.snapshot-refresh-interval:60000}",
+            initialDelayString = "${academic.config.snapshot-refresh-interval:60000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("定时重建配置快照失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从数据库重建快照，内容有变化时替换并发布变更事件
+     */
+    public synchronized void reload() {
+        ConfigSnapshot previous = snapshot;
+        ConfigSnapshot next = readOnlyTransaction.execute(status ->
+                build(previous != null ? previous.version() + 1 : 1));
+        if (previous != null && previous.values().equals(next.values()) && previous.hasSameActiveSemester(next)) {
+            return;
+        }
+
+        snapshot = next;
+        log.info("运行时配置快照已更新: version={}, 活动学期={}", next.version(),
+                next.activeSemester() != null ? next.activeSemester().getId() : null);
+        eventPublisher.publishEvent(new ConfigSnapshotChangedEvent(previous, next));
+    }
+
+    private ConfigSnapshot build(long version) {
+        Map<String, String> values = new HashMap<>();
+        for (SystemConfig config : configRepository.findAll()) {
+            values.put(config.getConfigKey(), config.getConfigValue());
+        }
+        Semester activeSemester = semesterRepository.findByActiveTrue().orElse(null);
+
+        return new ConfigSnapshot(
+                version,
+                intValue(values, SystemConfigService.MAX_CREDITS_PER_SEMESTER,
+                        LEGACY_MAX_CREDITS_PER_SEMESTER, defaultMaxCredits),
+                intValue(values, SystemConfigService.MAX_COURSES_PER_SEMESTER,
+                        LEGACY_MAX_COURSES_PER_SEMESTER, defaultMaxCourses),
+                intValue(values, SystemConfigService.DROP_DEADLINE_DAYS,
+                        LEGACY_DROP_DEADLINE_DAYS, defaultDropDeadlineDays),
+                Boolean.parseBoolean(values.get(SystemConfigService.SYSTEM_MAINTENANCE_MODE)),
+                values.getOrDefault(SystemConfigService.SYSTEM_NAME, "大学教务管理系统"),
+                activeSemester,
+                Map.copyOf(values));
+    }
+
+    /**
+     * 读取整型配置，依次使用标准配置键、旧版配置键和默认值
+     */
+    private static int intValue(Map<String, String> values, String key, String legacyKey, int defaultValue) {
+        String value = values.containsKey(key) ? values.get(key) : values.get(legacyKey);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.error("系统配置值格式错误: key={}, value={}", key, value);
+            return defaultValue;
+        }
+    }
+}
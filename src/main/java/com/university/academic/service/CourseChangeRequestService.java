@@ -41,6 +41,8 @@ public class CourseChangeRequestService {
     private final CourseChangeRequestRepository changeRequestRepository;
     private final CourseOfferingRepository offeringRepository;
     private final TeacherRepository teacherRepository;
+    private final TimetableIndex timetableIndex;
+    private final OfferingCatalogueService offeringCatalogue;
     private final ObjectMapper objectMapper;
     private final com.university.academic.security.CustomUserDetailsService userDetailsService;
 
@@ -154,6 +156,8 @@ public class CourseChangeRequestService {
             }
             
             offeringRepository.save(offering);
+            timetableIndex.evictOffering(offering.getId());
+            offeringCatalogue.refreshOffering(offering.getId());
             
             log.info("调课审批通过，已更新开课计划: offeringId={}, newSchedule={}", 
                     offering.getId(), changeRequest.getNewSchedule());
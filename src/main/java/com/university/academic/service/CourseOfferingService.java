@@ -8,6 +8,7 @@ import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
 import com.university.academic.repository.CourseOfferingRepository;
 import com.university.academic.repository.CourseSelectionRepository;
+import com.university.academic.repository.CourseWaitlistRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -30,10 +31,14 @@ public class CourseOfferingService {
 
     private final CourseOfferingRepository offeringRepository;
     private final CourseSelectionRepository selectionRepository;
+    private final CourseWaitlistRepository waitlistRepository;
     private final SemesterService semesterService;
     private final CourseService courseService;
     private final TeacherService teacherService;
     private final NotificationService notificationService;
+    private final CourseSeatLedger seatLedger;
+    private final TimetableIndex timetableIndex;
+    private final OfferingCatalogueService offeringCatalogue;
     private final ObjectMapper objectMapper;
 
     /**
@@ -149,10 +154,12 @@ public class CourseOfferingService {
     @Transactional
     public CourseOffering updateOffering(Long id, CourseOffering offering) {
         CourseOffering existingOffering = findById(id);
+        // 已选人数以选课名额账本为准（数据库中的已选人数由后台定时回写，可能滞后）
+        int enrolled = seatLedger.enrolledOf(id, existingOffering.getCapacity(), existingOffering.getEnrolled());
 
         // 如果已发布，不允许修改关键信息
         if (existingOffering.getStatus() == CourseOffering.OfferingStatus.PUBLISHED &&
-            existingOffering.getEnrolled() > 0) {
+            enrolled > 0) {
             log.warn("开课计划已有学生选课，限制修改: id={}", id);
         }
 
@@ -166,6 +173,7 @@ public class CourseOfferingService {
         if (offering.getSchedule() != null) {
             validateScheduleFormat(offering.getSchedule());
             existingOffering.setSchedule(offering.getSchedule());
+            timetableIndex.evictOffering(id);
         }
 
         // 更新上课地点
@@ -175,11 +183,13 @@ public class CourseOfferingService {
 
         // 更新容量（不能小于已选人数）
         if (offering.getCapacity() != null) {
-            if (offering.getCapacity() < existingOffering.getEnrolled()) {
+            if (offering.getCapacity() < enrolled) {
                 throw new BusinessException(ErrorCode.OFFERING_CAPACITY_ERROR, 
-                    String.format("容量不能小于已选人数（当前已选：%d人）", existingOffering.getEnrolled()));
+                    String.format("容量不能小于已选人数（当前已选：%d人）", enrolled));
             }
             existingOffering.setCapacity(offering.getCapacity());
+            // 容量变化后重新初始化选课名额
+            seatLedger.evict(id);
         }
 
         // 检查时间冲突
@@ -194,6 +204,7 @@ public class CourseOfferingService {
                 id);
 
         CourseOffering updatedOffering = offeringRepository.save(existingOffering);
+        offeringCatalogue.refreshOffering(id);
         log.info("更新开课计划成功: {} - {}", updatedOffering.getId(), 
                 updatedOffering.getCourse().getName());
         return updatedOffering;
@@ -209,7 +220,7 @@ public class CourseOfferingService {
         CourseOffering offering = findById(id);
 
         // 如果有学生选课，不允许删除
-        if (offering.getEnrolled() > 0) {
+        if (seatLedger.enrolledOf(id, offering.getCapacity(), offering.getEnrolled()) > 0) {
             throw new BusinessException(ErrorCode.OFFERING_HAS_STUDENTS);
         }
 
@@ -244,6 +255,10 @@ public class CourseOfferingService {
         // 设置为已发布状态
         offering.setStatus(CourseOffering.OfferingStatus.PUBLISHED);
         offeringRepository.save(offering);
+        seatLedger.evict(id);
+        offeringCatalogue.refreshOffering(id);
+        // 预先构建课表位图，选课时直接使用
+        timetableIndex.bitmapOf(offering);
 
         log.info("发布开课计划成功: {} - {} - {}", 
                 offering.getId(),
@@ -265,15 +280,16 @@ public class CourseOfferingService {
             throw new BusinessException(ErrorCode.OFFERING_ALREADY_CANCELLED);
         }
 
-        // 如果有学生选课，需要通知学生并退选
-        if (offering.getEnrolled() > 0) {
-            log.info("取消开课计划，有 {} 名学生已选课，开始处理退选", offering.getEnrolled());
+        // 如果有学生选课，需要通知学生并退选（已选人数以选课名额账本为准）
+        int enrolled = seatLedger.enrolledOf(id, offering.getCapacity(), offering.getEnrolled());
+        int droppedCount = 0;
+        if (enrolled > 0) {
+            log.info("取消开课计划，有 {} 名学生已选课，开始处理退选", enrolled);
             
             // 1. 获取所有选课记录
             List<CourseSelection> selections = selectionRepository.findByOfferingId(id);
             
             // 2. 将所有SELECTED状态的选课记录改为DROPPED
-            int droppedCount = 0;
             for (CourseSelection selection : selections) {
                 if (selection.getStatus() == CourseSelection.SelectionStatus.SELECTED) {
                     selection.setStatus(CourseSelection.SelectionStatus.DROPPED);
@@ -282,10 +298,7 @@ public class CourseOfferingService {
                 }
             }
             
-            // 3. 更新已选人数
-            offering.setEnrolled(0);
-            
-            // 4. 发送通知给所有相关学生
+            // 3. 发送通知给所有相关学生
             if (droppedCount > 0) {
                 try {
                     String notificationTitle = String.format("课程取消通知：%s", offering.getCourse().getName());
@@ -325,6 +338,17 @@ public class CourseOfferingService {
         offering.setStatus(CourseOffering.OfferingStatus.CANCELLED);
         offeringRepository.save(offering);
 
+        // 取消候补队列
+        int cancelledWaitlist = waitlistRepository.cancelWaitingByOffering(id);
+        if (cancelledWaitlist > 0) {
+            log.info("取消开课计划，已取消 {} 条候补记录", cancelledWaitlist);
+        }
+
+        // 重置选课名额账本中的计数和候补人数，退选人数记为负增量，回写后已选人数归零
+        seatLedger.reset(id, droppedCount);
+        timetableIndex.evictOffering(id);
+        offeringCatalogue.refreshOffering(id);
+
         log.info("取消开课计划成功: {} - {} - {}", 
                 offering.getId(),
                 offering.getSemester().getSemesterName(),
@@ -0,0 +1,361 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.CourseOffering;
+import com.university.academic.event.SeatReleasedEvent;
+import com.university.academic.repository.CourseOfferingRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 选课名额账本
+ * 在内存中为每个开课计划维护剩余名额计数器，选课/退课时通过CAS扣减或归还名额，
+ * 不再依赖course_offering行上的乐观锁；已选人数的变化先累积在内存中，
+ * 由定时任务合并后以增量UPDATE的方式批量回写数据库。
+ * <p>
+ * 开课计划存在候补学生时，释放出的名额只留给候补递补，普通选课按已满处理；
+ * 名额归还后发布 {@link SeatReleasedEvent} 触发递补。
+ * <p>
+ * 注意：名额计数器为单实例内存状态，多实例部署时需将选课流量路由到同一实例。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+public class CourseSeatLedger {
+
+    private final CourseOfferingRepository offeringRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 读取已提交已选人数的独立只读事务，不受调用方事务快照影响
+     */
+    private final TransactionTemplate committedRead;
+
+    /**
+     * 剩余名额（offeringId -> 剩余名额）
+     */
+    private final Map<Long, AtomicInteger> remainingSeats = new ConcurrentHashMap<>();
+
+    /**
+     * 待回写的已选人数增量（offeringId -> 增量）
+     */
+    private final Map<Long, AtomicInteger> pendingDeltas = new ConcurrentHashMap<>();
+
+    /**
+     * 候补人数（offeringId -> 候补中人数）
+     */
+    private final Map<Long, AtomicInteger> waitingCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 名额变化版本号，任一开课计划的剩余名额变化时递增（用于可选课程目录的ETag）
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 开课计划锁（offeringId -> 锁），回写增量与初始化名额计数器互斥，
+     * 保证初始化时读到的待回写增量与数据库中的已选人数一致
+     */
+    private final Map<Long, Object> offeringLocks = new ConcurrentHashMap<>();
+
+    public CourseSeatLedger(CourseOfferingRepository offeringRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            TransactionTemplate transactionTemplate) {
+        this.offeringRepository = offeringRepository;
+        this.eventPublisher = eventPublisher;
+        this.committedRead = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.committedRead.setReadOnly(true);
+        this.committedRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 判断开课计划是否还有可供普通选课的剩余名额（不扣减）
+     * 存在候补学生时视为已满
+     *
+     * @param offering 开课计划
+     * @return true-有名额，false-已满
+     */
+    public boolean hasSeat(CourseOffering offering) {
+        return seatsOf(offering).get() > 0 && !hasWaiting(offering.getId());
+    }
+
+    /**
+     * 尝试占用一个名额（普通选课）
+     * 事务回滚时自动归还名额，事务提交后记录待回写的已选人数增量
+     *
+     * @param offering 开课计划
+     * @return true-占用成功，false-课程已满或名额留给候补
+     */
+    public boolean tryReserve(CourseOffering offering) {
+        return !hasWaiting(offering.getId()) && reserve(offering);
+    }
+
+    /**
+     * 为候补递补占用一个名额，不受候补队列限制
+     *
+     * @param offering 开课计划
+     * @return true-占用成功，false-课程已满
+     */
+    public boolean tryReserveForWaitlist(CourseOffering offering) {
+        return reserve(offering);
+    }
+
+    /**
+     * 判断开课计划是否有候补学生
+     *
+     * @param offeringId 开课计划ID
+     * @return true-有候补
+     */
+    public boolean hasWaiting(Long offeringId) {
+        AtomicInteger waiting = waitingCounts.get(offeringId);
+        return waiting != null && waiting.get() > 0;
+    }
+
+    /**
+     * 调整开课计划的候补人数（事务提交后生效）
+     * 加入候补时若已有空余名额（判断已满之后、提交之前恰有学生退课，当时无候补因而未触发递补），
+     * 立即触发一次递补，避免名额留给候补却无人递补
+     *
+     * @param offeringId 开课计划ID
+     * @param delta      变化量
+     */
+    public void adjustWaiting(Long offeringId, int delta) {
+        onCompletion(() -> {
+            waitingCounts.computeIfAbsent(offeringId, id -> new AtomicInteger())
+                    .updateAndGet(count -> Math.max(count + delta, 0));
+            AtomicInteger seats = remainingSeats.get(offeringId);
+            if (delta > 0 && seats != null && seats.get() > 0) {
+                eventPublisher.publishEvent(new SeatReleasedEvent(offeringId));
+            }
+        }, () -> { });
+    }
+
+    /**
+     * 设置开课计划的候补人数（启动时从数据库加载）
+     *
+     * @param offeringId 开课计划ID
+     * @param count      候补人数
+     */
+    public void setWaiting(Long offeringId, int count) {
+        waitingCounts.computeIfAbsent(offeringId, id -> new AtomicInteger()).set(count);
+    }
+
+    /**
+     * 预先初始化开课计划的名额计数器（构建可选课程目录时调用）
+     *
+     * @param offering 开课计划（已选人数为数据库中的最新值）
+     */
+    public void prime(CourseOffering offering) {
+        seatsOf(offering);
+    }
+
+    /**
+     * 查询开课计划的实时已选人数（含未回写的增量）
+     *
+     * @param offeringId        开课计划ID
+     * @param capacity          容量
+     * @param persistedEnrolled 计数器未初始化时使用的已选人数
+     * @return 已选人数
+     */
+    public int enrolledOf(Long offeringId, int capacity, int persistedEnrolled) {
+        AtomicInteger seats = remainingSeats.get(offeringId);
+        if (seats != null) {
+            return capacity - seats.get();
+        }
+        AtomicInteger pending = pendingDeltas.get(offeringId);
+        return persistedEnrolled + (pending != null ? pending.get() : 0);
+    }
+
+    /**
+     * 名额变化版本号
+     */
+    public long version() {
+        return version.get();
+    }
+
+    private boolean reserve(CourseOffering offering) {
+        AtomicInteger seats = seatsOf(offering);
+        int current;
+        do {
+            current = seats.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!seats.compareAndSet(current, current - 1));
+        version.incrementAndGet();
+
+        Long offeringId = offering.getId();
+        onCompletion(() -> addPendingDelta(offeringId, 1), () -> {
+            seats.incrementAndGet();
+            version.incrementAndGet();
+        });
+        return true;
+    }
+
+    /**
+     * 归还一个名额（退课）
+     * 事务提交后才真正释放名额，避免回滚时名额被提前占用
+     *
+     * @param offering 开课计划
+     */
+    public void release(CourseOffering offering) {
+        Long offeringId = offering.getId();
+        onCompletion(() -> {
+            AtomicInteger seats = remainingSeats.get(offeringId);
+            if (seats != null) {
+                seats.incrementAndGet();
+            }
+            addPendingDelta(offeringId, -1);
+            version.incrementAndGet();
+            if (hasWaiting(offeringId)) {
+                eventPublisher.publishEvent(new SeatReleasedEvent(offeringId));
+            }
+        }, () -> { });
+    }
+
+    /**
+     * 移除开课计划的名额计数器（容量变更、状态变更后调用）
+     * 下次访问时将按数据库中的容量和已选人数重新初始化，扩容后的名额同样触发候补递补
+     *
+     * @param offeringId 开课计划ID
+     */
+    public void evict(Long offeringId) {
+        onCompletion(() -> {
+            remainingSeats.remove(offeringId);
+            version.incrementAndGet();
+            if (hasWaiting(offeringId)) {
+                eventPublisher.publishEvent(new SeatReleasedEvent(offeringId));
+            }
+        }, () -> { });
+    }
+
+    /**
+     * 重置开课计划的名额计数器和候补人数（取消开课时调用）
+     * 未回写的增量保留，并记入退选人数的负增量，回写后数据库中的已选人数归零
+     *
+     * @param offeringId   开课计划ID
+     * @param droppedCount 取消开课时退选的人数
+     */
+    public void reset(Long offeringId, int droppedCount) {
+        onCompletion(() -> {
+            remainingSeats.remove(offeringId);
+            waitingCounts.remove(offeringId);
+            if (droppedCount > 0) {
+                addPendingDelta(offeringId, -droppedCount);
+            }
+            version.incrementAndGet();
+        }, () -> { });
+    }
+
+    /**
+     * 将累积的已选人数增量批量回写数据库
+     * 每个开课计划合并为一条增量UPDATE，提交成功后才从待回写增量中扣除；失败时保留等待下次回写
+     */
+    @Scheduled(fixedDelayString = "${academic.selection.seat-flush-interval:1000}")
+    public void flush() {
+        if (pendingDeltas.isEmpty()) {
+            return;
+        }
+
+        List<Long> offeringIds = new ArrayList<>(pendingDeltas.keySet());
+        int flushed = 0;
+        for (Long offeringId : offeringIds) {
+            AtomicInteger counter = pendingDeltas.get(offeringId);
+            if (counter == null) {
+                continue;
+            }
+            synchronized (lockOf(offeringId)) {
+                int delta = counter.get();
+                if (delta == 0) {
+                    continue;
+                }
+                try {
+                    offeringRepository.incrementEnrolled(offeringId, delta);
+                    counter.addAndGet(-delta);
+                    flushed++;
+                } catch (Exception e) {
+                    log.error("回写已选人数失败，等待下次重试: offeringId={}, delta={}", offeringId, delta, e);
+                }
+            }
+        }
+
+        if (flushed > 0) {
+            log.debug("已选人数回写完成: 开课计划数={}", flushed);
+        }
+    }
+
+    /**
+     * 应用关闭前回写所有未落库的增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        log.info("应用关闭，回写剩余的已选人数增量: {}", pendingDeltas.size());
+        flush();
+    }
+
+    /**
+     * 获取开课计划的名额计数器，不存在时按实体中的容量和数据库中已提交的已选人数初始化
+     * 调用方的实体可能在回写之前加载，已选人数必须在锁内重新读取；
+     * 初始化与回写持有同一把锁，读到的已选人数与待回写增量一致
+     */
+    private AtomicInteger seatsOf(CourseOffering offering) {
+        Long offeringId = offering.getId();
+        AtomicInteger seats = remainingSeats.get(offeringId);
+        if (seats != null) {
+            return seats;
+        }
+        synchronized (lockOf(offeringId)) {
+            return remainingSeats.computeIfAbsent(offeringId, id -> {
+                AtomicInteger pending = pendingDeltas.get(id);
+                Integer persisted = committedRead.execute(status -> offeringRepository.findEnrolledById(id));
+                int enrolled = (persisted != null ? persisted : offering.getEnrolled())
+                        + (pending != null ? pending.get() : 0);
+                int remaining = Math.max(offering.getCapacity() - enrolled, 0);
+                log.debug("初始化选课名额: offeringId={}, capacity={}, remaining={}",
+                        id, offering.getCapacity(), remaining);
+                return new AtomicInteger(remaining);
+            });
+        }
+    }
+
+    private Object lockOf(Long offeringId) {
+        return offeringLocks.computeIfAbsent(offeringId, id -> new Object());
+    }
+
+    private void addPendingDelta(Long offeringId, int delta) {
+        pendingDeltas.computeIfAbsent(offeringId, id -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    /**
+     * 在当前事务完成后执行回调；没有活动事务时直接按提交处理
+     */
+    private void onCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,366 @@
+package com.university.academic.service;
+
+import com.university.academic.dto.SelectionTicketDTO;
+import com.university.academic.entity.CourseSelection;
+import com.university.academic.entity.Semester;
+import com.university.academic.event.ConfigSnapshotChangedEvent;
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 选课准入控制服务
+ * 选课开放瞬间的请求先进入按学期划分的有界队列，由固定大小的工作线程池按先进先出顺序处理，
+ * 学生凭排队凭证轮询结果；队列已满时立即拒绝，避免Web线程和数据库连接池被耗尽。
+ * 活动学期切换后，非活动学期的队列排空即移除。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+public class CourseSelectionAdmissionService {
+
+    private final CourseSelectionService selectionService;
+    private final SemesterService semesterService;
+
+    /**
+     * 每个学期排队队列的容量
+     */
+    private final int queueCapacity;
+
+    /**
+     * 已完成凭证的保留时间（分钟）
+     */
+    private final long ticketRetentionMinutes;
+
+    /**
+     * 选课处理线程池（线程数即并发预算）
+     */
+    private final ExecutorService workers;
+
+    /**
+     * 学期排队队列（semesterId -> 队列）
+     */
+    private final Map<Long, SemesterQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * 排队凭证（ticketId -> 凭证）
+     */
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    /**
+     * 未完成的凭证（studentId:offeringId -> ticketId），用于重复提交去重
+     */
+    private final Map<String, String> pendingTickets = new ConcurrentHashMap<>();
+
+    public CourseSelectionAdmissionService(
+            CourseSelectionService selectionService,
+            SemesterService semesterService,
+            @Value("${academic.selection.admission.queue-capacity:5000}") int queueCapacity,
+            @Value("${academic.selection.admission.concurrency:16}") int concurrency,
+            @Value("${academic.selection.admission.ticket-retention-minutes:10}") long ticketRetentionMinutes) {
+        this.selectionService = selectionService;
+        this.semesterService = semesterService;
+        this.queueCapacity = queueCapacity;
+        this.ticketRetentionMinutes = ticketRetentionMinutes;
+        this.workers = Executors.newFixedThreadPool(concurrency,
+                new CustomizableThreadFactory("selection-admission-"));
+    }
+
+    /**
+     * 提交选课请求进入排队
+     * 同一学生对同一开课计划的未完成请求直接返回原凭证
+     *
+     * @param studentId  学生ID
+     * @param offeringId 开课计划ID
+     * @return 排队凭证
+     */
+    public SelectionTicketDTO submit(Long studentId, Long offeringId) {
+        Semester activeSemester = semesterService.findActiveSemester();
+        SemesterQueue queue = queues.computeIfAbsent(activeSemester.getId(), SemesterQueue::new);
+
+        // 先登记凭证再占用去重键，并发的重复提交拿到的原凭证一定可以查询
+        String dedupKey = studentId + ":" + offeringId;
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), studentId, offeringId, queue);
+        tickets.put(ticket.getId(), ticket);
+        String existingTicketId = pendingTickets.putIfAbsent(dedupKey, ticket.getId());
+        if (existingTicketId != null) {
+            tickets.remove(ticket.getId());
+            return toDTO(tickets.get(existingTicketId));
+        }
+
+        if (!queue.offer(ticket)) {
+            log.warn("选课排队已满，拒绝请求: studentId={}, offeringId={}, semesterId={}",
+                    studentId, offeringId, queue.getSemesterId());
+            // 期间拿到该凭证的重复提交轮询时看到排队已满的失败结果
+            ticket.setErrorCode(ErrorCode.SELECTION_QUEUE_FULL.getCode());
+            ticket.setErrorMessage(ErrorCode.SELECTION_QUEUE_FULL.getMessage());
+            ticket.setStatus(TicketStatus.FAILED);
+            ticket.setFinishedAt(LocalDateTime.now());
+            pendingTickets.remove(dedupKey, ticket.getId());
+            throw new BusinessException(ErrorCode.SELECTION_QUEUE_FULL);
+        }
+
+        workers.execute(() -> processNext(queue));
+
+        log.debug("选课请求已排队: ticketId={}, studentId={}, offeringId={}, position={}",
+                ticket.getId(), studentId, offeringId, ticket.position());
+        return toDTO(ticket);
+    }
+
+    /**
+     * 查询排队凭证状态
+     *
+     * @param studentId 学生ID
+     * @param ticketId  凭证ID
+     * @return 排队凭证
+     */
+    public SelectionTicketDTO getTicket(Long studentId, String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new BusinessException(ErrorCode.SELECTION_TICKET_NOT_FOUND);
+        }
+        if (!ticket.getStudentId().equals(studentId)) {
+            throw new BusinessException(ErrorCode.FORBIDDEN);
+        }
+        return toDTO(ticket);
+    }
+
+    /**
+     * 查询学期当前排队长度
+     *
+     * @param semesterId 学期ID
+     * @return 排队中的请求数
+     */
+    public int getQueueLength(Long semesterId) {
+        SemesterQueue queue = queues.get(semesterId);
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * 清理过期的已完成凭证和已排空的非活动学期队列
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void cleanupTickets() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(ticketRetentionMinutes);
+        int before = tickets.size();
+        tickets.values().removeIf(ticket -> ticket.getFinishedAt() != null
+                && ticket.getFinishedAt().isBefore(threshold));
+        int removed = before - tickets.size();
+        if (removed > 0) {
+            log.debug("清理过期选课排队凭证: {}", removed);
+        }
+
+        Long activeSemesterId;
+        try {
+            activeSemesterId = semesterService.findActiveSemester().getId();
+        } catch (BusinessException e) {
+            activeSemesterId = null;
+        }
+        evictIdleQueues(activeSemesterId);
+    }
+
+    /**
+     * 活动学期切换后移除其他学期已排空的队列，未排空的由定时清理在处理完后移除
+     *
+     * @param event 配置快照变更事件
+     */
+    @EventListener
+    public void handleConfigChange(ConfigSnapshotChangedEvent event) {
+        if (!event.isActiveSemesterChanged()) {
+            return;
+        }
+        Semester activeSemester = event.getCurrent().activeSemester();
+        evictIdleQueues(activeSemester != null ? activeSemester.getId() : null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * 从学期队列头部取出一个请求并执行选课
+     * 每次入队对应一次出队，保证同一学期内按提交顺序处理
+     */
+    private void processNext(SemesterQueue queue) {
+        Ticket ticket = queue.poll();
+        if (ticket == null) {
+            return;
+        }
+
+        ticket.setStatus(TicketStatus.PROCESSING);
+        try {
+            CourseSelection selection = selectionService.selectCourse(
+                    ticket.getStudentId(), ticket.getOfferingId());
+            ticket.setSelectionId(selection.getId());
+            ticket.setStatus(TicketStatus.SUCCEEDED);
+        } catch (BusinessException e) {
+            ticket.setErrorCode(e.getCode());
+            ticket.setErrorMessage(e.getMessage());
+            ticket.setStatus(TicketStatus.FAILED);
+        } catch (Exception e) {
+            log.error("排队选课处理异常: ticketId={}", ticket.getId(), e);
+            ticket.setErrorCode(ErrorCode.SYSTEM_ERROR.getCode());
+            ticket.setErrorMessage(ErrorCode.SYSTEM_ERROR.getMessage());
+            ticket.setStatus(TicketStatus.FAILED);
+        } finally {
+            ticket.setFinishedAt(LocalDateTime.now());
+            pendingTickets.remove(ticket.getStudentId() + ":" + ticket.getOfferingId(), ticket.getId());
+        }
+    }
+
+    /**
+     * 移除非活动学期的空队列
+     * 移除前已取得队列引用的提交仍可入队，工作线程持有同一引用，请求照常处理
+     */
+    private void evictIdleQueues(Long activeSemesterId) {
+        queues.entrySet().removeIf(entry -> !entry.getKey().equals(activeSemesterId)
+                && entry.getValue().size() == 0);
+    }
+
+    private SelectionTicketDTO toDTO(Ticket ticket) {
+        TicketStatus status = ticket.getStatus();
+        return SelectionTicketDTO.builder()
+                .ticketId(ticket.getId())
+                .offeringId(ticket.getOfferingId())
+                .status(status.name())
+                .statusDescription(status.getDescription())
+                .position(status == TicketStatus.QUEUED ? ticket.position() : null)
+                .selectionId(ticket.getSelectionId())
+                .errorCode(ticket.getErrorCode())
+                .errorMessage(ticket.getErrorMessage())
+                .createdAt(ticket.getCreatedAt())
+                .finishedAt(ticket.getFinishedAt())
+                .build();
+    }
+
+    /**
+     * 排队凭证状态枚举
+     */
+    public enum TicketStatus {
+        QUEUED("排队中"),
+        PROCESSING("处理中"),
+        SUCCEEDED("选课成功"),
+        FAILED("选课失败");
+
+        private final String description;
+
+        TicketStatus(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * 学期排队队列
+     * 入队序号与出队计数之差即为排队位置
+     */
+    private class SemesterQueue {
+
+        @Getter
+        private final Long semesterId;
+        private final BlockingQueue<Ticket> queue;
+        private final AtomicLong enqueued = new AtomicLong();
+        private final AtomicLong dequeued = new AtomicLong();
+
+        SemesterQueue(Long semesterId) {
+            this.semesterId = semesterId;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        synchronized boolean offer(Ticket ticket) {
+            if (queue.remainingCapacity() == 0) {
+                return false;
+            }
+            ticket.setSequence(enqueued.incrementAndGet());
+            return queue.offer(ticket);
+        }
+
+        Ticket poll() {
+            Ticket ticket = queue.poll();
+            if (ticket != null) {
+                dequeued.incrementAndGet();
+            }
+            return ticket;
+        }
+
+        long position(long sequence) {
+            return Math.max(sequence - dequeued.get(), 1);
+        }
+
+        int size() {
+            return queue.size();
+        }
+    }
+
+    /**
+     * 排队凭证
+     */
+    @Getter
+    private static class Ticket {
+
+        private final String id;
+        private final Long studentId;
+        private final Long offeringId;
+        private final SemesterQueue queue;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile long sequence;
+        private volatile TicketStatus status = TicketStatus.QUEUED;
+        private volatile Long selectionId;
+        private volatile Integer errorCode;
+        private volatile String errorMessage;
+        private volatile LocalDateTime finishedAt;
+
+        Ticket(String id, Long studentId, Long offeringId, SemesterQueue queue) {
+            this.id = id;
+            this.studentId = studentId;
+            this.offeringId = offeringId;
+            this.queue = queue;
+        }
+
+        long position() {
+            return queue.position(sequence);
+        }
+
+        void setSequence(long sequence) {
+            this.sequence = sequence;
+        }
+
+        void setStatus(TicketStatus status) {
+            this.status = status;
+        }
+
+        void setSelectionId(Long selectionId) {
+            this.selectionId = selectionId;
+        }
+
+        void setErrorCode(Integer errorCode) {
+            this.errorCode = errorCode;
+        }
+
+        void setErrorMessage(String errorMessage) {
+            this.errorMessage = errorMessage;
+        }
+
+        void setFinishedAt(LocalDateTime finishedAt) {
+            this.finishedAt = finishedAt;
+        }
+    }
+}
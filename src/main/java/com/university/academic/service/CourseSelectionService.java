@@ -1,14 +1,12 @@
 package com.university.academic.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.university.academic.dto.BatchSelectionResultDTO;
 import com.university.academic.entity.*;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
 import com.university.academic.repository.CourseOfferingRepository;
-import com.university.academic.repository.CoursePrerequisiteRepository;
 import com.university.academic.repository.CourseSelectionRepository;
-import com.university.academic.repository.SystemConfigRepository;
+import com.university.academic.util.TimetableBitmap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -30,12 +28,13 @@ public class CourseSelectionService {
 
     private final CourseSelectionRepository selectionRepository;
     private final CourseOfferingRepository offeringRepository;
-    private final CoursePrerequisiteRepository prerequisiteRepository;
-    private final SystemConfigRepository configRepository;
+    private final ConfigSnapshotService configSnapshotService;
     private final StudentService studentService;
     private final SemesterService semesterService;
     private final StudentStatusUpdateService studentStatusUpdateService;
-    private final ObjectMapper objectMapper;
+    private final CourseSeatLedger seatLedger;
+    private final TimetableIndex timetableIndex;
+    private final PrerequisiteIndex prerequisiteIndex;
 
     /**
      * 根据ID查询选课记录
@@ -99,45 +98,32 @@ public class CourseSelectionService {
     }
 
     /**
-     * 查询当前学期可选的开课计划列表
+     * 学生选课
      *
-     * @return 开课计划列表
+     * @param studentId  学生ID
+     * @param offeringId 开课计划ID
+     * @return 选课记录对象
      */
-    @Transactional(readOnly = true)
-    public List<CourseOffering> findAvailableOfferings() {
-        Semester activeSemester = semesterService.findActiveSemester();
-        
-        // 检查选课功能是否开启，如果未开启则返回空列表
-        if (!activeSemester.getCourseSelectionEnabled()) {
-            log.info("选课功能未开启，返回空列表");
-            return java.util.Collections.emptyList();
-        }
-        
-        // 检查是否在选课时间范围内
-        LocalDateTime now = LocalDateTime.now();
-        if (now.isBefore(activeSemester.getCourseSelectionStart()) || 
-            now.isAfter(activeSemester.getCourseSelectionEnd())) {
-            log.info("不在选课时间范围内，返回空列表");
-            return java.util.Collections.emptyList();
-        }
-        
-        List<CourseOffering> offerings = offeringRepository.findBySemesterId(activeSemester.getId());
-        
-        // 只返回已发布的开课计划
-        return offerings.stream()
-                .filter(o -> o.getStatus() == CourseOffering.OfferingStatus.PUBLISHED)
-                .toList();
+    @Transactional
+    public CourseSelection selectCourse(Long studentId, Long offeringId) {
+        return doSelectCourse(studentId, offeringId, false);
     }
 
     /**
-     * 学生选课
+     * 候补递补选课
+     * 与普通选课执行相同的校验（先修课程、时间冲突、学分上限等），
+     * 但可以占用为候补队列保留的名额
      *
      * @param studentId  学生ID
      * @param offeringId 开课计划ID
      * @return 选课记录对象
      */
     @Transactional
-    public CourseSelection selectCourse(Long studentId, Long offeringId) {
+    public CourseSelection promoteFromWaitlist(Long studentId, Long offeringId) {
+        return doSelectCourse(studentId, offeringId, true);
+    }
+
+    private CourseSelection doSelectCourse(Long studentId, Long offeringId, boolean fromWaitlist) {
         // 1. 验证学生和开课计划是否存在
         Student student = studentService.findById(studentId);
         CourseOffering offering = offeringRepository.findById(offeringId)
@@ -154,6 +140,11 @@ public class CourseSelectionService {
         // 4. 验证选课时间
         validateSelectionPeriod(offering.getSemester());
 
+        // 课程已满（或名额留给候补）时直接拒绝，无需进行后续校验
+        if (!fromWaitlist && !seatLedger.hasSeat(offering)) {
+            throw new BusinessException(ErrorCode.SELECTION_COURSE_FULL);
+        }
+
         // 5. 检查是否已选或已存在退课记录
         Optional<CourseSelection> existingSelection = selectionRepository
                 .findByStudentIdAndOfferingId(studentId, offeringId);
@@ -163,10 +154,7 @@ public class CourseSelectionService {
             if (existing.getStatus() == CourseSelection.SelectionStatus.SELECTED) {
                 throw new BusinessException(ErrorCode.SELECTION_ALREADY_EXISTS);
             }
-            // 如果是已退课，允许重新选课，更新状态和选课时间
-            existing.setStatus(CourseSelection.SelectionStatus.SELECTED);
-            existing.setSelectionTime(LocalDateTime.now());
-            
+            // 如果是已退课，允许重新选课，校验通过后再恢复选课状态
             // 验证先修课程
             validatePrerequisites(studentId, offering.getCourse().getId());
             
@@ -177,10 +165,15 @@ public class CourseSelectionService {
             validateCreditLimit(studentId, offering.getSemester().getId(), 
                     offering.getCourse().getCredits());
             
-            // 验证并更新人数限制
-            validateAndUpdateCapacity(offering);
+            // 占用名额
+            reserveSeat(offering, fromWaitlist);
+
+            // 更新状态和选课时间
+            existing.setStatus(CourseSelection.SelectionStatus.SELECTED);
+            existing.setSelectionTime(LocalDateTime.now());
             
             CourseSelection savedSelection = selectionRepository.save(existing);
+            timetableIndex.onSelected(studentId, offering);
             log.info("学生重新选课成功: 学生={}, 课程={}, 教师={}", 
                     student.getName(), 
                     offering.getCourse().getName(),
@@ -199,8 +192,8 @@ public class CourseSelectionService {
         validateCreditLimit(studentId, offering.getSemester().getId(), 
                 offering.getCourse().getCredits());
 
-        // 9. 验证人数限制（使用乐观锁）
-        validateAndUpdateCapacity(offering);
+        // 9. 占用名额（内存账本，已选人数异步回写）
+        reserveSeat(offering, fromWaitlist);
 
         // 10. 创建选课记录
         CourseSelection selection = CourseSelection.builder()
@@ -211,6 +204,7 @@ public class CourseSelectionService {
                 .build();
 
         CourseSelection savedSelection = selectionRepository.save(selection);
+        timetableIndex.onSelected(studentId, offering);
         log.info("学生选课成功: 学生={}, 课程={}, 教师={}", 
                 student.getName(), 
                 offering.getCourse().getName(),
@@ -219,6 +213,141 @@ public class CourseSelectionService {
         return savedSelection;
     }
 
+    /**
+     * 批量选课（提交选课清单）
+     * 学生的选课历史、已选学分和课表只加载一次（先修课程由内存索引校验），逐项校验先修课程、时间冲突（含清单内课程之间）
+     * 和累计学分，通过校验的课程统一占用名额并批量保存，返回逐项结果
+     *
+     * @param studentId   学生ID
+     * @param offeringIds 开课计划ID列表
+     * @return 批量选课结果
+     */
+    @Transactional
+    public BatchSelectionResultDTO selectCourses(Long studentId, List<Long> offeringIds) {
+        Student student = studentService.findById(studentId);
+        studentStatusUpdateService.validateStudentStatusForSelection(studentId);
+
+        // 1. 一次性加载清单中的开课计划
+        Map<Long, CourseOffering> offerings = new HashMap<>();
+        List<Long> distinctIds = offeringIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (!distinctIds.isEmpty()) {
+            for (CourseOffering offering : offeringRepository.findAllWithDetailsByIdIn(distinctIds)) {
+                offerings.put(offering.getId(), offering);
+            }
+        }
+
+        // 2. 一次性加载学生选课历史：已有选课记录、各学期已选学分
+        Map<Long, CourseSelection> existingSelections = new HashMap<>();
+        Map<Long, Integer> creditsBySemester = new HashMap<>();
+        for (CourseSelection selection : selectionRepository.findByStudentIdWithOffering(studentId)) {
+            CourseOffering offering = selection.getOffering();
+            existingSelections.put(offering.getId(), selection);
+            if (selection.getStatus() == CourseSelection.SelectionStatus.SELECTED) {
+                creditsBySemester.merge(offering.getSemester().getId(),
+                        offering.getCourse().getCredits(), Integer::sum);
+            }
+        }
+
+        int maxCredits = configSnapshotService.current().maxCreditsPerSemester();
+
+        // 3. 逐项校验，清单内已通过的课程计入课表和学分
+        Map<Long, TimetableBitmap> cartTimetables = new HashMap<>();
+        Set<Long> handledOfferingIds = new HashSet<>();
+        List<BatchSelectionResultDTO.Item> items = new ArrayList<>();
+        List<CourseSelection> toSave = new ArrayList<>();
+        List<BatchSelectionResultDTO.Item> pendingItems = new ArrayList<>();
+
+        for (Long offeringId : offeringIds) {
+            CourseOffering offering = offerings.get(offeringId);
+            BatchSelectionResultDTO.Item item = BatchSelectionResultDTO.Item.builder()
+                    .offeringId(offeringId)
+                    .courseName(offering != null ? offering.getCourse().getName() : null)
+                    .build();
+            items.add(item);
+
+            try {
+                if (offering == null || offering.getStatus() != CourseOffering.OfferingStatus.PUBLISHED) {
+                    throw new BusinessException(ErrorCode.OFFERING_NOT_FOUND);
+                }
+                if (!handledOfferingIds.add(offeringId)) {
+                    throw new BusinessException(ErrorCode.SELECTION_ALREADY_EXISTS);
+                }
+
+                validateSelectionPeriod(offering.getSemester());
+
+                CourseSelection existing = existingSelections.get(offeringId);
+                if (existing != null && existing.getStatus() == CourseSelection.SelectionStatus.SELECTED) {
+                    throw new BusinessException(ErrorCode.SELECTION_ALREADY_EXISTS);
+                }
+                if (!seatLedger.hasSeat(offering)) {
+                    throw new BusinessException(ErrorCode.SELECTION_COURSE_FULL);
+                }
+
+                validatePrerequisites(studentId, offering.getCourse().getId());
+
+                Long semesterId = offering.getSemester().getId();
+                validateTimeConflict(studentId, offering, null);
+                TimetableBitmap bitmap = timetableIndex.bitmapOf(offering);
+                TimetableBitmap cartTimetable = cartTimetables.getOrDefault(semesterId, TimetableBitmap.EMPTY);
+                if (cartTimetable.intersects(bitmap)) {
+                    log.warn("学生 {} 选课清单内课程时间冲突: offeringId={}", studentId, offeringId);
+                    throw new BusinessException(ErrorCode.SELECTION_TIME_CONFLICT);
+                }
+
+                int credits = offering.getCourse().getCredits();
+                int currentCredits = creditsBySemester.getOrDefault(semesterId, 0);
+                checkCreditLimit(studentId, currentCredits, credits, maxCredits);
+
+                reserveSeat(offering, false);
+
+                cartTimetables.put(semesterId, cartTimetable.or(bitmap));
+                creditsBySemester.put(semesterId, currentCredits + credits);
+
+                CourseSelection selection = existing != null ? existing : CourseSelection.builder()
+                        .student(student)
+                        .offering(offering)
+                        .build();
+                selection.setStatus(CourseSelection.SelectionStatus.SELECTED);
+                selection.setSelectionTime(LocalDateTime.now());
+                toSave.add(selection);
+                pendingItems.add(item);
+            } catch (BusinessException e) {
+                item.setSuccess(false);
+                item.setErrorCode(e.getCode());
+                item.setMessage(e.getMessage());
+            }
+        }
+
+        // 4. 批量保存通过校验的选课记录
+        List<CourseSelection> saved = selectionRepository.saveAll(toSave);
+        for (int i = 0; i < saved.size(); i++) {
+            CourseSelection selection = saved.get(i);
+            BatchSelectionResultDTO.Item item = pendingItems.get(i);
+            item.setSuccess(true);
+            item.setSelectionId(selection.getId());
+            item.setMessage("选课成功");
+            timetableIndex.onSelected(studentId, selection.getOffering());
+        }
+
+        int successCount = saved.size();
+        Long semesterId = offeringIds.stream()
+                .map(offerings::get)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .map(offering -> offering.getSemester().getId())
+                .orElse(null);
+        log.info("学生批量选课完成: 学生={}, 提交={}, 成功={}",
+                student.getName(), offeringIds.size(), successCount);
+
+        return BatchSelectionResultDTO.builder()
+                .totalCount(offeringIds.size())
+                .successCount(successCount)
+                .failCount(offeringIds.size() - successCount)
+                .totalCredits(semesterId != null ? creditsBySemester.getOrDefault(semesterId, 0) : 0)
+                .items(items)
+                .build();
+    }
+
     /**
      * 学生退课
      *
@@ -247,14 +376,14 @@ public class CourseSelectionService {
         // 4. 验证退课期限
         validateDropDeadline(selection.getOffering().getSemester());
 
-        // 5. 释放课程名额
+        // 5. 释放课程名额（事务提交后归还，已选人数异步回写）
         CourseOffering offering = selection.getOffering();
-        offering.setEnrolled(offering.getEnrolled() - 1);
-        offeringRepository.save(offering);
+        seatLedger.release(offering);
 
         // 6. 更新选课状态
         selection.setStatus(CourseSelection.SelectionStatus.DROPPED);
         selectionRepository.save(selection);
+        timetableIndex.evictStudent(studentId);
 
         log.info("学生退课成功: 学生={}, 课程={}", 
                 selection.getStudent().getName(),
@@ -292,7 +421,7 @@ public class CourseSelectionService {
         LocalDateTime now = LocalDateTime.now();
         
         // 从系统配置读取退课截止天数
-        int dropDeadlineDays = getConfigInt("drop_deadline_days", 14);
+        int dropDeadlineDays = configSnapshotService.current().dropDeadlineDays();
         LocalDateTime dropDeadline = semester.getStartDate()
                 .plusDays(dropDeadlineDays)
                 .atTime(23, 59, 59);
@@ -309,32 +438,12 @@ public class CourseSelectionService {
      * @param courseId  课程ID
      */
     private void validatePrerequisites(Long studentId, Long courseId) {
-        // 查询该课程的所有先修课程
-        List<CoursePrerequisite> prerequisites = prerequisiteRepository.findByCourseId(courseId);
-        
-        if (prerequisites.isEmpty()) {
-            return; // 没有先修课程要求
-        }
-
-        // 查询学生的所有已完成课程
-        List<CourseSelection> completedSelections = selectionRepository.findByStudentId(studentId)
-                .stream()
-                .filter(s -> s.getStatus() == CourseSelection.SelectionStatus.COMPLETED)
-                .toList();
-
-        Set<Long> completedCourseIds = new HashSet<>();
-        for (CourseSelection selection : completedSelections) {
-            completedCourseIds.add(selection.getOffering().getCourse().getId());
-        }
-
-        // 检查是否满足所有先修课程要求
-        for (CoursePrerequisite prerequisite : prerequisites) {
-            Long prerequisiteCourseId = prerequisite.getPrerequisiteCourse().getId();
-            if (!completedCourseIds.contains(prerequisiteCourseId)) {
-                log.warn("学生 {} 未满足先修课程要求: 需要完成课程 {}", 
-                        studentId, prerequisite.getPrerequisiteCourse().getName());
-                throw new BusinessException(ErrorCode.SELECTION_PREREQUISITE_NOT_MET);
-            }
+        // 先修课程图和学生已完成课程位图均在内存中
+        List<Long> unmetPrerequisites = prerequisiteIndex.findUnmetPrerequisites(studentId, courseId);
+        if (!unmetPrerequisites.isEmpty()) {
+            log.warn("学生 {} 未满足先修课程要求: 课程 {} 需要先完成课程 {}",
+                    studentId, courseId, unmetPrerequisites);
+            throw new BusinessException(ErrorCode.SELECTION_PREREQUISITE_NOT_MET);
         }
     }
 
@@ -346,29 +455,12 @@ public class CourseSelectionService {
      * @param excludeOfferingId 要排除的开课计划ID（重新选课时排除自己）
      */
     private void validateTimeConflict(Long studentId, CourseOffering offering, Long excludeOfferingId) {
-        // 查询学生在该学期的其他已选课程
-        List<CourseSelection> selections = selectionRepository
-                .findActiveByStudentAndSemester(studentId, offering.getSemester().getId());
-
-        // 解析当前课程的上课时间
-        List<Map<String, Object>> currentSchedule = parseSchedule(offering.getSchedule());
-
-        // 检查是否与已选课程时间冲突
-        for (CourseSelection selection : selections) {
-            // 排除指定的开课计划（重新选课时排除自己）
-            if (excludeOfferingId != null && selection.getOffering().getId().equals(excludeOfferingId)) {
-                continue;
-            }
-            
-            List<Map<String, Object>> existingSchedule = 
-                    parseSchedule(selection.getOffering().getSchedule());
-            
-            if (hasTimeConflict(currentSchedule, existingSchedule)) {
-                log.warn("学生 {} 选课时间冲突: 与课程 {} 冲突", 
-                        studentId, selection.getOffering().getCourse().getName());
-                throw new BusinessException(ErrorCode.SELECTION_TIME_CONFLICT);
-            }
-        }
+        // 与学生本学期的合并课表做位图比对
+        timetableIndex.findConflict(studentId, offering, excludeOfferingId)
+                .ifPresent(conflictOfferingId -> {
+                    log.warn("学生 {} 选课时间冲突: 与开课计划 {} 冲突", studentId, conflictOfferingId);
+                    throw new BusinessException(ErrorCode.SELECTION_TIME_CONFLICT);
+                });
     }
 
     /**
@@ -380,7 +472,7 @@ public class CourseSelectionService {
      */
     private void validateCreditLimit(Long studentId, Long semesterId, Integer newCredits) {
         // 从系统配置读取学分上限
-        int maxCredits = getConfigInt("max_credits_per_semester", 30);
+        int maxCredits = configSnapshotService.current().maxCreditsPerSemester();
 
         // 统计学生在该学期已选课程的总学分
         Integer currentCredits = selectionRepository
@@ -390,6 +482,18 @@ public class CourseSelectionService {
             currentCredits = 0;
         }
 
+        checkCreditLimit(studentId, currentCredits, newCredits, maxCredits);
+    }
+
+    /**
+     * 检查新增学分后是否超过学分上限
+     *
+     * @param studentId      学生ID
+     * @param currentCredits 当前已选学分
+     * @param newCredits     新选课程的学分
+     * @param maxCredits     学分上限
+     */
+    private void checkCreditLimit(Long studentId, int currentCredits, int newCredits, int maxCredits) {
         // 检查是否超过学分上限
         if (currentCredits + newCredits > maxCredits) {
             log.warn("学生 {} 选课超过学分上限: 当前{}学分, 新增{}学分, 上限{}学分", 
@@ -399,151 +503,19 @@ public class CourseSelectionService {
     }
 
     /**
-     * 验证并更新课程容量（使用乐观锁）
+     * 从名额账本占用一个名额
+     * 名额在内存中原子扣减，事务回滚时自动归还，不再对开课计划行加乐观锁
      *
-     * @param offering 开课计划
+     * @param offering     开课计划
+     * @param fromWaitlist 是否为候补递补（可占用为候补保留的名额）
      */
-    private void validateAndUpdateCapacity(CourseOffering offering) {
-        // 检查是否还有名额
-        if (!offering.hasCapacity()) {
+    private void reserveSeat(CourseOffering offering, boolean fromWaitlist) {
+        boolean reserved = fromWaitlist
+                ? seatLedger.tryReserveForWaitlist(offering)
+                : seatLedger.tryReserve(offering);
+        if (!reserved) {
             throw new BusinessException(ErrorCode.SELECTION_COURSE_FULL);
         }
-
-        // 增加已选人数（JPA会使用乐观锁自动处理并发）
-        offering.setEnrolled(offering.getEnrolled() + 1);
-        try {
-            offeringRepository.save(offering);
-        } catch (Exception e) {
-            // 乐观锁冲突，说明课程已满
-            log.error("选课并发冲突: offeringId={}", offering.getId(), e);
-            throw new BusinessException(ErrorCode.OPTIMISTIC_LOCK_FAILURE);
-        }
-    }
-
-    /**
-     * 从系统配置读取整型值
-     *
-     * @param configKey    配置键
-     * @param defaultValue 默认值
-     * @return 配置值
-     */
-    private int getConfigInt(String configKey, int defaultValue) {
-        return configRepository.findByConfigKey(configKey)
-                .map(config -> {
-                    try {
-                        return Integer.parseInt(config.getConfigValue());
-                    } catch (NumberFormatException e) {
-                        log.error("系统配置值格式错误: key={}, value={}", 
-                                configKey, config.getConfigValue());
-                        return defaultValue;
-                    }
-                })
-                .orElse(defaultValue);
-    }
-
-    /**
-     * 解析上课时间JSON
-     *
-     * @param schedule 上课时间JSON字符串
-     * @return 上课时间列表
-     */
-    private List<Map<String, Object>> parseSchedule(String schedule) {
-        try {
-            return objectMapper.readValue(schedule, 
-                    new TypeReference<List<Map<String, Object>>>() {});
-        } catch (Exception e) {
-            log.error("解析上课时间失败: {}", schedule, e);
-            return new ArrayList<>();
-        }
-    }
-
-    /**
-     * 检查两个上课时间是否冲突
-     *
-     * @param schedule1 上课时间1
-     * @param schedule2 上课时间2
-     * @return true-冲突，false-不冲突
-     */
-    private boolean hasTimeConflict(List<Map<String, Object>> schedule1, 
-                                   List<Map<String, Object>> schedule2) {
-        for (Map<String, Object> time1 : schedule1) {
-            for (Map<String, Object> time2 : schedule2) {
-                // 检查是否同一天
-                Integer day1 = (Integer) time1.get("day");
-                Integer day2 = (Integer) time2.get("day");
-                
-                if (!day1.equals(day2)) {
-                    continue;
-                }
-
-                // 检查时间段是否重叠
-                String period1 = (String) time1.get("period");
-                String period2 = (String) time2.get("period");
-                
-                if (isPeriodOverlap(period1, period2)) {
-                    // 如果有weeks字段，还需要检查周次是否重叠
-                    if (time1.containsKey("weeks") && time2.containsKey("weeks")) {
-                        @SuppressWarnings("unchecked")
-                        List<Integer> weeks1 = (List<Integer>) time1.get("weeks");
-                        @SuppressWarnings("unchecked")
-                        List<Integer> weeks2 = (List<Integer>) time2.get("weeks");
-                        
-                        if (hasWeekOverlap(weeks1, weeks2)) {
-                            return true;
-                        }
-                    } else {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * 检查时间段是否重叠
-     * 支持单节次格式: "1" 和 "1-2" 有重叠
-     *
-     * @param period1 时间段1 (格式: "1-2" 或 "1")
-     * @param period2 时间段2 (格式: "1-2" 或 "1")
-     * @return true-重叠，false-不重叠
-     */
-    private boolean isPeriodOverlap(String period1, String period2) {
-        try {
-            String[] parts1 = period1.split("-");
-            String[] parts2 = period2.split("-");
-            
-            int start1 = Integer.parseInt(parts1[0]);
-            int end1 = parts1.length > 1 ? Integer.parseInt(parts1[1]) : start1; // 单节次时start=end
-            int start2 = Integer.parseInt(parts2[0]);
-            int end2 = parts2.length > 1 ? Integer.parseInt(parts2[1]) : start2; // 单节次时start=end
-            
-            return !(end1 < start2 || end2 < start1);
-        } catch (Exception e) {
-            log.error("解析时间段失败: {} vs {}", period1, period2, e);
-            return false;
-        }
-    }
-
-    /**
-     * 检查周次是否重叠
-     *
-     * @param weeks1 周次列表1
-     * @param weeks2 周次列表2
-     * @return true-重叠，false-不重叠
-     */
-    private boolean hasWeekOverlap(List<Integer> weeks1, List<Integer> weeks2) {
-        if (weeks1 == null || weeks2 == null) {
-            return true;
-        }
-        
-        Set<Integer> set1 = new HashSet<>(weeks1);
-        for (Integer week : weeks2) {
-            if (set1.contains(week)) {
-                return true;
-            }
-        }
-        return false;
     }
 
     /**
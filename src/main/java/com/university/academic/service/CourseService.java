@@ -2,10 +2,12 @@ package com.university.academic.service;
 
 import com.university.academic.config.CacheConfig;
 import com.university.academic.entity.Course;
+import com.university.academic.entity.CourseOffering;
 import com.university.academic.entity.CoursePrerequisite;
 import com.university.academic.entity.Department;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
+import com.university.academic.repository.CourseOfferingRepository;
 import com.university.academic.repository.CoursePrerequisiteRepository;
 import com.university.academic.repository.CourseRepository;
 import lombok.RequiredArgsConstructor;
@@ -33,7 +35,11 @@ public class CourseService {
 
     private final CourseRepository courseRepository;
     private final CoursePrerequisiteRepository coursePrerequisiteRepository;
+    private final CourseOfferingRepository offeringRepository;
+    private final OfferingCatalogueService offeringCatalogue;
+    private final PrerequisiteIndex prerequisiteIndex;
     private final DepartmentService departmentService;
+    private final CreditCalculationService creditCalculationService;
 
     /**
      * 根据ID查询课程
@@ -132,6 +138,8 @@ public class CourseService {
         }
 
         Course savedCourse = courseRepository.save(course);
+        // 新课程可能是必修课，重建先修课程索引
+        prerequisiteIndex.refresh();
         log.info("创建课程成功: {} - {} (课程编号: {}, 学分: {}, 学时: {})",
                 savedCourse.getId(),
                 savedCourse.getName(),
@@ -162,17 +170,23 @@ public class CourseService {
             existingCourse.setCourseNo(course.getCourseNo());
         }
 
+        // 学分、类型、名称（决定是否计为实践课程）变化会影响已修学生的学分账本
+        boolean creditAffected = false;
+
         // 更新其他字段
         if (course.getName() != null) {
+            creditAffected |= !course.getName().equals(existingCourse.getName());
             existingCourse.setName(course.getName());
         }
         if (course.getCredits() != null) {
+            creditAffected |= !course.getCredits().equals(existingCourse.getCredits());
             existingCourse.setCredits(course.getCredits());
         }
         if (course.getHours() != null) {
             existingCourse.setHours(course.getHours());
         }
         if (course.getType() != null) {
+            creditAffected |= course.getType() != existingCourse.getType();
             existingCourse.setType(course.getType());
         }
         if (course.getDescription() != null) {
@@ -186,6 +200,15 @@ public class CourseService {
         }
 
         Course updatedCourse = courseRepository.save(existingCourse);
+        if (creditAffected) {
+            creditCalculationService.invalidateLedgersByCourse(id);
+        }
+        // 可选课程目录中缓存了课程编号、名称、学分和类型，刷新该课程已发布的开课计划
+        offeringRepository.findByCourseId(id).stream()
+                .filter(offering -> offering.getStatus() == CourseOffering.OfferingStatus.PUBLISHED)
+                .forEach(offering -> offeringCatalogue.refreshOffering(offering.getId()));
+        // 课程类型可能变化，重建先修课程索引
+        prerequisiteIndex.refresh();
         log.info("更新课程成功: {} - {}", updatedCourse.getCourseNo(), updatedCourse.getName());
         return updatedCourse;
     }
@@ -212,6 +235,7 @@ public class CourseService {
         
         // 删除课程（会级联删除先修课程关系）
         courseRepository.delete(course);
+        prerequisiteIndex.refresh();
         
         log.info("删除课程成功: {} - {}", course.getCourseNo(), course.getName());
     }
@@ -268,6 +292,7 @@ public class CourseService {
         List<CoursePrerequisite> existingPrerequisites = 
                 coursePrerequisiteRepository.findByCourseId(courseId);
         coursePrerequisiteRepository.deleteAll(existingPrerequisites);
+        prerequisiteIndex.refresh();
 
         // 添加新的先修课程关系
         if (prerequisiteCourseIds != null && !prerequisiteCourseIds.isEmpty()) {
@@ -305,8 +330,8 @@ public class CourseService {
             return;
         }
 
-        // 检查是否存在循环依赖
-        if (coursePrerequisiteRepository.hasCircularDependency(courseId, prerequisiteCourseId)) {
+        // 检查是否存在循环依赖（包括间接依赖）
+        if (prerequisiteIndex.wouldCreateCycle(courseId, prerequisiteCourseId)) {
             throw new BusinessException(ErrorCode.PREREQUISITE_CIRCULAR);
         }
 
@@ -316,6 +341,7 @@ public class CourseService {
                 .prerequisiteCourse(prerequisiteCourse)
                 .build();
         coursePrerequisiteRepository.save(prerequisite);
+        prerequisiteIndex.refresh();
 
         log.info("添加先修课程成功: {} -> {}", course.getCourseNo(), prerequisiteCourse.getCourseNo());
     }
@@ -333,6 +359,7 @@ public class CourseService {
                 .orElseThrow(() -> new BusinessException(ErrorCode.DATA_NOT_FOUND));
 
         coursePrerequisiteRepository.delete(prerequisite);
+        prerequisiteIndex.refresh();
         log.info("删除先修课程成功: {} -> {}", courseId, prerequisiteCourseId);
     }
 
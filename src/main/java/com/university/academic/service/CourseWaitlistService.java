@@ -0,0 +1,350 @@
+package com.university.academic.service;
+
+import com.university.academic.dto.CourseWaitlistDTO;
+import com.university.academic.entity.CourseOffering;
+import com.university.academic.entity.CourseSelection;
+import com.university.academic.entity.CourseWaitlist;
+import com.university.academic.entity.Student;
+import com.university.academic.event.SeatReleasedEvent;
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
+import com.university.academic.repository.CourseOfferingRepository;
+import com.university.academic.repository.CourseSelectionRepository;
+import com.university.academic.repository.CourseWaitlistRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * 选课候补服务
+ * 课程已满时学生加入候补队列，不必反复刷新重试；退课或扩容释放名额后，
+ * 由后台线程按加入顺序依次为队首学生重新校验（先修课程、时间冲突、学分上限）并递补，
+ * 结果通过站内通知告知学生。存在候补学生时释放的名额只用于递补。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+public class CourseWaitlistService {
+
+    private static final String NOTIFICATION_TYPE = "COURSE_SELECTION";
+    private static final String REFERENCE_TYPE = "COURSE_WAITLIST";
+
+    /**
+     * 选课暂不可用时停止递补、保留候补的错误码（名额已满、不在选课时间、开课计划不可选）
+     */
+    private static final Set<Integer> HALT_ERROR_CODES = Set.of(
+            ErrorCode.SELECTION_COURSE_FULL.getCode(),
+            ErrorCode.SELECTION_PERIOD_NOT_START.getCode(),
+            ErrorCode.SELECTION_PERIOD_ENDED.getCode(),
+            ErrorCode.SELECTION_DISABLED.getCode(),
+            ErrorCode.OFFERING_NOT_FOUND.getCode());
+
+    private final CourseWaitlistRepository waitlistRepository;
+    private final CourseOfferingRepository offeringRepository;
+    private final CourseSelectionRepository selectionRepository;
+    private final CourseSelectionService selectionService;
+    private final StudentService studentService;
+    private final CourseSeatLedger seatLedger;
+    private final UserNotificationService userNotificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 每名学生同时候补的课程数上限
+     */
+    private final int maxPerStudent;
+
+    /**
+     * 递补处理线程池
+     */
+    private final ExecutorService promotionExecutor;
+
+    /**
+     * 递补状态（offeringId -> 是否需要再跑一轮），保证同一开课计划同时只有一个递补任务
+     */
+    private final Map<Long, Boolean> promoting = new ConcurrentHashMap<>();
+
+    public CourseWaitlistService(
+            CourseWaitlistRepository waitlistRepository,
+            CourseOfferingRepository offeringRepository,
+            CourseSelectionRepository selectionRepository,
+            CourseSelectionService selectionService,
+            StudentService studentService,
+            CourseSeatLedger seatLedger,
+            UserNotificationService userNotificationService,
+            TransactionTemplate transactionTemplate,
+            @Value("${academic.selection.waitlist.max-per-student:5}") int maxPerStudent,
+            @Value("${academic.selection.waitlist.promotion-threads:2}") int promotionThreads) {
+        this.waitlistRepository = waitlistRepository;
+        this.offeringRepository = offeringRepository;
+        this.selectionRepository = selectionRepository;
+        this.selectionService = selectionService;
+        this.studentService = studentService;
+        this.seatLedger = seatLedger;
+        this.userNotificationService = userNotificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxPerStudent = maxPerStudent;
+        this.promotionExecutor = Executors.newFixedThreadPool(promotionThreads,
+                new CustomizableThreadFactory("waitlist-promotion-"));
+    }
+
+    /**
+     * 加入候补队列
+     *
+     * @param studentId  学生ID
+     * @param offeringId 开课计划ID
+     * @return 候补记录
+     */
+    @Transactional
+    public CourseWaitlistDTO join(Long studentId, Long offeringId) {
+        Student student = studentService.findById(studentId);
+        CourseOffering offering = offeringRepository.findById(offeringId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.OFFERING_NOT_FOUND));
+
+        if (offering.getStatus() != CourseOffering.OfferingStatus.PUBLISHED) {
+            throw new BusinessException(ErrorCode.OFFERING_NOT_FOUND);
+        }
+
+        boolean selected = selectionRepository.findByStudentIdAndOfferingId(studentId, offeringId)
+                .map(selection -> selection.getStatus() != CourseSelection.SelectionStatus.DROPPED)
+                .orElse(false);
+        if (selected) {
+            throw new BusinessException(ErrorCode.SELECTION_ALREADY_EXISTS);
+        }
+
+        if (waitlistRepository.existsByStudentIdAndOfferingIdAndStatus(
+                studentId, offeringId, CourseWaitlist.WaitlistStatus.WAITING)) {
+            throw new BusinessException(ErrorCode.SELECTION_WAITLIST_ALREADY_JOINED);
+        }
+
+        if (seatLedger.hasSeat(offering)) {
+            throw new BusinessException(ErrorCode.SELECTION_COURSE_NOT_FULL);
+        }
+
+        if (waitlistRepository.countByStudentIdAndStatus(
+                studentId, CourseWaitlist.WaitlistStatus.WAITING) >= maxPerStudent) {
+            throw new BusinessException(ErrorCode.SELECTION_WAITLIST_LIMIT_EXCEEDED);
+        }
+
+        CourseWaitlist waitlist = CourseWaitlist.builder()
+                .student(student)
+                .offering(offering)
+                .status(CourseWaitlist.WaitlistStatus.WAITING)
+                .build();
+        CourseWaitlist saved;
+        try {
+            // 立即刷新，并发重复加入由唯一索引拦截
+            saved = waitlistRepository.saveAndFlush(waitlist);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException(ErrorCode.SELECTION_WAITLIST_ALREADY_JOINED);
+        }
+        seatLedger.adjustWaiting(offeringId, 1);
+
+        log.info("学生加入候补队列: studentId={}, offeringId={}, waitlistId={}",
+                studentId, offeringId, saved.getId());
+        return toDTO(saved);
+    }
+
+    /**
+     * 退出候补队列
+     *
+     * @param studentId  学生ID
+     * @param waitlistId 候补记录ID
+     */
+    @Transactional
+    public void leave(Long studentId, Long waitlistId) {
+        CourseWaitlist waitlist = waitlistRepository.findById(waitlistId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.SELECTION_WAITLIST_NOT_FOUND));
+        if (!waitlist.getStudent().getId().equals(studentId)) {
+            throw new BusinessException(ErrorCode.FORBIDDEN);
+        }
+        if (waitlist.getStatus() != CourseWaitlist.WaitlistStatus.WAITING) {
+            throw new BusinessException(ErrorCode.INVALID_OPERATION, "该候补记录已处理");
+        }
+
+        Long offeringId = waitlist.getOffering().getId();
+        waitlist.setStatus(CourseWaitlist.WaitlistStatus.CANCELLED);
+        waitlist.setProcessedAt(LocalDateTime.now());
+        waitlistRepository.save(waitlist);
+        seatLedger.adjustWaiting(offeringId, -1);
+
+        log.info("学生退出候补队列: studentId={}, waitlistId={}", studentId, waitlistId);
+    }
+
+    /**
+     * 查询学生的候补记录
+     *
+     * @param studentId 学生ID
+     * @return 候补记录列表
+     */
+    @Transactional(readOnly = true)
+    public List<CourseWaitlistDTO> findByStudent(Long studentId) {
+        return waitlistRepository.findByStudentIdWithOffering(studentId).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 名额释放后触发递补（名额已在内存账本中归还）
+     *
+     * @param event 名额释放事件
+     */
+    @EventListener
+    public void handleSeatReleased(SeatReleasedEvent event) {
+        schedulePromotion(event.getOfferingId());
+    }
+
+    /**
+     * 启动时加载各开课计划的候补人数，并为可能遗漏的名额补做一次递补
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWaitingCounts() {
+        List<Object[]> counts = waitlistRepository.countWaitingGroupByOffering();
+        for (Object[] row : counts) {
+            Long offeringId = (Long) row[0];
+            seatLedger.setWaiting(offeringId, ((Long) row[1]).intValue());
+            schedulePromotion(offeringId);
+        }
+        log.info("候补人数加载完成: 开课计划数={}", counts.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        promotionExecutor.shutdown();
+    }
+
+    /**
+     * 提交递补任务；同一开课计划已有任务在执行时只标记需要再跑一轮
+     */
+    private void schedulePromotion(Long offeringId) {
+        boolean[] start = {false};
+        promoting.compute(offeringId, (id, rerun) -> {
+            if (rerun == null) {
+                start[0] = true;
+                return Boolean.FALSE;
+            }
+            return Boolean.TRUE;
+        });
+        if (start[0]) {
+            promotionExecutor.execute(() -> runPromotion(offeringId));
+        }
+    }
+
+    private void runPromotion(Long offeringId) {
+        try {
+            do {
+                promoteWaiting(offeringId);
+            } while (promoting.computeIfPresent(offeringId,
+                    (id, rerun) -> rerun ? Boolean.FALSE : null) != null);
+        } catch (Exception e) {
+            promoting.remove(offeringId);
+            log.error("候补递补处理异常: offeringId={}", offeringId, e);
+        }
+    }
+
+    /**
+     * 按候补顺序依次递补，直到名额用完或队列为空
+     * 未通过校验的学生标记为递补失败并通知，继续处理下一位
+     */
+    private void promoteWaiting(Long offeringId) {
+        while (true) {
+            List<CourseWaitlist> head = waitlistRepository.findWaitingHead(offeringId, PageRequest.of(0, 1));
+            if (head.isEmpty()) {
+                return;
+            }
+
+            CourseWaitlist waitlist = head.get(0);
+            Long studentId = waitlist.getStudent().getId();
+            Long userId = waitlist.getStudent().getUser().getId();
+
+            try {
+                CourseSelection selection = transactionTemplate.execute(status -> {
+                    CourseSelection promoted = selectionService.promoteFromWaitlist(studentId, offeringId);
+                    markProcessed(waitlist, offeringId, CourseWaitlist.WaitlistStatus.PROMOTED, null);
+                    return promoted;
+                });
+
+                log.info("候补递补成功: studentId={}, offeringId={}, selectionId={}",
+                        studentId, offeringId, selection != null ? selection.getId() : null);
+                notifyStudent(userId, waitlist.getId(), "候补递补成功",
+                        "您候补的课程已递补成功，已自动加入您的选课列表。");
+            } catch (BusinessException e) {
+                if (HALT_ERROR_CODES.contains(e.getCode())) {
+                    log.debug("暂无可递补名额或不在选课时间，停止递补: offeringId={}, reason={}",
+                            offeringId, e.getMessage());
+                    return;
+                }
+
+                if (e.getCode().equals(ErrorCode.SELECTION_ALREADY_EXISTS.getCode())) {
+                    transactionTemplate.executeWithoutResult(status ->
+                            markProcessed(waitlist, offeringId, CourseWaitlist.WaitlistStatus.CANCELLED, e.getMessage()));
+                    continue;
+                }
+
+                log.info("候补递补校验未通过: studentId={}, offeringId={}, reason={}",
+                        studentId, offeringId, e.getMessage());
+                transactionTemplate.executeWithoutResult(status ->
+                        markProcessed(waitlist, offeringId, CourseWaitlist.WaitlistStatus.SKIPPED, e.getMessage()));
+                notifyStudent(userId, waitlist.getId(), "候补递补失败",
+                        "您候补的课程出现空余名额，但递补校验未通过：" + e.getMessage()
+                                + "。该候补已失效，如需选课请调整后重新选课或候补。");
+            }
+        }
+    }
+
+    private void markProcessed(CourseWaitlist waitlist, Long offeringId,
+                               CourseWaitlist.WaitlistStatus status, String reason) {
+        waitlist.setStatus(status);
+        waitlist.setFailReason(reason);
+        waitlist.setProcessedAt(LocalDateTime.now());
+        waitlistRepository.save(waitlist);
+        seatLedger.adjustWaiting(offeringId, -1);
+    }
+
+    private void notifyStudent(Long userId, Long waitlistId, String title, String content) {
+        try {
+            userNotificationService.sendToUser(userId, title, content,
+                    NOTIFICATION_TYPE, REFERENCE_TYPE, waitlistId);
+        } catch (Exception e) {
+            // 通知发送失败不影响递补结果
+            log.error("发送候补通知失败: waitlistId={}", waitlistId, e);
+        }
+    }
+
+    private CourseWaitlistDTO toDTO(CourseWaitlist waitlist) {
+        CourseOffering offering = waitlist.getOffering();
+        CourseWaitlist.WaitlistStatus status = waitlist.getStatus();
+        Long position = status == CourseWaitlist.WaitlistStatus.WAITING
+                ? waitlistRepository.countWaitingAhead(offering.getId(), waitlist.getId()) + 1
+                : null;
+        return CourseWaitlistDTO.builder()
+                .id(waitlist.getId())
+                .offeringId(offering.getId())
+                .courseName(offering.getCourse().getName())
+                .teacherName(offering.getTeacher().getName())
+                .status(status.name())
+                .statusDescription(status.getDescription())
+                .position(position)
+                .failReason(waitlist.getFailReason())
+                .createdAt(waitlist.getCreatedAt())
+                .processedAt(waitlist.getProcessedAt())
+                .build();
+    }
+}
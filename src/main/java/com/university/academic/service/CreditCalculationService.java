@@ -1,6 +1,7 @@
 package com.university.academic.service;
 
 import com.university.academic.config.CacheConfig;
+import com.university.academic.dto.CreditRecomputeResultDTO;
 import com.university.academic.dto.StudentCreditSummaryDTO;
 import com.university.academic.dto.converter.StudentCreditSummaryConverter;
 import com.university.academic.entity.*;
@@ -18,7 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 /**
  * 学分计算服务类
@@ -35,6 +36,7 @@ public class CreditCalculationService {
     private final CourseSelectionRepository courseSelectionRepository;
     private final StudentCreditSummaryRepository creditSummaryRepository;
     private final StudentCreditSummaryConverter creditSummaryConverter;
+    private final CreditSummaryRecomputeService creditSummaryRecomputeService;
 
     /**
      * 计算学生学分汇总
@@ -55,55 +57,12 @@ public class CreditCalculationService {
         List<CourseSelection> completedSelections = courseSelectionRepository
                 .findByStudentIdAndStatus(studentId, CourseSelection.SelectionStatus.COMPLETED);
 
-        // 初始化学分统计
-        double totalCredits = 0.0;
-        double requiredCredits = 0.0;
-        double electiveCredits = 0.0;
-        double practicalCredits = 0.0;
-        double totalGradePoints = 0.0; // 总绩点 = 学分 * 绩点
-
-        // 遍历选课记录统计学分
-        for (CourseSelection selection : completedSelections) {
-            Grade grade = selection.getGrade();
-            
-            // 只统计已公布且及格的成绩
-            if (grade != null && grade.getStatus() == Grade.GradeStatus.PUBLISHED && grade.isPassed()) {
-                Course course = selection.getOffering().getCourse();
-                Integer credits = course.getCredits();
-                
-                // 累加总学分
-                totalCredits += credits;
-                
-                // 计算GPA（加权平均）
-                BigDecimal gradePoint = grade.getGradePoint();
-                totalGradePoints += credits * gradePoint.doubleValue();
-                
-                // 根据课程类型累加各类学分
-                switch (course.getType()) {
-                    case REQUIRED:
-                        requiredCredits += credits;
-                        break;
-                    case ELECTIVE:
-                        electiveCredits += credits;
-                        break;
-                    case PUBLIC:
-                        // 公共课计入选修学分
-                        electiveCredits += credits;
-                        break;
-                }
-                
-                // 检查是否为实践课程（根据课程名称判断，包含"实验"、"实践"、"实训"等关键词）
-                String courseName = course.getName();
-                if (isPracticalCourse(courseName)) {
-                    practicalCredits += credits;
-                }
-            }
-        }
-
-        // 计算平均GPA（加权平均：总绩点 / 总学分）
-        double gpa = totalCredits > 0 ? totalGradePoints / totalCredits : 0.0;
-        // 保留2位小数
-        gpa = Math.round(gpa * 100.0) / 100.0;
+        CreditTotals totals = accumulate(completedSelections);
+        double totalCredits = totals.credits;
+        double requiredCredits = totals.required;
+        double electiveCredits = totals.elective;
+        double practicalCredits = totals.practical;
+        double gpa = totals.gpa();
 
         log.info("学分计算完成: studentId={}, totalCredits={}, requiredCredits={}, electiveCredits={}, practicalCredits={}, gpa={}",
                 studentId, totalCredits, requiredCredits, electiveCredits, practicalCredits, gpa);
@@ -137,64 +96,112 @@ public class CreditCalculationService {
     public StudentCreditSummaryDTO updateStudentCreditSummary(Long studentId) {
         log.info("更新学生学分汇总: studentId={}", studentId);
 
-        // 计算最新学分
-        StudentCreditSummaryDTO creditDTO = calculateStudentCredits(studentId);
-
-        // 查询或创建学分汇总记录
-        Student student = studentRepository.findById(studentId)
+        Student student = studentRepository.findByIdWithDetails(studentId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.STUDENT_NOT_FOUND));
 
+        StudentCreditSummary summary = rebuildLedger(student);
+
+        log.info("学分汇总更新成功: studentId={}", studentId);
+
+        return creditSummaryConverter.toDTO(summary);
+    }
+
+    /**
+     * 成绩公布时增量更新学分账本
+     * 在成绩公布的同一事务中调用，每门课程只计入一次：
+     * 已初始化的账本按学生ID顺序加行锁后只累加本门课程的学分和加权绩点；
+     * 尚未初始化的账本按全量计算一次（此时已包含本次公布的成绩）。
+     *
+     * @param grades 本次公布的成绩
+     */
+    @Transactional
+    public void applyPublishedGrades(Collection<Grade> grades) {
+        Map<Long, CreditTotals> deltas = new HashMap<>();
+        Map<Long, Boolean> practicalByCourse = new HashMap<>();
+
+        for (Grade grade : grades) {
+            CourseSelection selection = grade.getCourseSelection();
+            CreditTotals delta = deltas.computeIfAbsent(selection.getStudent().getId(), id -> new CreditTotals());
+            if (selection.getStatus() == CourseSelection.SelectionStatus.COMPLETED) {
+                delta.add(selection.getOffering().getCourse(), grade, practicalByCourse);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Set<Long> uninitialized = new HashSet<>(deltas.keySet());
+        for (StudentCreditSummary summary : creditSummaryRepository.findByStudentIdInForUpdate(deltas.keySet())) {
+            if (!summary.isLedgerInitialized()) {
+                continue;
+            }
+            CreditTotals delta = deltas.get(summary.getStudent().getId());
+            summary.addCredits(delta.credits, delta.required, delta.elective, delta.practical, delta.gradePoints);
+            uninitialized.remove(summary.getStudent().getId());
+        }
+
+        for (Long studentId : uninitialized) {
+            studentRepository.findById(studentId).ifPresent(this::rebuildLedger);
+        }
+
+        log.info("学分账本增量更新完成: 学生数={}, 全量初始化数={}", deltas.size(), uninitialized.size());
+    }
+
+    /**
+     * 课程学分、类型或名称变更后使修读过该课程的学生的学分账本失效
+     * 账本中已累加的是变更前的学分，标记为未初始化后查询改为实时计算，下次成绩公布时全量重建
+     *
+     * @param courseId 课程ID
+     */
+    @CacheEvict(value = CacheConfig.CACHE_CREDIT_SUMMARY, allEntries = true)
+    @Transactional
+    public void invalidateLedgersByCourse(Long courseId) {
+        int invalidated = creditSummaryRepository.invalidateLedgersByCourse(
+                courseId, CourseSelection.SelectionStatus.COMPLETED);
+        log.info("课程信息变更，学分账本已失效: courseId={}, 学生数={}", courseId, invalidated);
+    }
+
+    /**
+     * 按全部已完成课程重建学生的学分账本
+     */
+    private StudentCreditSummary rebuildLedger(Student student) {
+        CreditTotals totals = accumulate(courseSelectionRepository
+                .findByStudentIdAndStatus(student.getId(), CourseSelection.SelectionStatus.COMPLETED));
+
         StudentCreditSummary summary = creditSummaryRepository
-                .findByStudentId(studentId)
+                .findByStudentId(student.getId())
                 .orElse(StudentCreditSummary.builder()
                         .student(student)
                         .build());
 
-        // 更新学分数据
-        summary.setTotalCredits(creditDTO.getTotalCredits());
-        summary.setRequiredCredits(creditDTO.getRequiredCredits());
-        summary.setElectiveCredits(creditDTO.getElectiveCredits());
-        summary.setPracticalCredits(creditDTO.getPracticalCredits());
-        summary.setGpa(creditDTO.getGpa());
+        summary.setTotalCredits(totals.credits);
+        summary.setRequiredCredits(totals.required);
+        summary.setElectiveCredits(totals.elective);
+        summary.setPracticalCredits(totals.practical);
+        summary.setGradePoints(totals.gradePoints);
+        summary.setGpa(totals.gpa());
         summary.setLastUpdated(LocalDateTime.now());
 
-        // 保存
-        summary = creditSummaryRepository.save(summary);
-
-        log.info("学分汇总更新成功: studentId={}", studentId);
-
-        return creditSummaryConverter.toDTO(summary);
+        return creditSummaryRepository.save(summary);
     }
 
     /**
      * 批量更新学生学分汇总
-     * 用于成绩公布后批量更新学分
+     * 用于成绩公布后批量更新学分，按批并行重算并以JDBC批量写回，等待全部批次完成后返回，
+     * 详见 {@link CreditSummaryRecomputeService}
      *
      * @param studentIds 学生ID列表
+     * @return 重算结果
      */
-    @Transactional
-    public void batchUpdateCreditSummary(List<Long> studentIds) {
+    public CreditRecomputeResultDTO batchUpdateCreditSummary(List<Long> studentIds) {
         log.info("批量更新学生学分汇总: count={}", studentIds.size());
-
-        int successCount = 0;
-        int failCount = 0;
-
-        for (Long studentId : studentIds) {
-            try {
-                updateStudentCreditSummary(studentId);
-                successCount++;
-            } catch (Exception e) {
-                log.error("更新学生学分汇总失败: studentId={}, error={}", studentId, e.getMessage());
-                failCount++;
-            }
-        }
-
-        log.info("批量更新完成: 成功={}, 失败={}", successCount, failCount);
+        return creditSummaryRecomputeService.recomputeAndWait(studentIds);
     }
 
     /**
-     * 查询学生学分汇总（实时计算）
-     * 总是实时计算以确保数据准确性，特别是GPA
+     * 查询学生学分汇总
+     * 账本已初始化时直接读取学分汇总表（成绩公布时同步增量更新，与实时计算一致）；
+     * 尚未初始化时实时计算
      *
      * @param studentId 学生ID
      * @return 学分汇总DTO
@@ -202,11 +209,12 @@ public class CreditCalculationService {
     @Cacheable(value = CacheConfig.CACHE_CREDIT_SUMMARY, key = "'student:' + #studentId")
     @Transactional(readOnly = true)
     public StudentCreditSummaryDTO getStudentCreditSummary(Long studentId) {
-        log.debug("查询学生学分汇总（实时计算）: studentId={}", studentId);
+        log.debug("查询学生学分汇总: studentId={}", studentId);
 
-        // 直接实时计算，确保数据准确
-        // 这样可以保证GPA始终是最新的，无需手动更新数据库
-        return calculateStudentCredits(studentId);
+        return creditSummaryRepository.findByStudentIdWithDetails(studentId)
+                .filter(StudentCreditSummary::isLedgerInitialized)
+                .map(creditSummaryConverter::toDTO)
+                .orElseGet(() -> calculateStudentCredits(studentId));
     }
 
     /**
@@ -220,30 +228,6 @@ public class CreditCalculationService {
         log.debug("清除学生学分缓存: studentId={}", studentId);
     }
 
-    /**
-     * 判断是否为实践课程
-     * 根据课程名称关键词判断
-     *
-     * @param courseName 课程名称
-     * @return 是否为实践课程
-     */
-    private boolean isPracticalCourse(String courseName) {
-        if (courseName == null) {
-            return false;
-        }
-
-        // 实践课程关键词
-        String[] keywords = {"实验", "实践", "实训", "课程设计", "毕业设计", "实习"};
-
-        for (String keyword : keywords) {
-            if (courseName.contains(keyword)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
     /**
      * 获取学生已修学分明细
      * 返回详细的课程和学分列表
@@ -376,5 +360,16 @@ public class CreditCalculationService {
 
         return dto;
     }
-}
 
+    /**
+     * 累加已完成选课的学分（只统计已公布且及格的成绩）
+     */
+    private CreditTotals accumulate(List<CourseSelection> completedSelections) {
+        CreditTotals totals = new CreditTotals();
+        Map<Long, Boolean> practicalByCourse = new HashMap<>();
+        for (CourseSelection selection : completedSelections) {
+            totals.add(selection.getOffering().getCourse(), selection.getGrade(), practicalByCourse);
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,302 @@
+package com.university.academic.service;
+
+import com.university.academic.config.CacheConfig;
+import com.university.academic.dto.CreditRecomputeResultDTO;
+import com.university.academic.entity.Course;
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
+import com.university.academic.repository.CourseSelectionRepository;
+import com.university.academic.repository.StudentCreditSummaryRepository;
+import com.university.academic.repository.StudentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 学分汇总批量重算服务
+ * 学生ID按批切分后由线程池并行处理，每批一个独立事务：先锁定该批学生的学分汇总行，
+ * 再一次查询取出全部已公布成绩的学分明细行，按学生累计后以JDBC批量 upsert 写回汇总表。
+ * 统计口径与单个学生计算共用 {@link CreditTotals}，单批失败只影响该批学生。
+ * 管理端发起的重算异步执行并立即返回初始进度，同时只允许一个，进度通过 {@link #getProgress()} 查询；
+ * 成绩批量公布后的重算由异步监听调用 {@link #recomputeAndWait(Collection)}，不占用也不覆盖管理端的进度。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+public class CreditSummaryRecomputeService {
+
+    private static final String UPSERT_SUMMARY_SQL =
+            "INSERT INTO student_credit_summary (student_id, total_credits, required_credits, elective_credits, " +
+            "practical_credits, grade_points, gpa, last_updated, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_credits = VALUES(total_credits), " +
+            "required_credits = VALUES(required_credits), elective_credits = VALUES(elective_credits), " +
+            "practical_credits = VALUES(practical_credits), grade_points = VALUES(grade_points), " +
+            "gpa = VALUES(gpa), last_updated = VALUES(last_updated), updated_at = VALUES(updated_at)";
+
+    private final StudentRepository studentRepository;
+    private final CourseSelectionRepository courseSelectionRepository;
+    private final StudentCreditSummaryRepository creditSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+
+    /**
+     * 每批处理的学生数
+     */
+    private final int chunkSize;
+
+    /**
+     * 重算线程池
+     */
+    private final ExecutorService recomputeExecutor;
+
+    /**
+     * 管理端重算是否正在执行，保证指定学生重算和全量重算同时只有一个
+     */
+    private final AtomicBoolean trackedRecomputeRunning = new AtomicBoolean();
+
+    /**
+     * 最近一次管理端重算的进度
+     */
+    private volatile RecomputeRun lastRun;
+
+    public CreditSummaryRecomputeService(
+            StudentRepository studentRepository,
+            CourseSelectionRepository courseSelectionRepository,
+            StudentCreditSummaryRepository creditSummaryRepository,
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbcTemplate,
+            CacheManager cacheManager,
+            @Value("${academic.credit.recompute.chunk-size:500}") int chunkSize,
+            @Value("${academic.credit.recompute.threads:4}") int threads) {
+        this.studentRepository = studentRepository;
+        this.courseSelectionRepository = courseSelectionRepository;
+        this.creditSummaryRepository = creditSummaryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.recomputeExecutor = Executors.newFixedThreadPool(Math.max(1, threads),
+                new CustomizableThreadFactory("credit-recompute-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recomputeExecutor.shutdown();
+    }
+
+    /**
+     * 异步重算指定学生的学分汇总
+     * 不存在或已删除的学生会被忽略，与全量重算共用同一个执行标记，已有重算执行时抛出业务异常
+     *
+     * @param studentIds 学生ID集合
+     * @return 初始进度
+     */
+    public CreditRecomputeResultDTO recompute(Collection<Long> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return new RecomputeRun(0, 0).toDTO();
+        }
+        return startTracked(() -> existingIds(studentIds));
+    }
+
+    /**
+     * 异步重算全部学生的学分汇总
+     * 与指定学生重算共用同一个执行标记，已有重算执行时抛出业务异常
+     *
+     * @return 初始进度
+     */
+    public CreditRecomputeResultDTO recomputeAll() {
+        return startTracked(studentRepository::findAllNonDeletedIds);
+    }
+
+    /**
+     * 重算指定学生的学分汇总并等待完成
+     * 供已在异步线程中执行的成绩公布监听使用，不记录为管理端进度
+     *
+     * @param studentIds 学生ID集合
+     * @return 重算结果
+     */
+    public CreditRecomputeResultDTO recomputeAndWait(Collection<Long> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return new RecomputeRun(0, 0).toDTO();
+        }
+        List<Long> ids = existingIds(studentIds);
+        RecomputeRun run = new RecomputeRun(ids.size(), chunkCount(ids.size()));
+        submit(ids, run).join();
+        return complete(run);
+    }
+
+    /**
+     * 查询最近一次管理端重算的进度
+     *
+     * @return 进度，尚未执行过时返回null
+     */
+    public CreditRecomputeResultDTO getProgress() {
+        RecomputeRun run = lastRun;
+        return run != null ? run.toDTO() : null;
+    }
+
+    private List<Long> existingIds(Collection<Long> studentIds) {
+        return new ArrayList<>(new TreeSet<>(studentRepository.findExistingIds(new HashSet<>(studentIds))));
+    }
+
+    private CreditRecomputeResultDTO startTracked(Supplier<List<Long>> studentIds) {
+        if (!trackedRecomputeRunning.compareAndSet(false, true)) {
+            throw new BusinessException(ErrorCode.OPERATION_FAILED, "学分重算正在执行，请稍后再试");
+        }
+        try {
+            List<Long> ids = studentIds.get();
+            RecomputeRun run = new RecomputeRun(ids.size(), chunkCount(ids.size()));
+            lastRun = run;
+            submit(ids, run).whenComplete((ignored, e) -> {
+                // 先释放执行标记再标记完成，查询到已完成的进度后即可发起下一次重算
+                trackedRecomputeRunning.set(false);
+                complete(run);
+            });
+            return run.toDTO();
+        } catch (RuntimeException e) {
+            trackedRecomputeRunning.set(false);
+            throw e;
+        }
+    }
+
+    private int chunkCount(int students) {
+        return (students + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * 按批提交到重算线程池，返回全部批次结束的Future
+     */
+    private CompletableFuture<Void> submit(List<Long> studentIds, RecomputeRun run) {
+        log.info("开始批量重算学分汇总: students={}, chunks={}", run.totalStudents, run.totalChunks);
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[run.totalChunks];
+        for (int i = 0; i < run.totalChunks; i++) {
+            List<Long> chunk = studentIds.subList(i * chunkSize, Math.min((i + 1) * chunkSize, studentIds.size()));
+            futures[i] = CompletableFuture.runAsync(() -> processChunk(chunk, run), recomputeExecutor);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    private CreditRecomputeResultDTO complete(RecomputeRun run) {
+        run.finish();
+        CreditRecomputeResultDTO result = run.toDTO();
+        log.info("批量重算学分汇总完成: 成功={}, 失败={}, 耗时={}ms",
+                result.getUpdatedStudents(), result.getFailedStudents(), result.getElapsedMillis());
+        return result;
+    }
+
+    private void processChunk(List<Long> studentIds, RecomputeRun run) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> recomputeChunk(studentIds));
+            evictCache(studentIds);
+            run.updated.addAndGet(studentIds.size());
+        } catch (Exception e) {
+            log.error("学分汇总批次重算失败: firstStudentId={}, size={}, error={}",
+                    studentIds.get(0), studentIds.size(), e.getMessage(), e);
+            run.failed.addAndGet(studentIds.size());
+        } finally {
+            run.processed.addAndGet(studentIds.size());
+            run.completedChunks.incrementAndGet();
+        }
+    }
+
+    /**
+     * 在当前事务中重算一批学生
+     * 先锁定已有的汇总行，避免与成绩公布时的增量更新交错
+     */
+    private void recomputeChunk(List<Long> studentIds) {
+        creditSummaryRepository.findByStudentIdInForUpdate(studentIds);
+
+        Map<Long, CreditTotals> totalsByStudent = new HashMap<>(studentIds.size() * 2);
+        for (Long studentId : studentIds) {
+            totalsByStudent.put(studentId, new CreditTotals());
+        }
+        Map<Long, Boolean> practicalByCourse = new HashMap<>();
+        for (Object[] row : courseSelectionRepository.findPublishedCreditRowsByStudentIds(studentIds)) {
+            totalsByStudent.get((Long) row[0]).add((Long) row[1], ((Number) row[2]).intValue(),
+                    (Course.CourseType) row[3], (String) row[4], (BigDecimal) row[5], practicalByCourse);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(studentIds.size());
+        for (Long studentId : studentIds) {
+            CreditTotals totals = totalsByStudent.get(studentId);
+            batchArgs.add(new Object[]{studentId, totals.credits, totals.required, totals.elective,
+                    totals.practical, totals.gradePoints, totals.gpa(), now, now, now});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SUMMARY_SQL, batchArgs);
+    }
+
+    private void evictCache(List<Long> studentIds) {
+        Cache cache = cacheManager.getCache(CacheConfig.CACHE_CREDIT_SUMMARY);
+        if (cache == null) {
+            return;
+        }
+        for (Long studentId : studentIds) {
+            cache.evict("student:" + studentId);
+        }
+    }
+
+    /**
+     * 单次重算的进度计数
+     */
+    private static final class RecomputeRun {
+        private final int totalStudents;
+        private final int totalChunks;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger updated = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger completedChunks = new AtomicInteger();
+        private volatile LocalDateTime finishedAt;
+
+        private RecomputeRun(int totalStudents, int totalChunks) {
+            this.totalStudents = totalStudents;
+            this.totalChunks = totalChunks;
+            if (totalChunks == 0) {
+                finishedAt = startedAt;
+            }
+        }
+
+        private void finish() {
+            finishedAt = LocalDateTime.now();
+        }
+
+        private CreditRecomputeResultDTO toDTO() {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            return CreditRecomputeResultDTO.builder()
+                    .running(finishedAt == null)
+                    .totalStudents(totalStudents)
+                    .processedStudents(processed.get())
+                    .updatedStudents(updated.get())
+                    .failedStudents(failed.get())
+                    .totalChunks(totalChunks)
+                    .completedChunks(completedChunks.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .elapsedMillis(Duration.between(startedAt, end).toMillis())
+                    .build();
+        }
+    }
+}
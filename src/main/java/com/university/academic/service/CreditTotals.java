@@ -0,0 +1,105 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.Course;
+import com.university.academic.entity.Grade;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 学生学分累计（各类学分和加权绩点）
+ * 单个学生计算和批量重算共用同一套统计口径：只统计已公布且及格的成绩，公共课计入选修学分，
+ * 实践课程按课程名称关键词判断，判断结果按课程缓存
+ *
+ * @author Academic System Team
+ */
+final class CreditTotals {
+
+    /**
+     * 实践课程关键词
+     */
+    private static final String[] PRACTICAL_KEYWORDS = {"实验", "实践", "实训", "课程设计", "毕业设计", "实习"};
+
+    double credits;
+    double required;
+    double elective;
+    double practical;
+    double gradePoints;
+
+    /**
+     * 计入一门已完成课程
+     *
+     * @param course            课程
+     * @param grade             成绩（未公布或不及格时不计入）
+     * @param practicalByCourse 实践课程判断缓存（课程ID -> 是否实践课程）
+     */
+    void add(Course course, Grade grade, Map<Long, Boolean> practicalByCourse) {
+        if (grade == null || grade.getStatus() != Grade.GradeStatus.PUBLISHED) {
+            return;
+        }
+        add(course.getId(), course.getCredits(), course.getType(), course.getName(),
+                grade.getTotalScore(), practicalByCourse);
+    }
+
+    /**
+     * 计入一门成绩已公布的课程
+     *
+     * @param courseId          课程ID
+     * @param courseCredits     课程学分
+     * @param type              课程类型
+     * @param courseName        课程名称
+     * @param totalScore        总评成绩（不及格时不计入）
+     * @param practicalByCourse 实践课程判断缓存（课程ID -> 是否实践课程）
+     */
+    void add(Long courseId, int courseCredits, Course.CourseType type, String courseName,
+             BigDecimal totalScore, Map<Long, Boolean> practicalByCourse) {
+        if (!Grade.isPassingScore(totalScore)) {
+            return;
+        }
+        credits += courseCredits;
+        gradePoints += courseCredits * Grade.gradePointOf(totalScore).doubleValue();
+
+        // 根据课程类型累加各类学分
+        switch (type) {
+            case REQUIRED:
+                required += courseCredits;
+                break;
+            case ELECTIVE:
+            case PUBLIC:
+                // 公共课计入选修学分
+                elective += courseCredits;
+                break;
+        }
+
+        if (practicalByCourse.computeIfAbsent(courseId, id -> isPracticalCourse(courseName))) {
+            practical += courseCredits;
+        }
+    }
+
+    /**
+     * 平均GPA（加权平均：总绩点 / 总学分，保留2位小数）
+     */
+    double gpa() {
+        double value = credits > 0 ? gradePoints / credits : 0.0;
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * 判断是否为实践课程
+     * 根据课程名称关键词判断
+     *
+     * @param courseName 课程名称
+     * @return 是否为实践课程
+     */
+    static boolean isPracticalCourse(String courseName) {
+        if (courseName == null) {
+            return false;
+        }
+        for (String keyword : PRACTICAL_KEYWORDS) {
+            if (courseName.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
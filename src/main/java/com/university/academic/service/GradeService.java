@@ -36,6 +36,7 @@ public class GradeService {
     private final CourseSelectionRepository selectionRepository;
     private final CourseOfferingRepository offeringRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final CreditCalculationService creditCalculationService;
 
     /**
      * 根据ID查询成绩
@@ -217,7 +218,7 @@ public class GradeService {
     @Transactional
     public void publishGrades(Long offeringId) {
         List<Grade> grades = gradeRepository.findByOfferingId(offeringId);
-        int publishCount = 0;
+        List<Grade> publishedGrades = new ArrayList<>();
 
         for (Grade grade : grades) {
             if (grade.getStatus() == Grade.GradeStatus.SUBMITTED) {
@@ -238,17 +239,22 @@ public class GradeService {
                         .gradeId(grade.getId())
                         .studentId(selection.getStudent().getId())
                         .courseOfferingId(offeringId)
+                        .semesterId(selection.getOffering().getSemester().getId())
+                        .courseId(selection.getOffering().getCourse().getId())
                         .score(grade.getTotalScore() != null ? grade.getTotalScore().doubleValue() : null)
                         .passed(grade.isPassed())
                         .publishedAt(LocalDateTime.now())
                         .build();
                 eventPublisher.publishEvent(event);
                 
-                publishCount++;
+                publishedGrades.add(grade);
             }
         }
 
-        log.info("发布成绩成功: offeringId={}, 发布数量={}", offeringId, publishCount);
+        // 4. 在同一事务中增量更新学生学分账本（每门课程只计入一次）
+        creditCalculationService.applyPublishedGrades(publishedGrades);
+
+        log.info("发布成绩成功: offeringId={}, 发布数量={}", offeringId, publishedGrades.size());
     }
 
     /**
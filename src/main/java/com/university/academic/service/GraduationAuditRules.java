@@ -0,0 +1,112 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.GraduationAudit;
+import com.university.academic.entity.GraduationRequirement;
+import com.university.academic.entity.StudentDiscipline;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 毕业审核规则
+ * 只根据已加载的数据判定，不访问数据库；单个学生审核和整届批量审核共用同一套规则
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+final class GraduationAuditRules {
+
+    private GraduationAuditRules() {
+    }
+
+    /**
+     * 综合判定审核状态
+     * 学分或必修课不达标为不通过；存在未解除的违纪处分为暂缓毕业
+     *
+     * @param totalCredits       总学分
+     * @param requiredCredits    必修学分
+     * @param electiveCredits    选修学分
+     * @param practicalCredits   实践学分
+     * @param requirement        毕业要求
+     * @param failedCourseNames  未通过的必修课名称
+     * @param activeDisciplines  未解除的违纪处分
+     * @param failReasons        不通过原因列表
+     * @return 审核状态
+     */
+    static GraduationAudit.AuditStatus evaluate(double totalCredits, double requiredCredits,
+                                                double electiveCredits, double practicalCredits,
+                                                GraduationRequirement requirement,
+                                                List<String> failedCourseNames,
+                                                List<StudentDiscipline> activeDisciplines,
+                                                List<String> failReasons) {
+        GraduationAudit.AuditStatus auditStatus = GraduationAudit.AuditStatus.PASS;
+
+        // 检查总学分、必修学分、选修学分、实践学分
+        if (!checkCredits("总学分", totalCredits, requirement.getTotalCreditsRequired(), failReasons)) {
+            auditStatus = GraduationAudit.AuditStatus.FAIL;
+        }
+        if (!checkCredits("必修学分", requiredCredits, requirement.getRequiredCreditsRequired(), failReasons)) {
+            auditStatus = GraduationAudit.AuditStatus.FAIL;
+        }
+        if (!checkCredits("选修学分", electiveCredits, requirement.getElectiveCreditsRequired(), failReasons)) {
+            auditStatus = GraduationAudit.AuditStatus.FAIL;
+        }
+        if (!checkCredits("实践学分", practicalCredits, requirement.getPracticalCreditsRequired(), failReasons)) {
+            auditStatus = GraduationAudit.AuditStatus.FAIL;
+        }
+
+        // 检查必修课是否全部通过
+        if (!failedCourseNames.isEmpty()) {
+            String reason = "以下必修课未通过：" + String.join("、", failedCourseNames);
+            failReasons.add(reason);
+            log.debug("必修课检查未通过: {}", reason);
+            auditStatus = GraduationAudit.AuditStatus.FAIL;
+        }
+
+        // 检查违纪处分情况，有未解除的违纪处分则暂缓毕业
+        if (!activeDisciplines.isEmpty()) {
+            failReasons.add(disciplineReason(activeDisciplines));
+            auditStatus = GraduationAudit.AuditStatus.DEFERRED;
+        }
+
+        return auditStatus;
+    }
+
+    /**
+     * 检查某类学分是否达标
+     *
+     * @param label       学分类别
+     * @param earned      已修学分
+     * @param required    要求学分
+     * @param failReasons 不通过原因列表
+     * @return 是否达标
+     */
+    private static boolean checkCredits(String label, double earned, double required, List<String> failReasons) {
+        if (earned < required) {
+            String reason = String.format("%s不足：已修%.1f学分，要求%.1f学分，还差%.1f学分",
+                    label, earned, required, required - earned);
+            failReasons.add(reason);
+            log.debug("{}检查未通过: {}", label, reason);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 构建违纪处分的暂缓原因
+     */
+    private static String disciplineReason(List<StudentDiscipline> activeDisciplines) {
+        StringBuilder reason = new StringBuilder("存在未解除的违纪处分，暂缓毕业：");
+        for (int i = 0; i < activeDisciplines.size(); i++) {
+            StudentDiscipline discipline = activeDisciplines.get(i);
+            if (i > 0) {
+                reason.append("；");
+            }
+            reason.append(discipline.getDisciplineType().getDescription())
+                  .append("（处分日期：")
+                  .append(discipline.getPunishmentDate())
+                  .append("）");
+        }
+        return reason.toString();
+    }
+}
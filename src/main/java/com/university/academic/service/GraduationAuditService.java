@@ -5,9 +5,10 @@ import com.university.academic.dto.GraduationAuditDTO;
 import com.university.academic.dto.StudentCreditSummaryDTO;
 import com.university.academic.dto.converter.GraduationAuditConverter;
 import com.university.academic.entity.*;
+import com.university.academic.entity.enums.DisciplineStatus;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
-import com.university.academic.repository.CourseSelectionRepository;
+import com.university.academic.repository.CourseRepository;
 import com.university.academic.repository.GraduationAuditRepository;
 import com.university.academic.repository.StudentDisciplineRepository;
 import com.university.academic.repository.StudentRepository;
@@ -36,11 +37,13 @@ public class GraduationAuditService {
 
     private final GraduationAuditRepository graduationAuditRepository;
     private final StudentRepository studentRepository;
-    private final CourseSelectionRepository courseSelectionRepository;
     private final GraduationRequirementService graduationRequirementService;
     private final CreditCalculationService creditCalculationService;
     private final GraduationAuditConverter graduationAuditConverter;
     private final StudentDisciplineRepository studentDisciplineRepository;
+    private final CourseRepository courseRepository;
+    private final PrerequisiteIndex prerequisiteIndex;
+    private final GraduationCohortAuditService graduationCohortAuditService;
 
     /**
      * 执行毕业审核
@@ -63,41 +66,19 @@ public class GraduationAuditService {
         // 3. 获取学生的学分汇总
         StudentCreditSummaryDTO creditSummary = creditCalculationService.calculateStudentCredits(studentId);
 
-        // 4. 初始化审核结果
-        List<String> failReasons = new ArrayList<>();
-        GraduationAudit.AuditStatus auditStatus = GraduationAudit.AuditStatus.PASS;
-
-        // 5. 检查总学分
-        if (!checkTotalCredits(creditSummary, requirement, failReasons)) {
-            auditStatus = GraduationAudit.AuditStatus.FAIL;
-        }
-
-        // 6. 检查必修学分
-        if (!checkRequiredCredits(creditSummary, requirement, failReasons)) {
-            auditStatus = GraduationAudit.AuditStatus.FAIL;
-        }
-
-        // 7. 检查选修学分
-        if (!checkElectiveCredits(creditSummary, requirement, failReasons)) {
-            auditStatus = GraduationAudit.AuditStatus.FAIL;
-        }
-
-        // 8. 检查实践学分
-        if (!checkPracticalCredits(creditSummary, requirement, failReasons)) {
-            auditStatus = GraduationAudit.AuditStatus.FAIL;
-        }
+        // 4. 加载未通过的必修课和未解除的违纪处分
+        List<String> failedCourseNames = findFailedRequiredCourseNames(studentId);
+        List<StudentDiscipline> activeDisciplines = studentDisciplineRepository
+                .findByStudentIdAndStatusAndDeletedFalse(studentId, DisciplineStatus.ACTIVE);
 
-        // 9. 检查必修课是否全部通过
-        if (!checkRequiredCoursesPassed(studentId, failReasons)) {
-            auditStatus = GraduationAudit.AuditStatus.FAIL;
-        }
-
-        // 10. 检查违纪处分情况
-        if (!checkDisciplinaryStatus(student, failReasons)) {
-            auditStatus = GraduationAudit.AuditStatus.DEFERRED;
-        }
+        // 5. 检查学分、必修课和违纪处分
+        List<String> failReasons = new ArrayList<>();
+        GraduationAudit.AuditStatus auditStatus = GraduationAuditRules.evaluate(
+                creditSummary.getTotalCredits(), creditSummary.getRequiredCredits(),
+                creditSummary.getElectiveCredits(), creditSummary.getPracticalCredits(),
+                requirement, failedCourseNames, activeDisciplines, failReasons);
 
-        // 11. 保存审核结果
+        // 6. 保存审核结果
         GraduationAudit audit = buildAuditRecord(student, requirement, creditSummary, 
                 auditStatus, failReasons);
         audit = graduationAuditRepository.save(audit);
@@ -130,184 +111,20 @@ public class GraduationAuditService {
     }
 
     /**
-     * 检查总学分是否达标
-     *
-     * @param creditSummary 学分汇总
-     * @param requirement   毕业要求
-     * @param failReasons   不通过原因列表
-     * @return 是否达标
-     */
-    private boolean checkTotalCredits(StudentCreditSummaryDTO creditSummary,
-                                      GraduationRequirement requirement,
-                                      List<String> failReasons) {
-        double totalCredits = creditSummary.getTotalCredits();
-        double requiredTotalCredits = requirement.getTotalCreditsRequired();
-
-        if (totalCredits < requiredTotalCredits) {
-            String reason = String.format("总学分不足：已修%.1f学分，要求%.1f学分，还差%.1f学分",
-                    totalCredits, requiredTotalCredits, requiredTotalCredits - totalCredits);
-            failReasons.add(reason);
-            log.warn("总学分检查未通过: {}", reason);
-            return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * 检查必修学分是否达标
+     * 查询学生有已公布不及格成绩的必修课名称
      *
-     * @param creditSummary 学分汇总
-     * @param requirement   毕业要求
-     * @param failReasons   不通过原因列表
-     * @return 是否达标
-     */
-    private boolean checkRequiredCredits(StudentCreditSummaryDTO creditSummary,
-                                         GraduationRequirement requirement,
-                                         List<String> failReasons) {
-        double requiredCredits = creditSummary.getRequiredCredits();
-        double requiredRequiredCredits = requirement.getRequiredCreditsRequired();
-
-        if (requiredCredits < requiredRequiredCredits) {
-            String reason = String.format("必修学分不足：已修%.1f学分，要求%.1f学分，还差%.1f学分",
-                    requiredCredits, requiredRequiredCredits, requiredRequiredCredits - requiredCredits);
-            failReasons.add(reason);
-            log.warn("必修学分检查未通过: {}", reason);
-            return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * 检查选修学分是否达标
-     *
-     * @param creditSummary 学分汇总
-     * @param requirement   毕业要求
-     * @param failReasons   不通过原因列表
-     * @return 是否达标
-     */
-    private boolean checkElectiveCredits(StudentCreditSummaryDTO creditSummary,
-                                         GraduationRequirement requirement,
-                                         List<String> failReasons) {
-        double electiveCredits = creditSummary.getElectiveCredits();
-        double requiredElectiveCredits = requirement.getElectiveCreditsRequired();
-
-        if (electiveCredits < requiredElectiveCredits) {
-            String reason = String.format("选修学分不足：已修%.1f学分，要求%.1f学分，还差%.1f学分",
-                    electiveCredits, requiredElectiveCredits, requiredElectiveCredits - electiveCredits);
-            failReasons.add(reason);
-            log.warn("选修学分检查未通过: {}", reason);
-            return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * 检查实践学分是否达标
-     *
-     * @param creditSummary 学分汇总
-     * @param requirement   毕业要求
-     * @param failReasons   不通过原因列表
-     * @return 是否达标
+     * @param studentId 学生ID
+     * @return 课程名称列表
      */
-    private boolean checkPracticalCredits(StudentCreditSummaryDTO creditSummary,
-                                          GraduationRequirement requirement,
-                                          List<String> failReasons) {
-        double practicalCredits = creditSummary.getPracticalCredits();
-        double requiredPracticalCredits = requirement.getPracticalCreditsRequired();
-
-        if (practicalCredits < requiredPracticalCredits) {
-            String reason = String.format("实践学分不足：已修%.1f学分，要求%.1f学分，还差%.1f学分",
-                    practicalCredits, requiredPracticalCredits, requiredPracticalCredits - practicalCredits);
-            failReasons.add(reason);
-            log.warn("实践学分检查未通过: {}", reason);
-            return false;
+    private List<String> findFailedRequiredCourseNames(Long studentId) {
+        // 有不及格成绩的必修课（内存位图计算）
+        List<Long> failedCourseIds = prerequisiteIndex.findFailedRequiredCourses(studentId);
+        if (failedCourseIds.isEmpty()) {
+            return List.of();
         }
-
-        return true;
-    }
-
-    /**
-     * 检查必修课是否全部通过
-     *
-     * @param studentId   学生ID
-     * @param failReasons 不通过原因列表
-     * @return 是否全部通过
-     */
-    private boolean checkRequiredCoursesPassed(Long studentId, List<String> failReasons) {
-        // 查询所有已完成的必修课选课记录
-        List<CourseSelection> completedSelections = courseSelectionRepository
-                .findByStudentIdAndStatus(studentId, CourseSelection.SelectionStatus.COMPLETED);
-
-        // 筛选出必修课
-        List<CourseSelection> requiredCourseSelections = completedSelections.stream()
-                .filter(selection -> selection.getOffering().getCourse().getType() == Course.CourseType.REQUIRED)
+        return courseRepository.findAllById(failedCourseIds).stream()
+                .map(Course::getName)
                 .collect(Collectors.toList());
-
-        // 检查是否有未通过的必修课
-        List<String> failedCourses = new ArrayList<>();
-        for (CourseSelection selection : requiredCourseSelections) {
-            Grade grade = selection.getGrade();
-            if (grade != null && grade.getStatus() == Grade.GradeStatus.PUBLISHED) {
-                if (!grade.isPassed()) {
-                    String courseName = selection.getOffering().getCourse().getName();
-                    failedCourses.add(courseName);
-                }
-            }
-        }
-
-        if (!failedCourses.isEmpty()) {
-            String reason = "以下必修课未通过：" + String.join("、", failedCourses);
-            failReasons.add(reason);
-            log.warn("必修课检查未通过: {}", reason);
-            return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * 检查违纪处分情况
-     * 如果有未解除的违纪处分，则暂缓毕业
-     *
-     * @param student     学生实体
-     * @param failReasons 不通过原因列表
-     * @return 是否符合毕业条件
-     */
-    private boolean checkDisciplinaryStatus(Student student, List<String> failReasons) {
-        // 检查学生是否有未解除的违纪处分
-        boolean hasActiveDiscipline = studentDisciplineRepository.hasActiveDiscipline(student.getId());
-        
-        if (hasActiveDiscipline) {
-            // 获取学生的有效处分记录
-            List<StudentDiscipline> activeDisciplines = studentDisciplineRepository
-                    .findByStudentIdAndStatusAndDeletedFalse(student.getId(), 
-                            com.university.academic.entity.enums.DisciplineStatus.ACTIVE);
-            
-            // 构建详细的失败原因
-            StringBuilder reason = new StringBuilder("存在未解除的违纪处分，暂缓毕业：");
-            for (int i = 0; i < activeDisciplines.size(); i++) {
-                StudentDiscipline discipline = activeDisciplines.get(i);
-                if (i > 0) {
-                    reason.append("；");
-                }
-                reason.append(discipline.getDisciplineType().getDescription())
-                      .append("（处分日期：")
-                      .append(discipline.getPunishmentDate())
-                      .append("）");
-            }
-            
-            failReasons.add(reason.toString());
-            log.warn("违纪处分检查未通过: studentId={}, studentNo={}, activeDisciplineCount={}", 
-                    student.getId(), student.getStudentNo(), activeDisciplines.size());
-            return false;
-        }
-        
-        log.debug("违纪处分检查通过: studentId={}, studentNo={}", 
-                student.getId(), student.getStudentNo());
-        return true;
     }
 
     /**
@@ -432,61 +249,13 @@ public class GraduationAuditService {
 
     /**
      * 批量毕业审核
-     * 使用事务处理,保证数据一致性
+     * 按批并行审核，每批一个独立事务，详见 {@link GraduationCohortAuditService}
      *
      * @param studentIds 学生ID列表
      * @return 审核结果汇总
      */
-    @Transactional
     public BatchAuditResultDTO batchPerformAudit(List<Long> studentIds) {
         log.info("开始批量毕业审核: count={}", studentIds.size());
-
-        int successCount = 0;
-        int failCount = 0;
-        int passCount = 0;
-        int notPassCount = 0;
-        int deferredCount = 0;
-        List<String> errors = new ArrayList<>();
-
-        for (Long studentId : studentIds) {
-            try {
-                GraduationAuditDTO result = performAudit(studentId);
-                successCount++;
-
-                // 统计审核状态
-                switch (result.getStatus()) {
-                    case PASS:
-                        passCount++;
-                        break;
-                    case FAIL:
-                        notPassCount++;
-                        break;
-                    case DEFERRED:
-                        deferredCount++;
-                        break;
-                    default:
-                        break;
-                }
-            } catch (Exception e) {
-                failCount++;
-                String error = String.format("学生ID %d 审核失败: %s", studentId, e.getMessage());
-                errors.add(error);
-                log.error("批量审核失败: studentId={}, error={}", studentId, e.getMessage(), e);
-            }
-        }
-
-        log.info("批量毕业审核完成: 成功={}, 失败={}, 通过={}, 不通过={}, 暂缓={}", 
-                successCount, failCount, passCount, notPassCount, deferredCount);
-
-        return BatchAuditResultDTO.builder()
-                .totalCount(studentIds.size())
-                .successCount(successCount)
-                .failCount(failCount)
-                .passCount(passCount)
-                .notPassCount(notPassCount)
-                .deferredCount(deferredCount)
-                .errors(errors)
-                .build();
+        return graduationCohortAuditService.audit(studentIds);
     }
 }
-
@@ -0,0 +1,417 @@
+package com.university.academic.service;
+
+import com.university.academic.dto.BatchAuditResultDTO;
+import com.university.academic.dto.CohortAuditProgressDTO;
+import com.university.academic.entity.*;
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
+import com.university.academic.repository.CourseSelectionRepository;
+import com.university.academic.repository.GraduationRequirementRepository;
+import com.university.academic.repository.StudentDisciplineRepository;
+import com.university.academic.repository.StudentRepository;
+import com.university.academic.security.SecurityUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 整届毕业审核服务
+ * 毕业要求按专业和入学年份一次性预加载；学生按批切分后由有界线程池并行处理，每批一个独立事务：
+ * 一次查询取出该批学生全部已公布成绩（同时得到各类学分和未通过的必修课），一次查询取出未解除的处分，
+ * 在内存中按 {@link GraduationAuditRules} 判定后以JDBC批量写入审核记录。
+ * 单批失败只影响该批学生，执行过程中可随时查询进度和已完成部分的结果。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+public class GraduationCohortAuditService {
+
+    private static final String INSERT_AUDIT_SQL =
+            "INSERT INTO graduation_audit (student_id, audit_year, total_credits, required_credits, " +
+            "elective_credits, practical_credits, status, fail_reason, audited_by, audited_at, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 保留的任务数上限，超出时清理最早结束的任务
+     */
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private final StudentRepository studentRepository;
+    private final CourseSelectionRepository courseSelectionRepository;
+    private final StudentDisciplineRepository studentDisciplineRepository;
+    private final GraduationRequirementRepository graduationRequirementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 每批（每个事务）审核的学生数
+     */
+    private final int chunkSize;
+
+    /**
+     * 审核线程池
+     */
+    private final ExecutorService auditExecutor;
+
+    /**
+     * 整届审核任务（jobId -> 任务）
+     */
+    private final Map<String, AuditRun> jobs = new ConcurrentHashMap<>();
+
+    public GraduationCohortAuditService(
+            StudentRepository studentRepository,
+            CourseSelectionRepository courseSelectionRepository,
+            StudentDisciplineRepository studentDisciplineRepository,
+            GraduationRequirementRepository graduationRequirementRepository,
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbcTemplate,
+            @Value("${academic.graduation.audit.chunk-size:200}") int chunkSize,
+            @Value("${academic.graduation.audit.threads:4}") int threads) {
+        this.studentRepository = studentRepository;
+        this.courseSelectionRepository = courseSelectionRepository;
+        this.studentDisciplineRepository = studentDisciplineRepository;
+        this.graduationRequirementRepository = graduationRequirementRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.auditExecutor = Executors.newFixedThreadPool(Math.max(1, threads),
+                new CustomizableThreadFactory("graduation-audit-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        auditExecutor.shutdownNow();
+    }
+
+    /**
+     * 审核指定学生，等待全部完成后返回结果
+     *
+     * @param studentIds 学生ID列表
+     * @return 审核结果汇总
+     */
+    public BatchAuditResultDTO audit(List<Long> studentIds) {
+        AuditRun run = new AuditRun(null, null, new ArrayList<>(new LinkedHashSet<>(studentIds)));
+        start(run, SecurityUtils.getCurrentUserId()).join();
+        return run.toResult();
+    }
+
+    /**
+     * 提交整届毕业审核任务，立即返回任务进度
+     *
+     * @param enrollmentYear 入学年份
+     * @param majorId        专业ID（为空时审核该届全部专业）
+     * @return 任务进度
+     */
+    public CohortAuditProgressDTO startCohortAudit(Integer enrollmentYear, Long majorId) {
+        List<Long> studentIds = studentRepository.findCohortIds(enrollmentYear, majorId);
+        AuditRun run = new AuditRun(enrollmentYear, majorId, studentIds);
+        evictFinishedJobs();
+        jobs.put(run.jobId, run);
+        start(run, SecurityUtils.getCurrentUserId());
+        return run.toProgress();
+    }
+
+    /**
+     * 查询整届审核任务的进度和已完成部分的结果
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    public CohortAuditProgressDTO getProgress(String jobId) {
+        AuditRun run = jobs.get(jobId);
+        if (run == null) {
+            throw new BusinessException(ErrorCode.GRADUATION_AUDIT_JOB_NOT_FOUND);
+        }
+        return run.toProgress();
+    }
+
+    private CompletableFuture<Void> start(AuditRun run, Long auditorId) {
+        log.info("开始批量毕业审核: jobId={}, enrollmentYear={}, majorId={}, students={}, chunks={}",
+                run.jobId, run.enrollmentYear, run.majorId, run.studentIds.size(), run.totalChunks);
+        if (run.studentIds.isEmpty()) {
+            run.finish();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Map<String, GraduationRequirement> requirements = loadRequirements();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(run.totalChunks);
+        for (int from = 0; from < run.studentIds.size(); from += chunkSize) {
+            List<Long> chunk = run.studentIds.subList(from, Math.min(from + chunkSize, run.studentIds.size()));
+            futures.add(CompletableFuture.runAsync(
+                    () -> processChunk(chunk, requirements, auditorId, run), auditExecutor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, e) -> {
+                    run.finish();
+                    log.info("批量毕业审核完成: jobId={}, 成功={}, 失败={}, 通过={}, 不通过={}, 暂缓={}, 耗时={}ms",
+                            run.jobId, run.success.get(), run.failed.get(), run.passed.get(),
+                            run.notPassed.get(), run.deferred.get(), run.elapsedMillis());
+                });
+    }
+
+    /**
+     * 预加载全部毕业要求（专业ID:入学年份 -> 毕业要求）
+     */
+    private Map<String, GraduationRequirement> loadRequirements() {
+        Map<String, GraduationRequirement> requirements = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (GraduationRequirement requirement : graduationRequirementRepository.findAll()) {
+                requirements.put(requirementKey(requirement.getMajor().getId(), requirement.getEnrollmentYear()),
+                        requirement);
+            }
+        });
+        return requirements;
+    }
+
+    private void processChunk(List<Long> studentIds, Map<String, GraduationRequirement> requirements,
+                              Long auditorId, AuditRun run) {
+        try {
+            ChunkOutcome outcome = transactionTemplate.execute(
+                    status -> auditChunk(studentIds, requirements, auditorId));
+            run.record(outcome);
+        } catch (Exception e) {
+            log.error("毕业审核批次失败: firstStudentId={}, size={}, error={}",
+                    studentIds.get(0), studentIds.size(), e.getMessage(), e);
+            run.failed.addAndGet(studentIds.size());
+            run.errors.add(String.format("学生ID %d 起的 %d 名学生审核失败: %s",
+                    studentIds.get(0), studentIds.size(), e.getMessage()));
+        } finally {
+            run.processed.addAndGet(studentIds.size());
+            run.completedChunks.incrementAndGet();
+        }
+    }
+
+    /**
+     * 在当前事务中审核一批学生并批量写入审核记录
+     */
+    private ChunkOutcome auditChunk(List<Long> studentIds, Map<String, GraduationRequirement> requirements,
+                                    Long auditorId) {
+        Map<Long, Student> students = new HashMap<>(studentIds.size() * 2);
+        for (Student student : studentRepository.findByIdInWithMajor(studentIds)) {
+            students.put(student.getId(), student);
+        }
+        ChunkOutcome outcome = new ChunkOutcome();
+        if (students.isEmpty()) {
+            for (Long studentId : studentIds) {
+                outcome.errors.add(String.format("学生ID %d 审核失败: %s",
+                        studentId, ErrorCode.STUDENT_NOT_FOUND.getMessage()));
+            }
+            return outcome;
+        }
+
+        // 一次扫描已公布成绩：累计学分，同时记录通过和未通过的必修课
+        Map<Long, CreditTotals> totalsByStudent = new HashMap<>(students.size() * 2);
+        Map<Long, Set<Long>> passedByStudent = new HashMap<>(students.size() * 2);
+        Map<Long, Map<Long, String>> failedRequiredByStudent = new HashMap<>();
+        Map<Long, Boolean> practicalByCourse = new HashMap<>();
+        for (Object[] row : courseSelectionRepository.findPublishedCreditRowsByStudentIds(students.keySet())) {
+            Long studentId = (Long) row[0];
+            Long courseId = (Long) row[1];
+            Course.CourseType type = (Course.CourseType) row[3];
+            String courseName = (String) row[4];
+            BigDecimal totalScore = (BigDecimal) row[5];
+
+            totalsByStudent.computeIfAbsent(studentId, id -> new CreditTotals())
+                    .add(courseId, ((Number) row[2]).intValue(), type, courseName, totalScore, practicalByCourse);
+            if (Grade.isPassingScore(totalScore)) {
+                passedByStudent.computeIfAbsent(studentId, id -> new HashSet<>()).add(courseId);
+            } else if (type == Course.CourseType.REQUIRED) {
+                failedRequiredByStudent.computeIfAbsent(studentId, id -> new LinkedHashMap<>())
+                        .put(courseId, courseName);
+            }
+        }
+
+        Map<Long, List<StudentDiscipline>> disciplinesByStudent = new HashMap<>();
+        for (StudentDiscipline discipline : studentDisciplineRepository.findActiveByStudentIds(students.keySet())) {
+            disciplinesByStudent.computeIfAbsent(discipline.getStudent().getId(), id -> new ArrayList<>())
+                    .add(discipline);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int auditYear = Year.now().getValue();
+        List<Object[]> batchArgs = new ArrayList<>(students.size());
+        for (Long studentId : studentIds) {
+            Student student = students.get(studentId);
+            if (student == null) {
+                outcome.errors.add(String.format("学生ID %d 审核失败: %s",
+                        studentId, ErrorCode.STUDENT_NOT_FOUND.getMessage()));
+                continue;
+            }
+            GraduationRequirement requirement = requirements.get(
+                    requirementKey(student.getMajor().getId(), student.getEnrollmentYear()));
+            if (requirement == null) {
+                outcome.errors.add(String.format("学生ID %d 审核失败: %s",
+                        studentId, ErrorCode.GRADUATION_REQUIREMENT_NOT_FOUND.getMessage()));
+                continue;
+            }
+
+            CreditTotals totals = totalsByStudent.getOrDefault(studentId, new CreditTotals());
+            Map<Long, String> failedRequired = failedRequiredByStudent.getOrDefault(studentId, Map.of());
+            Set<Long> passed = passedByStudent.getOrDefault(studentId, Set.of());
+            List<String> failedCourseNames = new ArrayList<>();
+            failedRequired.forEach((courseId, name) -> {
+                if (!passed.contains(courseId)) {
+                    failedCourseNames.add(name);
+                }
+            });
+
+            List<String> failReasons = new ArrayList<>();
+            GraduationAudit.AuditStatus status = GraduationAuditRules.evaluate(
+                    totals.credits, totals.required, totals.elective, totals.practical, requirement,
+                    failedCourseNames, disciplinesByStudent.getOrDefault(studentId, List.of()), failReasons);
+            outcome.count(status);
+
+            batchArgs.add(new Object[]{studentId, auditYear, totals.credits, totals.required,
+                    totals.elective, totals.practical, status.name(),
+                    failReasons.isEmpty() ? null : String.join("；", failReasons),
+                    auditorId, now, now, now});
+        }
+
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_AUDIT_SQL, batchArgs, new int[]{
+                    Types.BIGINT, Types.INTEGER, Types.DOUBLE, Types.DOUBLE, Types.DOUBLE, Types.DOUBLE,
+                    Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP, Types.TIMESTAMP});
+        }
+        return outcome;
+    }
+
+    private static String requirementKey(Long majorId, Integer enrollmentYear) {
+        return majorId + ":" + enrollmentYear;
+    }
+
+    /**
+     * 清理超出保留数量的已结束任务（先结束的先清理）
+     */
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - MAX_RETAINED_JOBS + 1;
+        if (excess <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(run -> run.finishedAt != null)
+                .sorted(Comparator.comparing(run -> run.finishedAt))
+                .limit(excess)
+                .forEach(run -> jobs.remove(run.jobId));
+    }
+
+    /**
+     * 单批审核结果
+     */
+    private static final class ChunkOutcome {
+        private int passed;
+        private int notPassed;
+        private int deferred;
+        private final List<String> errors = new ArrayList<>();
+
+        private void count(GraduationAudit.AuditStatus status) {
+            switch (status) {
+                case PASS:
+                    passed++;
+                    break;
+                case FAIL:
+                    notPassed++;
+                    break;
+                case DEFERRED:
+                    deferred++;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 单次批量审核的进度和累计结果
+     */
+    private final class AuditRun {
+        private final String jobId = UUID.randomUUID().toString();
+        private final Integer enrollmentYear;
+        private final Long majorId;
+        private final List<Long> studentIds;
+        private final int totalChunks;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger completedChunks = new AtomicInteger();
+        private final AtomicInteger success = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger passed = new AtomicInteger();
+        private final AtomicInteger notPassed = new AtomicInteger();
+        private final AtomicInteger deferred = new AtomicInteger();
+        private final Queue<String> errors = new ConcurrentLinkedQueue<>();
+        private volatile LocalDateTime finishedAt;
+
+        private AuditRun(Integer enrollmentYear, Long majorId, List<Long> studentIds) {
+            this.enrollmentYear = enrollmentYear;
+            this.majorId = majorId;
+            this.studentIds = studentIds;
+            this.totalChunks = (studentIds.size() + chunkSize - 1) / chunkSize;
+        }
+
+        private void record(ChunkOutcome outcome) {
+            int audited = outcome.passed + outcome.notPassed + outcome.deferred;
+            success.addAndGet(audited);
+            failed.addAndGet(outcome.errors.size());
+            passed.addAndGet(outcome.passed);
+            notPassed.addAndGet(outcome.notPassed);
+            deferred.addAndGet(outcome.deferred);
+            errors.addAll(outcome.errors);
+        }
+
+        private void finish() {
+            finishedAt = LocalDateTime.now();
+        }
+
+        private long elapsedMillis() {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            return Duration.between(startedAt, end).toMillis();
+        }
+
+        private BatchAuditResultDTO toResult() {
+            return BatchAuditResultDTO.builder()
+                    .totalCount(studentIds.size())
+                    .successCount(success.get())
+                    .failCount(failed.get())
+                    .passCount(passed.get())
+                    .notPassCount(notPassed.get())
+                    .deferredCount(deferred.get())
+                    .errors(new ArrayList<>(errors))
+                    .build();
+        }
+
+        private CohortAuditProgressDTO toProgress() {
+            return CohortAuditProgressDTO.builder()
+                    .jobId(jobId)
+                    .enrollmentYear(enrollmentYear)
+                    .majorId(majorId)
+                    .running(finishedAt == null)
+                    .totalStudents(studentIds.size())
+                    .processedStudents(processed.get())
+                    .totalChunks(totalChunks)
+                    .completedChunks(completedChunks.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .elapsedMillis(elapsedMillis())
+                    .result(toResult())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.university.academic.service;
+
+import com.university.academic.dto.CourseOfferingDTO;
+import com.university.academic.entity.CourseOffering;
+import com.university.academic.entity.Semester;
+import com.university.academic.event.ConfigSnapshotChangedEvent;
+import com.university.academic.repository.CourseOfferingRepository;
+import com.university.academic.util.DtoConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 可选课程目录
+ * 每个学期的已发布开课计划预先转换为不可变的视图列表，学生打开选课页面时直接从内存返回，
+ * 已选人数和剩余名额在返回时从 {@link CourseSeatLedger} 的实时计数器叠加。
+ * <p>
+ * 开课计划发布、取消、修改后（事务提交后）只重新加载该开课计划并替换目录中的对应项；
+ * 整学期排课方案应用后整体重建。目录版本号和名额版本号组成ETag，内容未变化时返回304。
+ * <p>
+ * 学期目录在各学期自己的构建锁内构建，不占用目录Map的桶锁；构建期间如有开课计划变更或目录失效，
+ * 变更可能未反映在本次构建结果中，发布后立即移除，下次访问重新构建。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+public class OfferingCatalogueService {
+
+    private final CourseOfferingRepository offeringRepository;
+    private final ConfigSnapshotService configSnapshotService;
+    private final CourseSeatLedger seatLedger;
+    private final DtoConverter dtoConverter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * 学期目录（semesterId -> 目录）
+     */
+    private final Map<Long, Catalogue> catalogues = new ConcurrentHashMap<>();
+
+    /**
+     * 学期目录构建锁（semesterId -> 锁），同一学期同时只构建一次
+     */
+    private final Map<Long, Object> buildLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 目录版本号，任一目录重建或变更时递增
+     */
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * 变更计数，开课计划刷新或目录失效时先递增，构建前后比较以发现构建期间的变更
+     */
+    private final AtomicLong modifications = new AtomicLong();
+
+    public OfferingCatalogueService(CourseOfferingRepository offeringRepository,
+                                    ConfigSnapshotService configSnapshotService,
+                                    CourseSeatLedger seatLedger,
+                                    DtoConverter dtoConverter,
+                                    TransactionTemplate transactionTemplate) {
+        this.offeringRepository = offeringRepository;
+        this.configSnapshotService = configSnapshotService;
+        this.seatLedger = seatLedger;
+        this.dtoConverter = dtoConverter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 当前可选课程列表的ETag
+     * 选课未开放时只与学期有关；开放时由学期、目录版本和名额版本组成
+     *
+     * @return ETag
+     */
+    public String currentETag() {
+        Semester semester = configSnapshotService.activeSemester();
+        if (!isSelectionOpen(semester)) {
+            return "\"closed-" + semester.getId() + "\"";
+        }
+        Catalogue catalogue = catalogue(semester.getId());
+        return "\"" + semester.getId() + "-" + catalogue.version() + "-" + seatLedger.version() + "\"";
+    }
+
+    /**
+     * 查询当前活动学期的可选课程（已发布的开课计划，含实时已选人数）
+     * 选课功能未开启或不在选课时间范围内时返回空列表
+     *
+     * @return 开课计划列表
+     */
+    public List<CourseOfferingDTO> findAvailableOfferings() {
+        Semester semester = configSnapshotService.activeSemester();
+        if (!isSelectionOpen(semester)) {
+            log.debug("选课未开放，返回空列表: semesterId={}", semester.getId());
+            return Collections.emptyList();
+        }
+
+        List<CourseOfferingDTO> views = catalogue(semester.getId()).offerings();
+        List<CourseOfferingDTO> result = new ArrayList<>(views.size());
+        for (CourseOfferingDTO view : views) {
+            int capacity = view.getCapacity();
+            int enrolled = seatLedger.enrolledOf(view.getId(), capacity, view.getEnrolled());
+            result.add(view.toBuilder()
+                    .enrolled(enrolled)
+                    .remainingCapacity(Math.max(capacity - enrolled, 0))
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * 开课计划发布、取消或修改后刷新目录中的对应项（事务提交后执行）
+     *
+     * @param offeringId 开课计划ID
+     */
+    public void refreshOffering(Long offeringId) {
+        afterCommit(() -> reloadOffering(offeringId));
+    }
+
+    /**
+     * 使学期目录失效（排课方案应用等批量修改后调用，事务提交后执行），下次访问时重建
+     *
+     * @param semesterId 学期ID
+     */
+    public void evictSemester(Long semesterId) {
+        afterCommit(() -> {
+            modifications.incrementAndGet();
+            if (catalogues.remove(semesterId) != null) {
+                log.info("可选课程目录已失效: semesterId={}", semesterId);
+            }
+        });
+    }
+
+    /**
+     * 活动学期切换后丢弃其他学期的目录
+     *
+     * @param event 配置快照变更事件
+     */
+    @EventListener
+    public void handleConfigChange(ConfigSnapshotChangedEvent event) {
+        if (!event.isActiveSemesterChanged()) {
+            return;
+        }
+        Semester activeSemester = event.getCurrent().activeSemester();
+        Long activeSemesterId = activeSemester != null ? activeSemester.getId() : null;
+        modifications.incrementAndGet();
+        catalogues.keySet().removeIf(semesterId -> !semesterId.equals(activeSemesterId));
+        buildLocks.keySet().removeIf(semesterId -> !semesterId.equals(activeSemesterId));
+    }
+
+    private Catalogue catalogue(Long semesterId) {
+        Catalogue cached = catalogues.get(semesterId);
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (buildLocks.computeIfAbsent(semesterId, id -> new Object())) {
+            cached = catalogues.get(semesterId);
+            if (cached != null) {
+                return cached;
+            }
+            long modification = modifications.get();
+            Catalogue built = build(semesterId);
+            // 先发布再检查：发布之后开始的刷新一定能在目录中找到该学期并替换对应项
+            catalogues.put(semesterId, built);
+            if (modifications.get() != modification) {
+                catalogues.remove(semesterId);
+                log.info("可选课程目录构建期间有变更，下次访问重新构建: semesterId={}", semesterId);
+            }
+            return built;
+        }
+    }
+
+    /**
+     * 从数据库构建学期目录，同时初始化各开课计划的名额计数器
+     */
+    private Catalogue build(Long semesterId) {
+        List<CourseOfferingDTO> views = readOnlyTransaction.execute(status -> {
+            List<CourseOffering> offerings = offeringRepository.findPublishedBySemesterId(semesterId);
+            List<CourseOfferingDTO> result = new ArrayList<>(offerings.size());
+            for (CourseOffering offering : offerings) {
+                seatLedger.prime(offering);
+                result.add(dtoConverter.toCourseOfferingDTO(offering));
+            }
+            return result;
+        });
+        log.info("可选课程目录构建完成: semesterId={}, 开课计划数={}", semesterId, views.size());
+        return new Catalogue(semesterId, versions.incrementAndGet(), List.copyOf(views));
+    }
+
+    /**
+     * 重新加载单个开课计划，已发布的替换或加入目录，其余的从目录中移除
+     */
+    private void reloadOffering(Long offeringId) {
+        modifications.incrementAndGet();
+        CourseOfferingDTO view = readOnlyTransaction.execute(status ->
+                offeringRepository.findById(offeringId)
+                        .filter(offering -> offering.getStatus() == CourseOffering.OfferingStatus.PUBLISHED)
+                        .map(offering -> {
+                            seatLedger.prime(offering);
+                            return dtoConverter.toCourseOfferingDTO(offering);
+                        })
+                        .orElse(null));
+
+        for (Long semesterId : catalogues.keySet()) {
+            catalogues.computeIfPresent(semesterId, (id, catalogue) -> {
+                boolean belongs = view != null && id.equals(view.getSemesterId());
+                return catalogue.contains(offeringId) || belongs
+                        ? catalogue.replace(offeringId, belongs ? view : null, versions.incrementAndGet())
+                        : catalogue;
+            });
+        }
+    }
+
+    private boolean isSelectionOpen(Semester semester) {
+        if (!Boolean.TRUE.equals(semester.getCourseSelectionEnabled())) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return !now.isBefore(semester.getCourseSelectionStart()) && !now.isAfter(semester.getCourseSelectionEnd());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 学期目录（不可变，变更时复制）
+     * 列表中的视图对象只在内部使用，对外返回前复制并叠加实时已选人数
+     */
+    private record Catalogue(Long semesterId, long version, List<CourseOfferingDTO> offerings) {
+
+        boolean contains(Long offeringId) {
+            for (CourseOfferingDTO offering : offerings) {
+                if (offering.getId().equals(offeringId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 替换（view为null时移除）指定开课计划，不存在时追加
+         */
+        Catalogue replace(Long offeringId, CourseOfferingDTO view, long nextVersion) {
+            List<CourseOfferingDTO> next = new ArrayList<>(offerings.size() + 1);
+            boolean replaced = false;
+            for (CourseOfferingDTO offering : offerings) {
+                if (!offering.getId().equals(offeringId)) {
+                    next.add(offering);
+                } else if (view != null) {
+                    next.add(view);
+                    replaced = true;
+                }
+            }
+            if (view != null && !replaced) {
+                next.add(view);
+            }
+            return new Catalogue(semesterId, nextVersion, List.copyOf(next));
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.university.academic.service;
+
+import com.university.academic.dto.OperationLogPipelineStatsDTO;
+import com.university.academic.entity.OperationLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 操作日志写入管道
+ * 操作日志切面只把日志放入有界无锁队列，由后台写入线程批量取出、序列化请求参数后以JDBC批量插入 operation_log 表，
+ * 业务请求线程不再等待参数序列化和数据库写入。
+ * <p>
+ * 写入线程按刷新间隔唤醒，队列积压达到一批时立即唤醒。队列满时按配置的策略处理：
+ * CALLER_RUNS 由调用线程直接写入（不丢日志，压力传导给调用方），DROP 丢弃并计数。
+ * 应用关闭时停止写入线程并把队列中剩余的日志全部写入，此后提交的日志同样按队列满的策略处理。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+public class OperationLogPipeline {
+
+    private static final String INSERT_LOG_SQL =
+            "INSERT INTO operation_log (user_id, username, operation, method, params, ip, " +
+            "execution_time, status, error_msg, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 等待写入线程退出的最长时间（毫秒）
+     */
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 调用线程直接写入
+         */
+        CALLER_RUNS,
+        /**
+         * 丢弃
+         */
+        DROP
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * 待写入日志及其尚未序列化的请求参数
+     *
+     * @param entry  操作日志
+     * @param params 请求参数，可为空
+     */
+    private record PendingLog(OperationLog entry, Supplier<String> params) {
+    }
+
+    /**
+     * 待写入日志，容量由 depth 计数控制
+     */
+    private final Queue<PendingLog> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public OperationLogPipeline(
+            JdbcTemplate jdbcTemplate,
+            @Value("${academic.operation-log.capacity:10000}") int capacity,
+            @Value("${academic.operation-log.batch-size:200}") int batchSize,
+            @Value("${academic.operation-log.flush-interval:1000}") long flushIntervalMillis,
+            @Value("${academic.operation-log.overflow-policy:CALLER_RUNS}") OverflowPolicy overflowPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.overflowPolicy = overflowPolicy;
+        this.writer = new CustomizableThreadFactory("operation-log-writer-").newThread(this::drainLoop);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+        log.info("操作日志写入管道已启动: capacity={}, batchSize={}, overflowPolicy={}",
+                capacity, batchSize, overflowPolicy);
+    }
+
+    /**
+     * 停止写入线程并写入队列中剩余的日志
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(SHUTDOWN_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int remaining = flush();
+        log.info("操作日志写入管道已关闭: 关闭时写入={}, 累计写入={}, 丢弃={}, 失败={}",
+                remaining, written.get(), dropped.get(), failed.get());
+    }
+
+    /**
+     * 提交一条操作日志
+     *
+     * @param entry  操作日志
+     * @param params 请求参数，写入前在写入线程中取值，可为空
+     */
+    public void submit(OperationLog entry, Supplier<String> params) {
+        PendingLog pending = new PendingLog(entry, params);
+        if (running && offer(pending)) {
+            enqueued.incrementAndGet();
+            if (!running) {
+                // 与关闭并发入队，关闭时的最后一次写入可能已经结束，由调用线程补写
+                flush();
+            } else if (depth.get() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+
+        // 队列已满或写入线程已停止
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+            callerRuns.incrementAndGet();
+            write(List.of(pending));
+        } else {
+            long count = dropped.incrementAndGet();
+            // 持续丢弃时按数量级输出告警，避免刷屏
+            if (Long.bitCount(count) == 1) {
+                log.warn("操作日志队列已满或写入管道已关闭，已丢弃{}条日志", count);
+            }
+        }
+    }
+
+    /**
+     * 写入管道运行指标
+     *
+     * @return 运行指标
+     */
+    public OperationLogPipelineStatsDTO getStats() {
+        return OperationLogPipelineStatsDTO.builder()
+                .capacity(capacity)
+                .queueDepth(depth.get())
+                .overflowPolicy(overflowPolicy.name())
+                .enqueued(enqueued.get())
+                .written(written.get())
+                .callerRuns(callerRuns.get())
+                .dropped(dropped.get())
+                .failed(failed.get())
+                .batches(batches.get())
+                .build();
+    }
+
+    private boolean offer(PendingLog pending) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            return false;
+        }
+        queue.offer(pending);
+        return true;
+    }
+
+    /**
+     * 写入线程主循环：取出一批写入，积压不足一批时等待到下一个刷新间隔
+     */
+    private void drainLoop() {
+        List<PendingLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            drainTo(batch);
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+            if (depth.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * 写入队列中的全部日志
+     *
+     * @return 写入条数
+     */
+    private int flush() {
+        List<PendingLog> batch = new ArrayList<>(batchSize);
+        int count = 0;
+        while (drainTo(batch) > 0) {
+            write(batch);
+            count += batch.size();
+            batch.clear();
+        }
+        return count;
+    }
+
+    private int drainTo(List<PendingLog> batch) {
+        PendingLog pending;
+        while (batch.size() < batchSize && (pending = queue.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(pending);
+        }
+        return batch.size();
+    }
+
+    private void write(List<PendingLog> batch) {
+        List<OperationLog> entries = new ArrayList<>(batch.size());
+        for (PendingLog pending : batch) {
+            if (pending.params() != null) {
+                pending.entry().setParams(pending.params().get());
+            }
+            entries.add(pending.entry());
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_LOG_SQL, entries, entries.size(), (ps, entry) -> {
+                ps.setObject(1, entry.getUserId(), Types.BIGINT);
+                ps.setString(2, entry.getUsername());
+                ps.setString(3, entry.getOperation());
+                ps.setString(4, entry.getMethod());
+                ps.setString(5, entry.getParams());
+                ps.setString(6, entry.getIp());
+                ps.setObject(7, entry.getExecutionTime(), Types.BIGINT);
+                ps.setString(8, entry.getStatus() != null ? entry.getStatus().name() : null);
+                ps.setString(9, entry.getErrorMsg());
+                ps.setTimestamp(10, Timestamp.valueOf(entry.getCreatedAt()));
+            });
+            written.addAndGet(entries.size());
+            batches.incrementAndGet();
+        } catch (Exception e) {
+            failed.addAndGet(entries.size());
+            log.error("批量写入操作日志失败: count={}, error={}", entries.size(), e.getMessage(), e);
+        }
+    }
+}
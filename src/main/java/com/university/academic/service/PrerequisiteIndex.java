@@ -0,0 +1,278 @@
+package com.university.academic.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.university.academic.entity.Course;
+import com.university.academic.entity.Grade;
+import com.university.academic.event.GradePublishEvent;
+import com.university.academic.repository.CoursePrerequisiteRepository;
+import com.university.academic.repository.CourseRepository;
+import com.university.academic.repository.CourseSelectionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 先修课程索引
+ * 在内存中维护先修课程图（含传递闭包和循环检测）及必修课集合，
+ * 并按学生缓存已完成、已通过、未通过课程的位图（以课程ID为下标），
+ * 使选课先修校验和毕业审核必修课检查无需逐条加载选课记录。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrerequisiteIndex {
+
+    private final CoursePrerequisiteRepository prerequisiteRepository;
+    private final CourseRepository courseRepository;
+    private final CourseSelectionRepository selectionRepository;
+
+    /**
+     * 先修课程图快照，课程或先修关系变更后整体重建
+     */
+    private volatile CourseGraph graph;
+
+    /**
+     * 学生修读记录位图（studentId -> 位图）
+     */
+    private final Cache<Long, StudentCourseRecord> studentRecords = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
+
+    /**
+     * 查询学生未满足的直接先修课程
+     *
+     * @param studentId 学生ID
+     * @param courseId  课程ID
+     * @return 未完成的先修课程ID列表，全部满足时为空
+     */
+    public List<Long> findUnmetPrerequisites(Long studentId, Long courseId) {
+        long[] prerequisites = graph().direct().get(courseId);
+        if (prerequisites == null) {
+            return List.of();
+        }
+
+        BitSet completed = studentRecord(studentId).completed();
+        List<Long> unmet = new ArrayList<>();
+        for (long prerequisiteId : prerequisites) {
+            if (!completed.get(Math.toIntExact(prerequisiteId))) {
+                unmet.add(prerequisiteId);
+            }
+        }
+        return unmet;
+    }
+
+    /**
+     * 查询课程的全部（传递）先修课程
+     *
+     * @param courseId 课程ID
+     * @return 先修课程ID集合
+     */
+    public Set<Long> getAllPrerequisites(Long courseId) {
+        BitSet closure = graph().closure().get(courseId);
+        if (closure == null) {
+            return Set.of();
+        }
+        Set<Long> result = new HashSet<>();
+        closure.stream().forEach(id -> result.add((long) id));
+        return result;
+    }
+
+    /**
+     * 判断添加先修关系后是否会形成循环依赖
+     *
+     * @param courseId             课程ID
+     * @param prerequisiteCourseId 先修课程ID
+     * @return true-会形成循环，false-不会
+     */
+    public boolean wouldCreateCycle(Long courseId, Long prerequisiteCourseId) {
+        if (courseId.equals(prerequisiteCourseId)) {
+            return true;
+        }
+        BitSet closure = graph().closure().get(prerequisiteCourseId);
+        return closure != null && closure.get(Math.toIntExact(courseId));
+    }
+
+    /**
+     * 查询学生有已公布不及格成绩的必修课
+     * 与逐条检查已完成选课记录的口径一致：同一门课任一次修读不及格即计入，重修通过不抵消
+     *
+     * @param studentId 学生ID
+     * @return 课程ID列表
+     */
+    public List<Long> findFailedRequiredCourses(Long studentId) {
+        BitSet failed = (BitSet) studentRecord(studentId).failed().clone();
+        failed.and(graph().requiredCourses());
+
+        List<Long> result = new ArrayList<>();
+        failed.stream().forEach(id -> result.add((long) id));
+        return result;
+    }
+
+    /**
+     * 课程或先修关系变更后重建先修课程图（事务提交后执行）
+     */
+    public void refresh() {
+        Runnable rebuild = () -> {
+            // 与构建过程互斥，避免正在构建的旧图覆盖失效标记
+            synchronized (this) {
+                graph = null;
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuild.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild.run();
+            }
+        });
+    }
+
+    /**
+     * 成绩公布后增量更新学生的修读记录位图
+     *
+     * @param event 成绩公布事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleGradePublish(GradePublishEvent event) {
+        if (event.getCourseId() == null) {
+            studentRecords.invalidate(event.getStudentId());
+            return;
+        }
+        int courseIndex = Math.toIntExact(event.getCourseId());
+        boolean passed = Boolean.TRUE.equals(event.getPassed());
+        // 已有相反结果时无法区分是重修还是修改同一条成绩，移除位图下次按选课记录重新加载
+        studentRecords.asMap().computeIfPresent(event.getStudentId(),
+                (id, record) -> record.hasOppositeOutcome(courseIndex, passed)
+                        ? null : record.withOutcome(courseIndex, passed));
+    }
+
+    private CourseGraph graph() {
+        CourseGraph current = graph;
+        if (current == null) {
+            synchronized (this) {
+                current = graph;
+                if (current == null) {
+                    current = buildGraph();
+                    graph = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private StudentCourseRecord studentRecord(Long studentId) {
+        return studentRecords.get(studentId, this::loadStudentRecord);
+    }
+
+    private StudentCourseRecord loadStudentRecord(Long studentId) {
+        BitSet completed = new BitSet();
+        BitSet passed = new BitSet();
+        BitSet failed = new BitSet();
+        for (Object[] row : selectionRepository.findCompletedCourseOutcomes(studentId)) {
+            int courseIndex = Math.toIntExact((Long) row[0]);
+            completed.set(courseIndex);
+            if (row[1] == Grade.GradeStatus.PUBLISHED) {
+                if (Grade.isPassingScore((BigDecimal) row[2])) {
+                    passed.set(courseIndex);
+                } else {
+                    failed.set(courseIndex);
+                }
+            }
+        }
+        return new StudentCourseRecord(completed, passed, failed);
+    }
+
+    /**
+     * 从数据库构建先修课程图，计算传递闭包并检测循环依赖
+     */
+    private CourseGraph buildGraph() {
+        Map<Long, List<Long>> adjacency = new HashMap<>();
+        for (Object[] edge : prerequisiteRepository.findAllEdges()) {
+            adjacency.computeIfAbsent((Long) edge[0], k -> new ArrayList<>()).add((Long) edge[1]);
+        }
+
+        Map<Long, long[]> direct = new HashMap<>();
+        adjacency.forEach((courseId, prerequisites) ->
+                direct.put(courseId, prerequisites.stream().mapToLong(Long::longValue).toArray()));
+
+        Map<Long, BitSet> closure = new HashMap<>();
+        Set<Long> visiting = new HashSet<>();
+        for (Long courseId : adjacency.keySet()) {
+            computeClosure(courseId, adjacency, closure, visiting);
+        }
+
+        BitSet requiredCourses = new BitSet();
+        for (Long courseId : courseRepository.findIdsByType(Course.CourseType.REQUIRED)) {
+            requiredCourses.set(Math.toIntExact(courseId));
+        }
+
+        log.info("先修课程图构建完成: 课程数={}, 先修关系数={}",
+                adjacency.size(), direct.values().stream().mapToInt(a -> a.length).sum());
+        return new CourseGraph(direct, closure, requiredCourses);
+    }
+
+    private BitSet computeClosure(Long courseId, Map<Long, List<Long>> adjacency,
+                                  Map<Long, BitSet> closure, Set<Long> visiting) {
+        BitSet cached = closure.get(courseId);
+        if (cached != null) {
+            return cached;
+        }
+        if (!visiting.add(courseId)) {
+            log.warn("先修课程存在循环依赖: courseId={}", courseId);
+            return new BitSet();
+        }
+
+        BitSet result = new BitSet();
+        for (Long prerequisiteId : adjacency.getOrDefault(courseId, List.of())) {
+            result.set(Math.toIntExact(prerequisiteId));
+            result.or(computeClosure(prerequisiteId, adjacency, closure, visiting));
+        }
+        visiting.remove(courseId);
+        closure.put(courseId, result);
+        return result;
+    }
+
+    /**
+     * 先修课程图快照（不可变）
+     */
+    private record CourseGraph(Map<Long, long[]> direct, Map<Long, BitSet> closure, BitSet requiredCourses) {
+    }
+
+    /**
+     * 学生修读记录位图（不可变，更新时复制）
+     */
+    private record StudentCourseRecord(BitSet completed, BitSet passed, BitSet failed) {
+
+        boolean hasOppositeOutcome(int courseIndex, boolean coursePassed) {
+            return coursePassed ? failed.get(courseIndex) : passed.get(courseIndex);
+        }
+
+        StudentCourseRecord withOutcome(int courseIndex, boolean coursePassed) {
+            BitSet nextCompleted = (BitSet) completed.clone();
+            BitSet nextPassed = (BitSet) passed.clone();
+            BitSet nextFailed = (BitSet) failed.clone();
+            nextCompleted.set(courseIndex);
+            if (coursePassed) {
+                nextPassed.set(courseIndex);
+            } else {
+                nextFailed.set(courseIndex);
+            }
+            return new StudentCourseRecord(nextCompleted, nextPassed, nextFailed);
+        }
+    }
+}
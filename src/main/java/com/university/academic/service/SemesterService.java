@@ -29,6 +29,7 @@ import java.util.List;
 public class SemesterService {
 
     private final SemesterRepository semesterRepository;
+    private final ConfigSnapshotService configSnapshotService;
 
     /**
      * 根据ID查询学期
@@ -45,14 +46,12 @@ public class SemesterService {
 
     /**
      * 查询当前活动学期
+     * 从运行时配置快照读取，不访问数据库；返回的学期对象为共享只读对象，修改前须重新查询
      *
      * @return 当前活动学期
      */
-    @Cacheable(value = CacheConfig.CACHE_ACTIVE_SEMESTER, key = "'active'")
-    @Transactional(readOnly = true)
     public Semester findActiveSemester() {
-        return semesterRepository.findByActiveTrue()
-                .orElseThrow(() -> new BusinessException(ErrorCode.SEMESTER_NOT_ACTIVE));
+        return configSnapshotService.activeSemester();
     }
 
     /**
@@ -112,7 +111,7 @@ public class SemesterService {
      * @param semester 更新的学期信息
      * @return 更新后的学期对象
      */
-    @CacheEvict(value = {CacheConfig.CACHE_SEMESTERS, CacheConfig.CACHE_ACTIVE_SEMESTER}, allEntries = true)
+    @CacheEvict(value = CacheConfig.CACHE_SEMESTERS, allEntries = true)
     @Transactional
     public Semester updateSemester(Long id, Semester semester) {
         Semester existingSemester = findById(id);
@@ -166,7 +165,7 @@ public class SemesterService {
      *
      * @param id 学期ID
      */
-    @CacheEvict(value = {CacheConfig.CACHE_SEMESTERS, CacheConfig.CACHE_ACTIVE_SEMESTER}, allEntries = true)
+    @CacheEvict(value = CacheConfig.CACHE_SEMESTERS, allEntries = true)
     @Transactional
     public void deleteSemester(Long id) {
         Semester semester = findById(id);
@@ -190,7 +189,7 @@ public class SemesterService {
      *
      * @param id 学期ID
      */
-    @CacheEvict(value = {CacheConfig.CACHE_SEMESTERS, CacheConfig.CACHE_ACTIVE_SEMESTER}, allEntries = true)
+    @CacheEvict(value = CacheConfig.CACHE_SEMESTERS, allEntries = true)
     @Transactional
     public void setActiveSemester(Long id) {
         Semester semester = findById(id);
@@ -201,6 +200,7 @@ public class SemesterService {
         // 设置指定学期为活动学期
         semester.setActive(true);
         semesterRepository.save(semester);
+        configSnapshotService.refresh();
 
         log.info("设置活动学期成功: {}", semester.getSemesterName());
     }
@@ -255,9 +255,8 @@ public class SemesterService {
      *
      * @return true-存在，false-不存在
      */
-    @Transactional(readOnly = true)
     public boolean hasActiveSemester() {
-        return semesterRepository.findByActiveTrue().isPresent();
+        return configSnapshotService.current().activeSemester() != null;
     }
 
     /**
@@ -267,7 +266,7 @@ public class SemesterService {
      * @param enabled 是否启用
      * @return 更新后的学期对象
      */
-    @CacheEvict(value = {CacheConfig.CACHE_SEMESTERS, CacheConfig.CACHE_ACTIVE_SEMESTER}, allEntries = true)
+    @CacheEvict(value = CacheConfig.CACHE_SEMESTERS, allEntries = true)
     @Transactional
     public Semester toggleCourseSelection(Long id, Boolean enabled) {
         log.info("切换选课功能: semesterId={}, enabled={}", id, enabled);
@@ -276,6 +275,7 @@ public class SemesterService {
         semester.setCourseSelectionEnabled(enabled);
         
         Semester updated = semesterRepository.save(semester);
+        configSnapshotService.refresh();
         log.info("选课功能已{}: {}", enabled ? "开启" : "关闭", semester.getSemesterName());
 
         return updated;
@@ -289,7 +289,7 @@ public class SemesterService {
      * @param endTime 选课结束时间字符串
      * @return 更新后的学期对象
      */
-    @CacheEvict(value = {CacheConfig.CACHE_SEMESTERS, CacheConfig.CACHE_ACTIVE_SEMESTER}, allEntries = true)
+    @CacheEvict(value = CacheConfig.CACHE_SEMESTERS, allEntries = true)
     @Transactional
     public Semester updateCourseSelectionTime(Long id, String startTime, String endTime) {
         log.info("更新选课时间: semesterId={}, startTime={}, endTime={}", id, startTime, endTime);
@@ -310,6 +310,7 @@ public class SemesterService {
         semester.setCourseSelectionEnd(selectionEnd);
         
         Semester updated = semesterRepository.save(semester);
+        configSnapshotService.refresh();
         log.info("选课时间已更新: {}, 开始: {}, 结束: {}", 
                 semester.getSemesterName(), selectionStart, selectionEnd);
 
@@ -0,0 +1,453 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.ApprovalStatus;
+import com.university.academic.entity.ChangeType;
+import com.university.academic.entity.ScholarshipLevel;
+import com.university.academic.entity.Student;
+import com.university.academic.entity.tuition.BillStatus;
+import com.university.academic.event.GradePublishEvent;
+import com.university.academic.event.ScholarshipAwardedEvent;
+import com.university.academic.event.StudentRosterChangedEvent;
+import com.university.academic.event.StudentStatusChangeUpdatedEvent;
+import com.university.academic.event.TuitionBillChangedEvent;
+import com.university.academic.repository.GradeRepository;
+import com.university.academic.repository.ScholarshipAwardRepository;
+import com.university.academic.repository.StudentRepository;
+import com.university.academic.repository.StudentStatusChangeRepository;
+import com.university.academic.repository.TuitionBillRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 统计汇总服务
+ * 管理端统计报表读取内存中的预汇总数据（按院系、专业、年级、状态等维度的计数和金额合计），
+ * 请求耗时与原始数据量无关。汇总数据按切片（如学年、学期）构建，每个切片是一次分组查询的结果，整体替换。
+ * <p>
+ * 成绩公布、缴费、奖学金公示、学籍异动、学生名册变更等领域事件在事务提交后把受影响的切片标记为过期，
+ * 后台线程合并一段时间内的变更后重建过期切片，重建完成前继续返回旧数据；
+ * 另有定时全量重建兜底其他实例的修改、未发布事件的写入（如成绩录入、账单逾期）和直接改库的情况。
+ * 过期重建和定时重建都在同一个后台线程中执行；每次构建按开始顺序编号，较早开始的构建结果不会覆盖较新的结果。
+ * 重建失败的切片保留过期标记，由下一次过期重建或定时重建重试。
+ * <p>
+ * 变更不按事件增量累加到汇总单元，而是重新执行受影响切片的分组查询：成绩汇总含平均分、最高分和最低分，
+ * 成绩修改或撤回后最值无法由增量推出；学籍异动审批、转专业会同时改变多个单元的归属；
+ * 事件也不携带金额和维度明细。为控制代价，事件只标记受影响的切片（成绩按开课学期，学费和奖学金按学年），
+ * 延迟时间内的多次变更合并为一次分组查询。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+public class StatisticsCubeService {
+
+    /**
+     * 不区分切片的汇总数据使用的切片名
+     */
+    private static final String ALL = "all";
+
+    private final StudentRepository studentRepository;
+    private final GradeRepository gradeRepository;
+    private final TuitionBillRepository billRepository;
+    private final ScholarshipAwardRepository awardRepository;
+    private final StudentStatusChangeRepository statusChangeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * 事件触发后延迟重建的时间（毫秒），期间的多次变更合并为一次重建
+     */
+    private final long refreshDelayMillis;
+
+    private final ScheduledExecutorService refreshExecutor;
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    private final CubeSlices<List<StudentCell>> students;
+    private final CubeSlices<GradeCube> grades;
+    private final CubeSlices<List<TuitionCell>> tuition;
+    private final CubeSlices<List<AwardCell>> awards;
+    private final CubeSlices<List<StatusChangeCell>> statusChanges;
+
+    public StatisticsCubeService(
+            StudentRepository studentRepository,
+            GradeRepository gradeRepository,
+            TuitionBillRepository billRepository,
+            ScholarshipAwardRepository awardRepository,
+            StudentStatusChangeRepository statusChangeRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${academic.statistics.cube.refresh-delay:2000}") long refreshDelayMillis) {
+        this.studentRepository = studentRepository;
+        this.gradeRepository = gradeRepository;
+        this.billRepository = billRepository;
+        this.awardRepository = awardRepository;
+        this.statusChangeRepository = statusChangeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshDelayMillis = Math.max(0, refreshDelayMillis);
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("statistics-cube-"));
+
+        this.students = new CubeSlices<>("学生分布", slice -> buildStudents());
+        this.grades = new CubeSlices<>("成绩", this::buildGrades);
+        this.tuition = new CubeSlices<>("学费", this::buildTuition);
+        this.awards = new CubeSlices<>("奖学金", this::buildAwards);
+        this.statusChanges = new CubeSlices<>("学籍异动", slice -> buildStatusChanges());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 在籍学生分布汇总
+     *
+     * @return 按院系、专业、入学年份、性别汇总的学生数
+     */
+    public List<StudentCell> studentCells() {
+        return students.get(ALL);
+    }
+
+    /**
+     * 成绩汇总
+     *
+     * @param semesterId 学期ID（为空时汇总全部学期）
+     * @return 成绩汇总
+     */
+    public GradeCube gradeCube(Long semesterId) {
+        return grades.get(semesterId != null ? semesterId.toString() : ALL);
+    }
+
+    /**
+     * 学费账单汇总
+     *
+     * @param academicYear 学年
+     * @return 按院系、专业、账单状态汇总的账单
+     */
+    public List<TuitionCell> tuitionCells(String academicYear) {
+        return tuition.get(academicYear);
+    }
+
+    /**
+     * 奖学金获奖汇总
+     *
+     * @param academicYear 学年
+     * @return 按院系、专业、入学年份、奖学金汇总的获奖记录
+     */
+    public List<AwardCell> awardCells(String academicYear) {
+        return awards.get(academicYear);
+    }
+
+    /**
+     * 学籍异动汇总
+     *
+     * @return 按申请日期、类型、状态汇总的异动申请
+     */
+    public List<StatusChangeCell> statusChangeCells() {
+        return statusChanges.get(ALL);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleGradePublish(GradePublishEvent event) {
+        if (event.getSemesterId() != null) {
+            grades.markDirty(event.getSemesterId().toString());
+            grades.markDirty(ALL);
+        } else {
+            grades.markAllDirty();
+        }
+        scheduleRefresh();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleTuitionBillChanged(TuitionBillChangedEvent event) {
+        tuition.markDirty(event.getAcademicYear());
+        scheduleRefresh();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleScholarshipAwarded(ScholarshipAwardedEvent event) {
+        awards.markDirty(event.getAcademicYear());
+        scheduleRefresh();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleStatusChangeUpdated(StudentStatusChangeUpdatedEvent event) {
+        statusChanges.markAllDirty();
+        scheduleRefresh();
+    }
+
+    /**
+     * 学生增删、转专业、异动审批通过后触发；专业变化会改变学费、奖学金汇总的院系和专业归属，一并刷新
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleStudentRosterChanged(StudentRosterChangedEvent event) {
+        students.markAllDirty();
+        tuition.markAllDirty();
+        awards.markAllDirty();
+        scheduleRefresh();
+    }
+
+    /**
+     * 定时全量重建已加载的全部切片（提交到后台线程执行，与过期重建串行）
+     */
+    @Scheduled(fixedDelayString = "${academic.statistics.cube.rebuild-interval:600000}",
+            initialDelayString = "${academic.statistics.cube.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        refreshExecutor.execute(this::rebuildAll);
+    }
+
+    private void rebuildAll() {
+        long start = System.currentTimeMillis();
+        int count = students.rebuildAll() + grades.rebuildAll() + tuition.rebuildAll()
+                + awards.rebuildAll() + statusChanges.rebuildAll();
+        log.info("统计汇总定时重建完成: 切片数={}, 耗时={}ms", count, System.currentTimeMillis() - start);
+    }
+
+    private void scheduleRefresh() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refreshExecutor.schedule(this::refreshDirty, refreshDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refreshDirty() {
+        refreshScheduled.set(false);
+        students.refreshDirty();
+        grades.refreshDirty();
+        tuition.refreshDirty();
+        awards.refreshDirty();
+        statusChanges.refreshDirty();
+    }
+
+    private List<StudentCell> buildStudents() {
+        List<Object[]> rows = studentRepository.countActiveGroupByRoster();
+        List<StudentCell> cells = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            cells.add(new StudentCell((String) row[0], (String) row[1], (Integer) row[2],
+                    (Student.Gender) row[3], ((Number) row[4]).longValue()));
+        }
+        return List.copyOf(cells);
+    }
+
+    private GradeCube buildGrades(String slice) {
+        Long semesterId = ALL.equals(slice) ? null : Long.valueOf(slice);
+        Object[] counts = gradeRepository.countTotalAndPublished(semesterId).get(0);
+
+        List<Object[]> rows = gradeRepository.aggregatePublishedScoresGroupByOffering(semesterId);
+        List<GradeCell> cells = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            cells.add(new GradeCell((Long) row[0], (String) row[1], (String) row[2],
+                    ((Number) row[3]).longValue(), ((Number) row[4]).doubleValue(),
+                    ((Number) row[5]).longValue(), ((Number) row[6]).longValue(), ((Number) row[7]).longValue(),
+                    ((Number) row[8]).doubleValue(), ((Number) row[9]).doubleValue()));
+        }
+        return new GradeCube(((Number) counts[0]).longValue(), ((Number) counts[1]).longValue(), List.copyOf(cells));
+    }
+
+    private List<TuitionCell> buildTuition(String academicYear) {
+        List<Object[]> rows = billRepository.aggregateByAcademicYear(academicYear);
+        List<TuitionCell> cells = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            cells.add(new TuitionCell((Long) row[0], (String) row[1], (Long) row[2], (String) row[3],
+                    (BillStatus) row[4], ((Number) row[5]).longValue(), ((Number) row[6]).longValue(),
+                    doubleValue(row[7]), doubleValue(row[8])));
+        }
+        return List.copyOf(cells);
+    }
+
+    private List<AwardCell> buildAwards(String academicYear) {
+        List<Object[]> rows = awardRepository.aggregateByAcademicYear(academicYear);
+        List<AwardCell> cells = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            cells.add(new AwardCell((Long) row[0], (String) row[1], (String) row[2], (Integer) row[3],
+                    (ScholarshipLevel) row[4], (String) row[5], ((Number) row[6]).longValue(), doubleValue(row[7])));
+        }
+        return List.copyOf(cells);
+    }
+
+    private List<StatusChangeCell> buildStatusChanges() {
+        List<Object[]> rows = statusChangeRepository.aggregateByDay();
+        List<StatusChangeCell> cells = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            LocalDate day = row[0] instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) row[0];
+            boolean overdue = row[3] instanceof Number number ? number.intValue() != 0 : Boolean.TRUE.equals(row[3]);
+            cells.add(new StatusChangeCell(day, ChangeType.valueOf((String) row[1]),
+                    ApprovalStatus.valueOf((String) row[2]), overdue, (String) row[4],
+                    ((Number) row[5]).longValue(), ((Number) row[6]).longValue()));
+        }
+        return List.copyOf(cells);
+    }
+
+    private static double doubleValue(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    /**
+     * 一类汇总数据的全部切片
+     * 首次访问时同步构建；标记过期后由后台线程重建并整体替换
+     */
+    private final class CubeSlices<V> {
+
+        private final String name;
+        private final Function<String, V> loader;
+        private final Map<String, VersionedSlice<V>> slices = new ConcurrentHashMap<>();
+
+        /**
+         * 已访问过的切片（含首次构建尚未完成的），过期标记以此为准
+         */
+        private final Set<String> requested = ConcurrentHashMap.newKeySet();
+        private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+        /**
+         * 构建序号，构建开始时分配
+         */
+        private final AtomicLong versions = new AtomicLong();
+
+        CubeSlices(String name, Function<String, V> loader) {
+            this.name = name;
+            this.loader = loader;
+        }
+
+        V get(String slice) {
+            VersionedSlice<V> current = slices.get(slice);
+            if (current != null) {
+                return current.value();
+            }
+            // 先登记再构建，首次构建期间到达的变更会标记过期并在之后重建
+            requested.add(slice);
+            return slices.computeIfAbsent(slice, this::build).value();
+        }
+
+        /**
+         * 标记切片过期（从未访问过的切片无需处理，下次访问时直接构建最新数据）
+         */
+        void markDirty(String slice) {
+            if (slice != null && requested.contains(slice)) {
+                dirty.add(slice);
+            }
+        }
+
+        void markAllDirty() {
+            dirty.addAll(requested);
+        }
+
+        void refreshDirty() {
+            for (String slice : List.copyOf(dirty)) {
+                dirty.remove(slice);
+                try {
+                    replace(slice, build(slice));
+                } catch (Exception e) {
+                    // 重新标记过期，由下一次过期重建或定时重建重试
+                    dirty.add(slice);
+                    log.error("重建统计汇总失败: cube={}, slice={}, error={}", name, slice, e.getMessage(), e);
+                }
+            }
+        }
+
+        int rebuildAll() {
+            int count = 0;
+            for (String slice : List.copyOf(requested)) {
+                dirty.remove(slice);
+                try {
+                    replace(slice, build(slice));
+                    count++;
+                } catch (Exception e) {
+                    dirty.add(slice);
+                    log.error("重建统计汇总失败: cube={}, slice={}, error={}", name, slice, e.getMessage(), e);
+                }
+            }
+            return count;
+        }
+
+        /**
+         * 只有开始得更晚的构建结果才替换当前切片
+         */
+        private void replace(String slice, VersionedSlice<V> built) {
+            slices.merge(slice, built, (current, candidate) ->
+                    candidate.version() > current.version() ? candidate : current);
+        }
+
+        private VersionedSlice<V> build(String slice) {
+            long start = System.currentTimeMillis();
+            long version = versions.incrementAndGet();
+            V value = readOnlyTransaction.execute(status -> loader.apply(slice));
+            log.debug("统计汇总已构建: cube={}, slice={}, version={}, 耗时={}ms",
+                    name, slice, version, System.currentTimeMillis() - start);
+            return new VersionedSlice<>(version, value);
+        }
+    }
+
+    /**
+     * 带构建序号的切片数据
+     */
+    private record VersionedSlice<V>(long version, V value) {
+    }
+
+    /**
+     * 在籍学生分布单元
+     */
+    public record StudentCell(String departmentName, String majorName, Integer enrollmentYear,
+                              Student.Gender gender, long count) {
+    }
+
+    /**
+     * 成绩汇总（一个学期或全部学期）
+     *
+     * @param totalGrades     成绩总数
+     * @param publishedGrades 已发布成绩数
+     * @param offerings       按开课计划汇总的已发布成绩
+     */
+    public record GradeCube(long totalGrades, long publishedGrades, List<GradeCell> offerings) {
+    }
+
+    /**
+     * 开课计划已发布成绩汇总单元
+     */
+    public record GradeCell(Long offeringId, String courseName, String teacherName, long count,
+                            double averageScore, long passCount, long goodCount, long excellentCount,
+                            double highestScore, double lowestScore) {
+    }
+
+    /**
+     * 学费账单汇总单元
+     */
+    public record TuitionCell(Long departmentId, String departmentName, Long majorId, String majorName,
+                              BillStatus status, long billCount, long studentCount,
+                              double totalAmount, double paidAmount) {
+    }
+
+    /**
+     * 奖学金获奖汇总单元
+     */
+    public record AwardCell(Long departmentId, String departmentName, String majorName, Integer enrollmentYear,
+                            ScholarshipLevel level, String scholarshipName, long count, double amount) {
+    }
+
+    /**
+     * 学籍异动申请汇总单元（按申请日期）
+     *
+     * @param approvalDays 审批天数合计（更新时间与申请时间的日期差）
+     */
+    public record StatusChangeCell(LocalDate day, ChangeType type, ApprovalStatus status, boolean overdue,
+                                   String targetMajorName, long count, long approvalDays) {
+    }
+}
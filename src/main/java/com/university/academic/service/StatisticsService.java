@@ -16,6 +16,8 @@ import java.util.stream.Collectors;
 /**
  * 统计服务类
  * 提供各种数据统计功能
+ * 学生分布、成绩和教师工作量统计由数据库分组聚合后只返回汇总行，不加载实体明细；
+ * 学生分布和成绩统计读取 {@link StatisticsCubeService} 中的预汇总数据
  *
  * @author Academic System Team
  */
@@ -24,55 +26,30 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StatisticsService {
 
-    private final StudentRepository studentRepository;
     private final CourseRepository courseRepository;
     private final CourseOfferingRepository offeringRepository;
-    private final GradeRepository gradeRepository;
     private final TeacherRepository teacherRepository;
+    private final StatisticsCubeService statisticsCubeService;
 
     /**
      * 获取学生统计数据
      */
-    @Transactional(readOnly = true)
     public StudentStatisticsDTO getStudentStatistics() {
         log.info("获取学生统计数据");
 
-        List<Student> students = studentRepository.findAll().stream()
-                .filter(s -> !s.getDeleted())
-                .collect(Collectors.toList());
-
-        // 总数
-        long totalStudents = students.size();
-
-        // 按专业分布
-        Map<String, Long> byMajor = students.stream()
-                .filter(s -> s.getMajor() != null)
-                .collect(Collectors.groupingBy(
-                        s -> s.getMajor().getName(),
-                        Collectors.counting()
-                ));
-
-        // 按入学年份分布
-        Map<Integer, Long> byEnrollmentYear = students.stream()
-                .collect(Collectors.groupingBy(
-                        Student::getEnrollmentYear,
-                        Collectors.counting()
-                ));
-
-        // 按性别分布
-        Map<String, Long> byGender = students.stream()
-                .collect(Collectors.groupingBy(
-                        s -> s.getGender().name(),
-                        Collectors.counting()
-                ));
-
-        // 按院系分布
-        Map<String, Long> byDepartment = students.stream()
-                .filter(s -> s.getMajor() != null && s.getMajor().getDepartment() != null)
-                .collect(Collectors.groupingBy(
-                        s -> s.getMajor().getDepartment().getName(),
-                        Collectors.counting()
-                ));
+        // 按专业、入学年份、性别、院系分布（由统计汇总合并）
+        long totalStudents = 0;
+        Map<String, Long> byMajor = new HashMap<>();
+        Map<Integer, Long> byEnrollmentYear = new HashMap<>();
+        Map<String, Long> byGender = new HashMap<>();
+        Map<String, Long> byDepartment = new HashMap<>();
+        for (StatisticsCubeService.StudentCell cell : statisticsCubeService.studentCells()) {
+            totalStudents += cell.count();
+            mergeCount(byMajor, cell.majorName(), cell.count());
+            mergeCount(byEnrollmentYear, cell.enrollmentYear(), cell.count());
+            mergeCount(byGender, cell.gender() != null ? cell.gender().name() : null, cell.count());
+            mergeCount(byDepartment, cell.departmentName(), cell.count());
+        }
 
         return StudentStatisticsDTO.builder()
                 .totalStudents(totalStudents)
@@ -145,50 +122,21 @@ public class StatisticsService {
     /**
      * 获取成绩统计数据
      */
-    @Transactional(readOnly = true)
     public GradeStatisticsDTO getGradeStatistics(Long semesterId) {
         log.info("获取成绩统计数据: semesterId={}", semesterId);
 
-        List<Grade> grades;
-        if (semesterId != null) {
-            grades = gradeRepository.findBySemesterId(semesterId);
-        } else {
-            grades = gradeRepository.findAll();
-        }
-
-        long totalGrades = grades.size();
-
-        // 已发布成绩数
-        long publishedGrades = grades.stream()
-                .filter(g -> g.getStatus() == Grade.GradeStatus.PUBLISHED)
-                .count();
-
-        // 全局统计（只统计已发布的成绩）
-        List<Grade> publishedGradeList = grades.stream()
-                .filter(g -> g.getStatus() == Grade.GradeStatus.PUBLISHED && g.getTotalScore() != null)
-                .collect(Collectors.toList());
-
-        GradeStatisticsDTO.GlobalGradeStats globalStats = calculateGlobalStats(publishedGradeList);
-
-        // 按课程统计
-        Map<Long, List<Grade>> gradesByCourse = publishedGradeList.stream()
-                .collect(Collectors.groupingBy(g -> g.getCourseSelection().getOffering().getId()));
+        // 成绩总数、已发布成绩数和按课程汇总的已发布成绩（统计汇总），全局统计由各课程汇总合并得出
+        StatisticsCubeService.GradeCube cube = statisticsCubeService.gradeCube(semesterId);
+        GradeStatisticsDTO.GlobalGradeStats globalStats = calculateGlobalStats(cube.offerings());
 
-        List<GradeStatisticsDTO.CourseGradeStats> courseStats = gradesByCourse.entrySet().stream()
-                .map(entry -> {
-                    Long offeringId = entry.getKey();
-                    List<Grade> courseGrades = entry.getValue();
-
-                    CourseOffering offering = courseGrades.get(0).getCourseSelection().getOffering();
-
-                    return calculateCourseStats(offeringId, offering, courseGrades);
-                })
+        List<GradeStatisticsDTO.CourseGradeStats> courseStats = cube.offerings().stream()
+                .map(this::toCourseStats)
                 .sorted(Comparator.comparing(GradeStatisticsDTO.CourseGradeStats::getAverageScore).reversed())
                 .collect(Collectors.toList());
 
         return GradeStatisticsDTO.builder()
-                .totalGrades(totalGrades)
-                .publishedGrades(publishedGrades)
+                .totalGrades(cube.totalGrades())
+                .publishedGrades(cube.publishedGrades())
                 .globalStats(globalStats)
                 .courseStats(courseStats)
                 .build();
@@ -201,47 +149,31 @@ public class StatisticsService {
     public List<TeacherWorkloadDTO> getTeacherWorkload(Long semesterId) {
         log.info("获取教师工作量统计: semesterId={}", semesterId);
 
-        List<Teacher> teachers = teacherRepository.findAll();
+        // 按教师汇总开课数、课程数、学生人数和学时（数据库分组统计）
+        Map<Long, Object[]> workloads = new HashMap<>();
+        for (Object[] row : offeringRepository.aggregateWorkloadGroupByTeacher(semesterId)) {
+            workloads.put((Long) row[0], row);
+        }
 
-        return teachers.stream()
+        return teacherRepository.findWorkloadProfiles().stream()
                 .map(teacher -> {
-                    List<CourseOffering> offerings;
-                    if (semesterId != null) {
-                        offerings = offeringRepository.findByTeacherIdAndSemesterId(
-                                teacher.getId(), semesterId);
-                    } else {
-                        offerings = offeringRepository.findByTeacherId(teacher.getId());
-                    }
-
-                    long offeringCount = offerings.size();
-
-                    // 统计授课的不同课程数
-                    long courseCount = offerings.stream()
-                            .map(o -> o.getCourse().getId())
-                            .distinct()
-                            .count();
-
-                    // 授课学生总人数
-                    long totalStudents = offerings.stream()
-                            .mapToLong(CourseOffering::getEnrolled)
-                            .sum();
-
-                    // 总学时
-                    long totalHours = offerings.stream()
-                            .mapToLong(o -> o.getCourse().getHours())
-                            .sum();
+                    Object[] workload = workloads.get((Long) teacher[0]);
+
+                    long offeringCount = workload != null ? ((Number) workload[1]).longValue() : 0;
+                    long courseCount = workload != null ? ((Number) workload[2]).longValue() : 0;
+                    long totalStudents = workload != null ? ((Number) workload[3]).longValue() : 0;
+                    long totalHours = workload != null ? ((Number) workload[4]).longValue() : 0;
 
                     // 平均每班人数
                     double avgStudents = offeringCount > 0 ?
                             (double) totalStudents / offeringCount : 0.0;
 
                     return TeacherWorkloadDTO.builder()
-                            .teacherId(teacher.getId())
-                            .teacherNo(teacher.getTeacherNo())
-                            .teacherName(teacher.getName())
-                            .departmentName(teacher.getDepartment() != null ?
-                                    teacher.getDepartment().getName() : null)
-                            .title(teacher.getTitle())
+                            .teacherId((Long) teacher[0])
+                            .teacherNo((String) teacher[1])
+                            .teacherName((String) teacher[2])
+                            .departmentName((String) teacher[3])
+                            .title((String) teacher[4])
                             .courseCount(courseCount)
                             .offeringCount(offeringCount)
                             .totalStudents(totalStudents)
@@ -255,10 +187,25 @@ public class StatisticsService {
     }
 
     /**
-     * 计算全局成绩统计
+     * 合并各课程汇总行，计算全局成绩统计
+     *
+     * @param cells 按开课计划汇总的已发布成绩
      */
-    private GradeStatisticsDTO.GlobalGradeStats calculateGlobalStats(List<Grade> grades) {
-        if (grades.isEmpty()) {
+    private GradeStatisticsDTO.GlobalGradeStats calculateGlobalStats(List<StatisticsCubeService.GradeCell> cells) {
+        long count = 0;
+        double scoreSum = 0;
+        long passCount = 0;
+        long goodCount = 0;
+        long excellentCount = 0;
+        for (StatisticsCubeService.GradeCell cell : cells) {
+            count += cell.count();
+            scoreSum += cell.averageScore() * cell.count();
+            passCount += cell.passCount();
+            goodCount += cell.goodCount();
+            excellentCount += cell.excellentCount();
+        }
+
+        if (count == 0) {
             return GradeStatisticsDTO.GlobalGradeStats.builder()
                     .averageScore(0.0)
                     .passRate(0.0)
@@ -267,26 +214,10 @@ public class StatisticsService {
                     .build();
         }
 
-        double avgScore = grades.stream()
-                .mapToDouble(g -> g.getTotalScore().doubleValue())
-                .average()
-                .orElse(0.0);
-
-        long passCount = grades.stream()
-                .filter(g -> g.getTotalScore().compareTo(BigDecimal.valueOf(60)) >= 0)
-                .count();
-
-        long excellentCount = grades.stream()
-                .filter(g -> g.getTotalScore().compareTo(BigDecimal.valueOf(90)) >= 0)
-                .count();
-
-        long goodCount = grades.stream()
-                .filter(g -> g.getTotalScore().compareTo(BigDecimal.valueOf(80)) >= 0)
-                .count();
-
-        double passRate = (double) passCount / grades.size() * 100;
-        double excellentRate = (double) excellentCount / grades.size() * 100;
-        double goodRate = (double) goodCount / grades.size() * 100;
+        double avgScore = scoreSum / count;
+        double passRate = (double) passCount / count * 100;
+        double excellentRate = (double) excellentCount / count * 100;
+        double goodRate = (double) goodCount / count * 100;
 
         return GradeStatisticsDTO.GlobalGradeStats.builder()
                 .averageScore(BigDecimal.valueOf(avgScore).setScale(2, RoundingMode.HALF_UP).doubleValue())
@@ -297,48 +228,31 @@ public class StatisticsService {
     }
 
     /**
-     * 计算课程成绩统计
+     * 将课程成绩汇总转换为课程成绩统计
      */
-    private GradeStatisticsDTO.CourseGradeStats calculateCourseStats(
-            Long offeringId, CourseOffering offering, List<Grade> grades) {
-
-        double avgScore = grades.stream()
-                .mapToDouble(g -> g.getTotalScore().doubleValue())
-                .average()
-                .orElse(0.0);
-
-        long passCount = grades.stream()
-                .filter(g -> g.getTotalScore().compareTo(BigDecimal.valueOf(60)) >= 0)
-                .count();
-
-        long excellentCount = grades.stream()
-                .filter(g -> g.getTotalScore().compareTo(BigDecimal.valueOf(90)) >= 0)
-                .count();
-
-        double passRate = (double) passCount / grades.size() * 100;
-        double excellentRate = (double) excellentCount / grades.size() * 100;
-
-        double highestScore = grades.stream()
-                .mapToDouble(g -> g.getTotalScore().doubleValue())
-                .max()
-                .orElse(0.0);
-
-        double lowestScore = grades.stream()
-                .mapToDouble(g -> g.getTotalScore().doubleValue())
-                .min()
-                .orElse(0.0);
+    private GradeStatisticsDTO.CourseGradeStats toCourseStats(StatisticsCubeService.GradeCell cell) {
+        double passRate = (double) cell.passCount() / cell.count() * 100;
+        double excellentRate = (double) cell.excellentCount() / cell.count() * 100;
 
         return GradeStatisticsDTO.CourseGradeStats.builder()
-                .courseOfferingId(offeringId)
-                .courseName(offering.getCourse().getName())
-                .teacherName(offering.getTeacher().getName())
-                .studentCount((long) grades.size())
-                .averageScore(BigDecimal.valueOf(avgScore).setScale(2, RoundingMode.HALF_UP).doubleValue())
+                .courseOfferingId(cell.offeringId())
+                .courseName(cell.courseName())
+                .teacherName(cell.teacherName())
+                .studentCount(cell.count())
+                .averageScore(BigDecimal.valueOf(cell.averageScore()).setScale(2, RoundingMode.HALF_UP).doubleValue())
                 .passRate(BigDecimal.valueOf(passRate).setScale(2, RoundingMode.HALF_UP).doubleValue())
                 .excellentRate(BigDecimal.valueOf(excellentRate).setScale(2, RoundingMode.HALF_UP).doubleValue())
-                .highestScore(highestScore)
-                .lowestScore(lowestScore)
+                .highestScore(cell.highestScore())
+                .lowestScore(cell.lowestScore())
                 .build();
     }
-}
 
+    /**
+     * 累加分布计数（忽略空键）
+     */
+    private static <K> void mergeCount(Map<K, Long> counts, K key, long count) {
+        if (key != null) {
+            counts.merge(key, count, Long::sum);
+        }
+    }
+}
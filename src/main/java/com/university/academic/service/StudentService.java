@@ -5,10 +5,13 @@ import com.university.academic.entity.Student;
 import com.university.academic.entity.User;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
+import com.university.academic.event.StudentRosterChangedEvent;
 import com.university.academic.repository.CourseSelectionRepository;
 import com.university.academic.repository.StudentRepository;
+import com.university.academic.security.UserProfileCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -31,6 +34,8 @@ public class StudentService {
     private final CourseSelectionRepository selectionRepository;
     private final MajorService majorService;
     private final UserService userService;
+    private final UserProfileCache userProfileCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 根据ID查询学生
@@ -155,6 +160,7 @@ public class StudentService {
 
         student.setDeleted(false);
         Student savedStudent = studentRepository.save(student);
+        eventPublisher.publishEvent(new StudentRosterChangedEvent(savedStudent.getId()));
         log.info("创建学生成功: {} - {} (学号: {}, 专业: {})",
                 savedStudent.getId(),
                 savedStudent.getName(),
@@ -207,9 +213,14 @@ public class StudentService {
         if (student.getMajor() != null && student.getMajor().getId() != null) {
             Major major = majorService.findById(student.getMajor().getId());
             existingStudent.setMajor(major);
+            // 所属院系可能变化，使认证主体档案失效
+            if (existingStudent.getUser() != null) {
+                userProfileCache.evict(existingStudent.getUser().getId());
+            }
         }
 
         Student updatedStudent = studentRepository.save(existingStudent);
+        eventPublisher.publishEvent(new StudentRosterChangedEvent(updatedStudent.getId()));
         log.info("更新学生成功: {} - {}", updatedStudent.getStudentNo(), updatedStudent.getName());
         return updatedStudent;
     }
@@ -236,6 +247,7 @@ public class StudentService {
         // 软删除
         student.setDeleted(true);
         studentRepository.save(student);
+        eventPublisher.publishEvent(new StudentRosterChangedEvent(id));
         
         // 同时禁用关联的用户账户
         if (student.getUser() != null) {
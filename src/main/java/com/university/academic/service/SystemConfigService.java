@@ -11,15 +11,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import jakarta.annotation.PostConstruct;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * 系统配置服务类
- * 提供系统配置的查询、更新功能，并实现缓存机制
+ * 提供系统配置的查询、更新功能，配置值从运行时配置快照读取（见 {@link ConfigSnapshotService}）
  *
  * @author Academic System Team
  */
@@ -29,31 +26,13 @@ import java.util.stream.Collectors;
 public class SystemConfigService {
 
     private final SystemConfigRepository configRepository;
+    private final ConfigSnapshotService configSnapshotService;
 
     /**
-     * 配置缓存（configKey -> configValue）
+     * 刷新缓存（立即从数据库重建运行时配置快照）
      */
-    private final Map<String, String> configCache = new ConcurrentHashMap<>();
-
-    /**
-     * 初始化时加载所有配置到缓存
-     */
-    @PostConstruct
-    public void init() {
-        log.info("初始化系统配置缓存");
-        refreshCache();
-        log.info("系统配置缓存初始化完成，共加载{}条配置", configCache.size());
-    }
-
-    /**
-     * 刷新缓存
-     */
-    @Transactional(readOnly = true)
     public void refreshCache() {
-        List<SystemConfig> configs = configRepository.findAll();
-        configCache.clear();
-        configs.forEach(config -> 
-            configCache.put(config.getConfigKey(), config.getConfigValue()));
+        configSnapshotService.reload();
         log.info("系统配置缓存已刷新");
     }
 
@@ -64,7 +43,7 @@ public class SystemConfigService {
      * @return 配置值，如果不存在返回null
      */
     public String getConfigValue(String key) {
-        return configCache.get(key);
+        return configSnapshotService.current().values().get(key);
     }
 
     /**
@@ -75,7 +54,7 @@ public class SystemConfigService {
      * @return 配置值
      */
     public String getConfigValue(String key, String defaultValue) {
-        return configCache.getOrDefault(key, defaultValue);
+        return configSnapshotService.current().value(key, defaultValue);
     }
 
     /**
@@ -86,7 +65,7 @@ public class SystemConfigService {
      * @return 配置值
      */
     public Integer getIntValue(String key, Integer defaultValue) {
-        String value = configCache.get(key);
+        String value = getConfigValue(key);
         if (value == null) {
             return defaultValue;
         }
@@ -106,7 +85,7 @@ public class SystemConfigService {
      * @return 配置值
      */
     public Boolean getBooleanValue(String key, Boolean defaultValue) {
-        String value = configCache.get(key);
+        String value = getConfigValue(key);
         if (value == null) {
             return defaultValue;
         }
@@ -158,9 +137,9 @@ public class SystemConfigService {
 
         config = configRepository.save(config);
 
-        // 更新缓存
-        configCache.put(config.getConfigKey(), config.getConfigValue());
-        log.info("系统配置已更新并刷新缓存: key={}", request.getConfigKey());
+        // 事务提交后重建配置快照
+        configSnapshotService.refresh();
+        log.info("系统配置已更新: key={}", request.getConfigKey());
 
         return config;
     }
@@ -184,14 +163,13 @@ public class SystemConfigService {
                     config.setDescription(request.getDescription());
                 }
                 configRepository.save(config);
-                
-                // 更新缓存
-                configCache.put(config.getConfigKey(), config.getConfigValue());
             } else {
                 log.warn("配置不存在: key={}", request.getConfigKey());
             }
         }
 
+        // 事务提交后重建配置快照
+        configSnapshotService.refresh();
         log.info("批量更新系统配置完成");
     }
 
@@ -218,8 +196,8 @@ public class SystemConfigService {
 
         config = configRepository.save(config);
 
-        // 添加到缓存
-        configCache.put(config.getConfigKey(), config.getConfigValue());
+        // 事务提交后重建配置快照
+        configSnapshotService.refresh();
         log.info("系统配置已创建: key={}", request.getConfigKey());
 
         return config;
@@ -239,8 +217,8 @@ public class SystemConfigService {
 
         configRepository.delete(config);
 
-        // 从缓存中移除
-        configCache.remove(key);
+        // 事务提交后重建配置快照
+        configSnapshotService.refresh();
         log.info("系统配置已删除: key={}", key);
     }
 
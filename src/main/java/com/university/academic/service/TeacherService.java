@@ -6,6 +6,7 @@ import com.university.academic.entity.User;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
 import com.university.academic.repository.TeacherRepository;
+import com.university.academic.security.UserProfileCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -29,6 +30,7 @@ public class TeacherService {
     private final TeacherRepository teacherRepository;
     private final DepartmentService departmentService;
     private final UserService userService;
+    private final UserProfileCache userProfileCache;
 
     /**
      * 根据ID查询教师
@@ -186,6 +188,10 @@ public class TeacherService {
         if (teacher.getDepartment() != null && teacher.getDepartment().getId() != null) {
             Department department = departmentService.findById(teacher.getDepartment().getId());
             existingTeacher.setDepartment(department);
+            // 所属院系可能变化，使认证主体档案失效
+            if (existingTeacher.getUser() != null) {
+                userProfileCache.evict(existingTeacher.getUser().getId());
+            }
         }
 
         Teacher updatedTeacher = teacherRepository.save(existingTeacher);
@@ -0,0 +1,221 @@
+package com.university.academic.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.university.academic.entity.CourseOffering;
+import com.university.academic.entity.CourseSelection;
+import com.university.academic.event.GradePublishEvent;
+import com.university.academic.repository.CourseSelectionRepository;
+import com.university.academic.util.TimetableBitmap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 课表位图索引
+ * 缓存每个开课计划预解析后的课表位图，以及学生在某学期已选课程的合并课表，
+ * 选课时间冲突检测只需一次位图按位与，不再逐门课程解析JSON。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimetableIndex {
+
+    private final CourseSelectionRepository selectionRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 开课计划课表位图（offeringId -> 位图）
+     */
+    private final Map<Long, OfferingTimetable> offeringTimetables = new ConcurrentHashMap<>();
+
+    /**
+     * 学生合并课表（studentId -> 当前选课学期的合并课表）
+     */
+    private final Cache<Long, StudentTimetable> studentTimetables = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * 课表版本号，开课计划课表变化时递增，使之前构建的学生合并课表失效
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 获取开课计划的课表位图
+     * 按上课时间JSON内容缓存，上课时间变化后自动重新解析
+     *
+     * @param offering 开课计划
+     * @return 课表位图
+     */
+    public TimetableBitmap bitmapOf(CourseOffering offering) {
+        String schedule = offering.getSchedule();
+        OfferingTimetable cached = offeringTimetables.get(offering.getId());
+        if (cached != null && Objects.equals(cached.schedule(), schedule)) {
+            return cached.bitmap();
+        }
+
+        TimetableBitmap bitmap = TimetableBitmap.of(parseSchedule(schedule));
+        offeringTimetables.put(offering.getId(), new OfferingTimetable(schedule, bitmap));
+        if (cached != null) {
+            generation.incrementAndGet();
+        }
+        return bitmap;
+    }
+
+    /**
+     * 查找学生在指定学期已选课程中与目标开课计划时间冲突的课程
+     *
+     * @param studentId         学生ID
+     * @param offering          目标开课计划
+     * @param excludeOfferingId 要排除的开课计划ID（可为null）
+     * @return 冲突的开课计划ID，不冲突时返回空
+     */
+    public Optional<Long> findConflict(Long studentId, CourseOffering offering, Long excludeOfferingId) {
+        TimetableBitmap target = bitmapOf(offering);
+        if (target.isEmpty()) {
+            return Optional.empty();
+        }
+
+        StudentTimetable timetable = studentTimetable(studentId, offering.getSemester().getId());
+        if (!timetable.merged().intersects(target)) {
+            return Optional.empty();
+        }
+
+        // 合并课表有交集时再定位具体冲突课程
+        for (Map.Entry<Long, TimetableBitmap> entry : timetable.offerings().entrySet()) {
+            if (entry.getKey().equals(excludeOfferingId)) {
+                continue;
+            }
+            if (entry.getValue().intersects(target)) {
+                return Optional.of(entry.getKey());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 选课事务提交后，将课程合并进学生的学期课表
+     *
+     * @param studentId 学生ID
+     * @param offering  开课计划
+     */
+    public void onSelected(Long studentId, CourseOffering offering) {
+        Long semesterId = offering.getSemester().getId();
+        Long offeringId = offering.getId();
+        TimetableBitmap bitmap = bitmapOf(offering);
+        afterCommit(() -> studentTimetables.asMap().computeIfPresent(studentId,
+                (k, timetable) -> timetable.semesterId().equals(semesterId)
+                        ? timetable.with(offeringId, bitmap) : null));
+    }
+
+    /**
+     * 学生选课记录变化（退课、完成等）后使其合并课表失效
+     *
+     * @param studentId 学生ID
+     */
+    public void evictStudent(Long studentId) {
+        afterCommit(() -> studentTimetables.invalidate(studentId));
+    }
+
+    /**
+     * 开课计划上课时间变更或取消后使相关缓存失效
+     *
+     * @param offeringId 开课计划ID
+     */
+    public void evictOffering(Long offeringId) {
+        afterCommit(() -> {
+            offeringTimetables.remove(offeringId);
+            generation.incrementAndGet();
+        });
+    }
+
+    /**
+     * 成绩公布后选课状态变为已完成，学生的已选课表随之变化
+     *
+     * @param event 成绩公布事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleGradePublish(GradePublishEvent event) {
+        studentTimetables.invalidate(event.getStudentId());
+    }
+
+    /**
+     * 获取学生学期合并课表，不存在或已过期时从已选课程重新构建
+     */
+    private StudentTimetable studentTimetable(Long studentId, Long semesterId) {
+        long currentGeneration = generation.get();
+        StudentTimetable cached = studentTimetables.getIfPresent(studentId);
+        if (cached != null && cached.generation() == currentGeneration
+                && cached.semesterId().equals(semesterId)) {
+            return cached;
+        }
+
+        List<CourseSelection> selections = selectionRepository
+                .findActiveByStudentAndSemester(studentId, semesterId);
+        StudentTimetable timetable = new StudentTimetable(
+                semesterId, currentGeneration, TimetableBitmap.EMPTY, Map.of());
+        for (CourseSelection selection : selections) {
+            CourseOffering selected = selection.getOffering();
+            timetable = timetable.with(selected.getId(), bitmapOf(selected));
+        }
+        studentTimetables.put(studentId, timetable);
+        return timetable;
+    }
+
+    private List<Map<String, Object>> parseSchedule(String schedule) {
+        if (schedule == null || schedule.isBlank()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(schedule, new TypeReference<List<Map<String, Object>>>() {});
+        } catch (Exception e) {
+            log.error("解析上课时间失败: {}", schedule, e);
+            return List.of();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record OfferingTimetable(String schedule, TimetableBitmap bitmap) {
+    }
+
+    /**
+     * 学生学期合并课表（不可变）
+     */
+    private record StudentTimetable(Long semesterId, long generation, TimetableBitmap merged,
+                                    Map<Long, TimetableBitmap> offerings) {
+
+        StudentTimetable with(Long offeringId, TimetableBitmap bitmap) {
+            Map<Long, TimetableBitmap> next = new HashMap<>(offerings);
+            next.put(offeringId, bitmap);
+            return new StudentTimetable(semesterId, generation, merged.or(bitmap),
+                    Collections.unmodifiableMap(next));
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.university.academic.entity.User;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
 import com.university.academic.repository.UserRepository;
+import com.university.academic.security.TokenVersionRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -27,6 +28,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     /**
      * 根据ID查询用户
@@ -112,6 +114,8 @@ public class UserService {
     @Transactional
     public User updateUser(Long id, User user) {
         User existingUser = findById(id);
+        // 令牌中携带用户名和角色，修改后需撤销已签发的令牌
+        boolean revokeTokens = false;
 
         // 如果要修改用户名，检查新用户名是否已存在
         if (!existingUser.getUsername().equals(user.getUsername())) {
@@ -119,14 +123,22 @@ public class UserService {
                 throw new BusinessException(ErrorCode.USERNAME_ALREADY_EXISTS);
             }
             existingUser.setUsername(user.getUsername());
+            revokeTokens = true;
         }
 
         // 更新其他字段（密码除外）
-        if (user.getRole() != null) {
+        if (user.getRole() != null && user.getRole() != existingUser.getRole()) {
             existingUser.setRole(user.getRole());
+            revokeTokens = true;
         }
-        if (user.getEnabled() != null) {
+        if (user.getEnabled() != null && !user.getEnabled().equals(existingUser.getEnabled())) {
             existingUser.setEnabled(user.getEnabled());
+            tokenVersionRegistry.setEnabled(existingUser, user.getEnabled());
+            // 禁用时已递增令牌版本
+            revokeTokens &= user.getEnabled();
+        }
+        if (revokeTokens) {
+            tokenVersionRegistry.revoke(existingUser);
         }
 
         User updatedUser = userRepository.save(existingUser);
@@ -143,6 +155,8 @@ public class UserService {
     public void deleteUser(Long id) {
         User user = findById(id);
         userRepository.delete(user);
+        // 已签发的令牌全部失效
+        tokenVersionRegistry.delete(id);
         log.info("删除用户成功: {}", user.getUsername());
     }
 
@@ -156,6 +170,7 @@ public class UserService {
     public void setUserEnabled(Long id, boolean enabled) {
         User user = findById(id);
         user.setEnabled(enabled);
+        tokenVersionRegistry.setEnabled(user, enabled);
         userRepository.save(user);
         log.info("设置用户 {} 启用状态为: {}", user.getUsername(), enabled);
     }
@@ -171,6 +186,8 @@ public class UserService {
         User user = findById(id);
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setFirstLogin(true); // 重置后需要首次登录修改密码
+        // 已签发的令牌全部失效
+        tokenVersionRegistry.revoke(user);
         userRepository.save(user);
         log.info("重置用户 {} 密码成功", user.getUsername());
     }
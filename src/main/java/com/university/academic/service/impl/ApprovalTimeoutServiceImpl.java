@@ -4,12 +4,14 @@ import com.university.academic.dto.CreateNotificationRequest;
 import com.university.academic.entity.ApprovalStatus;
 import com.university.academic.entity.StudentStatusChange;
 import com.university.academic.entity.User;
+import com.university.academic.event.StudentStatusChangeUpdatedEvent;
 import com.university.academic.repository.StudentStatusChangeRepository;
 import com.university.academic.repository.UserRepository;
 import com.university.academic.service.ApprovalTimeoutService;
 import com.university.academic.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -30,6 +32,7 @@ public class ApprovalTimeoutServiceImpl implements ApprovalTimeoutService {
     private final StudentStatusChangeRepository statusChangeRepository;
     private final NotificationService notificationService;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -52,6 +55,7 @@ public class ApprovalTimeoutServiceImpl implements ApprovalTimeoutService {
                 // 标记为超时
                 statusChange.setIsOverdue(true);
                 statusChangeRepository.save(statusChange);
+                eventPublisher.publishEvent(new StudentStatusChangeUpdatedEvent(statusChange.getId()));
                 overdueCount++;
 
                 log.warn("审批申请已超时: ID={}, 学生={}, 截止时间={}, 当前时间={}",
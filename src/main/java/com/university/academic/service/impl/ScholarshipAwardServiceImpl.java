@@ -4,6 +4,7 @@ import com.university.academic.dto.AwardStatisticsDTO;
 import com.university.academic.dto.PublishAwardsRequest;
 import com.university.academic.dto.ScholarshipAwardDTO;
 import com.university.academic.entity.*;
+import com.university.academic.event.ScholarshipAwardedEvent;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
 import com.university.academic.repository.ScholarshipApplicationRepository;
@@ -14,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -38,6 +40,7 @@ public class ScholarshipAwardServiceImpl implements ScholarshipAwardService {
     private final ScholarshipAwardRepository awardRepository;
     private final ScholarshipApplicationRepository applicationRepository;
     private final ScholarshipRepository scholarshipRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * 公示获奖名单
@@ -96,6 +99,7 @@ public class ScholarshipAwardServiceImpl implements ScholarshipAwardService {
         // 4. 批量保存
         if (!awards.isEmpty()) {
             awardRepository.saveAll(awards);
+            eventPublisher.publishEvent(new ScholarshipAwardedEvent(request.getAcademicYear()));
             log.info("获奖名单已公示: count={}", awards.size());
         }
         
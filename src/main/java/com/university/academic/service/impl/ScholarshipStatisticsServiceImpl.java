@@ -1,12 +1,10 @@
 package com.university.academic.service.impl;
 
 import com.university.academic.dto.AwardStatisticsDTO;
-import com.university.academic.entity.ScholarshipAward;
-import com.university.academic.entity.Student;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
-import com.university.academic.repository.ScholarshipAwardRepository;
 import com.university.academic.service.ScholarshipStatisticsService;
+import com.university.academic.service.StatisticsCubeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
@@ -28,64 +26,53 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ScholarshipStatisticsServiceImpl implements ScholarshipStatisticsService {
     
-    private final ScholarshipAwardRepository awardRepository;
+    private final StatisticsCubeService statisticsCubeService;
     
     /**
      * 获奖分布统计
      */
     @Override
-    @Transactional(readOnly = true)
     public AwardStatisticsDTO getAwardDistribution(String academicYear) {
         log.debug("获奖分布统计: academicYear={}", academicYear);
         
-        List<ScholarshipAward> awards = awardRepository.findByAcademicYear(academicYear);
+        List<StatisticsCubeService.AwardCell> cells = statisticsCubeService.awardCells(academicYear);
         
-        if (awards.isEmpty()) {
+        if (cells.isEmpty()) {
             return createEmptyStatistics(academicYear);
         }
         
-        return buildStatistics(academicYear, awards);
+        return buildStatistics(academicYear, cells);
     }
     
     /**
      * 按专业统计
      */
     @Override
-    @Transactional(readOnly = true)
     public Map<String, Integer> getStatisticsByMajor(String academicYear, Long departmentId) {
         log.debug("按专业统计: academicYear={}, departmentId={}", academicYear, departmentId);
         
-        List<ScholarshipAward> awards = awardRepository.findByAcademicYear(academicYear);
-        
-        // 如果指定了院系，则过滤
-        if (departmentId != null) {
-            awards = awards.stream()
-                    .filter(award -> award.getStudent().getMajor().getDepartment().getId().equals(departmentId))
-                    .collect(Collectors.toList());
+        Map<String, Integer> byMajor = new HashMap<>();
+        for (StatisticsCubeService.AwardCell cell : statisticsCubeService.awardCells(academicYear)) {
+            // 如果指定了院系，则过滤
+            if (departmentId == null || departmentId.equals(cell.departmentId())) {
+                byMajor.merge(cell.majorName(), (int) cell.count(), Integer::sum);
+            }
         }
-        
-        return awards.stream()
-                .collect(Collectors.groupingBy(
-                        award -> award.getStudent().getMajor().getName(),
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
+        return byMajor;
     }
     
     /**
      * 按年级统计
      */
     @Override
-    @Transactional(readOnly = true)
     public Map<Integer, Integer> getStatisticsByGrade(String academicYear) {
         log.debug("按年级统计: academicYear={}", academicYear);
         
-        List<ScholarshipAward> awards = awardRepository.findByAcademicYear(academicYear);
-        
-        return awards.stream()
-                .collect(Collectors.groupingBy(
-                        award -> calculateGrade(award.getStudent()),
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
+        Map<Integer, Integer> byGrade = new HashMap<>();
+        for (StatisticsCubeService.AwardCell cell : statisticsCubeService.awardCells(academicYear)) {
+            byGrade.merge(calculateGrade(cell.enrollmentYear()), (int) cell.count(), Integer::sum);
+        }
+        return byGrade;
     }
     
     /**
@@ -150,49 +137,29 @@ public class ScholarshipStatisticsServiceImpl implements ScholarshipStatisticsSe
     }
     
     /**
-     * 构建统计数据
+     * 构建统计数据（由学年获奖汇总合并）
      */
-    private AwardStatisticsDTO buildStatistics(String academicYear, List<ScholarshipAward> awards) {
-        // 统计总人数和总金额
-        int totalAwardees = awards.size();
-        double totalAmount = awards.stream()
-                .mapToDouble(ScholarshipAward::getAmount)
-                .sum();
-        
-        // 按院系统计
-        Map<String, Integer> byDepartment = awards.stream()
-                .collect(Collectors.groupingBy(
-                        award -> award.getStudent().getMajor().getDepartment().getName(),
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
-        
-        // 按专业统计
-        Map<String, Integer> byMajor = awards.stream()
-                .collect(Collectors.groupingBy(
-                        award -> award.getStudent().getMajor().getName(),
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
-        
-        // 按年级统计
-        Map<Integer, Integer> byGrade = awards.stream()
-                .collect(Collectors.groupingBy(
-                        award -> calculateGrade(award.getStudent()),
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
-        
-        // 按奖学金等级统计
-        Map<String, Integer> byLevel = awards.stream()
-                .collect(Collectors.groupingBy(
-                        award -> award.getScholarship().getLevel().getDescription(),
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
-        
-        // 按奖学金类型统计
-        Map<String, Integer> byScholarship = awards.stream()
-                .collect(Collectors.groupingBy(
-                        award -> award.getScholarship().getName(),
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
+    private AwardStatisticsDTO buildStatistics(String academicYear, List<StatisticsCubeService.AwardCell> cells) {
+        int totalAwardees = 0;
+        double totalAmount = 0.0;
+        Map<String, Integer> byDepartment = new HashMap<>();
+        Map<String, Integer> byMajor = new HashMap<>();
+        Map<Integer, Integer> byGrade = new HashMap<>();
+        Map<String, Integer> byLevel = new HashMap<>();
+        Map<String, Integer> byScholarship = new HashMap<>();
+        
+        for (StatisticsCubeService.AwardCell cell : cells) {
+            int count = (int) cell.count();
+            // 统计总人数和总金额
+            totalAwardees += count;
+            totalAmount += cell.amount();
+            // 按院系、专业、年级、奖学金等级、奖学金类型统计
+            byDepartment.merge(cell.departmentName(), count, Integer::sum);
+            byMajor.merge(cell.majorName(), count, Integer::sum);
+            byGrade.merge(calculateGrade(cell.enrollmentYear()), count, Integer::sum);
+            byLevel.merge(cell.level().getDescription(), count, Integer::sum);
+            byScholarship.merge(cell.scholarshipName(), count, Integer::sum);
+        }
         
         return AwardStatisticsDTO.builder()
                 .academicYear(academicYear)
@@ -343,9 +310,9 @@ public class ScholarshipStatisticsServiceImpl implements ScholarshipStatisticsSe
     /**
      * 计算学生年级
      */
-    private Integer calculateGrade(Student student) {
+    private Integer calculateGrade(Integer enrollmentYear) {
         int currentYear = java.time.Year.now().getValue();
-        return currentYear - student.getEnrollmentYear() + 1;
+        return currentYear - enrollmentYear + 1;
     }
     
     /**
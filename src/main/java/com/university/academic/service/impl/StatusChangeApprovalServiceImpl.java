@@ -3,6 +3,7 @@ package com.university.academic.service.impl;
 import com.university.academic.entity.*;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
+import com.university.academic.event.StudentStatusChangeUpdatedEvent;
 import com.university.academic.repository.StatusChangeApprovalRepository;
 import com.university.academic.repository.StudentStatusChangeRepository;
 import com.university.academic.repository.UserRepository;
@@ -12,6 +13,7 @@ import com.university.academic.service.StudentStatusUpdateService;
 import com.university.academic.service.UserNotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -36,6 +38,7 @@ public class StatusChangeApprovalServiceImpl implements StatusChangeApprovalServ
     private final UserNotificationService userNotificationService;
     private final ApprovalWorkflowService workflowService;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 审批级别配置
@@ -107,6 +110,7 @@ public class StatusChangeApprovalServiceImpl implements StatusChangeApprovalServ
 
         // 7. 保存更新
         StudentStatusChange updated = statusChangeRepository.save(statusChange);
+        eventPublisher.publishEvent(new StudentStatusChangeUpdatedEvent(updated.getId()));
 
         // 8. 发送通知
         sendApprovalNotification(updated, action, comment, currentLevel);
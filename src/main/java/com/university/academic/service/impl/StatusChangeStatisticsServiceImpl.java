@@ -8,6 +8,7 @@ import com.university.academic.exception.ErrorCode;
 import com.university.academic.repository.MajorRepository;
 import com.university.academic.repository.StudentRepository;
 import com.university.academic.repository.StudentStatusChangeRepository;
+import com.university.academic.service.StatisticsCubeService;
 import com.university.academic.service.StatusChangeStatisticsService;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
@@ -43,8 +44,10 @@ public class StatusChangeStatisticsServiceImpl implements StatusChangeStatistics
     private final StudentStatusChangeRepository statusChangeRepository;
     private final StudentRepository studentRepository;
     private final MajorRepository majorRepository;
+    private final StatisticsCubeService statisticsCubeService;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     @Override
@@ -138,60 +141,33 @@ public class StatusChangeStatisticsServiceImpl implements StatusChangeStatistics
     }
 
     @Override
-    @Transactional(readOnly = true)
     public StatusChangeStatisticsDTO getStatistics(LocalDate startDate, LocalDate endDate) {
         log.info("统计异动数据，时间段: {} - {}", startDate, endDate);
 
-        LocalDate start = convertToLocalDate(startDate);
-        LocalDate end = convertToLocalDate(endDate);
-
-        // 总数统计
-        Long totalCount = statusChangeRepository.countTotal(start, end);
-
-        // 按类型统计
-        Map<ChangeType, Long> countByType = new HashMap<>();
-        List<Object[]> typeResults = statusChangeRepository.countByType(start, end);
-        for (Object[] result : typeResults) {
-            ChangeType type = (ChangeType) result[0];
-            Long count = (Long) result[1];
-            countByType.put(type, count);
-        }
-
-        // 按状态统计
-        Map<ApprovalStatus, Long> countByStatus = new HashMap<>();
-        List<Object[]> statusResults = statusChangeRepository.countByStatus(start, end);
-        for (Object[] result : statusResults) {
-            ApprovalStatus status = (ApprovalStatus) result[0];
-            Long count = (Long) result[1];
-            countByStatus.put(status, count);
-        }
-
-        // 按月份统计
-        Map<String, Long> countByMonth = new HashMap<>();
-        List<Object[]> monthResults = statusChangeRepository.countByMonth(start, end);
-        for (Object[] result : monthResults) {
-            String month = (String) result[0];
-            Long count = ((Number) result[1]).longValue();
-            countByMonth.put(month, count);
-        }
-
-        // 转专业流向统计
-        Map<String, Long> transferCountByMajor = new HashMap<>();
-        List<Object[]> transferResults = statusChangeRepository.countTransferByMajor(start, end);
-        for (Object[] result : transferResults) {
-            String majorName = (String) result[0];
-            Long count = (Long) result[1];
-            transferCountByMajor.put(majorName, count);
+        List<StatisticsCubeService.StatusChangeCell> cells = cellsBetween(startDate, endDate);
+
+        // 总数、超时数量和平均审批时长（只统计已审批的申请）
+        long totalCount = 0;
+        long overdueCount = 0;
+        long processedApplications = 0;
+        long approvalDays = 0;
+        for (StatisticsCubeService.StatusChangeCell cell : cells) {
+            totalCount += cell.count();
+            if (cell.overdue()) {
+                overdueCount += cell.count();
+            }
+            if (cell.status() == ApprovalStatus.APPROVED || cell.status() == ApprovalStatus.REJECTED) {
+                processedApplications += cell.count();
+                approvalDays += cell.approvalDays();
+            }
         }
+        Double averageApprovalDays = processedApplications > 0 ? (double) approvalDays / processedApplications : 0.0;
 
-        // 超时申请数量
-        Long overdueCount = statusChangeRepository.countOverdue(start, end);
-
-        // 平均审批时长
-        Double averageApprovalDays = statusChangeRepository.calculateAverageApprovalDays(start, end);
-        if (averageApprovalDays == null) {
-            averageApprovalDays = 0.0;
-        }
+        // 按类型、状态、月份统计，转专业流向统计
+        Map<ChangeType, Long> countByType = countByType(cells);
+        Map<ApprovalStatus, Long> countByStatus = countByStatus(cells);
+        Map<String, Long> countByMonth = countByMonth(cells);
+        Map<String, Long> transferCountByMajor = countTransferByMajor(cells);
 
         // 审批通过率
         Long approvedCount = countByStatus.getOrDefault(ApprovalStatus.APPROVED, 0L);
@@ -222,20 +198,10 @@ public class StatusChangeStatisticsServiceImpl implements StatusChangeStatistics
     }
 
     @Override
-    @Transactional(readOnly = true)
     public StatusChangeStatisticsDTO getStatisticsByType(LocalDate startDate, LocalDate endDate) {
         log.info("按类型统计异动数据，时间段: {} - {}", startDate, endDate);
 
-        LocalDate start = convertToLocalDate(startDate);
-        LocalDate end = convertToLocalDate(endDate);
-
-        Map<ChangeType, Long> countByType = new HashMap<>();
-        List<Object[]> typeResults = statusChangeRepository.countByType(start, end);
-        for (Object[] result : typeResults) {
-            ChangeType type = (ChangeType) result[0];
-            Long count = (Long) result[1];
-            countByType.put(type, count);
-        }
+        Map<ChangeType, Long> countByType = countByType(cellsBetween(startDate, endDate));
 
         return StatusChangeStatisticsDTO.builder()
                 .startDate(startDate)
@@ -249,20 +215,10 @@ public class StatusChangeStatisticsServiceImpl implements StatusChangeStatistics
     }
 
     @Override
-    @Transactional(readOnly = true)
     public StatusChangeStatisticsDTO getStatisticsByStatus(LocalDate startDate, LocalDate endDate) {
         log.info("按状态统计异动数据，时间段: {} - {}", startDate, endDate);
 
-        LocalDate start = convertToLocalDate(startDate);
-        LocalDate end = convertToLocalDate(endDate);
-
-        Map<ApprovalStatus, Long> countByStatus = new HashMap<>();
-        List<Object[]> statusResults = statusChangeRepository.countByStatus(start, end);
-        for (Object[] result : statusResults) {
-            ApprovalStatus status = (ApprovalStatus) result[0];
-            Long count = (Long) result[1];
-            countByStatus.put(status, count);
-        }
+        Map<ApprovalStatus, Long> countByStatus = countByStatus(cellsBetween(startDate, endDate));
 
         return StatusChangeStatisticsDTO.builder()
                 .startDate(startDate)
@@ -276,20 +232,10 @@ public class StatusChangeStatisticsServiceImpl implements StatusChangeStatistics
     }
 
     @Override
-    @Transactional(readOnly = true)
     public StatusChangeStatisticsDTO getStatisticsByMonth(LocalDate startDate, LocalDate endDate) {
         log.info("按月份统计异动趋势，时间段: {} - {}", startDate, endDate);
 
-        LocalDate start = convertToLocalDate(startDate);
-        LocalDate end = convertToLocalDate(endDate);
-
-        Map<String, Long> countByMonth = new HashMap<>();
-        List<Object[]> monthResults = statusChangeRepository.countByMonth(start, end);
-        for (Object[] result : monthResults) {
-            String month = (String) result[0];
-            Long count = ((Number) result[1]).longValue();
-            countByMonth.put(month, count);
-        }
+        Map<String, Long> countByMonth = countByMonth(cellsBetween(startDate, endDate));
 
         return StatusChangeStatisticsDTO.builder()
                 .startDate(startDate)
@@ -299,20 +245,10 @@ public class StatusChangeStatisticsServiceImpl implements StatusChangeStatistics
     }
 
     @Override
-    @Transactional(readOnly = true)
     public StatusChangeStatisticsDTO getTransferStatistics(LocalDate startDate, LocalDate endDate) {
         log.info("统计转专业流向，时间段: {} - {}", startDate, endDate);
 
-        LocalDate start = convertToLocalDate(startDate);
-        LocalDate end = convertToLocalDate(endDate);
-
-        Map<String, Long> transferCountByMajor = new HashMap<>();
-        List<Object[]> transferResults = statusChangeRepository.countTransferByMajor(start, end);
-        for (Object[] result : transferResults) {
-            String majorName = (String) result[0];
-            Long count = (Long) result[1];
-            transferCountByMajor.put(majorName, count);
-        }
+        Map<String, Long> transferCountByMajor = countTransferByMajor(cellsBetween(startDate, endDate));
 
         return StatusChangeStatisticsDTO.builder()
                 .startDate(startDate)
@@ -504,8 +440,47 @@ public class StatusChangeStatisticsServiceImpl implements StatusChangeStatistics
         };
     }
 
-    private LocalDate convertToLocalDate(LocalDate date) {
-        return date;
+    /**
+     * 取申请日期在时间段内的异动汇总（起止日期均包含，为空表示不限）
+     */
+    private List<StatisticsCubeService.StatusChangeCell> cellsBetween(LocalDate startDate, LocalDate endDate) {
+        return statisticsCubeService.statusChangeCells().stream()
+                .filter(cell -> startDate == null || !cell.day().isBefore(startDate))
+                .filter(cell -> endDate == null || !cell.day().isAfter(endDate))
+                .collect(Collectors.toList());
+    }
+
+    private Map<ChangeType, Long> countByType(List<StatisticsCubeService.StatusChangeCell> cells) {
+        return cells.stream().collect(Collectors.groupingBy(
+                StatisticsCubeService.StatusChangeCell::type,
+                Collectors.summingLong(StatisticsCubeService.StatusChangeCell::count)));
+    }
+
+    private Map<ApprovalStatus, Long> countByStatus(List<StatisticsCubeService.StatusChangeCell> cells) {
+        return cells.stream().collect(Collectors.groupingBy(
+                StatisticsCubeService.StatusChangeCell::status,
+                Collectors.summingLong(StatisticsCubeService.StatusChangeCell::count)));
+    }
+
+    /**
+     * 按月份（yyyy-MM）统计，按月份排序
+     */
+    private Map<String, Long> countByMonth(List<StatisticsCubeService.StatusChangeCell> cells) {
+        return cells.stream().collect(Collectors.groupingBy(
+                cell -> cell.day().format(MONTH_FORMATTER),
+                TreeMap::new,
+                Collectors.summingLong(StatisticsCubeService.StatusChangeCell::count)));
+    }
+
+    /**
+     * 转专业流向统计 [目标专业名称 -> 数量]
+     */
+    private Map<String, Long> countTransferByMajor(List<StatisticsCubeService.StatusChangeCell> cells) {
+        return cells.stream()
+                .filter(cell -> cell.type() == ChangeType.TRANSFER && cell.targetMajorName() != null)
+                .collect(Collectors.groupingBy(
+                        StatisticsCubeService.StatusChangeCell::targetMajorName,
+                        Collectors.summingLong(StatisticsCubeService.StatusChangeCell::count)));
     }
 
     private CellStyle createHeaderStyle(Workbook workbook) {
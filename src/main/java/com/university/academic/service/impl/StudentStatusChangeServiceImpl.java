@@ -1,6 +1,7 @@
 package com.university.academic.service.impl;
 
 import com.university.academic.entity.*;
+import com.university.academic.event.StudentStatusChangeUpdatedEvent;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
 import com.university.academic.repository.StudentStatusChangeRepository;
@@ -12,6 +13,7 @@ import com.university.academic.service.CreditCalculationService;
 import com.university.academic.dto.StudentCreditSummaryDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -49,6 +51,7 @@ public class StudentStatusChangeServiceImpl implements StudentStatusChangeServic
     private final ApprovalWorkflowService workflowService;
     private final StatusChangeConverter statusChangeConverter;
     private final CreditCalculationService creditCalculationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${file.upload.path:/uploads/status-change}")
     private String uploadPath;
@@ -108,6 +111,7 @@ public class StudentStatusChangeServiceImpl implements StudentStatusChangeServic
         statusChange.setIsOverdue(false);
 
         StudentStatusChange saved = statusChangeRepository.save(statusChange);
+        eventPublisher.publishEvent(new StudentStatusChangeUpdatedEvent(saved.getId()));
 
         // 8. 增加审批人的待处理任务计数
         if (firstApproverId != null) {
@@ -138,6 +142,7 @@ public class StudentStatusChangeServiceImpl implements StudentStatusChangeServic
         // 3. 更新状态为已取消
         statusChange.setStatus(ApprovalStatus.CANCELLED);
         statusChangeRepository.save(statusChange);
+        eventPublisher.publishEvent(new StudentStatusChangeUpdatedEvent(applicationId));
 
         log.info("学籍异动申请撤销成功: 申请ID={}", applicationId);
     }
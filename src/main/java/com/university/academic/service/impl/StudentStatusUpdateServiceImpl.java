@@ -3,12 +3,14 @@ package com.university.academic.service.impl;
 import com.university.academic.entity.*;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
+import com.university.academic.event.StudentRosterChangedEvent;
 import com.university.academic.repository.MajorRepository;
 import com.university.academic.repository.StudentRepository;
 import com.university.academic.service.StudentService;
 import com.university.academic.service.StudentStatusUpdateService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,7 @@ public class StudentStatusUpdateServiceImpl implements StudentStatusUpdateServic
     private final StudentRepository studentRepository;
     private final StudentService studentService;
     private final MajorRepository majorRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -74,6 +77,7 @@ public class StudentStatusUpdateServiceImpl implements StudentStatusUpdateServic
         }
 
         Student updated = studentRepository.save(student);
+        eventPublisher.publishEvent(new StudentRosterChangedEvent(updated.getId()));
         log.info("学生状态更新成功: 学生ID={}, 新状态={}",
                 updated.getId(), updated.getStatus());
 
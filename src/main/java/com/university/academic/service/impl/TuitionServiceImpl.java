@@ -5,6 +5,7 @@ import com.university.academic.dto.converter.TuitionConverter;
 import com.university.academic.entity.Major;
 import com.university.academic.entity.Student;
 import com.university.academic.entity.tuition.*;
+import com.university.academic.event.TuitionBillChangedEvent;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
 import com.university.academic.repository.*;
@@ -12,6 +13,7 @@ import com.university.academic.service.TuitionService;
 import com.university.academic.service.UserNotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -43,6 +45,7 @@ public class TuitionServiceImpl implements TuitionService {
     private final MajorRepository majorRepository;
     private final UserNotificationService notificationService;
     private final TuitionConverter tuitionConverter;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ==================== 学费标准管理 ====================
 
@@ -201,6 +204,7 @@ public class TuitionServiceImpl implements TuitionService {
                 .build();
 
         bill = billRepository.save(bill);
+        eventPublisher.publishEvent(new TuitionBillChangedEvent(academicYear));
         log.info("学费账单生成成功: billId={}, studentId={}, amount={}", 
                 bill.getId(), studentId, totalAmount);
 
@@ -296,6 +300,7 @@ public class TuitionServiceImpl implements TuitionService {
         }
 
         log.info("批量生成账单完成: 成功={}, 跳过={}", successCount, skipCount);
+        eventPublisher.publishEvent(new TuitionBillChangedEvent(academicYear));
 
         // 返回已生成的账单
         List<TuitionBill> generatedBills = billRepository.findByAcademicYear(academicYear);
@@ -386,6 +391,7 @@ public class TuitionServiceImpl implements TuitionService {
         // 5. 更新账单
         bill.updatePayment(request.getAmount());
         billRepository.save(bill);
+        eventPublisher.publishEvent(new TuitionBillChangedEvent(bill.getAcademicYear()));
 
         log.info("缴费成功: paymentId={}, paymentNo={}", payment.getId(), paymentNo);
 
@@ -442,6 +448,7 @@ public class TuitionServiceImpl implements TuitionService {
         // 4. 更新账单
         bill.updatePayment(request.getAmount());
         billRepository.save(bill);
+        eventPublisher.publishEvent(new TuitionBillChangedEvent(bill.getAcademicYear()));
 
         log.info("线下缴费录入成功: paymentId={}, paymentNo={}", payment.getId(), paymentNo);
 
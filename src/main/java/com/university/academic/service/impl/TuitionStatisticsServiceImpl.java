@@ -8,7 +8,9 @@ import com.university.academic.entity.tuition.TuitionBill;
 import com.university.academic.repository.StudentRepository;
 import com.university.academic.repository.TuitionBillRepository;
 import com.university.academic.repository.TuitionPaymentRepository;
+import com.university.academic.service.StatisticsCubeService;
 import com.university.academic.service.TuitionStatisticsService;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
@@ -35,6 +37,7 @@ public class TuitionStatisticsServiceImpl implements TuitionStatisticsService {
     private final TuitionBillRepository billRepository;
     private final TuitionPaymentRepository paymentRepository;
     private final StudentRepository studentRepository;
+    private final StatisticsCubeService statisticsCubeService;
 
     @Override
     public PaymentStatisticsDTO getPaymentRate(String academicYear, Long departmentId) {
@@ -43,76 +46,58 @@ public class TuitionStatisticsServiceImpl implements TuitionStatisticsService {
         // 获取在校学生总数
         Long totalStudents = studentRepository.countByDeletedFalse();
 
-        // 获取统计数据
-        List<Object[]> statistics;
-        if (departmentId != null) {
-            statistics = billRepository.getPaymentStatisticsByDepartment(academicYear, departmentId);
-        } else {
-            statistics = billRepository.getPaymentStatisticsByYear(academicYear);
-        }
-
-        // 计算总数
+        // 由学年账单汇总（按院系、专业、状态）合并出总数、院系统计和专业统计
+        // 每个学生每学年只有一张账单，各状态的学生数可直接相加
         Long totalBills = 0L;
         Double totalAmount = 0.0;
         Double paidAmount = 0.0;
         Map<BillStatus, Long> statusCount = new HashMap<>();
+        Map<Long, PaymentAccumulator> departments = new HashMap<>();
+        Map<Long, PaymentAccumulator> majors = new HashMap<>();
 
-        for (Object[] row : statistics) {
-            BillStatus status = (BillStatus) row[0];
-            Long count = (Long) row[1];
-            Double total = (Double) row[2];
-            Double paid = (Double) row[3];
+        for (StatisticsCubeService.TuitionCell cell : statisticsCubeService.tuitionCells(academicYear)) {
+            departments.computeIfAbsent(cell.departmentId(), id -> new PaymentAccumulator(cell.departmentName()))
+                    .add(cell);
+            majors.computeIfAbsent(cell.majorId(), id -> new PaymentAccumulator(cell.majorName()))
+                    .add(cell);
 
-            totalBills += count;
-            totalAmount += (total != null ? total : 0.0);
-            paidAmount += (paid != null ? paid : 0.0);
-            statusCount.put(status, count);
+            if (departmentId != null && !departmentId.equals(cell.departmentId())) {
+                continue;
+            }
+            totalBills += cell.billCount();
+            totalAmount += cell.totalAmount();
+            paidAmount += cell.paidAmount();
+            statusCount.merge(cell.status(), cell.billCount(), Long::sum);
         }
 
         // 计算缴费率
         Double paymentRate = totalAmount > 0 ? (paidAmount / totalAmount * 100) : 0.0;
 
-        // 获取院系统计
+        // 院系统计
         List<PaymentStatisticsDTO.DepartmentPaymentStatistics> departmentStatistics = new ArrayList<>();
-        List<Object[]> deptStats = billRepository.getStatisticsByDepartment(academicYear);
-        for (Object[] row : deptStats) {
-            Long deptId = (Long) row[0];
-            String deptName = (String) row[1];
-            Long studentCount = (Long) row[2];
-            Double deptTotal = (Double) row[3];
-            Double deptPaid = (Double) row[4];
-            Double deptRate = deptTotal > 0 ? (deptPaid / deptTotal * 100) : 0.0;
-
-            departmentStatistics.add(PaymentStatisticsDTO.DepartmentPaymentStatistics.builder()
-                    .departmentId(deptId)
-                    .departmentName(deptName)
-                    .studentCount(studentCount)
-                    .totalAmount(deptTotal != null ? deptTotal : 0.0)
-                    .paidAmount(deptPaid != null ? deptPaid : 0.0)
-                    .paymentRate(Math.round(deptRate * 100.0) / 100.0)
-                    .build());
-        }
-
-        // 获取专业统计
+        departments.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.comparing(PaymentAccumulator::getName)))
+                .forEach(entry -> departmentStatistics.add(PaymentStatisticsDTO.DepartmentPaymentStatistics.builder()
+                        .departmentId(entry.getKey())
+                        .departmentName(entry.getValue().getName())
+                        .studentCount(entry.getValue().getStudentCount())
+                        .totalAmount(entry.getValue().getTotalAmount())
+                        .paidAmount(entry.getValue().getPaidAmount())
+                        .paymentRate(entry.getValue().getPaymentRate())
+                        .build()));
+
+        // 专业统计
         List<PaymentStatisticsDTO.MajorPaymentStatistics> majorStatistics = new ArrayList<>();
-        List<Object[]> majorStats = billRepository.getStatisticsByMajor(academicYear);
-        for (Object[] row : majorStats) {
-            Long majorId = (Long) row[0];
-            String majorName = (String) row[1];
-            Long studentCount = (Long) row[2];
-            Double majorTotal = (Double) row[3];
-            Double majorPaid = (Double) row[4];
-            Double majorRate = majorTotal > 0 ? (majorPaid / majorTotal * 100) : 0.0;
-
-            majorStatistics.add(PaymentStatisticsDTO.MajorPaymentStatistics.builder()
-                    .majorId(majorId)
-                    .majorName(majorName)
-                    .studentCount(studentCount)
-                    .totalAmount(majorTotal != null ? majorTotal : 0.0)
-                    .paidAmount(majorPaid != null ? majorPaid : 0.0)
-                    .paymentRate(Math.round(majorRate * 100.0) / 100.0)
-                    .build());
-        }
+        majors.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.comparing(PaymentAccumulator::getName)))
+                .forEach(entry -> majorStatistics.add(PaymentStatisticsDTO.MajorPaymentStatistics.builder()
+                        .majorId(entry.getKey())
+                        .majorName(entry.getValue().getName())
+                        .studentCount(entry.getValue().getStudentCount())
+                        .totalAmount(entry.getValue().getTotalAmount())
+                        .paidAmount(entry.getValue().getPaidAmount())
+                        .paymentRate(entry.getValue().getPaymentRate())
+                        .build()));
 
         return PaymentStatisticsDTO.builder()
                 .academicYear(academicYear)
@@ -518,5 +503,30 @@ public class TuitionStatisticsServiceImpl implements TuitionStatisticsService {
         
         return style;
     }
-}
 
+    /**
+     * 院系或专业缴费汇总累加器
+     */
+    @Getter
+    private static class PaymentAccumulator {
+        private final String name;
+        private long studentCount;
+        private double totalAmount;
+        private double paidAmount;
+
+        PaymentAccumulator(String name) {
+            this.name = name;
+        }
+
+        void add(StatisticsCubeService.TuitionCell cell) {
+            studentCount += cell.studentCount();
+            totalAmount += cell.totalAmount();
+            paidAmount += cell.paidAmount();
+        }
+
+        double getPaymentRate() {
+            double rate = totalAmount > 0 ? (paidAmount / totalAmount * 100) : 0.0;
+            return Math.round(rate * 100.0) / 100.0;
+        }
+    }
+}
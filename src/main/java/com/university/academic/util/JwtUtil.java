@@ -1,6 +1,7 @@
 package com.university.academic.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +24,13 @@ import java.util.Map;
 @Component
 public class JwtUtil {
 
+    /**
+     * 令牌声明名称
+     */
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${jwt.secret:university-academic-system-jwt-secret-key-2024}")
     private String secret;
 
@@ -32,11 +40,18 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration:604800000}") // 默认7天
     private Long refreshExpiration;
 
+    private volatile SecretKey signKey;
+
     /**
-     * 获取签名密钥
+     * 获取签名密钥（首次使用时生成并复用）
      */
     private SecretKey getSignKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        SecretKey key = signKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            signKey = key;
+        }
+        return key;
     }
 
     /**
@@ -48,9 +63,23 @@ public class JwtUtil {
      * @return JWT令牌
      */
     public String generateToken(String username, Long userId, String role) {
+        return generateToken(username, userId, role, 0L);
+    }
+
+    /**
+     * 生成访问令牌
+     *
+     * @param username     用户名
+     * @param userId       用户ID
+     * @param role         用户角色
+     * @param tokenVersion 令牌版本
+     * @return JWT令牌
+     */
+    public String generateToken(String username, Long userId, String role, long tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", userId);
-        claims.put("role", role);
+        claims.put(CLAIM_USER_ID, userId);
+        claims.put(CLAIM_ROLE, role);
+        claims.put(CLAIM_TOKEN_VERSION, tokenVersion);
         return createToken(claims, username, expiration);
     }
 
@@ -61,7 +90,20 @@ public class JwtUtil {
      * @return 刷新令牌
      */
     public String generateRefreshToken(String username) {
-        return createToken(new HashMap<>(), username, refreshExpiration);
+        return generateRefreshToken(username, 0L);
+    }
+
+    /**
+     * 生成刷新令牌
+     *
+     * @param username     用户名
+     * @param tokenVersion 令牌版本
+     * @return 刷新令牌
+     */
+    public String generateRefreshToken(String username, long tokenVersion) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_TOKEN_VERSION, tokenVersion);
+        return createToken(claims, username, refreshExpiration);
     }
 
     /**
@@ -103,7 +145,7 @@ public class JwtUtil {
      */
     public Long getUserIdFromToken(String token) {
         Claims claims = getClaimsFromToken(token);
-        return claims.get("userId", Long.class);
+        return claims.get(CLAIM_USER_ID, Long.class);
     }
 
     /**
@@ -114,7 +156,7 @@ public class JwtUtil {
      */
     public String getRoleFromToken(String token) {
         Claims claims = getClaimsFromToken(token);
-        return claims.get("role", String.class);
+        return claims.get(CLAIM_ROLE, String.class);
     }
 
     /**
@@ -127,6 +169,32 @@ public class JwtUtil {
         return getClaimsFromToken(token).getExpiration();
     }
 
+    /**
+     * 从声明中获取令牌版本（旧令牌没有版本声明时为0）
+     *
+     * @param claims 声明对象
+     * @return 令牌版本
+     */
+    public static long getTokenVersion(Claims claims) {
+        Long version = claims.get(CLAIM_TOKEN_VERSION, Long.class);
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * 验证令牌并解析声明（只验签一次，过期由解析器检查）
+     *
+     * @param token JWT令牌
+     * @return 声明对象，令牌无效或已过期时返回null
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return getClaimsFromToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("JWT令牌验证失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 从令牌中获取所有声明
      *
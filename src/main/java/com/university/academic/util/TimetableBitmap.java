@@ -0,0 +1,142 @@
+package com.university.academic.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 课表占用位图
+ * 将上课时间JSON（day/period/weeks）预解析为按 星期 × 节次 排列的周次位掩码，
+ * 每个 long 表示某天某节课在第1~64周的占用情况，冲突检测只需按位与。
+ * <p>
+ * 未指定weeks的时间段视为占用所有周次，与原有"缺少周次即冲突"的判定保持一致。
+ * 实例不可变，可在线程间共享。
+ *
+ * @author Academic System Team
+ */
+@Slf4j
+public final class TimetableBitmap {
+
+    /** 每周天数 */
+    public static final int DAYS = 7;
+
+    /** 每天最多节次 */
+    public static final int PERIODS = 16;
+
+    /** 支持的最大周次 */
+    public static final int MAX_WEEK = Long.SIZE;
+
+    private static final long ALL_WEEKS = -1L;
+
+    /** 空课表 */
+    public static final TimetableBitmap EMPTY = new TimetableBitmap(new long[DAYS * PERIODS]);
+
+    private final long[] slots;
+
+    private TimetableBitmap(long[] slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * 从已解析的上课时间列表构建位图
+     *
+     * @param schedule 上课时间列表（day: 1-7, period: "1-2" 或 "1", weeks: 可选周次列表）
+     * @return 课表位图
+     */
+    public static TimetableBitmap of(List<Map<String, Object>> schedule) {
+        if (schedule == null || schedule.isEmpty()) {
+            return EMPTY;
+        }
+
+        long[] slots = new long[DAYS * PERIODS];
+        for (Map<String, Object> time : schedule) {
+            try {
+                int day = ((Number) time.get("day")).intValue();
+                if (day < 1 || day > DAYS) {
+                    log.warn("忽略无效的上课星期: {}", time);
+                    continue;
+                }
+
+                String[] parts = String.valueOf(time.get("period")).split("-");
+                int start = Integer.parseInt(parts[0].trim());
+                int end = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : start;
+                start = Math.max(start, 1);
+                end = Math.min(end, PERIODS);
+
+                long weekMask = toWeekMask(time.get("weeks"));
+                for (int period = start; period <= end; period++) {
+                    slots[index(day, period)] |= weekMask;
+                }
+            } catch (Exception e) {
+                log.error("解析上课时间段失败: {}", time, e);
+            }
+        }
+        return new TimetableBitmap(slots);
+    }
+
+    /**
+     * 判断两个课表是否存在时间冲突
+     *
+     * @param other 另一个课表
+     * @return true-冲突，false-不冲突
+     */
+    public boolean intersects(TimetableBitmap other) {
+        long[] a = this.slots;
+        long[] b = other.slots;
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 合并两个课表，返回新的位图
+     *
+     * @param other 另一个课表
+     * @return 合并后的课表
+     */
+    public TimetableBitmap or(TimetableBitmap other) {
+        long[] merged = Arrays.copyOf(slots, slots.length);
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] |= other.slots[i];
+        }
+        return new TimetableBitmap(merged);
+    }
+
+    /**
+     * 是否为空课表
+     */
+    public boolean isEmpty() {
+        for (long slot : slots) {
+            if (slot != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int index(int day, int period) {
+        return (day - 1) * PERIODS + (period - 1);
+    }
+
+    private static long toWeekMask(Object weeks) {
+        if (!(weeks instanceof Collection<?> weekList)) {
+            return ALL_WEEKS;
+        }
+        long mask = 0L;
+        for (Object week : weekList) {
+            int w = ((Number) week).intValue();
+            if (w >= 1 && w <= MAX_WEEK) {
+                mask |= 1L << (w - 1);
+            } else {
+                log.warn("周次超出范围，已忽略: {}", w);
+            }
+        }
+        return mask;
+    }
+}
@@ -3,6 +3,7 @@ package com.university.ems.controller;
 import com.university.academic.vo.Result;
 import com.university.ems.dto.*;
 import com.university.ems.service.SchedulingConstraintService;
+import com.university.ems.service.SchedulingJobService;
 import com.university.ems.service.SchedulingSolutionService;
 import com.university.ems.service.TeacherPreferenceService;
 import jakarta.validation.Valid;
@@ -17,6 +18,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
@@ -40,6 +42,7 @@ public class AdminSchedulingController {
     private final SchedulingConstraintService constraintService;
     private final SchedulingSolutionService solutionService;
     private final TeacherPreferenceService preferenceService;
+    private final SchedulingJobService jobService;
     
     // ==================== 排课约束管理 ====================
     
@@ -131,6 +134,52 @@ public class AdminSchedulingController {
         return Result.success(result);
     }
     
+    /**
+     * 提交排课任务（异步执行，返回任务ID）
+     */
+    @PostMapping("/solutions/{id}/jobs")
+    public Result<SchedulingJobDTO> submitSchedulingJob(
+            @PathVariable Long id,
+            @Valid @RequestBody SchedulingRequest request) {
+        log.info("提交排课任务: solutionId={}", id);
+        SchedulingJobDTO job = jobService.submit(id, request);
+        return Result.success(job);
+    }
+
+    /**
+     * 查询排课任务列表
+     */
+    @GetMapping("/jobs")
+    public Result<List<SchedulingJobDTO>> listSchedulingJobs() {
+        return Result.success(jobService.listJobs());
+    }
+
+    /**
+     * 查询排课任务
+     */
+    @GetMapping("/jobs/{jobId}")
+    public Result<SchedulingJobDTO> getSchedulingJob(@PathVariable String jobId) {
+        return Result.success(jobService.getJob(jobId));
+    }
+
+    /**
+     * 订阅排课任务进度（Server-Sent Events）
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeSchedulingJob(@PathVariable String jobId) {
+        log.info("订阅排课任务进度: jobId={}", jobId);
+        return jobService.subscribe(jobId);
+    }
+
+    /**
+     * 取消排课任务
+     */
+    @PostMapping("/jobs/{jobId}/cancel")
+    public Result<SchedulingJobDTO> cancelSchedulingJob(@PathVariable String jobId) {
+        log.info("取消排课任务: jobId={}", jobId);
+        return Result.success(jobService.cancel(jobId));
+    }
+    
     /**
      * 手动调整排课
      */
@@ -143,6 +192,18 @@ public class AdminSchedulingController {
         return Result.success(null);
     }
     
+    /**
+     * 增量修复排课（开课计划、教室或教师变更后只重排受影响的课程）
+     */
+    @PostMapping("/solutions/{id}/repair")
+    public Result<SchedulingResultDTO> repairSchedule(
+            @PathVariable Long id,
+            @Valid @RequestBody ScheduleRepairRequest request) {
+        log.info("增量修复排课: solutionId={}", id);
+        SchedulingResultDTO result = solutionService.repairSchedule(id, request);
+        return Result.success(result);
+    }
+    
     /**
      * 应用排课方案
      */
@@ -214,11 +275,11 @@ public class AdminSchedulingController {
      * 比较两个排课方案
      */
     @GetMapping("/solutions/compare")
-    public Result<String> compareSolutions(
+    public Result<SolutionComparisonDTO> compareSolutions(
             @RequestParam Long solutionId1,
             @RequestParam Long solutionId2) {
         log.info("比较排课方案: solutionId1={}, solutionId2={}", solutionId1, solutionId2);
-        String comparison = solutionService.compareSolutions(solutionId1, solutionId2);
+        SolutionComparisonDTO comparison = solutionService.compareSolutions(solutionId1, solutionId2);
         return Result.success(comparison);
     }
     
@@ -0,0 +1,88 @@
+package com.university.ems.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 排课增量修复请求DTO
+ * 描述方案生成后发生的变更，只有受影响的课程会被重新安排，其余排课保持不变
+ *
+ * @author Academic System Team
+ */
+@Data
+public class ScheduleRepairRequest {
+
+    /**
+     * 新增的开课计划ID列表
+     */
+    private List<Long> addedOfferingIds = new ArrayList<>();
+
+    /**
+     * 删除的开课计划ID列表（直接移除其排课结果）
+     */
+    private List<Long> removedOfferingIds = new ArrayList<>();
+
+    /**
+     * 信息变更的开课计划ID列表（如更换教师、调整学分或容量，整体重新排课）
+     */
+    private List<Long> modifiedOfferingIds = new ArrayList<>();
+
+    /**
+     * 停用的教室ID列表（优先保持原上课时间更换教室）
+     */
+    private List<Long> unavailableClassroomIds = new ArrayList<>();
+
+    /**
+     * 教师不可用时段列表（仅重新安排与之重叠的课时）
+     */
+    @Valid
+    private List<TeacherUnavailability> teacherUnavailabilities = new ArrayList<>();
+
+    /**
+     * 是否考虑教师偏好（默认true）
+     */
+    private Boolean considerTeacherPreference = true;
+
+    /**
+     * 教师不可用时段
+     */
+    @Data
+    public static class TeacherUnavailability {
+
+        /**
+         * 教师ID
+         */
+        @NotNull(message = "教师ID不能为空")
+        private Long teacherId;
+
+        /**
+         * 星期几（1-7）
+         */
+        @NotNull(message = "星期不能为空")
+        @Min(value = 1, message = "星期必须在1-7之间")
+        @Max(value = 7, message = "星期必须在1-7之间")
+        private Integer dayOfWeek;
+
+        /**
+         * 开始时段（1-8）
+         */
+        @NotNull(message = "开始时段不能为空")
+        @Min(value = 1, message = "时段必须在1-8之间")
+        @Max(value = 8, message = "时段必须在1-8之间")
+        private Integer startSlot;
+
+        /**
+         * 结束时段（1-8）
+         */
+        @NotNull(message = "结束时段不能为空")
+        @Min(value = 1, message = "时段必须在1-8之间")
+        @Max(value = 8, message = "时段必须在1-8之间")
+        private Integer endSlot;
+    }
+}
@@ -0,0 +1,82 @@
+package com.university.ems.dto;
+
+import com.university.ems.enums.SchedulingJobStatus;
+import com.university.ems.model.SchedulingProgress;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 排课任务DTO
+ *
+ * @author Academic System Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulingJobDTO {
+
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 方案ID
+     */
+    private Long solutionId;
+
+    /**
+     * 任务状态
+     */
+    private SchedulingJobStatus status;
+
+    /**
+     * 是否已请求取消
+     */
+    private Boolean cancelRequested;
+
+    /**
+     * 最新进度
+     */
+    private SchedulingProgress progress;
+
+    /**
+     * 已保存的检查点数
+     */
+    private Integer checkpointCount;
+
+    /**
+     * 最近一次检查点时间
+     */
+    private LocalDateTime lastCheckpointAt;
+
+    /**
+     * 排课结果（任务结束后有值，不含排课明细，明细通过方案结果接口查询）
+     */
+    private SchedulingResultDTO result;
+
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+
+    /**
+     * 提交时间
+     */
+    private LocalDateTime submittedAt;
+
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime finishedAt;
+}
@@ -43,5 +43,20 @@ public class SchedulingRequest {
      * 超时时间（秒，默认300秒）
      */
     private Integer timeoutSeconds = 300;
+
+    /**
+     * 是否在贪心排课后执行局部搜索优化（默认true）
+     */
+    private Boolean enableOptimization = true;
+
+    /**
+     * 多起点并行运行次数（默认1，大于1时以不同随机种子并行排课并取质量分数最高的结果）
+     */
+    private Integer parallelRuns = 1;
+
+    /**
+     * 随机种子（可选，指定后结果可复现；多起点时第i个起点使用 种子+i）
+     */
+    private Long randomSeed;
 }
 
@@ -0,0 +1,223 @@
+package com.university.ems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 排课方案比较结果DTO
+ * 方案1为基准，方案2为比较对象，所有差值均为"方案2 - 方案1"
+ *
+ * @author Academic System Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolutionComparisonDTO {
+
+    /**
+     * 方案1概要
+     */
+    private SolutionSummary solution1;
+
+    /**
+     * 方案2概要
+     */
+    private SolutionSummary solution2;
+
+    /**
+     * 未变化的课程数
+     */
+    private Integer unchangedOfferingCount;
+
+    /**
+     * 有调整的课程数（两个方案都有排课，但时间或教室不同）
+     */
+    private Integer changedOfferingCount;
+
+    /**
+     * 仅方案2排课的课程数
+     */
+    private Integer addedOfferingCount;
+
+    /**
+     * 仅方案1排课的课程数
+     */
+    private Integer removedOfferingCount;
+
+    /**
+     * 未变化的课时数
+     */
+    private Integer unchangedSlotCount;
+
+    /**
+     * 调整的课时数（换时间或换教室）
+     */
+    private Integer movedSlotCount;
+
+    /**
+     * 新增的课时数
+     */
+    private Integer addedSlotCount;
+
+    /**
+     * 删除的课时数
+     */
+    private Integer removedSlotCount;
+
+    /**
+     * 有差异的课程明细（不含未变化的课程）
+     */
+    private List<OfferingDiff> offeringDiffs;
+
+    /**
+     * 教师周课时变化（只含有变化的教师，按变化量绝对值降序）
+     */
+    private List<LoadDelta> teacherLoadDeltas;
+
+    /**
+     * 教室周占用课时变化（只含有变化的教室，按变化量绝对值降序）
+     */
+    private List<LoadDelta> classroomLoadDeltas;
+
+    /**
+     * 推荐结论
+     */
+    private String recommendation;
+
+    /**
+     * 方案概要
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SolutionSummary {
+        private Long solutionId;
+        private String name;
+        private String status;
+        private Double qualityScore;
+        private Integer conflictCount;
+
+        /**
+         * 排课记录数
+         */
+        private Integer itemCount;
+
+        /**
+         * 已排课的课程数
+         */
+        private Integer offeringCount;
+
+        /**
+         * 软约束明细
+         */
+        private SoftConstraintBreakdown softConstraints;
+    }
+
+    /**
+     * 约束统计明细（按课时统计）
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SoftConstraintBreakdown {
+
+        /**
+         * 违反教师偏好的课时数
+         */
+        private Integer preferenceViolations;
+
+        /**
+         * 超出连续上课上限的课时数
+         */
+        private Integer consecutiveOverflow;
+
+        /**
+         * 教师空闲时间碎片数
+         */
+        private Integer idleFragments;
+
+        /**
+         * 教师同一时段重复安排的课时数（硬约束）
+         */
+        private Integer teacherDoubleBookings;
+
+        /**
+         * 教室同一时段重复安排的课时数（硬约束）
+         */
+        private Integer classroomDoubleBookings;
+    }
+
+    /**
+     * 单门课程的差异
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OfferingDiff {
+        private Long courseOfferingId;
+        private String courseNo;
+        private String courseName;
+        private Long teacherId;
+        private String teacherName;
+
+        /**
+         * 变化类型：CHANGED/ADDED/REMOVED
+         */
+        private String changeType;
+
+        private List<SlotInfo> unchangedSlots;
+        private List<SlotMove> movedSlots;
+        private List<SlotInfo> addedSlots;
+        private List<SlotInfo> removedSlots;
+    }
+
+    /**
+     * 排课时段
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SlotInfo {
+        private Integer dayOfWeek;
+        private Integer startSlot;
+        private Integer endSlot;
+        private Long classroomId;
+        private String classroomNo;
+    }
+
+    /**
+     * 调整的时段（方案1 -> 方案2）
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SlotMove {
+        private SlotInfo from;
+        private SlotInfo to;
+    }
+
+    /**
+     * 负载变化
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LoadDelta {
+        private Long id;
+        private String name;
+        private Integer load1;
+        private Integer load2;
+        private Integer delta;
+    }
+}
@@ -0,0 +1,38 @@
+package com.university.ems.enums;
+
+/**
+ * 排课任务状态枚举
+ */
+public enum SchedulingJobStatus {
+    /**
+     * 排队中：已提交，等待排课线程
+     */
+    PENDING,
+
+    /**
+     * 执行中
+     */
+    RUNNING,
+
+    /**
+     * 已完成
+     */
+    COMPLETED,
+
+    /**
+     * 已取消：排队中取消时没有结果，执行中取消时保存当前最优的部分课表
+     */
+    CANCELLED,
+
+    /**
+     * 失败：方案保留最近一次检查点的排课结果
+     */
+    FAILED;
+
+    /**
+     * 是否已结束
+     */
+    public boolean isFinished() {
+        return this == COMPLETED || this == CANCELLED || this == FAILED;
+    }
+}
@@ -0,0 +1,164 @@
+package com.university.ems.model;
+
+import com.university.academic.entity.Classroom;
+
+import java.util.*;
+
+/**
+ * 教室容量索引
+ * 构建时从教室实体中复制ID、编号和容量，按容量升序存放在按下标对齐的数组中，不再持有JPA实体；
+ * 排课算法以下标引用教室，按人数定位时在容量数组上二分查找首个容量足够的下标，其后的教室容量均足够。
+ * <p>
+ * 构建后不可变，可在多个排课运行之间共享。
+ *
+ * @author Academic System Team
+ */
+public class ClassroomCapacityIndex {
+
+    private final long[] ids;
+    private final String[] roomNos;
+    private final int[] capacities;
+
+    /**
+     * 升序排列的教室ID，用于判断是否包含某个教室
+     */
+    private final long[] sortedIds;
+
+    public ClassroomCapacityIndex(Collection<Classroom> classrooms) {
+        List<Classroom> sorted = new ArrayList<>(classrooms.size());
+        for (Classroom classroom : classrooms) {
+            if (classroom.getCapacity() != null) {
+                sorted.add(classroom);
+            }
+        }
+        sorted.sort(Comparator.comparingInt(Classroom::getCapacity)
+                .thenComparing(Classroom::getId));
+
+        int size = sorted.size();
+        long[] ids = new long[size];
+        String[] roomNos = new String[size];
+        int[] capacities = new int[size];
+        for (int i = 0; i < size; i++) {
+            Classroom classroom = sorted.get(i);
+            ids[i] = classroom.getId();
+            roomNos[i] = classroom.getRoomNo();
+            capacities[i] = classroom.getCapacity();
+        }
+        this.ids = ids;
+        this.roomNos = roomNos;
+        this.capacities = capacities;
+        this.sortedIds = sortedCopy(ids);
+    }
+
+    private ClassroomCapacityIndex(long[] ids, String[] roomNos, int[] capacities) {
+        this.ids = ids;
+        this.roomNos = roomNos;
+        this.capacities = capacities;
+        this.sortedIds = sortedCopy(ids);
+    }
+
+    /**
+     * 首个容量不小于学生人数的教室下标，从该下标到 {@link #size()} 的教室容量均足够（容量从小到大）
+     *
+     * @param studentCount 学生人数
+     * @return 教室下标，没有容量足够的教室时返回 {@link #size()}
+     */
+    public int firstFitting(int studentCount) {
+        int low = 0;
+        int high = capacities.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (capacities[mid] < studentCount) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 容量刚好够用的最小教室
+     *
+     * @param studentCount 学生人数
+     * @return 教室下标，没有容量足够的教室时返回-1
+     */
+    public int smallestFitting(int studentCount) {
+        int index = firstFitting(studentCount);
+        return index < capacities.length ? index : -1;
+    }
+
+    /**
+     * 排除指定教室后的新索引（如停用的教室）
+     *
+     * @param classroomIds 要排除的教室ID
+     * @return 新索引
+     */
+    public ClassroomCapacityIndex excluding(Collection<Long> classroomIds) {
+        if (classroomIds.isEmpty()) {
+            return this;
+        }
+        Set<Long> excluded = new HashSet<>(classroomIds);
+        int size = 0;
+        for (long id : ids) {
+            if (!excluded.contains(id)) {
+                size++;
+            }
+        }
+        long[] remainingIds = new long[size];
+        String[] remainingRoomNos = new String[size];
+        int[] remainingCapacities = new int[size];
+        int next = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (!excluded.contains(ids[i])) {
+                remainingIds[next] = ids[i];
+                remainingRoomNos[next] = roomNos[i];
+                remainingCapacities[next] = capacities[i];
+                next++;
+            }
+        }
+        return new ClassroomCapacityIndex(remainingIds, remainingRoomNos, remainingCapacities);
+    }
+
+    /**
+     * 是否包含指定教室
+     */
+    public boolean contains(Long classroomId) {
+        return classroomId != null && Arrays.binarySearch(sortedIds, classroomId) >= 0;
+    }
+
+    /**
+     * 将指定下标的教室分配给课程
+     */
+    public void assign(int index, ScheduleAssignment assignment) {
+        assignment.setClassroomId(ids[index]);
+        assignment.setClassroomNo(roomNos[index]);
+        assignment.setClassroomCapacity(capacities[index]);
+    }
+
+    public long id(int index) {
+        return ids[index];
+    }
+
+    public String roomNo(int index) {
+        return roomNos[index];
+    }
+
+    public int capacity(int index) {
+        return capacities[index];
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    private static long[] sortedCopy(long[] ids) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
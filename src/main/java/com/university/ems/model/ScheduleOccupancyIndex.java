@@ -0,0 +1,279 @@
+package com.university.ems.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 排课占用索引
+ * 按 教师 × 星期 × 节次 和 教室 × 星期 × 节次 维护占用计数，
+ * 并为每个教师/教室的每一天维护节次位掩码（第n节对应第n位），
+ * 随排课分配的加入和移除增量更新，使冲突检测、连堂检测和空闲碎片统计均为O(1)。
+ * <p>
+ * 非线程安全，每次排课运行单独创建。
+ *
+ * @author Academic System Team
+ */
+public class ScheduleOccupancyIndex {
+
+    /**
+     * 支持的星期数（1-7）
+     */
+    public static final int DAYS = 7;
+
+    /**
+     * 每天支持的最大节次
+     */
+    public static final int MAX_SLOTS = 16;
+
+    private final Map<Long, Occupancy> teachers = new HashMap<>();
+    private final Map<Long, Occupancy> classrooms = new HashMap<>();
+
+    /**
+     * 加入一个排课分配的全部时间槽
+     */
+    public void add(ScheduleAssignment assignment) {
+        for (TimeSlot timeSlot : assignment.getTimeSlots()) {
+            occupy(assignment, timeSlot);
+        }
+    }
+
+    /**
+     * 移除一个排课分配的全部时间槽
+     */
+    public void remove(ScheduleAssignment assignment) {
+        for (TimeSlot timeSlot : assignment.getTimeSlots()) {
+            release(assignment, timeSlot);
+        }
+    }
+
+    /**
+     * 清空全部占用
+     */
+    public void clear() {
+        teachers.clear();
+        classrooms.clear();
+    }
+
+    /**
+     * 占用单个时间槽（教师及教室）
+     */
+    public void occupy(ScheduleAssignment assignment, TimeSlot timeSlot) {
+        teachers.computeIfAbsent(assignment.getTeacherId(), id -> new Occupancy()).increment(timeSlot);
+        if (assignment.getClassroomId() != null) {
+            classrooms.computeIfAbsent(assignment.getClassroomId(), id -> new Occupancy()).increment(timeSlot);
+        }
+    }
+
+    /**
+     * 释放单个时间槽（教师及教室）
+     */
+    public void release(ScheduleAssignment assignment, TimeSlot timeSlot) {
+        Occupancy teacher = teachers.get(assignment.getTeacherId());
+        if (teacher != null) {
+            teacher.decrement(timeSlot);
+        }
+        if (assignment.getClassroomId() != null) {
+            Occupancy classroom = classrooms.get(assignment.getClassroomId());
+            if (classroom != null) {
+                classroom.decrement(timeSlot);
+            }
+        }
+    }
+
+    /**
+     * 教师在该时间槽是否已有课
+     */
+    public boolean isTeacherBusy(Long teacherId, TimeSlot timeSlot) {
+        return isBusy(teachers.get(teacherId), timeSlot);
+    }
+
+    /**
+     * 教室在该时间槽是否已被占用
+     */
+    public boolean isClassroomBusy(Long classroomId, TimeSlot timeSlot) {
+        return classroomId != null && isBusy(classrooms.get(classroomId), timeSlot);
+    }
+
+    /**
+     * 教师在该时间槽被占用的次数（大于1即存在冲突）
+     */
+    public int teacherCount(Long teacherId, TimeSlot timeSlot) {
+        Occupancy occupancy = teachers.get(teacherId);
+        return occupancy != null ? occupancy.count(timeSlot) : 0;
+    }
+
+    /**
+     * 教室在该时间槽被占用的次数（大于1即存在冲突）
+     */
+    public int classroomCount(Long classroomId, TimeSlot timeSlot) {
+        Occupancy occupancy = classroomId != null ? classrooms.get(classroomId) : null;
+        return occupancy != null ? occupancy.count(timeSlot) : 0;
+    }
+
+    /**
+     * 教师某天的节次位掩码
+     */
+    public int teacherDayMask(Long teacherId, int dayOfWeek) {
+        Occupancy occupancy = teachers.get(teacherId);
+        return occupancy != null && isValidDay(dayOfWeek) ? occupancy.dayMasks[dayOfWeek - 1] : 0;
+    }
+
+    /**
+     * 教室某天的节次位掩码
+     */
+    public int classroomDayMask(Long classroomId, int dayOfWeek) {
+        Occupancy occupancy = classroomId != null ? classrooms.get(classroomId) : null;
+        return occupancy != null && isValidDay(dayOfWeek) ? occupancy.dayMasks[dayOfWeek - 1] : 0;
+    }
+
+    /**
+     * 教师和教室同时空闲的时间槽数量（前 days 天、每天前 slotsPerDay 节）
+     * 用于在逐个检查时间槽之前快速排除已无足够空档的教室
+     */
+    public int commonFreeSlotCount(Long teacherId, Long classroomId, int days, int slotsPerDay) {
+        int dayRange = ((1 << (slotsPerDay + 1)) - 1) & ~1;
+        int free = 0;
+        for (int day = 1; day <= days; day++) {
+            int busy = teacherDayMask(teacherId, day) | classroomDayMask(classroomId, day);
+            free += Integer.bitCount(dayRange & ~busy);
+        }
+        return free;
+    }
+
+    /**
+     * 教师某天已排课时数
+     */
+    public int teacherDailyHours(Long teacherId, int dayOfWeek) {
+        return Integer.bitCount(teacherDayMask(teacherId, dayOfWeek));
+    }
+
+    /**
+     * 假设教师在该时间槽上课，计算其所在连堂的长度
+     */
+    public int consecutiveRunWith(Long teacherId, TimeSlot timeSlot) {
+        if (!isValidSlot(timeSlot)) {
+            return 1;
+        }
+        int mask = teacherDayMask(teacherId, timeSlot.getDayOfWeek()) | bit(timeSlot.getSlot());
+        return runLength(mask, timeSlot.getSlot());
+    }
+
+    /**
+     * 教师某天课程之间的空闲间隙数
+     */
+    public int idleFragments(Long teacherId, int dayOfWeek) {
+        return idleFragments(teacherDayMask(teacherId, dayOfWeek));
+    }
+
+    /**
+     * 统计位掩码中课程之间的空闲间隙数（相邻两段课之间计一个间隙）
+     */
+    public static int idleFragments(int mask) {
+        if (Integer.bitCount(mask) <= 1) {
+            return 0;
+        }
+        // 每一段连续的1对应一个上升沿，间隙数 = 段数 - 1
+        int runs = Integer.bitCount(mask & ~(mask << 1));
+        return runs - 1;
+    }
+
+    /**
+     * 教师某天超出连堂上限的节次数
+     */
+    public int consecutiveOverflow(Long teacherId, int dayOfWeek, int maxConsecutive) {
+        return consecutiveOverflow(teacherDayMask(teacherId, dayOfWeek), maxConsecutive);
+    }
+
+    /**
+     * 统计位掩码中超出连堂上限的节次数（每一段连续的课超出上限的部分之和）
+     */
+    public static int consecutiveOverflow(int mask, int maxConsecutive) {
+        int overflow = 0;
+        int run = 0;
+        for (int slot = 1; slot <= MAX_SLOTS + 1; slot++) {
+            if (slot <= MAX_SLOTS && (mask & bit(slot)) != 0) {
+                run++;
+            } else {
+                overflow += Math.max(run - maxConsecutive, 0);
+                run = 0;
+            }
+        }
+        return overflow;
+    }
+
+    /**
+     * 位掩码中包含指定节次的连续段长度
+     */
+    public static int runLength(int mask, int slot) {
+        int length = 0;
+        for (int s = slot; s <= MAX_SLOTS && (mask & bit(s)) != 0; s++) {
+            length++;
+        }
+        for (int s = slot - 1; s >= 1 && (mask & bit(s)) != 0; s--) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * 节次对应的位
+     */
+    public static int bit(int slot) {
+        return 1 << slot;
+    }
+
+    private static boolean isBusy(Occupancy occupancy, TimeSlot timeSlot) {
+        return occupancy != null && isValidSlot(timeSlot)
+                && (occupancy.dayMasks[timeSlot.getDayOfWeek() - 1] & bit(timeSlot.getSlot())) != 0;
+    }
+
+    private static boolean isValidDay(int dayOfWeek) {
+        return dayOfWeek >= 1 && dayOfWeek <= DAYS;
+    }
+
+    private static boolean isValidSlot(TimeSlot timeSlot) {
+        return isValidDay(timeSlot.getDayOfWeek())
+                && timeSlot.getSlot() >= 1 && timeSlot.getSlot() <= MAX_SLOTS;
+    }
+
+    /**
+     * 单个教师或教室的占用情况
+     * counts 记录每个 星期×节次 的占用次数，dayMasks 记录每天被占用的节次
+     */
+    private static final class Occupancy {
+
+        private final int[] counts = new int[DAYS * (MAX_SLOTS + 1)];
+        private final int[] dayMasks = new int[DAYS];
+
+        void increment(TimeSlot timeSlot) {
+            if (!isValidSlot(timeSlot)) {
+                return;
+            }
+            int day = timeSlot.getDayOfWeek() - 1;
+            if (counts[index(timeSlot)]++ == 0) {
+                dayMasks[day] |= bit(timeSlot.getSlot());
+            }
+        }
+
+        void decrement(TimeSlot timeSlot) {
+            if (!isValidSlot(timeSlot)) {
+                return;
+            }
+            int idx = index(timeSlot);
+            if (counts[idx] == 0) {
+                return;
+            }
+            if (--counts[idx] == 0) {
+                dayMasks[timeSlot.getDayOfWeek() - 1] &= ~bit(timeSlot.getSlot());
+            }
+        }
+
+        int count(TimeSlot timeSlot) {
+            return isValidSlot(timeSlot) ? counts[index(timeSlot)] : 0;
+        }
+
+        private static int index(TimeSlot timeSlot) {
+            return (timeSlot.getDayOfWeek() - 1) * (MAX_SLOTS + 1) + timeSlot.getSlot();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.university.ems.model;
+
+import com.university.ems.dto.TeacherPreferenceDTO;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 排课优化上下文
+ * 贪心构造完成后交给优化器的排课状态和运行参数
+ *
+ * @author Academic System Team
+ */
+@Getter
+@Builder
+public class ScheduleOptimizationContext {
+
+    /**
+     * 全部排课分配（包括未完全排课的课程），优化器直接修改其时间槽和教室
+     */
+    private final List<ScheduleAssignment> assignments;
+
+    /**
+     * 占用索引，与 assignments 中已分配的时间槽保持一致
+     */
+    private final ScheduleOccupancyIndex occupancy;
+
+    /**
+     * 教师偏好（teacherId -> 偏好）
+     */
+    private final Map<Long, TeacherPreferenceDTO> teacherPreferences;
+
+    /**
+     * 可用教室容量索引
+     */
+    private final ClassroomCapacityIndex classroomIndex;
+
+    /**
+     * 每周排课天数
+     */
+    private final int daysPerWeek;
+
+    /**
+     * 每天节次数
+     */
+    private final int slotsPerDay;
+
+    /**
+     * 教师最多连续节次
+     */
+    private final int maxConsecutive;
+
+    /**
+     * 最大邻域移动次数
+     */
+    private final long maxMoves;
+
+    /**
+     * 截止时间（System.nanoTime）
+     */
+    private final long deadlineNanos;
+
+    /**
+     * 随机数生成器
+     */
+    private final Random random;
+
+    /**
+     * 进度监听器
+     */
+    @Builder.Default
+    private final SchedulingProgressListener progressListener = SchedulingProgressListener.NONE;
+}
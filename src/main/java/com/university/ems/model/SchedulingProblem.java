@@ -0,0 +1,62 @@
+package com.university.ems.model;
+
+import com.university.ems.dto.TeacherPreferenceDTO;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 排课问题快照
+ * 一次排课所需的全部输入（课程、选课人数、教室、教师偏好）在加载阶段一次性从数据库读出，
+ * 排课算法只在此快照上运行，不再访问JPA实体。
+ * <p>
+ * 构建后不可变，可在多个排课运行之间共享；课程模板只读，每次运行需复制后再修改。
+ * <p>
+ * 教室只保存ID、编号和容量的数组（见 {@link ClassroomCapacityIndex}），快照不持有JPA实体。
+ * 教师偏好仍按教师ID存放在映射中：只有设置了偏好的少数教师才有记录，每门课程排课时只查询一次；
+ * 排课分配和占用索引都以教师ID为键，改为连续下标需要在两者之间维护一份ID映射，收益不抵这层换算。
+ *
+ * @author Academic System Team
+ */
+@Getter
+public class SchedulingProblem {
+
+    /**
+     * 学期ID
+     */
+    private final long semesterId;
+
+    /**
+     * 需要排课的课程总数（包括没有容量足够教室的课程）
+     */
+    private final int totalCourses;
+
+    /**
+     * 课程排课模板（不含时间槽），按学生人数降序排列
+     */
+    private final List<ScheduleAssignment> courses;
+
+    /**
+     * 可用教室容量索引
+     */
+    private final ClassroomCapacityIndex classroomIndex;
+
+    /**
+     * 教师偏好（teacherId -> 偏好）
+     */
+    private final Map<Long, TeacherPreferenceDTO> teacherPreferences;
+
+    public SchedulingProblem(long semesterId,
+                             int totalCourses,
+                             List<ScheduleAssignment> courses,
+                             ClassroomCapacityIndex classroomIndex,
+                             Map<Long, TeacherPreferenceDTO> teacherPreferences) {
+        this.semesterId = semesterId;
+        this.totalCourses = totalCourses;
+        this.courses = Collections.unmodifiableList(courses);
+        this.classroomIndex = classroomIndex;
+        this.teacherPreferences = Collections.unmodifiableMap(teacherPreferences);
+    }
+}
@@ -0,0 +1,64 @@
+package com.university.ems.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 排课进度模型
+ * 排课过程中按阶段上报的进度快照
+ *
+ * @author Academic System Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulingProgress {
+
+    /**
+     * 当前阶段：LOADING（加载数据）、CONSTRUCTING（贪心构造）、OPTIMIZING（局部搜索优化）、SAVING（保存结果）
+     */
+    private String phase;
+
+    /**
+     * 当前迭代次数
+     */
+    private Long iteration;
+
+    /**
+     * 最大迭代次数
+     */
+    private Long maxIterations;
+
+    /**
+     * 已完成排课的课程数
+     */
+    private Integer scheduledCount;
+
+    /**
+     * 课程总数
+     */
+    private Integer totalCount;
+
+    /**
+     * 当前最优惩罚值（越低越好）
+     */
+    private Double bestPenalty;
+
+    /**
+     * 当前最优质量分数（仅部分阶段有值）
+     */
+    private Double qualityScore;
+
+    /**
+     * 冲突数量（仅部分阶段有值）
+     */
+    private Integer conflictCount;
+
+    /**
+     * 已耗时（毫秒）
+     */
+    private Long elapsedMillis;
+}
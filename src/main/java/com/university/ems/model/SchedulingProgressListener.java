@@ -0,0 +1,64 @@
+package com.university.ems.model;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 排课进度监听器
+ *
+ * @author Academic System Team
+ */
+@FunctionalInterface
+public interface SchedulingProgressListener {
+
+    /**
+     * 不处理进度的空监听器
+     */
+    SchedulingProgressListener NONE = progress -> { };
+
+    /**
+     * 接收进度通知
+     *
+     * @param progress 进度快照
+     */
+    void onProgress(SchedulingProgress progress);
+
+    /**
+     * 是否已请求取消
+     * 算法在构造和优化阶段定期检查，取消后提前结束并返回当前最优结果
+     *
+     * @return 是否取消
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * 检查点通知
+     * 算法在上报进度时调用，由监听器决定是否需要保存检查点；
+     * 只有需要时才调用 bestAssignments 生成当前最优的已排满课程副本（在算法线程中同步调用）
+     *
+     * @param bestAssignments 当前最优排课结果的提供者
+     */
+    default void onCheckpoint(Supplier<List<ScheduleAssignment>> bestAssignments) {
+    }
+
+    /**
+     * 只传递取消状态的监听器（多起点排课中不上报进度的起点使用）
+     *
+     * @param listener 原监听器
+     * @return 忽略进度和检查点、只转发取消状态的监听器
+     */
+    static SchedulingProgressListener cancellationOnly(SchedulingProgressListener listener) {
+        return new SchedulingProgressListener() {
+            @Override
+            public void onProgress(SchedulingProgress progress) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return listener.isCancelled();
+            }
+        };
+    }
+}
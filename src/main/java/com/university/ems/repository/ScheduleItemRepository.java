@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -22,6 +23,39 @@ public interface ScheduleItemRepository extends JpaRepository<ScheduleItem, Long
      */
     List<ScheduleItem> findBySolutionId(Long solutionId);
     
+    /**
+     * 根据方案ID查询所有排课结果（预加载开课计划、课程、教师和教室）
+     */
+    @Query("SELECT si FROM ScheduleItem si " +
+           "JOIN FETCH si.courseOffering co " +
+           "JOIN FETCH co.course " +
+           "JOIN FETCH co.teacher " +
+           "JOIN FETCH si.classroom " +
+           "WHERE si.solution.id = :solutionId")
+    List<ScheduleItem> findBySolutionIdWithDetails(@Param("solutionId") Long solutionId);
+
+    /**
+     * 按开课计划顺序查询方案的排课行（开课计划ID、星期、开始时段、结束时段、教室ID、教室编号），
+     * 只返回标量列，应用方案时无需加载实体
+     */
+    @Query("SELECT si.courseOffering.id, si.dayOfWeek, si.startSlot, si.endSlot, c.id, c.roomNo " +
+           "FROM ScheduleItem si JOIN si.classroom c " +
+           "WHERE si.solution.id = :solutionId " +
+           "ORDER BY si.courseOffering.id, si.dayOfWeek, si.startSlot")
+    List<Object[]> findApplyRowsBySolutionId(@Param("solutionId") Long solutionId);
+
+    /**
+     * 按开课计划顺序查询方案的排课明细行，用于方案比较的归并连接：
+     * 开课计划ID、课程编号、课程名称、教师ID、教师姓名、星期、开始时段、结束时段、教室ID、教室编号
+     */
+    @Query("SELECT co.id, c.courseNo, c.name, t.id, t.name, " +
+           "si.dayOfWeek, si.startSlot, si.endSlot, r.id, r.roomNo " +
+           "FROM ScheduleItem si " +
+           "JOIN si.courseOffering co JOIN co.course c JOIN co.teacher t JOIN si.classroom r " +
+           "WHERE si.solution.id = :solutionId " +
+           "ORDER BY co.id, si.dayOfWeek, si.startSlot, r.id")
+    List<Object[]> findDiffRowsBySolutionId(@Param("solutionId") Long solutionId);
+
     /**
      * 根据课程开课ID查询排课结果
      */
@@ -74,6 +108,15 @@ public interface ScheduleItemRepository extends JpaRepository<ScheduleItem, Long
     @Query("DELETE FROM ScheduleItem si WHERE si.solution.id = :solutionId")
     void deleteBySolutionId(@Param("solutionId") Long solutionId);
     
+    /**
+     * 删除方案中指定开课计划的排课结果
+     */
+    @Modifying
+    @Query("DELETE FROM ScheduleItem si WHERE si.solution.id = :solutionId " +
+           "AND si.courseOffering.id IN :courseOfferingIds")
+    int deleteBySolutionIdAndCourseOfferingIdIn(@Param("solutionId") Long solutionId,
+                                                @Param("courseOfferingIds") Collection<Long> courseOfferingIds);
+
     /**
      * 统计方案的排课数量
      */
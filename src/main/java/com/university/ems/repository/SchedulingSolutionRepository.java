@@ -4,6 +4,7 @@ import com.university.academic.entity.Semester;
 import com.university.ems.entity.SchedulingSolution;
 import com.university.ems.enums.SolutionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -76,5 +77,17 @@ public interface SchedulingSolutionRepository extends JpaRepository<SchedulingSo
            "FROM SchedulingSolution s " +
            "WHERE s.status IN ('OPTIMIZING', 'APPLIED')")
     boolean existsActiveSolution();
-}
 
+    /**
+     * 将学期内其他已应用的方案批量改为已完成
+     *
+     * @param semesterId        学期ID
+     * @param excludeSolutionId 排除的方案ID
+     * @return 更新的方案数
+     */
+    @Modifying
+    @Query("UPDATE SchedulingSolution s SET s.status = 'COMPLETED' " +
+           "WHERE s.semester.id = :semesterId AND s.status = 'APPLIED' AND s.id <> :excludeSolutionId")
+    int completeAppliedSolutions(@Param("semesterId") Long semesterId,
+                                 @Param("excludeSolutionId") Long excludeSolutionId);
+}
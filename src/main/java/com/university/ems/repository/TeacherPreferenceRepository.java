@@ -3,8 +3,12 @@ package com.university.ems.repository;
 import com.university.academic.entity.Teacher;
 import com.university.ems.entity.TeacherPreference;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -38,5 +42,14 @@ public interface TeacherPreferenceRepository extends JpaRepository<TeacherPrefer
      * @return 是否存在
      */
     boolean existsByTeacherId(Long teacherId);
+
+    /**
+     * 按教师ID批量查询偏好设置（预加载教师）
+     *
+     * @param teacherIds 教师ID集合
+     * @return 教师偏好列表
+     */
+    @Query("SELECT p FROM TeacherPreference p JOIN FETCH p.teacher WHERE p.teacher.id IN :teacherIds")
+    List<TeacherPreference> findByTeacherIdIn(@Param("teacherIds") Collection<Long> teacherIds);
 }
 
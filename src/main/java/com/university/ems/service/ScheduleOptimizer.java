@@ -0,0 +1,21 @@
+package com.university.ems.service;
+
+import com.university.ems.model.ScheduleOptimizationContext;
+
+/**
+ * 排课优化器接口
+ * 在贪心构造结果的基础上进行局部搜索，减少未排课程并提高软约束满足度
+ *
+ * @author Academic System Team
+ */
+public interface ScheduleOptimizer {
+
+    /**
+     * 优化排课方案
+     * 直接修改上下文中的排课分配和占用索引，结束时保证两者处于搜索过程中的最优状态
+     *
+     * @param context 优化上下文
+     * @return 实际执行的邻域移动次数
+     */
+    long optimize(ScheduleOptimizationContext context);
+}
@@ -2,7 +2,13 @@ package com.university.ems.service;
 
 import com.university.ems.dto.SchedulingRequest;
 import com.university.ems.dto.SchedulingResultDTO;
+import com.university.ems.dto.TeacherPreferenceDTO;
+import com.university.ems.model.ClassroomCapacityIndex;
+import com.university.ems.model.ScheduleAssignment;
+import com.university.ems.model.SchedulingProgressListener;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -21,6 +27,15 @@ public interface SchedulingAlgorithmService {
      */
     SchedulingResultDTO schedule(SchedulingRequest request);
 
+    /**
+     * 执行智能排课（同步），并按阶段上报进度
+     *
+     * @param request          排课请求
+     * @param progressListener 进度监听器
+     * @return 排课结果
+     */
+    SchedulingResultDTO schedule(SchedulingRequest request, SchedulingProgressListener progressListener);
+
     /**
      * 执行智能排课（异步）
      * 适用于大规模排课任务
@@ -30,6 +45,23 @@ public interface SchedulingAlgorithmService {
      */
     CompletableFuture<SchedulingResultDTO> scheduleAsync(SchedulingRequest request);
 
+    /**
+     * 增量修复排课
+     * 固定的排课分配保持不变并预先占用教师和教室，只为待修复的课程重新安排：
+     * 先在原教室补排缺少的课时（原教室不可用时先为保留的时间找替代教室），
+     * 仍无法排满时再整体重新联合选择教室和时间
+     *
+     * @param pinned             固定不动的排课分配（教室为空时表示教师不可用时段）
+     * @param repairs            待修复的排课分配（可带有需要保留的时间槽），原地更新
+     * @param classroomIndex     可用教室索引（不含停用教室）
+     * @param teacherPreferences 教师偏好
+     * @return 未能排满的待修复分配
+     */
+    List<ScheduleAssignment> repair(List<ScheduleAssignment> pinned,
+                                    List<ScheduleAssignment> repairs,
+                                    ClassroomCapacityIndex classroomIndex,
+                                    Map<Long, TeacherPreferenceDTO> teacherPreferences);
+
     /**
      * 评估排课方案质量
      * 
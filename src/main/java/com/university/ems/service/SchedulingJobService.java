@@ -0,0 +1,58 @@
+package com.university.ems.service;
+
+import com.university.ems.dto.SchedulingJobDTO;
+import com.university.ems.dto.SchedulingRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * 排课任务服务接口
+ * 排课在专用的有界线程池中异步执行，通过任务ID查询状态、订阅进度或取消
+ *
+ * @author Academic System Team
+ */
+public interface SchedulingJobService {
+
+    /**
+     * 提交排课任务
+     *
+     * @param solutionId 方案ID
+     * @param request    排课请求参数
+     * @return 任务信息
+     */
+    SchedulingJobDTO submit(Long solutionId, SchedulingRequest request);
+
+    /**
+     * 查询任务
+     *
+     * @param jobId 任务ID
+     * @return 任务信息
+     */
+    SchedulingJobDTO getJob(String jobId);
+
+    /**
+     * 查询所有保留中的任务（按提交时间倒序）
+     *
+     * @return 任务列表
+     */
+    List<SchedulingJobDTO> listJobs();
+
+    /**
+     * 取消任务
+     * 排队中的任务直接取消；执行中的任务在下一次检查时停止，并保存当前最优的部分课表
+     *
+     * @param jobId 任务ID
+     * @return 任务信息
+     */
+    SchedulingJobDTO cancel(String jobId);
+
+    /**
+     * 订阅任务进度（Server-Sent Events）
+     * 事件：progress（进度）、checkpoint（检查点已保存）、finished（任务结束，随后关闭连接）
+     *
+     * @param jobId 任务ID
+     * @return SSE 发送器
+     */
+    SseEmitter subscribe(String jobId);
+}
@@ -36,6 +36,15 @@ public interface SchedulingNotificationService {
      */
     void notifyStudents(Long solutionId, Long semesterId);
 
+    /**
+     * 异步发送方案应用通知（给教师和学生）
+     * 在当前事务提交后交给通知线程池执行，事务回滚时不发送；没有活动事务时立即提交执行
+     *
+     * @param solutionId 排课方案ID
+     * @param semesterId 学期ID
+     */
+    void notifySolutionAppliedAsync(Long solutionId, Long semesterId);
+
     /**
      * 发送排课失败通知给管理员
      *
@@ -2,6 +2,8 @@ package com.university.ems.service;
 
 import com.university.ems.dto.*;
 import com.university.ems.enums.SolutionStatus;
+import com.university.ems.model.ScheduleAssignment;
+import com.university.ems.model.SchedulingProgressListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -32,6 +34,28 @@ public interface SchedulingSolutionService {
      */
     SchedulingResultDTO executeScheduling(Long solutionId, SchedulingRequest schedulingRequest);
 
+    /**
+     * 执行智能排课（带进度监听，供排课任务使用）
+     * 不在调用方事务中执行，排课期间通过监听器上报进度、响应取消并保存检查点
+     *
+     * @param solutionId 方案ID
+     * @param schedulingRequest 排课请求参数
+     * @param progressListener 进度监听器
+     * @return 排课结果
+     */
+    SchedulingResultDTO executeScheduling(Long solutionId, SchedulingRequest schedulingRequest,
+                                          SchedulingProgressListener progressListener);
+
+    /**
+     * 保存排课检查点
+     * 在独立事务中用给定的排课结果替换方案的排课明细，使取消或超时的任务仍保留当前最优的部分课表
+     *
+     * @param solutionId 方案ID
+     * @param assignments 已排满的课程
+     * @return 保存的排课记录数
+     */
+    int saveCheckpoint(Long solutionId, List<ScheduleAssignment> assignments);
+
     /**
      * 手动调整排课
      * 调整单个课程的时间或教室
@@ -42,6 +66,16 @@ public interface SchedulingSolutionService {
      */
     ScheduleItemDTO adjustSchedule(Long solutionId, ScheduleAdjustmentRequest request);
 
+    /**
+     * 增量修复排课
+     * 根据开课计划、教室或教师的变更，只重新安排受影响的课程，其余排课保持不变
+     *
+     * @param solutionId 方案ID
+     * @param request    变更内容
+     * @return 修复结果（排课项只包含被重新安排的课程）
+     */
+    SchedulingResultDTO repairSchedule(Long solutionId, ScheduleRepairRequest request);
+
     /**
      * 检测方案冲突
      *
@@ -52,7 +86,7 @@ public interface SchedulingSolutionService {
 
     /**
      * 应用排课方案
-     * 将排课方案批量保存到课程开课表
+     * 将排课方案分批保存到课程开课表，每批独立提交
      *
      * @param solutionId 方案ID
      * @param request 应用请求
@@ -118,11 +152,12 @@ public interface SchedulingSolutionService {
 
     /**
      * 比较两个方案
+     * 逐门课程比较排课时段（未变化/调整/新增/删除），并统计教师和教室负载变化及约束明细
      *
-     * @param solutionId1 方案1 ID
+     * @param solutionId1 方案1 ID（基准）
      * @param solutionId2 方案2 ID
      * @return 比较结果
      */
-    String compareSolutions(Long solutionId1, Long solutionId2);
+    SolutionComparisonDTO compareSolutions(Long solutionId1, Long solutionId2);
 }
 
@@ -4,7 +4,9 @@ import com.university.ems.dto.SetPreferenceRequest;
 import com.university.ems.dto.TeacherPreferenceDTO;
 import com.university.ems.dto.UpdatePreferenceRequest;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 教师排课偏好服务接口
@@ -39,6 +41,14 @@ public interface TeacherPreferenceService {
      */
     TeacherPreferenceDTO getPreferenceByTeacherId(Long teacherId);
 
+    /**
+     * 批量获取教师排课偏好
+     *
+     * @param teacherIds 教师ID集合
+     * @return 教师ID -> 偏好，未设置偏好的教师不在结果中
+     */
+    Map<Long, TeacherPreferenceDTO> getPreferencesByTeacherIds(Collection<Long> teacherIds);
+
     /**
      * 根据ID查询偏好
      *
@@ -1,36 +1,44 @@
 package com.university.ems.service.impl;
 
-import com.university.academic.entity.Classroom;
-import com.university.academic.entity.CourseOffering;
 import com.university.academic.entity.Semester;
 import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
-import com.university.academic.repository.ClassroomRepository;
-import com.university.academic.repository.CourseOfferingRepository;
-import com.university.academic.repository.CourseSelectionRepository;
 import com.university.academic.repository.SemesterRepository;
 import com.university.ems.dto.*;
 import com.university.ems.entity.SchedulingSolution;
 import com.university.ems.enums.SolutionStatus;
+import com.university.ems.model.ClassroomCapacityIndex;
 import com.university.ems.model.ScheduleAssignment;
+import com.university.ems.model.ScheduleOccupancyIndex;
+import com.university.ems.model.ScheduleOptimizationContext;
+import com.university.ems.model.SchedulingProblem;
+import com.university.ems.model.SchedulingProgress;
+import com.university.ems.model.SchedulingProgressListener;
 import com.university.ems.model.TimeSlot;
 import com.university.ems.repository.SchedulingSolutionRepository;
+import com.university.ems.service.ScheduleOptimizer;
 import com.university.ems.service.SchedulingAlgorithmService;
-import com.university.ems.service.TeacherPreferenceService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 /**
  * 智能排课算法服务实现类
- * 使用约束满足算法进行排课
+ * 先用贪心 + 约束满足构造初始方案，再交给局部搜索优化器补排未排满的课程并改善软约束。
+ * 支持多起点并行：以不同随机种子在线程池中独立运行多次，共享只读的课程和教室快照，取质量分数最高的结果
  * 
  * @author Academic System Team
  */
@@ -40,84 +48,217 @@ import java.util.stream.Collectors;
 public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmService {
 
     private final SemesterRepository semesterRepository;
-    private final CourseOfferingRepository courseOfferingRepository;
-    private final CourseSelectionRepository courseSelectionRepository;
-    private final ClassroomRepository classroomRepository;
     private final SchedulingSolutionRepository solutionRepository;
-    private final TeacherPreferenceService teacherPreferenceService;
+    private final SchedulingProblemLoader problemLoader;
     private final SchedulingConstraintChecker constraintChecker;
+    private final ScheduleOptimizer scheduleOptimizer;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 局部搜索优化的时间预算（秒）
+     */
+    @Value("${academic.scheduling.optimization.time-budget-seconds:30}")
+    private long optimizationTimeBudgetSeconds;
+
+    /**
+     * 多起点排课线程数（0表示使用CPU核数）
+     */
+    @Value("${academic.scheduling.multi-start.threads:0}")
+    private int multiStartThreads;
+
+    /**
+     * 单次排课请求允许的最大并行运行次数
+     */
+    @Value("${academic.scheduling.multi-start.max-runs:32}")
+    private int maxParallelRuns;
+
+    /**
+     * 异步排课线程数
+     */
+    @Value("${academic.scheduling.async-threads:2}")
+    private int asyncThreads;
+
+    /**
+     * 多起点排课线程池（只执行不访问数据库的纯计算）
+     */
+    private ExecutorService multiStartExecutor;
+
+    /**
+     * 异步排课线程池
+     */
+    private ExecutorService asyncExecutor;
+
+    /**
+     * 加载排课问题快照的只读事务
+     */
+    private TransactionTemplate readOnlyTransaction;
 
     // 排课配置
     private static final int DAYS_PER_WEEK = 5; // 周一到周五
     private static final int SLOTS_PER_DAY = 8; // 每天8节课
-    private static final int MAX_CONSECUTIVE_CLASSES = 3; // 最多连续3节课
+    static final int MAX_CONSECUTIVE_CLASSES = 3; // 最多连续3节课（方案比较按同一上限统计）
+    private static final int CONSTRUCTION_PROGRESS_INTERVAL = 50; // 贪心构造每处理50门课程上报一次进度
+
+    @PostConstruct
+    public void initExecutors() {
+        int threads = multiStartThreads > 0 ? multiStartThreads : Runtime.getRuntime().availableProcessors();
+        multiStartExecutor = Executors.newFixedThreadPool(threads,
+                new CustomizableThreadFactory("scheduling-multistart-"));
+        asyncExecutor = Executors.newFixedThreadPool(asyncThreads,
+                new CustomizableThreadFactory("scheduling-async-"));
+        readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    public void shutdownExecutors() {
+        asyncExecutor.shutdownNow();
+        multiStartExecutor.shutdownNow();
+    }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public SchedulingResultDTO schedule(SchedulingRequest request) {
+        return schedule(request, SchedulingProgressListener.NONE);
+    }
+
+    /**
+     * 加载、求解、保存分三段执行：在只读事务中加载问题快照，求解期间不持有事务和数据库连接，
+     * 最后在独立事务中保存方案
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SchedulingResultDTO schedule(SchedulingRequest request, SchedulingProgressListener progressListener) {
         log.info("开始执行智能排课: semesterId={}", request.getSemesterId());
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         try {
-            // 1. 验证和加载数据
-            Semester semester = semesterRepository.findById(request.getSemesterId())
-                    .orElseThrow(() -> new BusinessException(ErrorCode.SEMESTER_NOT_FOUND));
-
-            List<CourseOffering> courseOfferings = loadCourseOfferings(request);
-            List<Classroom> classrooms = classroomRepository.findAll().stream()
-                    .filter(c -> !Boolean.TRUE.equals(c.getDeleted()))
-                    .collect(Collectors.toList());
+            // 1. 验证和加载数据（只读事务）
+            progressListener.onProgress(SchedulingProgress.builder()
+                    .phase("LOADING")
+                    .elapsedMillis(System.currentTimeMillis() - startTime)
+                    .build());
+            SchedulingProblem problem = readOnlyTransaction.execute(status -> {
+                if (!semesterRepository.existsById(request.getSemesterId())) {
+                    throw new BusinessException(ErrorCode.SEMESTER_NOT_FOUND);
+                }
+                return problemLoader.load(request);
+            });
 
-            if (courseOfferings.isEmpty()) {
+            if (problem.getTotalCourses() == 0) {
                 throw new BusinessException(ErrorCode.PARAM_ERROR, "没有需要排课的课程");
             }
 
-            if (classrooms.isEmpty()) {
+            if (problem.getClassroomIndex().isEmpty()) {
                 throw new BusinessException(ErrorCode.PARAM_ERROR, "没有可用的教室");
             }
 
-            // 2. 创建排课方案
-            SchedulingSolution solution = createSolution(semester, request.getSolutionName());
-
-            // 3. 执行排课算法
-            List<ScheduleAssignment> assignments = executeSchedulingAlgorithm(
-                    courseOfferings,
-                    classrooms,
-                    request
-            );
-
-            // 4. 检查约束和评估质量
-            List<ConflictDTO> conflicts = constraintChecker.checkHardConstraints(assignments);
-            double qualityScore = calculateQualityScore(assignments, conflicts);
-
-            // 5. 更新方案状态
-            solution.setQualityScore(qualityScore);
-            solution.setConflictCount(conflicts.size());
-            solution.setStatus(conflicts.isEmpty() ? SolutionStatus.COMPLETED : SolutionStatus.DRAFT);
-            solution.setGeneratedAt(LocalDateTime.now());
-            solution = solutionRepository.save(solution);
-
-            // 6. 构建返回结果
+            // 2. 贪心构造 + 局部搜索优化（多起点时并行执行并取最优），只在问题快照上运行
+            int totalCourses = problem.getTotalCourses();
+            progressListener.onProgress(SchedulingProgress.builder()
+                    .phase("CONSTRUCTING")
+                    .scheduledCount(0)
+                    .totalCount(totalCourses)
+                    .elapsedMillis(System.currentTimeMillis() - startTime)
+                    .build());
+
+            SchedulingRun best = executeRuns(problem, request, startNanos, progressListener);
+            List<ScheduleAssignment> assignments = best.assignments();
+            List<ConflictDTO> conflicts = best.conflicts();
+            double qualityScore = best.qualityScore();
+            long iterations = best.iterations();
+
+            // 3. 在独立事务中保存排课方案
+            SchedulingSolution solution = transactionTemplate.execute(status -> {
+                Semester semester = semesterRepository.getReferenceById(request.getSemesterId());
+                SchedulingSolution created = createSolution(semester, request.getSolutionName());
+                created.setQualityScore(qualityScore);
+                created.setConflictCount(conflicts.size());
+                created.setStatus(conflicts.isEmpty() ? SolutionStatus.COMPLETED : SolutionStatus.DRAFT);
+                created.setGeneratedAt(LocalDateTime.now());
+                return solutionRepository.save(created);
+            });
+
+            // 4. 构建返回结果
             long elapsedTime = System.currentTimeMillis() - startTime;
-            log.info("排课完成: solutionId={}, 耗时={}ms, 质量分数={}, 冲突数={}", 
-                    solution.getId(), elapsedTime, qualityScore, conflicts.size());
+            log.info("排课完成: solutionId={}, 耗时={}ms, 质量分数={}, 冲突数={}, 已排/总数={}/{}",
+                    solution.getId(), elapsedTime, qualityScore, conflicts.size(),
+                    assignments.size(), totalCourses);
 
-            return buildResult(solution, assignments, conflicts, elapsedTime, true, null);
+            return buildResult(solution, assignments, conflicts, elapsedTime,
+                    totalCourses, iterations, true, null);
 
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             log.error("排课失败", e);
             long elapsedTime = System.currentTimeMillis() - startTime;
-            return buildResult(null, Collections.emptyList(), Collections.emptyList(), 
-                    elapsedTime, false, e.getMessage());
+            return buildResult(null, Collections.emptyList(), Collections.emptyList(),
+                    elapsedTime, 0, 0, false, e.getMessage());
         }
     }
 
     @Override
-    @Async
-    @Transactional
     public CompletableFuture<SchedulingResultDTO> scheduleAsync(SchedulingRequest request) {
         log.info("开始异步执行智能排课: semesterId={}", request.getSemesterId());
-        return CompletableFuture.completedFuture(schedule(request));
+        return CompletableFuture.supplyAsync(() -> schedule(request), asyncExecutor);
+    }
+
+    @Override
+    public List<ScheduleAssignment> repair(List<ScheduleAssignment> pinned,
+                                           List<ScheduleAssignment> repairs,
+                                           ClassroomCapacityIndex classroomIndex,
+                                           Map<Long, TeacherPreferenceDTO> teacherPreferences) {
+        ScheduleOccupancyIndex occupancy = new ScheduleOccupancyIndex();
+        pinned.forEach(occupancy::add);
+
+        SchedulingRequest defaults = new SchedulingRequest();
+        Random random = ThreadLocalRandom.current();
+        List<ScheduleAssignment> ordered = new ArrayList<>(repairs);
+        ordered.sort(Comparator.comparingInt(ScheduleAssignment::getStudentCount).reversed());
+
+        List<ScheduleAssignment> unplaced = new ArrayList<>();
+        for (ScheduleAssignment assignment : ordered) {
+            boolean placed = false;
+
+            // 1. 保留已有时间，只补排缺少的课时（原教室停用时先找同时段空闲的替代教室）
+            if (!assignment.getTimeSlots().isEmpty()) {
+                if (!classroomIndex.contains(assignment.getClassroomId())) {
+                    int room = findRoomForSlots(assignment, classroomIndex, occupancy);
+                    if (room >= 0) {
+                        classroomIndex.assign(room, assignment);
+                    }
+                }
+                if (classroomIndex.contains(assignment.getClassroomId())) {
+                    occupancy.add(assignment);
+                    placed = fillInCurrentRoom(assignment, occupancy,
+                            teacherPreferences.get(assignment.getTeacherId()), defaults, random);
+                    if (!placed) {
+                        occupancy.remove(assignment);
+                    }
+                }
+            }
+
+            // 2. 整体重新联合选择教室和时间
+            if (!placed) {
+                assignment.setTimeSlots(new ArrayList<>());
+                placed = assignRoomAndTimeSlots(assignment, classroomIndex, occupancy,
+                        teacherPreferences, defaults, random);
+                if (placed) {
+                    occupancy.add(assignment);
+                }
+            }
+
+            assignment.setScheduled(placed);
+            if (!placed) {
+                log.warn("课程增量修复失败: {}", assignment.getCourseName());
+                unplaced.add(assignment);
+            }
+        }
+        return unplaced;
     }
 
     @Override
@@ -138,51 +279,48 @@ public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmServic
 
     /**
      * 执行排课算法核心逻辑
-     * 使用贪心算法 + 约束满足
+     * 使用贪心算法 + 约束满足，未能排满的课程保留已分配的时间槽，交给后续优化阶段补排
      */
     private List<ScheduleAssignment> executeSchedulingAlgorithm(
-            List<CourseOffering> courseOfferings,
-            List<Classroom> classrooms,
-            SchedulingRequest request) {
-
-        List<ScheduleAssignment> assignments = new ArrayList<>();
-        Map<Long, TeacherPreferenceDTO> teacherPreferences = new HashMap<>();
-
-        // 加载教师偏好
-        if (Boolean.TRUE.equals(request.getConsiderTeacherPreference())) {
-            for (CourseOffering offering : courseOfferings) {
-                Long teacherId = offering.getTeacher().getId();
-                if (!teacherPreferences.containsKey(teacherId)) {
-                    TeacherPreferenceDTO preference = teacherPreferenceService.getPreferenceByTeacherId(teacherId);
-                    if (preference != null) {
-                        teacherPreferences.put(teacherId, preference);
-                    }
-                }
-            }
-        }
+            List<ScheduleAssignment> templates,
+            ClassroomCapacityIndex classroomIndex,
+            Map<Long, TeacherPreferenceDTO> teacherPreferences,
+            SchedulingRequest request,
+            ScheduleOccupancyIndex occupancy,
+            Random random,
+            SchedulingProgressListener progressListener) {
+
+        List<ScheduleAssignment> assignments = new ArrayList<>(templates.size());
+        long startTime = System.currentTimeMillis();
+        int placed = 0;
 
-        // 按学生人数降序排序（大课程优先排课）
-        courseOfferings.sort((a, b) -> {
-            int countA = getCourseStudentCount(a);
-            int countB = getCourseStudentCount(b);
-            return Integer.compare(countB, countA);
-        });
-
-        // 为每个课程分配时间和教室
-        for (CourseOffering offering : courseOfferings) {
-            ScheduleAssignment assignment = createAssignment(offering, classrooms);
-            if (assignment == null) {
-                log.warn("课程无法排课: {}", offering.getCourse().getName());
-                continue;
+        // 模板已按学生人数降序排列（大课程优先排课），为每个课程分配教室和时间
+        for (ScheduleAssignment template : templates) {
+            if (progressListener.isCancelled()) {
+                log.info("排课已取消，停止贪心构造: 已处理课程={}/{}", assignments.size(), templates.size());
+                break;
+            }
+            if (!assignments.isEmpty() && assignments.size() % CONSTRUCTION_PROGRESS_INTERVAL == 0) {
+                progressListener.onProgress(SchedulingProgress.builder()
+                        .phase("CONSTRUCTING")
+                        .scheduledCount(placed)
+                        .totalCount(templates.size())
+                        .elapsedMillis(System.currentTimeMillis() - startTime)
+                        .build());
             }
+            ScheduleAssignment assignment = copyAssignment(template);
 
             // 分配时间槽
-            boolean success = assignTimeSlots(assignment, assignments, teacherPreferences, request);
+            boolean success = assignRoomAndTimeSlots(
+                    assignment, classroomIndex, occupancy, teacherPreferences, request, random);
+            assignments.add(assignment);
+            occupancy.add(assignment);
             if (success) {
-                assignments.add(assignment);
-                log.debug("课程排课成功: {} - {}", offering.getCourse().getName(), assignment.getTimeSlots());
+                placed++;
+                log.debug("课程排课成功: {} - {}", assignment.getCourseName(), assignment.getTimeSlots());
             } else {
-                log.warn("课程排课失败: {}", offering.getCourse().getName());
+                log.debug("课程贪心排课未排满: {}, 已分配={}/{}", assignment.getCourseName(),
+                        assignment.getTimeSlots().size(), assignment.getWeeklyHours());
             }
         }
 
@@ -190,19 +328,237 @@ public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmServic
     }
 
     /**
-     * 为课程分配时间槽
+     * 按起点数执行排课，多起点时提交到线程池并行运行，返回质量分数最高的结果
+     */
+    private SchedulingRun executeRuns(SchedulingProblem problem,
+                                      SchedulingRequest request,
+                                      long startNanos,
+                                      SchedulingProgressListener progressListener) throws InterruptedException {
+        int requestedRuns = request.getParallelRuns() != null ? request.getParallelRuns() : 1;
+        int runs = Math.max(1, Math.min(requestedRuns, maxParallelRuns));
+        long baseSeed = request.getRandomSeed() != null
+                ? request.getRandomSeed() : ThreadLocalRandom.current().nextLong();
+
+        if (runs == 1) {
+            return runOnce(problem, request, startNanos, baseSeed, progressListener);
+        }
+
+        // 只由第一个起点上报优化进度和检查点，避免多个运行的进度交错；取消状态对所有起点生效
+        List<Future<SchedulingRun>> futures = new ArrayList<>(runs);
+        for (int i = 0; i < runs; i++) {
+            long seed = baseSeed + i;
+            SchedulingProgressListener listener = i == 0
+                    ? progressListener : SchedulingProgressListener.cancellationOnly(progressListener);
+            futures.add(multiStartExecutor.submit(() -> runOnce(problem, request, startNanos, seed, listener)));
+        }
+
+        SchedulingRun best = null;
+        try {
+            for (Future<SchedulingRun> future : futures) {
+                try {
+                    SchedulingRun run = future.get();
+                    log.debug("排课起点完成: seed={}, 质量分数={}, 已排课程={}",
+                            run.seed(), run.qualityScore(), run.assignments().size());
+                    if (best == null || run.isBetterThan(best)) {
+                        best = run;
+                    }
+                } catch (ExecutionException e) {
+                    log.warn("排课起点执行失败", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+
+        if (best == null) {
+            throw new BusinessException(ErrorCode.SCHEDULING_FAILED, "所有排课起点均执行失败");
+        }
+        log.info("多起点排课完成: 起点数={}, 最优seed={}, 质量分数={}", runs, best.seed(), best.qualityScore());
+        return best;
+    }
+
+    /**
+     * 单个起点的完整排课运行（贪心构造 + 局部搜索优化 + 评估），不访问数据库
      */
-    private boolean assignTimeSlots(ScheduleAssignment assignment,
-                                   List<ScheduleAssignment> existingAssignments,
-                                   Map<Long, TeacherPreferenceDTO> teacherPreferences,
-                                   SchedulingRequest request) {
+    private SchedulingRun runOnce(SchedulingProblem problem,
+                                  SchedulingRequest request,
+                                  long startNanos,
+                                  long seed,
+                                  SchedulingProgressListener progressListener) {
+        ClassroomCapacityIndex classroomIndex = problem.getClassroomIndex();
+        Map<Long, TeacherPreferenceDTO> teacherPreferences = problem.getTeacherPreferences();
+        Random random = new Random(seed);
+        ScheduleOccupancyIndex occupancy = new ScheduleOccupancyIndex();
+        List<ScheduleAssignment> candidates = executeSchedulingAlgorithm(
+                problem.getCourses(), classroomIndex, teacherPreferences, request, occupancy, random,
+                progressListener);
+        progressListener.onCheckpoint(() -> copyScheduled(candidates));
+
+        long iterations = 0;
+        if (Boolean.TRUE.equals(request.getEnableOptimization()) && !candidates.isEmpty()) {
+            iterations = optimize(candidates, occupancy, classroomIndex, teacherPreferences,
+                    request, startNanos, random, progressListener);
+        }
+        List<ScheduleAssignment> assignments = collectScheduled(candidates, occupancy);
+
+        List<ConflictDTO> conflicts = constraintChecker.checkHardConstraints(assignments);
+        double qualityScore = calculateQualityScore(assignments, conflicts, occupancy, problem.getTotalCourses());
+        return new SchedulingRun(seed, assignments, conflicts, qualityScore, iterations);
+    }
+
+    /**
+     * 局部搜索优化
+     * 移动次数上限为 每门课程的最大迭代次数 × 课程数，截止时间取时间预算和请求超时中较早者
+     *
+     * @return 实际执行的邻域移动次数
+     */
+    private long optimize(List<ScheduleAssignment> assignments,
+                          ScheduleOccupancyIndex occupancy,
+                          ClassroomCapacityIndex classroomIndex,
+                          Map<Long, TeacherPreferenceDTO> teacherPreferences,
+                          SchedulingRequest request,
+                          long startNanos,
+                          Random random,
+                          SchedulingProgressListener progressListener) {
+        long now = System.nanoTime();
+        long deadline = now + TimeUnit.SECONDS.toNanos(optimizationTimeBudgetSeconds);
+        if (request.getTimeoutSeconds() != null) {
+            deadline = Math.min(deadline, startNanos + TimeUnit.SECONDS.toNanos(request.getTimeoutSeconds()));
+        }
+        int maxIterations = request.getMaxIterations() != null ? request.getMaxIterations() : 1000;
+
+        ScheduleOptimizationContext context = ScheduleOptimizationContext.builder()
+                .assignments(assignments)
+                .occupancy(occupancy)
+                .teacherPreferences(teacherPreferences)
+                .classroomIndex(classroomIndex)
+                .daysPerWeek(DAYS_PER_WEEK)
+                .slotsPerDay(SLOTS_PER_DAY)
+                .maxConsecutive(MAX_CONSECUTIVE_CLASSES)
+                .maxMoves((long) maxIterations * assignments.size())
+                .deadlineNanos(deadline)
+                .random(random)
+                .progressListener(progressListener)
+                .build();
+        return scheduleOptimizer.optimize(context);
+    }
+
+    /**
+     * 取出已排满的课程，未排满的课程从占用索引中移除
+     */
+    private List<ScheduleAssignment> collectScheduled(List<ScheduleAssignment> candidates,
+                                                      ScheduleOccupancyIndex occupancy) {
+        List<ScheduleAssignment> scheduled = new ArrayList<>(candidates.size());
+        for (ScheduleAssignment assignment : candidates) {
+            if (assignment.isFullyScheduled()) {
+                assignment.setScheduled(true);
+                scheduled.add(assignment);
+            } else {
+                log.warn("课程排课失败: {}, 已分配={}/{}", assignment.getCourseName(),
+                        assignment.getTimeSlots().size(), assignment.getWeeklyHours());
+                occupancy.remove(assignment);
+            }
+        }
+        return scheduled;
+    }
+
+    /**
+     * 为课程联合选择教室和时间槽
+     * 从容量刚好够用的教室开始，依次尝试更大的教室，直到某个教室能排满全部课时；
+     * 都排不满时保留分配课时最多的教室和时间槽，交给后续优化阶段补排
+     */
+    private boolean assignRoomAndTimeSlots(ScheduleAssignment assignment,
+                                          ClassroomCapacityIndex classroomIndex,
+                                          ScheduleOccupancyIndex occupancy,
+                                          Map<Long, TeacherPreferenceDTO> teacherPreferences,
+                                          SchedulingRequest request,
+                                          Random random) {
 
         int requiredSlots = assignment.getWeeklyHours();
-        List<TimeSlot> assignedSlots = new ArrayList<>();
         TeacherPreferenceDTO preference = teacherPreferences.get(assignment.getTeacherId());
 
-        // 生成候选时间槽列表（优先考虑教师偏好）
-        List<TimeSlot> candidates = generateCandidateTimeSlots(preference);
+        // 生成候选时间槽列表（优先考虑教师偏好），各教室使用同一顺序
+        List<TimeSlot> candidates = generateCandidateTimeSlots(preference, random);
+
+        int bestRoom = -1;
+        List<TimeSlot> bestSlots = Collections.emptyList();
+        for (int room = classroomIndex.firstFitting(assignment.getStudentCount()); room < classroomIndex.size(); room++) {
+            // 教师和教室共同空闲的时间槽不多于当前最优结果时，该教室不可能更优
+            int freeSlots = occupancy.commonFreeSlotCount(
+                    assignment.getTeacherId(), classroomIndex.id(room), DAYS_PER_WEEK, SLOTS_PER_DAY);
+            if (freeSlots <= bestSlots.size()) {
+                continue;
+            }
+
+            classroomIndex.assign(room, assignment);
+            List<TimeSlot> slots = selectTimeSlots(assignment, requiredSlots, candidates, occupancy, request);
+            if (slots.size() > bestSlots.size()) {
+                bestRoom = room;
+                bestSlots = slots;
+            }
+            if (bestSlots.size() >= requiredSlots) {
+                break;
+            }
+        }
+
+        if (bestRoom >= 0) {
+            classroomIndex.assign(bestRoom, assignment);
+            bestSlots.forEach(assignment::addTimeSlot);
+        }
+
+        // 检查是否成功分配了足够的时间槽
+        boolean success = assignment.isFullyScheduled();
+        assignment.setScheduled(success);
+        return success;
+    }
+
+    /**
+     * 在当前教室为课程补排缺少的课时（课程已有的时间槽须已加入占用索引）
+     */
+    private boolean fillInCurrentRoom(ScheduleAssignment assignment,
+                                      ScheduleOccupancyIndex occupancy,
+                                      TeacherPreferenceDTO preference,
+                                      SchedulingRequest request,
+                                      Random random) {
+        int missing = assignment.getWeeklyHours() - assignment.getTimeSlots().size();
+        if (missing > 0) {
+            List<TimeSlot> candidates = generateCandidateTimeSlots(preference, random);
+            for (TimeSlot timeSlot : selectTimeSlots(assignment, missing, candidates, occupancy, request)) {
+                assignment.addTimeSlot(timeSlot);
+                occupancy.occupy(assignment, timeSlot);
+            }
+        }
+        return assignment.isFullyScheduled();
+    }
+
+    /**
+     * 查找在课程所有已有时间槽均空闲、容量足够的教室（容量从小到大）
+     */
+    private int findRoomForSlots(ScheduleAssignment assignment,
+                                 ClassroomCapacityIndex classroomIndex,
+                                 ScheduleOccupancyIndex occupancy) {
+        for (int room = classroomIndex.firstFitting(assignment.getStudentCount()); room < classroomIndex.size(); room++) {
+            long classroomId = classroomIndex.id(room);
+            boolean free = assignment.getTimeSlots().stream()
+                    .noneMatch(timeSlot -> occupancy.isClassroomBusy(classroomId, timeSlot));
+            if (free) {
+                return room;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按候选顺序为课程在当前教室中选择时间槽
+     */
+    private List<TimeSlot> selectTimeSlots(ScheduleAssignment assignment,
+                                           int requiredSlots,
+                                           List<TimeSlot> candidates,
+                                           ScheduleOccupancyIndex occupancy,
+                                           SchedulingRequest request) {
+
+        List<TimeSlot> assignedSlots = new ArrayList<>(requiredSlots);
 
         // 尝试分配时间槽
         int attempts = 0;
@@ -213,34 +569,30 @@ public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmServic
             if (assignedSlots.size() >= requiredSlots) break;
 
             // 检查硬约束
-            if (constraintChecker.hasTeacherTimeConflict(existingAssignments, assignment, candidate)) {
+            if (constraintChecker.hasTeacherTimeConflict(occupancy, assignment, candidate)) {
                 continue;
             }
-            if (constraintChecker.hasClassroomTimeConflict(existingAssignments, assignment, candidate)) {
+            if (constraintChecker.hasClassroomTimeConflict(occupancy, assignment, candidate)) {
                 continue;
             }
 
             // 检查软约束
             if (constraintChecker.hasTooManyConsecutiveClasses(
-                    existingAssignments, assignment.getTeacherId(), candidate, MAX_CONSECUTIVE_CLASSES)) {
+                    occupancy, assignment.getTeacherId(), candidate, MAX_CONSECUTIVE_CLASSES)) {
                 continue;
             }
 
             // 分配此时间槽
             assignedSlots.add(candidate);
-            assignment.addTimeSlot(candidate);
         }
 
-        // 检查是否成功分配了足够的时间槽
-        boolean success = assignedSlots.size() >= requiredSlots;
-        assignment.setScheduled(success);
-        return success;
+        return assignedSlots;
     }
 
     /**
      * 生成候选时间槽列表
      */
-    private List<TimeSlot> generateCandidateTimeSlots(TeacherPreferenceDTO preference) {
+    private List<TimeSlot> generateCandidateTimeSlots(TeacherPreferenceDTO preference, Random random) {
         List<TimeSlot> candidates = new ArrayList<>();
 
         // 如果有教师偏好，优先使用偏好时间
@@ -267,55 +619,52 @@ public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmServic
         }
 
         // 打乱顺序增加随机性
-        Collections.shuffle(candidates);
+        Collections.shuffle(candidates, random);
 
         return candidates;
     }
 
     /**
-     * 创建排课分配对象
+     * 复制排课分配模板，供单次运行独立修改
      */
-    private ScheduleAssignment createAssignment(CourseOffering offering, List<Classroom> classrooms) {
-        int studentCount = getCourseStudentCount(offering);
-
-        // 选择合适的教室
-        Classroom classroom = findSuitableClassroom(classrooms, studentCount);
-        if (classroom == null) {
-            log.warn("找不到合适的教室: 课程={}, 学生数={}", offering.getCourse().getName(), studentCount);
-            return null;
-        }
-
+    private ScheduleAssignment copyAssignment(ScheduleAssignment template) {
         return ScheduleAssignment.builder()
-                .courseOfferingId(offering.getId())
-                .courseName(offering.getCourse().getName())
-                .courseNo(offering.getCourse().getCourseNo())
-                .teacherId(offering.getTeacher().getId())
-                .teacherName(offering.getTeacher().getName())
-                .classroomId(classroom.getId())
-                .classroomNo(classroom.getRoomNo())
-                .classroomCapacity(classroom.getCapacity())
-                .studentCount(studentCount)
-                .weeklyHours(offering.getCourse().getCredits().intValue() * 2) // 假设每学分2课时
+                .courseOfferingId(template.getCourseOfferingId())
+                .courseName(template.getCourseName())
+                .courseNo(template.getCourseNo())
+                .teacherId(template.getTeacherId())
+                .teacherName(template.getTeacherName())
+                .classroomId(template.getClassroomId())
+                .classroomNo(template.getClassroomNo())
+                .classroomCapacity(template.getClassroomCapacity())
+                .studentCount(template.getStudentCount())
+                .weeklyHours(template.getWeeklyHours())
                 .timeSlots(new ArrayList<>())
                 .scheduled(false)
                 .build();
     }
 
     /**
-     * 查找合适的教室
+     * 已排满课程的独立副本（检查点使用）
      */
-    private Classroom findSuitableClassroom(List<Classroom> classrooms, int studentCount) {
-        // 选择容量刚好够用的教室（避免浪费）
-        return classrooms.stream()
-                .filter(c -> c.getCapacity() >= studentCount)
-                .min(Comparator.comparingInt(Classroom::getCapacity))
-                .orElse(null);
+    private List<ScheduleAssignment> copyScheduled(List<ScheduleAssignment> candidates) {
+        List<ScheduleAssignment> copies = new ArrayList<>(candidates.size());
+        for (ScheduleAssignment candidate : candidates) {
+            if (candidate.isFullyScheduled()) {
+                ScheduleAssignment copy = copyAssignment(candidate);
+                copy.setTimeSlots(new ArrayList<>(candidate.getTimeSlots()));
+                copy.setScheduled(true);
+                copies.add(copy);
+            }
+        }
+        return copies;
     }
 
     /**
      * 计算质量分数
      */
-    private double calculateQualityScore(List<ScheduleAssignment> assignments, List<ConflictDTO> conflicts) {
+    private double calculateQualityScore(List<ScheduleAssignment> assignments, List<ConflictDTO> conflicts,
+                                         ScheduleOccupancyIndex occupancy, int totalCourses) {
         if (assignments.isEmpty()) {
             return 0.0;
         }
@@ -328,18 +677,19 @@ public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmServic
                 .count();
         score -= hardConflicts * 20;
 
-        // 未完全排课扣分
-        long unscheduled = assignments.stream()
-                .filter(a -> !a.isFullyScheduled())
+        // 未完全排课扣分（包括未能进入结果的课程）
+        long scheduled = assignments.stream()
+                .filter(ScheduleAssignment::isFullyScheduled)
                 .count();
-        score -= (unscheduled * 10.0 / assignments.size());
+        int total = Math.max(totalCourses, assignments.size());
+        score -= ((total - scheduled) * 10.0 / total);
 
         // 计算教师空闲时间碎片（软约束）
         int totalFragments = 0;
         for (int day = 1; day <= DAYS_PER_WEEK; day++) {
             for (ScheduleAssignment assignment : assignments) {
                 totalFragments += constraintChecker.calculateIdleTimeFragments(
-                        assignments, assignment.getTeacherId(), day);
+                        occupancy, assignment.getTeacherId(), day);
             }
         }
         score -= Math.min(totalFragments * 0.5, 20); // 最多扣20分
@@ -347,17 +697,6 @@ public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmServic
         return Math.max(score, 0.0);
     }
 
-    /**
-     * 加载课程列表
-     */
-    private List<CourseOffering> loadCourseOfferings(SchedulingRequest request) {
-        if (request.getCourseOfferingIds() != null && !request.getCourseOfferingIds().isEmpty()) {
-            return courseOfferingRepository.findAllById(request.getCourseOfferingIds());
-        } else {
-            return courseOfferingRepository.findBySemesterId(request.getSemesterId());
-        }
-    }
-
     /**
      * 创建排课方案
      */
@@ -374,24 +713,6 @@ public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmServic
         return solutionRepository.save(solution);
     }
 
-    /**
-     * 获取课程实际选课人数
-     * 
-     * @param offering 开课计划
-     * @return 选课人数
-     */
-    private int getCourseStudentCount(CourseOffering offering) {
-        // 查询course_selection表统计选课人数
-        long count = courseSelectionRepository.countActiveByOfferingId(offering.getId());
-        
-        // 如果没有选课记录，返回预估值（容量的50%或30人）
-        if (count == 0) {
-            return offering.getCapacity() != null ? offering.getCapacity() / 2 : 30;
-        }
-        
-        return (int) count;
-    }
-
     /**
      * 构建结果对象
      */
@@ -399,6 +720,8 @@ public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmServic
                                            List<ScheduleAssignment> assignments,
                                            List<ConflictDTO> conflicts,
                                            long elapsedMillis,
+                                           int totalCourses,
+                                           long iterations,
                                            boolean success,
                                            String errorMessage) {
         if (!success) {
@@ -427,7 +750,8 @@ public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmServic
                 .softConstraintViolations((int) conflicts.stream()
                         .filter(c -> "SOFT".equals(c.getSeverity())).count())
                 .scheduledCourseCount((int) scheduled)
-                .unscheduledCourseCount((int) (assignments.size() - scheduled))
+                .unscheduledCourseCount((int) (totalCourses - scheduled))
+                .iterations((int) Math.min(iterations, Integer.MAX_VALUE))
                 .scheduleItems(scheduleItems)
                 .conflicts(conflicts)
                 .elapsedMillis(elapsedMillis)
@@ -465,5 +789,22 @@ public class SchedulingAlgorithmServiceImpl implements SchedulingAlgorithmServic
         String[] days = {"", "周一", "周二", "周三", "周四", "周五", "周六", "周日"};
         return day >= 1 && day <= 7 ? days[day] : "周" + day;
     }
-}
 
+    /**
+     * 单个起点的排课运行结果
+     */
+    private record SchedulingRun(long seed,
+                                 List<ScheduleAssignment> assignments,
+                                 List<ConflictDTO> conflicts,
+                                 double qualityScore,
+                                 long iterations) {
+
+        /**
+         * 质量分数更高者更优，分数相同时排课课程更多者更优
+         */
+        boolean isBetterThan(SchedulingRun other) {
+            int byScore = Double.compare(qualityScore, other.qualityScore);
+            return byScore != 0 ? byScore > 0 : assignments.size() > other.assignments.size();
+        }
+    }
+}
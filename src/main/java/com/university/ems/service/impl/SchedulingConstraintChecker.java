@@ -3,6 +3,7 @@ package com.university.ems.service.impl;
 import com.university.ems.dto.ConflictDTO;
 import com.university.ems.dto.TeacherPreferenceDTO;
 import com.university.ems.model.ScheduleAssignment;
+import com.university.ems.model.ScheduleOccupancyIndex;
 import com.university.ems.model.TimeSlot;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -12,7 +13,7 @@ import java.util.stream.Collectors;
 
 /**
  * 排课约束检查器
- * 负责检查各种排课约束
+ * 负责检查各种排课约束，单个时间槽的检查基于 {@link ScheduleOccupancyIndex}，均为O(1)
  * 
  * @author Academic System Team
  */
@@ -23,27 +24,19 @@ public class SchedulingConstraintChecker {
     /**
      * 检查教师时间冲突（硬约束）
      */
-    public boolean hasTeacherTimeConflict(List<ScheduleAssignment> assignments, 
-                                         ScheduleAssignment newAssignment, 
+    public boolean hasTeacherTimeConflict(ScheduleOccupancyIndex occupancy,
+                                         ScheduleAssignment newAssignment,
                                          TimeSlot newTimeSlot) {
-        return assignments.stream()
-                .filter(a -> a.getTeacherId().equals(newAssignment.getTeacherId()))
-                .filter(a -> !a.getCourseOfferingId().equals(newAssignment.getCourseOfferingId()))
-                .flatMap(a -> a.getTimeSlots().stream())
-                .anyMatch(slot -> slot.equals(newTimeSlot));
+        return occupancy.isTeacherBusy(newAssignment.getTeacherId(), newTimeSlot);
     }
 
     /**
      * 检查教室时间冲突（硬约束）
      */
-    public boolean hasClassroomTimeConflict(List<ScheduleAssignment> assignments,
+    public boolean hasClassroomTimeConflict(ScheduleOccupancyIndex occupancy,
                                            ScheduleAssignment newAssignment,
                                            TimeSlot newTimeSlot) {
-        return assignments.stream()
-                .filter(a -> a.getClassroomId() != null && a.getClassroomId().equals(newAssignment.getClassroomId()))
-                .filter(a -> !a.getCourseOfferingId().equals(newAssignment.getCourseOfferingId()))
-                .flatMap(a -> a.getTimeSlots().stream())
-                .anyMatch(slot -> slot.equals(newTimeSlot));
+        return occupancy.isClassroomBusy(newAssignment.getClassroomId(), newTimeSlot);
     }
 
     /**
@@ -59,7 +52,7 @@ public class SchedulingConstraintChecker {
     /**
      * 检查教师每天课时限制（软约束）
      */
-    public boolean exceedsDailyHoursLimit(List<ScheduleAssignment> assignments,
+    public boolean exceedsDailyHoursLimit(ScheduleOccupancyIndex occupancy,
                                          ScheduleAssignment newAssignment,
                                          TimeSlot newTimeSlot,
                                          Integer maxDailyHours) {
@@ -67,12 +60,7 @@ public class SchedulingConstraintChecker {
             return false;
         }
 
-        long dailyHours = assignments.stream()
-                .filter(a -> a.getTeacherId().equals(newAssignment.getTeacherId()))
-                .flatMap(a -> a.getTimeSlots().stream())
-                .filter(slot -> slot.getDayOfWeek().equals(newTimeSlot.getDayOfWeek()))
-                .count();
-
+        int dailyHours = occupancy.teacherDailyHours(newAssignment.getTeacherId(), newTimeSlot.getDayOfWeek());
         return (dailyHours + 1) > maxDailyHours;
     }
 
@@ -105,64 +93,19 @@ public class SchedulingConstraintChecker {
      * 检查连续课程过多（软约束）
      * 避免教师或学生连续超过3节课
      */
-    public boolean hasTooManyConsecutiveClasses(List<ScheduleAssignment> assignments,
+    public boolean hasTooManyConsecutiveClasses(ScheduleOccupancyIndex occupancy,
                                                Long teacherId,
                                                TimeSlot newTimeSlot,
                                                int maxConsecutive) {
-        // 获取同一天的所有课程时段
-        List<Integer> slotsOnSameDay = assignments.stream()
-                .filter(a -> a.getTeacherId().equals(teacherId))
-                .flatMap(a -> a.getTimeSlots().stream())
-                .filter(slot -> slot.getDayOfWeek().equals(newTimeSlot.getDayOfWeek()))
-                .map(TimeSlot::getSlot)
-                .sorted()
-                .collect(Collectors.toList());
-
-        slotsOnSameDay.add(newTimeSlot.getSlot());
-        Collections.sort(slotsOnSameDay);
-
-        // 检查连续课程数量
-        int consecutive = 1;
-        for (int i = 1; i < slotsOnSameDay.size(); i++) {
-            if (slotsOnSameDay.get(i) == slotsOnSameDay.get(i - 1) + 1) {
-                consecutive++;
-                if (consecutive > maxConsecutive) {
-                    return true;
-                }
-            } else {
-                consecutive = 1;
-            }
-        }
-
-        return false;
+        return occupancy.consecutiveRunWith(teacherId, newTimeSlot) > maxConsecutive;
     }
 
     /**
      * 计算教师空闲时间碎片数
      * 空闲时间越碎片化，得分越低
      */
-    public int calculateIdleTimeFragments(List<ScheduleAssignment> assignments, Long teacherId, Integer dayOfWeek) {
-        List<Integer> slots = assignments.stream()
-                .filter(a -> a.getTeacherId().equals(teacherId))
-                .flatMap(a -> a.getTimeSlots().stream())
-                .filter(slot -> slot.getDayOfWeek().equals(dayOfWeek))
-                .map(TimeSlot::getSlot)
-                .sorted()
-                .collect(Collectors.toList());
-
-        if (slots.size() <= 1) {
-            return 0;
-        }
-
-        // 计算空闲间隙数量
-        int fragments = 0;
-        for (int i = 1; i < slots.size(); i++) {
-            if (slots.get(i) - slots.get(i - 1) > 1) {
-                fragments++;
-            }
-        }
-
-        return fragments;
+    public int calculateIdleTimeFragments(ScheduleOccupancyIndex occupancy, Long teacherId, Integer dayOfWeek) {
+        return occupancy.idleFragments(teacherId, dayOfWeek);
     }
 
     /**
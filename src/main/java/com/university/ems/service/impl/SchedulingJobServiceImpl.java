@@ -0,0 +1,358 @@
+package com.university.ems.service.impl;
+
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
+import com.university.ems.dto.SchedulingJobDTO;
+import com.university.ems.dto.SchedulingRequest;
+import com.university.ems.dto.SchedulingResultDTO;
+import com.university.ems.enums.SchedulingJobStatus;
+import com.university.ems.model.ScheduleAssignment;
+import com.university.ems.model.SchedulingProgress;
+import com.university.ems.model.SchedulingProgressListener;
+import com.university.ems.service.SchedulingJobService;
+import com.university.ems.service.SchedulingSolutionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 排课任务服务实现类
+ * 任务在固定大小、有界队列的专用线程池中执行，队列满时拒绝提交；
+ * 进度按最小间隔推送给 SSE 订阅者（阶段变化时立即推送），检查点按固定间隔写入方案。
+ * 任务信息只保存在内存中，结束后保留一段时间供查询。
+ *
+ * @author Academic System Team
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulingJobServiceImpl implements SchedulingJobService {
+
+    private final SchedulingSolutionService solutionService;
+
+    /**
+     * 排课任务线程数
+     */
+    @Value("${academic.scheduling.jobs.threads:2}")
+    private int jobThreads;
+
+    /**
+     * 排队任务上限
+     */
+    @Value("${academic.scheduling.jobs.queue-capacity:8}")
+    private int queueCapacity;
+
+    /**
+     * 检查点间隔（秒）
+     */
+    @Value("${academic.scheduling.jobs.checkpoint-interval-seconds:15}")
+    private long checkpointIntervalSeconds;
+
+    /**
+     * 进度推送最小间隔（毫秒）
+     */
+    @Value("${academic.scheduling.jobs.progress-interval-millis:500}")
+    private long progressIntervalMillis;
+
+    /**
+     * SSE 连接超时（分钟）
+     */
+    @Value("${academic.scheduling.jobs.sse-timeout-minutes:30}")
+    private long sseTimeoutMinutes;
+
+    /**
+     * 已结束任务的保留时间（分钟）
+     */
+    @Value("${academic.scheduling.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, SchedulingJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor jobExecutor;
+
+    @PostConstruct
+    public void initExecutor() {
+        jobExecutor = new ThreadPoolExecutor(jobThreads, jobThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("scheduling-job-"));
+    }
+
+    @PreDestroy
+    public void shutdownExecutor() throws InterruptedException {
+        // 通知执行中的任务尽快结束并保存当前结果
+        jobs.values().forEach(job -> job.cancelled.set(true));
+        jobExecutor.shutdown();
+        if (!jobExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            jobExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public synchronized SchedulingJobDTO submit(Long solutionId, SchedulingRequest request) {
+        // 验证方案是否存在
+        solutionService.getSolutionById(solutionId);
+
+        boolean active = jobs.values().stream()
+                .anyMatch(job -> job.solutionId.equals(solutionId) && !job.status.isFinished());
+        if (active) {
+            throw new BusinessException(ErrorCode.SCHEDULING_JOB_RUNNING);
+        }
+
+        SchedulingJob job = new SchedulingJob(UUID.randomUUID().toString(), solutionId, request);
+        jobs.put(job.id, job);
+        try {
+            job.future = jobExecutor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new BusinessException(ErrorCode.SCHEDULING_JOB_QUEUE_FULL);
+        }
+
+        log.info("排课任务已提交: jobId={}, solutionId={}, 排队数={}",
+                job.id, solutionId, jobExecutor.getQueue().size());
+        return toDTO(job);
+    }
+
+    @Override
+    public SchedulingJobDTO getJob(String jobId) {
+        return toDTO(findJob(jobId));
+    }
+
+    @Override
+    public List<SchedulingJobDTO> listJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((SchedulingJob job) -> job.submittedAt).reversed())
+                .map(this::toDTO)
+                .toList();
+    }
+
+    @Override
+    public SchedulingJobDTO cancel(String jobId) {
+        SchedulingJob job = findJob(jobId);
+        if (job.status.isFinished()) {
+            return toDTO(job);
+        }
+
+        job.cancelled.set(true);
+        log.info("请求取消排课任务: jobId={}, status={}", jobId, job.status);
+
+        // 还在排队的任务直接移出队列
+        if (job.status == SchedulingJobStatus.PENDING && job.future != null && job.future.cancel(false)) {
+            finish(job, SchedulingJobStatus.CANCELLED, null, null);
+        }
+        return toDTO(job);
+    }
+
+    @Override
+    public SseEmitter subscribe(String jobId) {
+        SchedulingJob job = findJob(jobId);
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(sseTimeoutMinutes));
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+        job.emitters.add(emitter);
+
+        // 先推送当前状态；任务已结束时直接推送结束事件并关闭连接
+        if (job.status.isFinished()) {
+            send(job, emitter, "finished");
+            job.emitters.remove(emitter);
+            emitter.complete();
+        } else {
+            send(job, emitter, "progress");
+        }
+        return emitter;
+    }
+
+    /**
+     * 定期清理过期的已结束任务
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.status.isFinished()
+                && job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    /**
+     * 在排课线程中执行任务
+     */
+    private void run(SchedulingJob job) {
+        if (job.cancelled.get()) {
+            finish(job, SchedulingJobStatus.CANCELLED, null, null);
+            return;
+        }
+
+        job.status = SchedulingJobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        broadcast(job, "progress");
+        log.info("排课任务开始执行: jobId={}, solutionId={}", job.id, job.solutionId);
+
+        try {
+            SchedulingResultDTO result = solutionService.executeScheduling(
+                    job.solutionId, job.request, new JobProgressListener(job));
+            // 排课明细已保存到方案，任务中只保留汇总信息
+            result.setScheduleItems(null);
+
+            SchedulingJobStatus status;
+            if (!Boolean.TRUE.equals(result.getSuccess())) {
+                status = SchedulingJobStatus.FAILED;
+            } else if (job.cancelled.get()) {
+                status = SchedulingJobStatus.CANCELLED;
+            } else {
+                status = SchedulingJobStatus.COMPLETED;
+            }
+            finish(job, status, result, result.getErrorMessage());
+        } catch (Exception e) {
+            log.error("排课任务执行失败: jobId=" + job.id, e);
+            finish(job, SchedulingJobStatus.FAILED, null, e.getMessage());
+        }
+    }
+
+    private void finish(SchedulingJob job, SchedulingJobStatus status, SchedulingResultDTO result, String errorMessage) {
+        job.result = result;
+        job.errorMessage = errorMessage;
+        job.finishedAt = LocalDateTime.now();
+        job.status = status;
+        log.info("排课任务结束: jobId={}, status={}, 检查点数={}", job.id, status, job.checkpointCount);
+
+        broadcast(job, "finished");
+        for (SseEmitter emitter : job.emitters) {
+            emitter.complete();
+        }
+        job.emitters.clear();
+    }
+
+    private void broadcast(SchedulingJob job, String eventName) {
+        for (SseEmitter emitter : job.emitters) {
+            send(job, emitter, eventName);
+        }
+    }
+
+    private void send(SchedulingJob job, SseEmitter emitter, String eventName) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(toDTO(job)));
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开
+            job.emitters.remove(emitter);
+        }
+    }
+
+    private SchedulingJob findJob(String jobId) {
+        SchedulingJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new BusinessException(ErrorCode.SCHEDULING_JOB_NOT_FOUND);
+        }
+        return job;
+    }
+
+    private SchedulingJobDTO toDTO(SchedulingJob job) {
+        return SchedulingJobDTO.builder()
+                .jobId(job.id)
+                .solutionId(job.solutionId)
+                .status(job.status)
+                .cancelRequested(job.cancelled.get())
+                .progress(job.progress)
+                .checkpointCount(job.checkpointCount)
+                .lastCheckpointAt(job.lastCheckpointAt)
+                .result(job.result)
+                .errorMessage(job.errorMessage)
+                .submittedAt(job.submittedAt)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .build();
+    }
+
+    /**
+     * 任务的进度监听器：记录并限频推送进度，响应取消，按间隔保存检查点
+     */
+    private final class JobProgressListener implements SchedulingProgressListener {
+
+        private final SchedulingJob job;
+        private final long checkpointIntervalNanos = TimeUnit.SECONDS.toNanos(checkpointIntervalSeconds);
+        private long lastCheckpointNanos = System.nanoTime();
+        private long lastPushMillis;
+        private String lastPhase;
+
+        private JobProgressListener(SchedulingJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void onProgress(SchedulingProgress progress) {
+            job.progress = progress;
+            long now = System.currentTimeMillis();
+            if (!Objects.equals(progress.getPhase(), lastPhase) || now - lastPushMillis >= progressIntervalMillis) {
+                lastPhase = progress.getPhase();
+                lastPushMillis = now;
+                broadcast(job, "progress");
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return job.cancelled.get();
+        }
+
+        @Override
+        public void onCheckpoint(Supplier<List<ScheduleAssignment>> bestAssignments) {
+            long now = System.nanoTime();
+            if (now - lastCheckpointNanos < checkpointIntervalNanos) {
+                return;
+            }
+            lastCheckpointNanos = now;
+
+            List<ScheduleAssignment> assignments = bestAssignments.get();
+            if (assignments.isEmpty()) {
+                return;
+            }
+            try {
+                solutionService.saveCheckpoint(job.solutionId, assignments);
+                job.checkpointCount++;
+                job.lastCheckpointAt = LocalDateTime.now();
+                broadcast(job, "checkpoint");
+            } catch (Exception e) {
+                log.warn("保存排课检查点失败: jobId=" + job.id, e);
+            }
+        }
+    }
+
+    /**
+     * 排课任务状态（进度和检查点只由执行该任务的排课线程写入）
+     */
+    private static final class SchedulingJob {
+
+        private final String id;
+        private final Long solutionId;
+        private final SchedulingRequest request;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        private volatile SchedulingJobStatus status = SchedulingJobStatus.PENDING;
+        private volatile SchedulingProgress progress;
+        private volatile SchedulingResultDTO result;
+        private volatile String errorMessage;
+        private volatile int checkpointCount;
+        private volatile LocalDateTime lastCheckpointAt;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile Future<?> future;
+
+        private SchedulingJob(String id, Long solutionId, SchedulingRequest request) {
+            this.id = id;
+            this.solutionId = solutionId;
+            this.request = request;
+        }
+    }
+}
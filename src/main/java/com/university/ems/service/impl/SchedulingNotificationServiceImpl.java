@@ -11,12 +11,21 @@ import com.university.ems.dto.SchedulingResultDTO;
 import com.university.ems.entity.SchedulingSolution;
 import com.university.ems.repository.SchedulingSolutionRepository;
 import com.university.ems.service.SchedulingNotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 /**
@@ -34,6 +43,29 @@ public class SchedulingNotificationServiceImpl implements SchedulingNotification
     private final SemesterRepository semesterRepository;
     private final CourseOfferingRepository courseOfferingRepository;
     private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 异步通知线程数
+     */
+    @Value("${academic.scheduling.notification-threads:2}")
+    private int notificationThreads;
+
+    /**
+     * 方案应用通知线程池
+     */
+    private ExecutorService notificationExecutor;
+
+    @PostConstruct
+    public void initExecutor() {
+        notificationExecutor = Executors.newFixedThreadPool(notificationThreads,
+                new CustomizableThreadFactory("scheduling-notify-"));
+    }
+
+    @PreDestroy
+    public void shutdownExecutor() {
+        notificationExecutor.shutdown();
+    }
 
     @Override
     @Transactional
@@ -172,6 +204,35 @@ public class SchedulingNotificationServiceImpl implements SchedulingNotification
         }
     }
 
+    @Override
+    public void notifySolutionAppliedAsync(Long solutionId, Long semesterId) {
+        Runnable dispatch = () -> notificationExecutor.execute(() -> {
+            // 教师和学生通知各自独立事务，一方失败不影响另一方
+            try {
+                transactionTemplate.executeWithoutResult(status -> notifyTeachers(solutionId, semesterId));
+            } catch (Exception e) {
+                log.error("发送方案应用教师通知失败: solutionId=" + solutionId, e);
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> notifyStudents(solutionId, semesterId));
+            } catch (Exception e) {
+                log.error("发送方案应用学生通知失败: solutionId=" + solutionId, e);
+            }
+            log.info("方案应用通知处理完成: solutionId={}", solutionId);
+        });
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch.run();
+            }
+        });
+    }
+
     @Override
     @Transactional
     public void notifySchedulingFailed(Long solutionId, String errorMessage) {
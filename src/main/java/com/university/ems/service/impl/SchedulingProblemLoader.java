@@ -0,0 +1,172 @@
+package com.university.ems.service.impl;
+
+import com.university.academic.entity.Classroom;
+import com.university.academic.entity.CourseOffering;
+import com.university.academic.repository.ClassroomRepository;
+import com.university.academic.repository.CourseOfferingRepository;
+import com.university.academic.repository.CourseSelectionRepository;
+import com.university.ems.dto.SchedulingRequest;
+import com.university.ems.dto.TeacherPreferenceDTO;
+import com.university.ems.model.ClassroomCapacityIndex;
+import com.university.ems.model.ScheduleAssignment;
+import com.university.ems.model.SchedulingProblem;
+import com.university.ems.service.TeacherPreferenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * 排课问题加载器
+ * 用固定次数的批量查询构建 {@link SchedulingProblem}：
+ * 开课计划（预加载课程和教师）、按开课计划分组统计的选课人数、未删除的教室、涉及教师的偏好，
+ * 与开课计划数量无关。
+ *
+ * @author Academic System Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulingProblemLoader {
+
+    private final CourseOfferingRepository courseOfferingRepository;
+    private final CourseSelectionRepository courseSelectionRepository;
+    private final ClassroomRepository classroomRepository;
+    private final TeacherPreferenceService teacherPreferenceService;
+
+    /**
+     * 加载排课问题快照
+     *
+     * @param request 排课请求
+     * @return 排课问题快照
+     */
+    @Transactional(readOnly = true)
+    public SchedulingProblem load(SchedulingRequest request) {
+        long startTime = System.currentTimeMillis();
+
+        List<CourseOffering> courseOfferings = loadCourseOfferings(request);
+        List<Classroom> classrooms = classroomRepository.findByDeletedFalse();
+        ClassroomCapacityIndex classroomIndex = new ClassroomCapacityIndex(classrooms);
+
+        Map<Long, Integer> enrolledCounts = loadEnrolledCounts(courseOfferings);
+        Map<Long, TeacherPreferenceDTO> teacherPreferences = loadTeacherPreferences(courseOfferings, request);
+        List<ScheduleAssignment> courses = createAssignments(courseOfferings, enrolledCounts, classroomIndex);
+
+        log.info("排课数据加载完成: 课程数={}, 可排课程数={}, 教室数={}, 教师偏好数={}, 耗时={}ms",
+                courseOfferings.size(), courses.size(), classrooms.size(), teacherPreferences.size(),
+                System.currentTimeMillis() - startTime);
+        return new SchedulingProblem(request.getSemesterId(), courseOfferings.size(),
+                courses, classroomIndex, teacherPreferences);
+    }
+
+    /**
+     * 加载课程列表
+     */
+    private List<CourseOffering> loadCourseOfferings(SchedulingRequest request) {
+        if (request.getCourseOfferingIds() != null && !request.getCourseOfferingIds().isEmpty()) {
+            return courseOfferingRepository.findAllWithCourseAndTeacherByIdIn(request.getCourseOfferingIds());
+        } else {
+            return courseOfferingRepository.findBySemesterId(request.getSemesterId());
+        }
+    }
+
+    /**
+     * 一次分组查询统计所有开课计划的选课人数
+     */
+    private Map<Long, Integer> loadEnrolledCounts(List<CourseOffering> courseOfferings) {
+        Map<Long, Integer> counts = new HashMap<>(courseOfferings.size() * 2);
+        if (courseOfferings.isEmpty()) {
+            return counts;
+        }
+        List<Long> offeringIds = courseOfferings.stream().map(CourseOffering::getId).toList();
+        for (Object[] row : courseSelectionRepository.countActiveGroupByOfferingIds(offeringIds)) {
+            counts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        return counts;
+    }
+
+    /**
+     * 一次查询加载所有涉及教师的偏好
+     */
+    private Map<Long, TeacherPreferenceDTO> loadTeacherPreferences(List<CourseOffering> courseOfferings,
+                                                                   SchedulingRequest request) {
+        if (!Boolean.TRUE.equals(request.getConsiderTeacherPreference())) {
+            return new HashMap<>();
+        }
+        Set<Long> teacherIds = new HashSet<>();
+        for (CourseOffering offering : courseOfferings) {
+            teacherIds.add(offering.getTeacher().getId());
+        }
+        return teacherPreferenceService.getPreferencesByTeacherIds(teacherIds);
+    }
+
+    /**
+     * 创建各课程的排课分配模板（不含时间槽），按学生人数降序排列（大课程优先排课）
+     */
+    private List<ScheduleAssignment> createAssignments(List<CourseOffering> courseOfferings,
+                                                       Map<Long, Integer> enrolledCounts,
+                                                       ClassroomCapacityIndex classroomIndex) {
+        List<ScheduleAssignment> templates = new ArrayList<>(courseOfferings.size());
+        for (CourseOffering offering : courseOfferings) {
+            ScheduleAssignment assignment = createAssignment(offering, enrolledCounts, classroomIndex);
+            if (assignment == null) {
+                log.warn("课程无法排课: {}", offering.getCourse().getName());
+                continue;
+            }
+            templates.add(assignment);
+        }
+        templates.sort(Comparator.comparingInt(ScheduleAssignment::getStudentCount).reversed());
+        return templates;
+    }
+
+    /**
+     * 创建排课分配对象
+     */
+    private ScheduleAssignment createAssignment(CourseOffering offering,
+                                                Map<Long, Integer> enrolledCounts,
+                                                ClassroomCapacityIndex classroomIndex) {
+        int studentCount = getCourseStudentCount(offering, enrolledCounts);
+
+        // 初始教室为容量刚好够用的教室，排课时再与时间槽联合选择
+        int room = classroomIndex.smallestFitting(studentCount);
+        if (room < 0) {
+            log.warn("找不到合适的教室: 课程={}, 学生数={}", offering.getCourse().getName(), studentCount);
+            return null;
+        }
+
+        return ScheduleAssignment.builder()
+                .courseOfferingId(offering.getId())
+                .courseName(offering.getCourse().getName())
+                .courseNo(offering.getCourse().getCourseNo())
+                .teacherId(offering.getTeacher().getId())
+                .teacherName(offering.getTeacher().getName())
+                .classroomId(classroomIndex.id(room))
+                .classroomNo(classroomIndex.roomNo(room))
+                .classroomCapacity(classroomIndex.capacity(room))
+                .studentCount(studentCount)
+                .weeklyHours(offering.getCourse().getCredits().intValue() * 2) // 假设每学分2课时
+                .timeSlots(new ArrayList<>())
+                .scheduled(false)
+                .build();
+    }
+
+    /**
+     * 获取课程实际选课人数
+     *
+     * @param offering       开课计划
+     * @param enrolledCounts 预加载的选课人数
+     * @return 选课人数
+     */
+    private int getCourseStudentCount(CourseOffering offering, Map<Long, Integer> enrolledCounts) {
+        int count = enrolledCounts.getOrDefault(offering.getId(), 0);
+
+        // 如果没有选课记录，返回预估值（容量的50%或30人）
+        if (count == 0) {
+            return offering.getCapacity() != null ? offering.getCapacity() / 2 : 30;
+        }
+
+        return count;
+    }
+}
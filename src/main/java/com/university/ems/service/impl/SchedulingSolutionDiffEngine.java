@@ -0,0 +1,372 @@
+package com.university.ems.service.impl;
+
+import com.university.ems.dto.SolutionComparisonDTO;
+import com.university.ems.dto.SolutionComparisonDTO.LoadDelta;
+import com.university.ems.dto.SolutionComparisonDTO.OfferingDiff;
+import com.university.ems.dto.SolutionComparisonDTO.SlotInfo;
+import com.university.ems.dto.SolutionComparisonDTO.SlotMove;
+import com.university.ems.dto.SolutionComparisonDTO.SoftConstraintBreakdown;
+import com.university.ems.dto.SolutionComparisonDTO.SolutionSummary;
+import com.university.ems.dto.TeacherPreferenceDTO;
+import com.university.ems.model.ScheduleOccupancyIndex;
+import com.university.ems.model.TimeSlot;
+import com.university.ems.repository.ScheduleItemRepository;
+import com.university.ems.service.TeacherPreferenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 排课方案差异计算引擎
+ * 两个方案的排课明细各用一次标量查询按开课计划ID排序读出，再以归并连接逐门课程比较，
+ * 同一门课程的时段只在本组内配对；教师/教室负载和约束统计在同一次扫描中累加，
+ * 不构建"方案 -> 课程 -> 时段"的嵌套映射。
+ *
+ * @author Academic System Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulingSolutionDiffEngine {
+
+    private final ScheduleItemRepository scheduleItemRepository;
+    private final TeacherPreferenceService teacherPreferenceService;
+    private final SchedulingConstraintChecker constraintChecker;
+
+    /**
+     * 比较两个方案的排课明细
+     * 返回结果中的方案概要只含排课统计和约束明细，方案名称、状态等由调用方补充
+     *
+     * @param solutionId1 基准方案ID
+     * @param solutionId2 比较方案ID
+     * @return 比较结果
+     */
+    public SolutionComparisonDTO compare(Long solutionId1, Long solutionId2) {
+        long startTime = System.currentTimeMillis();
+
+        List<ItemRow> rows1 = loadRows(solutionId1);
+        List<ItemRow> rows2 = loadRows(solutionId2);
+
+        Set<Long> teacherIds = new HashSet<>();
+        rows1.forEach(row -> teacherIds.add(row.teacherId()));
+        rows2.forEach(row -> teacherIds.add(row.teacherId()));
+        Map<Long, TeacherPreferenceDTO> preferences = teacherPreferenceService.getPreferencesByTeacherIds(teacherIds);
+
+        ConstraintTally tally1 = new ConstraintTally(preferences);
+        ConstraintTally tally2 = new ConstraintTally(preferences);
+        Map<Long, Load> teacherLoads = new HashMap<>();
+        Map<Long, Load> classroomLoads = new HashMap<>();
+        DiffCounter counter = new DiffCounter();
+        List<OfferingDiff> offeringDiffs = new ArrayList<>();
+        int offerings1 = 0;
+        int offerings2 = 0;
+
+        // 归并连接：两侧都按开课计划ID升序，每轮取较小的ID所在的分组
+        int i = 0;
+        int j = 0;
+        while (i < rows1.size() || j < rows2.size()) {
+            long id1 = i < rows1.size() ? rows1.get(i).offeringId() : Long.MAX_VALUE;
+            long id2 = j < rows2.size() ? rows2.get(j).offeringId() : Long.MAX_VALUE;
+            long offeringId = Math.min(id1, id2);
+
+            int end1 = groupEnd(rows1, i, offeringId);
+            int end2 = groupEnd(rows2, j, offeringId);
+            List<ItemRow> group1 = rows1.subList(i, end1);
+            List<ItemRow> group2 = rows2.subList(j, end2);
+            if (!group1.isEmpty()) {
+                offerings1++;
+            }
+            if (!group2.isEmpty()) {
+                offerings2++;
+            }
+
+            for (ItemRow row : group1) {
+                tally1.add(row);
+                teacherLoads.computeIfAbsent(row.teacherId(), id -> new Load(row.teacherName())).load1 += row.hours();
+                classroomLoads.computeIfAbsent(row.classroomId(), id -> new Load(row.classroomNo())).load1 += row.hours();
+            }
+            for (ItemRow row : group2) {
+                tally2.add(row);
+                teacherLoads.computeIfAbsent(row.teacherId(), id -> new Load(row.teacherName())).load2 += row.hours();
+                classroomLoads.computeIfAbsent(row.classroomId(), id -> new Load(row.classroomNo())).load2 += row.hours();
+            }
+
+            OfferingDiff diff = diffOffering(group1, group2, counter);
+            if (diff != null) {
+                offeringDiffs.add(diff);
+            }
+
+            i = end1;
+            j = end2;
+        }
+
+        log.info("方案比较完成: solutionId1={}, solutionId2={}, 排课记录数={}/{}, 差异课程数={}, 耗时={}ms",
+                solutionId1, solutionId2, rows1.size(), rows2.size(), offeringDiffs.size(),
+                System.currentTimeMillis() - startTime);
+
+        return SolutionComparisonDTO.builder()
+                .solution1(SolutionSummary.builder()
+                        .solutionId(solutionId1)
+                        .itemCount(rows1.size())
+                        .offeringCount(offerings1)
+                        .softConstraints(tally1.toBreakdown())
+                        .build())
+                .solution2(SolutionSummary.builder()
+                        .solutionId(solutionId2)
+                        .itemCount(rows2.size())
+                        .offeringCount(offerings2)
+                        .softConstraints(tally2.toBreakdown())
+                        .build())
+                .unchangedOfferingCount(counter.unchangedOfferings)
+                .changedOfferingCount(counter.changedOfferings)
+                .addedOfferingCount(counter.addedOfferings)
+                .removedOfferingCount(counter.removedOfferings)
+                .unchangedSlotCount(counter.unchangedSlots)
+                .movedSlotCount(counter.movedSlots)
+                .addedSlotCount(counter.addedSlots)
+                .removedSlotCount(counter.removedSlots)
+                .offeringDiffs(offeringDiffs)
+                .teacherLoadDeltas(toLoadDeltas(teacherLoads))
+                .classroomLoadDeltas(toLoadDeltas(classroomLoads))
+                .build();
+    }
+
+    private List<ItemRow> loadRows(Long solutionId) {
+        List<Object[]> rows = scheduleItemRepository.findDiffRowsBySolutionId(solutionId);
+        List<ItemRow> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new ItemRow((Long) row[0], (String) row[1], (String) row[2], (Long) row[3], (String) row[4],
+                    (Integer) row[5], (Integer) row[6], (Integer) row[7], (Long) row[8], (String) row[9]));
+        }
+        return result;
+    }
+
+    private static int groupEnd(List<ItemRow> rows, int start, long offeringId) {
+        int end = start;
+        while (end < rows.size() && rows.get(end).offeringId() == offeringId) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * 比较同一门课程在两个方案中的时段
+     * 先配对完全相同的时段，再配对时间相同、教室不同的时段，剩余时段按顺序配对为调整，多出的为新增/删除
+     *
+     * @return 课程差异，课程未变化时返回null
+     */
+    private OfferingDiff diffOffering(List<ItemRow> group1, List<ItemRow> group2, DiffCounter counter) {
+        boolean[] matched1 = new boolean[group1.size()];
+        boolean[] matched2 = new boolean[group2.size()];
+        List<SlotInfo> unchanged = new ArrayList<>();
+        List<SlotMove> moved = new ArrayList<>();
+
+        for (int a = 0; a < group1.size(); a++) {
+            for (int b = 0; b < group2.size(); b++) {
+                if (!matched2[b] && group1.get(a).sameTime(group2.get(b))
+                        && group1.get(a).classroomId().equals(group2.get(b).classroomId())) {
+                    matched1[a] = true;
+                    matched2[b] = true;
+                    unchanged.add(group1.get(a).toSlot());
+                    break;
+                }
+            }
+        }
+        for (int a = 0; a < group1.size(); a++) {
+            if (matched1[a]) {
+                continue;
+            }
+            for (int b = 0; b < group2.size(); b++) {
+                if (!matched2[b] && group1.get(a).sameTime(group2.get(b))) {
+                    matched1[a] = true;
+                    matched2[b] = true;
+                    moved.add(new SlotMove(group1.get(a).toSlot(), group2.get(b).toSlot()));
+                    break;
+                }
+            }
+        }
+
+        List<SlotInfo> removed = new ArrayList<>();
+        List<SlotInfo> added = new ArrayList<>();
+        int b = 0;
+        for (int a = 0; a < group1.size(); a++) {
+            if (matched1[a]) {
+                continue;
+            }
+            while (b < group2.size() && matched2[b]) {
+                b++;
+            }
+            if (b < group2.size()) {
+                matched2[b] = true;
+                moved.add(new SlotMove(group1.get(a).toSlot(), group2.get(b).toSlot()));
+            } else {
+                removed.add(group1.get(a).toSlot());
+            }
+        }
+        for (int rest = 0; rest < group2.size(); rest++) {
+            if (!matched2[rest]) {
+                added.add(group2.get(rest).toSlot());
+            }
+        }
+
+        counter.unchangedSlots += unchanged.size();
+        counter.movedSlots += moved.size();
+        counter.addedSlots += added.size();
+        counter.removedSlots += removed.size();
+
+        String changeType;
+        if (group1.isEmpty()) {
+            changeType = "ADDED";
+            counter.addedOfferings++;
+        } else if (group2.isEmpty()) {
+            changeType = "REMOVED";
+            counter.removedOfferings++;
+        } else if (moved.isEmpty() && added.isEmpty() && removed.isEmpty()) {
+            counter.unchangedOfferings++;
+            return null;
+        } else {
+            changeType = "CHANGED";
+            counter.changedOfferings++;
+        }
+
+        ItemRow head = group1.isEmpty() ? group2.get(0) : group1.get(0);
+        return OfferingDiff.builder()
+                .courseOfferingId(head.offeringId())
+                .courseNo(head.courseNo())
+                .courseName(head.courseName())
+                .teacherId(head.teacherId())
+                .teacherName(head.teacherName())
+                .changeType(changeType)
+                .unchangedSlots(unchanged)
+                .movedSlots(moved)
+                .addedSlots(added)
+                .removedSlots(removed)
+                .build();
+    }
+
+    private static List<LoadDelta> toLoadDeltas(Map<Long, Load> loads) {
+        List<LoadDelta> deltas = new ArrayList<>();
+        for (Map.Entry<Long, Load> entry : loads.entrySet()) {
+            Load load = entry.getValue();
+            if (load.load1 != load.load2) {
+                deltas.add(new LoadDelta(entry.getKey(), load.name, load.load1, load.load2, load.load2 - load.load1));
+            }
+        }
+        deltas.sort(Comparator.comparingInt((LoadDelta delta) -> Math.abs(delta.getDelta())).reversed()
+                .thenComparing(LoadDelta::getId));
+        return deltas;
+    }
+
+    /**
+     * 排课明细行
+     */
+    private record ItemRow(long offeringId, String courseNo, String courseName, Long teacherId, String teacherName,
+                           Integer dayOfWeek, Integer startSlot, Integer endSlot, Long classroomId, String classroomNo) {
+
+        boolean sameTime(ItemRow other) {
+            return dayOfWeek.equals(other.dayOfWeek) && startSlot.equals(other.startSlot)
+                    && endSlot.equals(other.endSlot);
+        }
+
+        int hours() {
+            return endSlot - startSlot + 1;
+        }
+
+        SlotInfo toSlot() {
+            return new SlotInfo(dayOfWeek, startSlot, endSlot, classroomId, classroomNo);
+        }
+    }
+
+    private static final class Load {
+        private final String name;
+        private int load1;
+        private int load2;
+
+        private Load(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class DiffCounter {
+        private int unchangedOfferings;
+        private int changedOfferings;
+        private int addedOfferings;
+        private int removedOfferings;
+        private int unchangedSlots;
+        private int movedSlots;
+        private int addedSlots;
+        private int removedSlots;
+    }
+
+    /**
+     * 单个方案的约束统计
+     * 教师和教室各按星期维护占用位掩码，重复占用即计为冲突；扫描结束后由掩码计算连续上课和空闲碎片
+     */
+    private final class ConstraintTally {
+        private final Map<Long, TeacherPreferenceDTO> preferences;
+        private final Map<Long, int[]> teacherMasks = new HashMap<>();
+        private final Map<Long, int[]> classroomMasks = new HashMap<>();
+        private int preferenceViolations;
+        private int teacherDoubleBookings;
+        private int classroomDoubleBookings;
+
+        private ConstraintTally(Map<Long, TeacherPreferenceDTO> preferences) {
+            this.preferences = preferences;
+        }
+
+        void add(ItemRow row) {
+            int day = row.dayOfWeek();
+            if (day < 1 || day > ScheduleOccupancyIndex.DAYS) {
+                return;
+            }
+            int[] teacherDays = teacherMasks.computeIfAbsent(row.teacherId(),
+                    id -> new int[ScheduleOccupancyIndex.DAYS + 1]);
+            int[] classroomDays = classroomMasks.computeIfAbsent(row.classroomId(),
+                    id -> new int[ScheduleOccupancyIndex.DAYS + 1]);
+            TeacherPreferenceDTO preference = preferences.get(row.teacherId());
+
+            for (int slot = row.startSlot(); slot <= row.endSlot(); slot++) {
+                if (slot < 1 || slot > ScheduleOccupancyIndex.MAX_SLOTS) {
+                    continue;
+                }
+                int bit = ScheduleOccupancyIndex.bit(slot);
+                if ((teacherDays[day] & bit) != 0) {
+                    teacherDoubleBookings++;
+                }
+                if ((classroomDays[day] & bit) != 0) {
+                    classroomDoubleBookings++;
+                }
+                teacherDays[day] |= bit;
+                classroomDays[day] |= bit;
+                if (constraintChecker.violatesTeacherPreference(TimeSlot.of(day, slot), preference)) {
+                    preferenceViolations++;
+                }
+            }
+        }
+
+        SoftConstraintBreakdown toBreakdown() {
+            int consecutiveOverflow = 0;
+            int idleFragments = 0;
+            for (int[] days : teacherMasks.values()) {
+                for (int day = 1; day <= ScheduleOccupancyIndex.DAYS; day++) {
+                    int mask = days[day];
+                    if (mask == 0) {
+                        continue;
+                    }
+                    idleFragments += ScheduleOccupancyIndex.idleFragments(mask);
+                    consecutiveOverflow += ScheduleOccupancyIndex.consecutiveOverflow(mask,
+                            SchedulingAlgorithmServiceImpl.MAX_CONSECUTIVE_CLASSES);
+                }
+            }
+            return SoftConstraintBreakdown.builder()
+                    .preferenceViolations(preferenceViolations)
+                    .consecutiveOverflow(consecutiveOverflow)
+                    .idleFragments(idleFragments)
+                    .teacherDoubleBookings(teacherDoubleBookings)
+                    .classroomDoubleBookings(classroomDoubleBookings)
+                    .build();
+        }
+    }
+}
@@ -8,19 +8,32 @@ import com.university.academic.exception.BusinessException;
 import com.university.academic.exception.ErrorCode;
 import com.university.academic.repository.CourseOfferingRepository;
 import com.university.academic.repository.SemesterRepository;
+import com.university.academic.service.OfferingCatalogueService;
 import com.university.ems.dto.*;
 import com.university.ems.entity.SchedulingSolution;
+import com.university.ems.entity.ScheduleItem;
 import com.university.ems.enums.SolutionStatus;
+import com.university.ems.model.ClassroomCapacityIndex;
+import com.university.ems.model.ScheduleAssignment;
+import com.university.ems.model.SchedulingProblem;
+import com.university.ems.model.SchedulingProgressListener;
+import com.university.ems.model.TimeSlot;
 import com.university.ems.repository.SchedulingSolutionRepository;
 import com.university.ems.service.SchedulingAlgorithmService;
 import com.university.ems.service.SchedulingNotificationService;
 import com.university.ems.service.SchedulingSolutionService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -44,6 +57,37 @@ public class SchedulingSolutionServiceImpl implements SchedulingSolutionService
     private final com.university.academic.repository.ClassroomRepository classroomRepository;
     private final com.university.ems.repository.ScheduleItemRepository scheduleItemRepository;
     private final ObjectMapper objectMapper;
+    private final SchedulingProblemLoader problemLoader;
+    private final SchedulingConstraintChecker constraintChecker;
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulingSolutionDiffEngine diffEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final OfferingCatalogueService offeringCatalogue;
+
+    /**
+     * 应用方案时每批更新的开课计划数
+     */
+    @Value("${academic.scheduling.apply.batch-size:500}")
+    private int applyBatchSize;
+
+    /**
+     * 应用方案时各步骤使用的独立事务，每批更新单独提交
+     */
+    private TransactionTemplate applyTransaction;
+
+    private static final String APPLY_SCHEDULE_SQL =
+            "UPDATE course_offering SET schedule = ?, location = ?, version = version + 1 WHERE id = ?";
+
+    /**
+     * course_offering.location 列长度
+     */
+    private static final int LOCATION_MAX_LENGTH = 100;
+
+    @PostConstruct
+    public void initTransactions() {
+        applyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        applyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     @Override
     @Transactional
@@ -75,20 +119,40 @@ public class SchedulingSolutionServiceImpl implements SchedulingSolutionService
     @Override
     @Transactional
     public SchedulingResultDTO executeScheduling(Long solutionId, SchedulingRequest schedulingRequest) {
+        return runScheduling(solutionId, schedulingRequest, SchedulingProgressListener.NONE);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SchedulingResultDTO executeScheduling(Long solutionId,
+                                                 SchedulingRequest schedulingRequest,
+                                                 SchedulingProgressListener progressListener) {
+        return runScheduling(solutionId, schedulingRequest, progressListener);
+    }
+
+    /**
+     * 执行排课并保存结果
+     * 各数据库步骤通过 transactionTemplate 执行：在外层事务中调用时加入外层事务，
+     * 无外层事务时（排课任务）各自独立提交，排课期间不持有方案行锁，检查点可以随时写入
+     */
+    private SchedulingResultDTO runScheduling(Long solutionId,
+                                              SchedulingRequest schedulingRequest,
+                                              SchedulingProgressListener progressListener) {
         log.info("执行智能排课: solutionId={}", solutionId);
 
-        // 验证方案是否存在
-        SchedulingSolution solution = solutionRepository.findById(solutionId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.SOLUTION_NOT_FOUND));
+        // 验证方案并更新状态为优化中
+        SchedulingSolution solution = transactionTemplate.execute(status -> {
+            SchedulingSolution target = solutionRepository.findById(solutionId)
+                    .orElseThrow(() -> new BusinessException(ErrorCode.SOLUTION_NOT_FOUND));
 
-        // 检查方案状态
-        if (solution.getStatus() == SolutionStatus.APPLIED) {
-            throw new BusinessException(ErrorCode.SOLUTION_ALREADY_APPLIED);
-        }
+            // 检查方案状态
+            if (target.getStatus() == SolutionStatus.APPLIED) {
+                throw new BusinessException(ErrorCode.SOLUTION_ALREADY_APPLIED);
+            }
 
-        // 更新方案状态为优化中
-        solution.setStatus(SolutionStatus.OPTIMIZING);
-        solutionRepository.save(solution);
+            target.setStatus(SolutionStatus.OPTIMIZING);
+            return solutionRepository.save(target);
+        });
 
         try {
             // 设置排课请求参数
@@ -98,37 +162,76 @@ public class SchedulingSolutionServiceImpl implements SchedulingSolutionService
             }
 
             // 执行排课算法
-            SchedulingResultDTO result = algorithmService.schedule(schedulingRequest);
+            SchedulingResultDTO result = algorithmService.schedule(schedulingRequest, progressListener);
 
             // 更新方案信息
-            if (result.getSuccess()) {
-                solution.setQualityScore(result.getQualityScore());
-                solution.setConflictCount(result.getConflictCount());
-                solution.setStatus(result.getConflictCount() == 0 ? 
-                        SolutionStatus.COMPLETED : SolutionStatus.DRAFT);
-                solution.setGeneratedAt(LocalDateTime.now());
-                
-                // 保存排课结果到 schedule_item 表
-                saveScheduleItems(solution, result.getScheduleItems());
-                log.info("已保存{}条排课结果到数据库", result.getScheduleItems().size());
-            } else {
-                solution.setStatus(SolutionStatus.DRAFT);
-            }
-
-            solutionRepository.save(solution);
+            transactionTemplate.executeWithoutResult(status -> {
+                SchedulingSolution target = solutionRepository.findById(solutionId)
+                        .orElseThrow(() -> new BusinessException(ErrorCode.SOLUTION_NOT_FOUND));
+                if (result.getSuccess()) {
+                    target.setQualityScore(result.getQualityScore());
+                    target.setConflictCount(result.getConflictCount());
+                    target.setStatus(result.getConflictCount() == 0 ?
+                            SolutionStatus.COMPLETED : SolutionStatus.DRAFT);
+                    target.setGeneratedAt(LocalDateTime.now());
+
+                    // 保存排课结果到 schedule_item 表
+                    saveScheduleItems(target, result.getScheduleItems());
+                    log.info("已保存{}条排课结果到数据库", result.getScheduleItems().size());
+                } else {
+                    // 失败时保留最近一次检查点的排课结果
+                    target.setStatus(SolutionStatus.DRAFT);
+                }
+                solutionRepository.save(target);
+            });
             log.info("智能排课执行完成: solutionId={}, success={}", solutionId, result.getSuccess());
 
             return result;
 
         } catch (Exception e) {
             // 出错时恢复方案状态
-            solution.setStatus(SolutionStatus.DRAFT);
-            solutionRepository.save(solution);
+            transactionTemplate.executeWithoutResult(status ->
+                    solutionRepository.findById(solutionId).ifPresent(target -> {
+                        target.setStatus(SolutionStatus.DRAFT);
+                        solutionRepository.save(target);
+                    }));
             log.error("智能排课执行失败: solutionId=" + solutionId, e);
             throw e;
         }
     }
 
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int saveCheckpoint(Long solutionId, List<ScheduleAssignment> assignments) {
+        SchedulingSolution solution = solutionRepository.findById(solutionId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.SOLUTION_NOT_FOUND));
+
+        scheduleItemRepository.deleteBySolutionId(solutionId);
+        scheduleItemRepository.flush();
+
+        // 排课结果来自本次加载的开课计划和教室，直接使用引用，不再逐条查询
+        List<ScheduleItem> items = new ArrayList<>();
+        for (ScheduleAssignment assignment : assignments) {
+            CourseOffering offering = courseOfferingRepository.getReferenceById(assignment.getCourseOfferingId());
+            com.university.academic.entity.Classroom classroom =
+                    classroomRepository.getReferenceById(assignment.getClassroomId());
+            for (TimeSlot timeSlot : assignment.getTimeSlots()) {
+                items.add(ScheduleItem.builder()
+                        .solution(solution)
+                        .courseOffering(offering)
+                        .classroom(classroom)
+                        .dayOfWeek(timeSlot.getDayOfWeek())
+                        .startSlot(timeSlot.getSlot())
+                        .endSlot(timeSlot.getSlot())
+                        .build());
+            }
+        }
+        scheduleItemRepository.saveAll(items);
+        log.info("排课检查点已保存: solutionId={}, 课程数={}, 排课记录数={}",
+                solutionId, assignments.size(), items.size());
+        return items.size();
+    }
+
     @Override
     @Transactional
     public ScheduleItemDTO adjustSchedule(Long solutionId, ScheduleAdjustmentRequest request) {
@@ -227,6 +330,178 @@ public class SchedulingSolutionServiceImpl implements SchedulingSolutionService
                 .build();
     }
 
+    @Override
+    @Transactional
+    public SchedulingResultDTO repairSchedule(Long solutionId, ScheduleRepairRequest request) {
+        log.info("增量修复排课: solutionId={}, 新增={}, 删除={}, 变更={}, 停用教室={}, 教师不可用时段={}",
+                solutionId, request.getAddedOfferingIds().size(), request.getRemovedOfferingIds().size(),
+                request.getModifiedOfferingIds().size(), request.getUnavailableClassroomIds().size(),
+                request.getTeacherUnavailabilities().size());
+        long startTime = System.currentTimeMillis();
+
+        SchedulingSolution solution = solutionRepository.findById(solutionId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.SOLUTION_NOT_FOUND));
+        if (solution.getStatus() == SolutionStatus.APPLIED) {
+            throw new BusinessException(ErrorCode.SOLUTION_CANNOT_MODIFY);
+        }
+
+        Set<Long> removed = new HashSet<>(request.getRemovedOfferingIds());
+        Set<Long> replaced = new HashSet<>(request.getAddedOfferingIds());
+        replaced.addAll(request.getModifiedOfferingIds());
+        replaced.removeAll(removed);
+        Set<Long> unavailableRooms = new HashSet<>(request.getUnavailableClassroomIds());
+        Map<Long, Set<TimeSlot>> blockedSlots = toBlockedSlots(request.getTeacherUnavailabilities());
+
+        // 1. 找出受停用教室或教师不可用时段影响的课程
+        List<ScheduleItem> items = scheduleItemRepository.findBySolutionIdWithDetails(solutionId);
+        Set<Long> affected = new HashSet<>(replaced);
+        for (ScheduleItem item : items) {
+            Long offeringId = item.getCourseOffering().getId();
+            if (!removed.contains(offeringId)
+                    && (unavailableRooms.contains(item.getClassroom().getId()) || isBlocked(item, blockedSlots))) {
+                affected.add(offeringId);
+            }
+        }
+
+        // 2. 未受影响的排课项固定不动；受影响的课程保留未冲突的时间，仅重排其余课时
+        List<ScheduleAssignment> pinned = new ArrayList<>();
+        Map<Long, ScheduleAssignment> keptByOffering = new HashMap<>();
+        Set<Long> mixedRooms = new HashSet<>();
+        for (ScheduleItem item : items) {
+            Long offeringId = item.getCourseOffering().getId();
+            if (removed.contains(offeringId) || replaced.contains(offeringId)) {
+                continue;
+            }
+            if (!affected.contains(offeringId)) {
+                pinned.add(toAssignment(item));
+                continue;
+            }
+            ScheduleAssignment kept = keptByOffering.computeIfAbsent(offeringId, id -> {
+                ScheduleAssignment assignment = toAssignment(item);
+                assignment.setTimeSlots(new ArrayList<>());
+                return assignment;
+            });
+            // 分布在多个教室的课程无法保留原时间，整体重排
+            if (!kept.getClassroomId().equals(item.getClassroom().getId())) {
+                mixedRooms.add(offeringId);
+            }
+            Set<TimeSlot> blocked = blockedSlots.getOrDefault(kept.getTeacherId(), Set.of());
+            for (int slot = item.getStartSlot(); slot <= item.getEndSlot(); slot++) {
+                TimeSlot timeSlot = TimeSlot.of(item.getDayOfWeek(), slot);
+                if (!blocked.contains(timeSlot) && !kept.getTimeSlots().contains(timeSlot)) {
+                    kept.addTimeSlot(timeSlot);
+                }
+            }
+        }
+
+        // 教师不可用时段作为只占用教师的固定分配
+        blockedSlots.forEach((teacherId, slots) -> pinned.add(ScheduleAssignment.builder()
+                .teacherId(teacherId)
+                .timeSlots(new ArrayList<>(slots))
+                .build()));
+
+        // 3. 加载待重排课程的快照并修复
+        List<ScheduleAssignment> repairs = new ArrayList<>();
+        List<ScheduleAssignment> unplaced = new ArrayList<>();
+        Set<Long> missing = new HashSet<>(affected);
+        if (!affected.isEmpty()) {
+            SchedulingRequest loadRequest = new SchedulingRequest();
+            loadRequest.setSemesterId(solution.getSemester().getId());
+            loadRequest.setCourseOfferingIds(new ArrayList<>(affected));
+            loadRequest.setConsiderTeacherPreference(request.getConsiderTeacherPreference());
+            SchedulingProblem problem = problemLoader.load(loadRequest);
+            ClassroomCapacityIndex classroomIndex = problem.getClassroomIndex().excluding(unavailableRooms);
+
+            for (ScheduleAssignment template : problem.getCourses()) {
+                ScheduleAssignment repair = copyTemplate(template);
+                ScheduleAssignment kept = keptByOffering.get(repair.getCourseOfferingId());
+                if (kept != null && !mixedRooms.contains(repair.getCourseOfferingId())
+                        && kept.getTimeSlots().size() <= repair.getWeeklyHours()) {
+                    repair.setClassroomId(kept.getClassroomId());
+                    repair.setClassroomNo(kept.getClassroomNo());
+                    repair.setClassroomCapacity(kept.getClassroomCapacity());
+                    repair.setTimeSlots(new ArrayList<>(kept.getTimeSlots()));
+                }
+                repairs.add(repair);
+                missing.remove(repair.getCourseOfferingId());
+            }
+            unplaced.addAll(algorithmService.repair(pinned, repairs, classroomIndex, problem.getTeacherPreferences()));
+        }
+        List<ScheduleAssignment> placed = repairs.stream()
+                .filter(ScheduleAssignment::isFullyScheduled)
+                .collect(Collectors.toList());
+
+        // 4. 只重写被删除和完整重排的课程的排课项，未能安排的课程保留原排课项
+        Set<Long> rewritten = new HashSet<>(removed);
+        placed.forEach(assignment -> rewritten.add(assignment.getCourseOfferingId()));
+        Map<Long, List<ScheduleItem>> retainedItems = items.stream()
+                .filter(item -> affected.contains(item.getCourseOffering().getId())
+                        && !rewritten.contains(item.getCourseOffering().getId()))
+                .collect(Collectors.groupingBy(item -> item.getCourseOffering().getId(),
+                        LinkedHashMap::new, Collectors.toList()));
+        if (!rewritten.isEmpty()) {
+            scheduleItemRepository.deleteBySolutionIdAndCourseOfferingIdIn(solutionId, rewritten);
+        }
+        List<ScheduleItem> newItems = new ArrayList<>();
+        List<ScheduleItemDTO> changedItems = new ArrayList<>();
+        for (ScheduleAssignment assignment : placed) {
+            for (TimeSlot timeSlot : assignment.getTimeSlots()) {
+                newItems.add(ScheduleItem.builder()
+                        .solution(solution)
+                        .courseOffering(courseOfferingRepository.getReferenceById(assignment.getCourseOfferingId()))
+                        .classroom(classroomRepository.getReferenceById(assignment.getClassroomId()))
+                        .dayOfWeek(timeSlot.getDayOfWeek())
+                        .startSlot(timeSlot.getSlot())
+                        .endSlot(timeSlot.getSlot())
+                        .build());
+                changedItems.add(toScheduleItemDTO(assignment, timeSlot));
+            }
+        }
+        scheduleItemRepository.saveAll(newItems);
+
+        // 5. 重新检测硬约束并更新方案
+        List<ScheduleAssignment> all = pinned.stream()
+                .filter(assignment -> assignment.getClassroomId() != null)
+                .collect(Collectors.toCollection(ArrayList::new));
+        all.addAll(placed);
+        retainedItems.values().forEach(retained -> retained.forEach(item -> all.add(toAssignment(item))));
+        List<ConflictDTO> conflicts = new ArrayList<>(constraintChecker.checkHardConstraints(all));
+        retainedItems.values().forEach(retained -> conflicts.add(toUnrepairedConflict(retained.get(0))));
+        solution.setConflictCount(conflicts.size());
+        solution.setStatus(conflicts.isEmpty() ? SolutionStatus.COMPLETED : SolutionStatus.DRAFT);
+        solutionRepository.save(solution);
+
+        List<Long> unplacedIds = new ArrayList<>(missing);
+        unplaced.forEach(assignment -> unplacedIds.add(assignment.getCourseOfferingId()));
+        long pinnedItems = items.size() - countItems(items, rewritten);
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        log.info("增量修复完成: solutionId={}, 固定排课项={}, 重排课程={}, 未能安排={}, 冲突数={}, 耗时={}ms",
+                solutionId, pinnedItems, placed.size(),
+                unplacedIds.size(), conflicts.size(), elapsedTime);
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("pinnedItemCount", pinnedItems);
+        statistics.put("removedOfferingIds", removed);
+        statistics.put("repairedOfferingIds", placed.stream().map(ScheduleAssignment::getCourseOfferingId).toList());
+        statistics.put("unplacedOfferingIds", unplacedIds);
+
+        return SchedulingResultDTO.builder()
+                .solutionId(solutionId)
+                .success(unplacedIds.isEmpty())
+                .qualityScore(solution.getQualityScore())
+                .conflictCount(conflicts.size())
+                .hardConstraintViolations(conflicts.size())
+                .softConstraintViolations(0)
+                .scheduledCourseCount(placed.size())
+                .unscheduledCourseCount(unplacedIds.size())
+                .scheduleItems(changedItems)
+                .conflicts(conflicts)
+                .statistics(statistics)
+                .elapsedMillis(elapsedTime)
+                .completedAt(LocalDateTime.now())
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ConflictDTO> detectConflicts(Long solutionId) {
@@ -309,12 +584,62 @@ public class SchedulingSolutionServiceImpl implements SchedulingSolutionService
         return conflicts;
     }
 
+    /**
+     * 应用排课方案
+     * 校验并加载排课行、每批更新、最后修改方案状态各在独立事务中提交，不在一个长事务中持有全部开课计划的行锁。
+     * 中途失败时已提交的批次保留，方案状态不变；每批写入完整的上课时间和地点，重新应用即可补齐
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void applySolution(Long solutionId, ApplySolutionRequest request) {
         log.info("应用排课方案: solutionId={}, force={}, overwrite={}", 
                 solutionId, request.getForce(), request.getOverwrite());
 
+        ApplyPlan plan = applyTransaction.execute(status -> prepareApply(solutionId, request));
+        Long semesterId = plan.semesterId();
+        List<Object[]> batchArgs = plan.batchArgs();
+
+        long startTime = System.currentTimeMillis();
+        int updatedCount = 0;
+        int committedChunks = 0;
+        try {
+            // 4. 分批 JDBC 批量更新 course_offering 表的 schedule 和 location 字段，每批独立提交
+            for (int from = 0; from < batchArgs.size(); from += applyBatchSize) {
+                List<Object[]> chunk = batchArgs.subList(from, Math.min(from + applyBatchSize, batchArgs.size()));
+                updatedCount += applyTransaction.execute(status ->
+                        countUpdated(jdbcTemplate.batchUpdate(APPLY_SCHEDULE_SQL, chunk)));
+                committedChunks++;
+            }
+
+            // 5. 更新方案状态
+            applyTransaction.executeWithoutResult(status -> {
+                SchedulingSolution solution = solutionRepository.findById(solutionId)
+                        .orElseThrow(() -> new BusinessException(ErrorCode.SOLUTION_NOT_FOUND));
+                solution.setStatus(SolutionStatus.APPLIED);
+                solution.setAppliedAt(LocalDateTime.now());
+                solutionRepository.save(solution);
+            });
+        } catch (Exception e) {
+            log.error("应用排课方案失败: solutionId=" + solutionId + ", 已提交" + committedChunks + "批", e);
+            throw new BusinessException(ErrorCode.OPERATION_FAILED,
+                    "应用方案失败（已提交" + committedChunks + "批，可重新应用）: " + e.getMessage());
+        } finally {
+            // 已提交的批次修改了上课时间和地点，无论成败都重建该学期的可选课程目录；
+            // 本方法不在事务中执行，失败时外层不会触发提交回调，因此单独提交一次
+            applyTransaction.executeWithoutResult(status -> offeringCatalogue.evictSemester(semesterId));
+        }
+
+        log.info("排课方案应用成功: solutionId={}, 共应用{}门课程, 耗时={}ms",
+                solutionId, updatedCount, System.currentTimeMillis() - startTime);
+
+        // 方案状态提交后异步通知教师和学生，不占用应用方案的事务和行锁
+        notificationService.notifySolutionAppliedAsync(solutionId, semesterId);
+    }
+
+    /**
+     * 校验方案并构建批量更新参数，覆盖模式下先清除学期内其他已应用方案的排课数据
+     */
+    private ApplyPlan prepareApply(Long solutionId, ApplySolutionRequest request) {
         // 验证方案是否存在
         SchedulingSolution solution = solutionRepository.findById(solutionId)
                 .orElseThrow(() -> new BusinessException(ErrorCode.SOLUTION_NOT_FOUND));
@@ -343,92 +668,90 @@ public class SchedulingSolutionServiceImpl implements SchedulingSolutionService
                     });
         }
 
+        Long semesterId = solution.getSemester().getId();
         try {
-            // 1. 从 schedule_item 表加载该方案的所有排课数据
-            List<com.university.ems.entity.ScheduleItem> scheduleItems = 
-                    scheduleItemRepository.findBySolutionId(solutionId);
-            
-            if (scheduleItems.isEmpty()) {
+            // 1. 一次查询加载该方案的所有排课行（已按开课计划排序，只取标量列）
+            List<Object[]> rows = scheduleItemRepository.findApplyRowsBySolutionId(solutionId);
+            if (rows.isEmpty()) {
                 throw new BusinessException(ErrorCode.OPERATION_FAILED, "方案没有排课数据，无法应用");
             }
 
-            // 2. 如果 overwrite=true，先清除学期内其他已应用方案的排课数据
+            // 2. 在内存中按开课计划构建 schedule JSON 和 location
+            List<Object[]> batchArgs = buildApplyBatchArgs(rows);
+
+            // 3. 如果 overwrite=true，先清除学期内其他已应用方案的排课数据
             if (Boolean.TRUE.equals(request.getOverwrite())) {
-                clearSemesterSchedule(solution.getSemester().getId(), solutionId);
+                clearSemesterSchedule(semesterId, solutionId);
             }
+            return new ApplyPlan(semesterId, batchArgs);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("应用排课方案失败: solutionId=" + solutionId, e);
+            throw new BusinessException(ErrorCode.OPERATION_FAILED, "应用方案失败: " + e.getMessage());
+        }
+    }
 
-            // 3. 按课程开课分组排课数据
-            Map<Long, List<com.university.ems.entity.ScheduleItem>> scheduleByOffering = 
-                    scheduleItems.stream()
-                    .collect(Collectors.groupingBy(item -> item.getCourseOffering().getId()));
-
-            // 4. 批量更新 course_offering 表的 schedule 和 location 字段
-            int updatedCount = 0;
-            for (Map.Entry<Long, List<com.university.ems.entity.ScheduleItem>> entry : scheduleByOffering.entrySet()) {
-                Long offeringId = entry.getKey();
-                List<com.university.ems.entity.ScheduleItem> items = entry.getValue();
-                
-                CourseOffering offering = courseOfferingRepository.findById(offeringId).orElse(null);
-                if (offering == null) {
-                    log.warn("课程开课不存在，跳过: offeringId={}", offeringId);
-                    continue;
-                }
-                
-                // 将排课信息序列化为 JSON 格式
-                List<Map<String, Object>> scheduleJson = new ArrayList<>();
-                StringBuilder locationBuilder = new StringBuilder();
-                
-                for (com.university.ems.entity.ScheduleItem item : items) {
-                    Map<String, Object> timeSlot = new HashMap<>();
-                    timeSlot.put("dayOfWeek", item.getDayOfWeek());
-                    timeSlot.put("startSlot", item.getStartSlot());
-                    timeSlot.put("endSlot", item.getEndSlot());
-                    timeSlot.put("classroomId", item.getClassroom().getId());
-                    timeSlot.put("classroomNo", item.getClassroom().getRoomNo());
-                    scheduleJson.add(timeSlot);
-                    
-                    // 构建教室列表
-                    if (locationBuilder.length() > 0) {
-                        locationBuilder.append(", ");
-                    }
-                    locationBuilder.append(item.getClassroom().getRoomNo());
-                }
-                
-                // 保存 JSON 字符串到 schedule 字段
-                try {
-                    String scheduleJsonStr = objectMapper.writeValueAsString(scheduleJson);
-                    offering.setSchedule(scheduleJsonStr);
-                    offering.setLocation(locationBuilder.toString());
-                    courseOfferingRepository.save(offering);
-                    updatedCount++;
-                } catch (JsonProcessingException e) {
-                    log.error("序列化排课数据失败: offeringId=" + offeringId, e);
-                    throw new BusinessException(ErrorCode.OPERATION_FAILED, "序列化排课数据失败");
-                }
+    private static int countUpdated(int[] affectedRows) {
+        int updated = 0;
+        for (int affected : affectedRows) {
+            // 驱动开启批量重写时返回 SUCCESS_NO_INFO(-2)，按成功计数
+            if (affected != 0) {
+                updated++;
             }
+        }
+        return updated;
+    }
 
-            log.info("已更新{}门课程的排课信息", updatedCount);
+    /**
+     * 应用方案的准备结果：学期ID和按开课计划构建的批量更新参数
+     */
+    private record ApplyPlan(Long semesterId, List<Object[]> batchArgs) {
+    }
 
-            // 5. 更新方案状态
-            solution.setStatus(SolutionStatus.APPLIED);
-            solution.setAppliedAt(LocalDateTime.now());
-            solutionRepository.save(solution);
-
-            log.info("排课方案应用成功: solutionId={}, 共应用{}门课程", solutionId, updatedCount);
-
-            // 发送通知给教师和学生
-            try {
-                notificationService.notifyTeachers(solutionId, solution.getSemester().getId());
-                notificationService.notifyStudents(solutionId, solution.getSemester().getId());
-                log.info("排课通知发送成功");
-            } catch (Exception notifyException) {
-                log.warn("发送排课通知失败，但不影响方案应用", notifyException);
+    /**
+     * 将按开课计划排序的排课行转换为批量更新参数（schedule JSON、location、开课计划ID）
+     *
+     * @param rows 排课行（开课计划ID、星期、开始时段、结束时段、教室ID、教室编号）
+     * @return 批量更新参数
+     */
+    private List<Object[]> buildApplyBatchArgs(List<Object[]> rows) throws JsonProcessingException {
+        List<Object[]> batchArgs = new ArrayList<>();
+        List<Map<String, Object>> scheduleJson = new ArrayList<>();
+        Set<String> roomNos = new LinkedHashSet<>();
+        Long currentOfferingId = null;
+
+        for (Object[] row : rows) {
+            Long offeringId = (Long) row[0];
+            if (!offeringId.equals(currentOfferingId)) {
+                if (currentOfferingId != null) {
+                    batchArgs.add(toApplyArgs(currentOfferingId, scheduleJson, roomNos));
+                    scheduleJson = new ArrayList<>();
+                    roomNos = new LinkedHashSet<>();
+                }
+                currentOfferingId = offeringId;
             }
 
-        } catch (Exception e) {
-            log.error("应用排课方案失败: solutionId=" + solutionId, e);
-            throw new BusinessException(ErrorCode.OPERATION_FAILED, "应用方案失败: " + e.getMessage());
+            Map<String, Object> timeSlot = new LinkedHashMap<>();
+            timeSlot.put("dayOfWeek", row[1]);
+            timeSlot.put("startSlot", row[2]);
+            timeSlot.put("endSlot", row[3]);
+            timeSlot.put("classroomId", row[4]);
+            timeSlot.put("classroomNo", row[5]);
+            scheduleJson.add(timeSlot);
+            roomNos.add((String) row[5]);
         }
+        batchArgs.add(toApplyArgs(currentOfferingId, scheduleJson, roomNos));
+        return batchArgs;
+    }
+
+    private Object[] toApplyArgs(Long offeringId, List<Map<String, Object>> scheduleJson, Set<String> roomNos)
+            throws JsonProcessingException {
+        String location = String.join(", ", roomNos);
+        if (location.length() > LOCATION_MAX_LENGTH) {
+            location = location.substring(0, LOCATION_MAX_LENGTH);
+        }
+        return new Object[]{objectMapper.writeValueAsString(scheduleJson), location, offeringId};
     }
 
     @Override
@@ -637,7 +960,7 @@ public class SchedulingSolutionServiceImpl implements SchedulingSolutionService
 
     @Override
     @Transactional(readOnly = true)
-    public String compareSolutions(Long solutionId1, Long solutionId2) {
+    public SolutionComparisonDTO compareSolutions(Long solutionId1, Long solutionId2) {
         log.info("比较两个方案: solutionId1={}, solutionId2={}", solutionId1, solutionId2);
 
         SchedulingSolution solution1 = solutionRepository.findById(solutionId1)
@@ -646,37 +969,33 @@ public class SchedulingSolutionServiceImpl implements SchedulingSolutionService
         SchedulingSolution solution2 = solutionRepository.findById(solutionId2)
                 .orElseThrow(() -> new BusinessException(ErrorCode.SOLUTION_NOT_FOUND, "方案2不存在"));
 
-        StringBuilder comparison = new StringBuilder();
-        comparison.append("方案比较结果:\n");
-        comparison.append("================================\n");
-        comparison.append(String.format("方案1: %s\n", solution1.getName()));
-        comparison.append(String.format("  质量分数: %.2f\n", 
-                solution1.getQualityScore() != null ? solution1.getQualityScore() : 0.0));
-        comparison.append(String.format("  冲突数量: %d\n", 
-                solution1.getConflictCount() != null ? solution1.getConflictCount() : 0));
-        comparison.append(String.format("  状态: %s\n", getStatusDescription(solution1.getStatus())));
-        comparison.append("\n");
-        comparison.append(String.format("方案2: %s\n", solution2.getName()));
-        comparison.append(String.format("  质量分数: %.2f\n", 
-                solution2.getQualityScore() != null ? solution2.getQualityScore() : 0.0));
-        comparison.append(String.format("  冲突数量: %d\n", 
-                solution2.getConflictCount() != null ? solution2.getConflictCount() : 0));
-        comparison.append(String.format("  状态: %s\n", getStatusDescription(solution2.getStatus())));
-        comparison.append("================================\n");
+        SolutionComparisonDTO comparison = diffEngine.compare(solutionId1, solutionId2);
+        fillSummary(comparison.getSolution1(), solution1);
+        fillSummary(comparison.getSolution2(), solution2);
 
         // 推荐更好的方案
         double score1 = solution1.getQualityScore() != null ? solution1.getQualityScore() : 0.0;
         double score2 = solution2.getQualityScore() != null ? solution2.getQualityScore() : 0.0;
-        
+
         if (score1 > score2) {
-            comparison.append("推荐: 方案1质量更高\n");
+            comparison.setRecommendation("推荐: 方案1质量更高");
         } else if (score2 > score1) {
-            comparison.append("推荐: 方案2质量更高\n");
+            comparison.setRecommendation("推荐: 方案2质量更高");
         } else {
-            comparison.append("两个方案质量相当\n");
+            comparison.setRecommendation("两个方案质量相当");
         }
 
-        return comparison.toString();
+        return comparison;
+    }
+
+    /**
+     * 补充方案概要中的方案基本信息
+     */
+    private void fillSummary(SolutionComparisonDTO.SolutionSummary summary, SchedulingSolution solution) {
+        summary.setName(solution.getName());
+        summary.setStatus(getStatusDescription(solution.getStatus()));
+        summary.setQualityScore(solution.getQualityScore() != null ? solution.getQualityScore() : 0.0);
+        summary.setConflictCount(solution.getConflictCount() != null ? solution.getConflictCount() : 0);
     }
 
     /**
@@ -767,6 +1086,121 @@ public class SchedulingSolutionServiceImpl implements SchedulingSolutionService
         log.info("成功保存{}条排课结果", entities.size());
     }
     
+    /**
+     * 受影响但未能重排的课程保留原排课项，作为硬约束冲突报告
+     */
+    private ConflictDTO toUnrepairedConflict(ScheduleItem item) {
+        CourseOffering offering = item.getCourseOffering();
+        return ConflictDTO.builder()
+                .conflictType("UNREPAIRED_OFFERING")
+                .severity("HARD")
+                .description("课程 " + offering.getCourse().getName() + " 未能重排，仍保留原排课")
+                .courseOfferingIds(new Long[]{offering.getId()})
+                .teacherId(offering.getTeacher().getId())
+                .classroomId(item.getClassroom().getId())
+                .dayOfWeek(item.getDayOfWeek())
+                .timeSlot(item.getStartSlot())
+                .build();
+    }
+
+    /**
+     * 教师不可用时段展开为 教师 -> 时间槽集合
+     */
+    private Map<Long, Set<TimeSlot>> toBlockedSlots(List<ScheduleRepairRequest.TeacherUnavailability> unavailabilities) {
+        Map<Long, Set<TimeSlot>> blocked = new HashMap<>();
+        for (ScheduleRepairRequest.TeacherUnavailability unavailability : unavailabilities) {
+            Set<TimeSlot> slots = blocked.computeIfAbsent(unavailability.getTeacherId(), id -> new HashSet<>());
+            for (int slot = unavailability.getStartSlot(); slot <= unavailability.getEndSlot(); slot++) {
+                slots.add(TimeSlot.of(unavailability.getDayOfWeek(), slot));
+            }
+        }
+        return blocked;
+    }
+
+    /**
+     * 排课项是否与其教师的不可用时段重叠
+     */
+    private boolean isBlocked(ScheduleItem item, Map<Long, Set<TimeSlot>> blockedSlots) {
+        Set<TimeSlot> blocked = blockedSlots.get(item.getCourseOffering().getTeacher().getId());
+        if (blocked == null) {
+            return false;
+        }
+        for (int slot = item.getStartSlot(); slot <= item.getEndSlot(); slot++) {
+            if (blocked.contains(TimeSlot.of(item.getDayOfWeek(), slot))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long countItems(List<ScheduleItem> items, Set<Long> offeringIds) {
+        return items.stream()
+                .filter(item -> offeringIds.contains(item.getCourseOffering().getId()))
+                .count();
+    }
+
+    /**
+     * 排课项转换为排课分配（每个排课项单独一个分配，保证教室与时间一一对应）
+     */
+    private ScheduleAssignment toAssignment(ScheduleItem item) {
+        CourseOffering offering = item.getCourseOffering();
+        List<TimeSlot> timeSlots = new ArrayList<>();
+        for (int slot = item.getStartSlot(); slot <= item.getEndSlot(); slot++) {
+            timeSlots.add(TimeSlot.of(item.getDayOfWeek(), slot));
+        }
+        return ScheduleAssignment.builder()
+                .courseOfferingId(offering.getId())
+                .courseName(offering.getCourse().getName())
+                .courseNo(offering.getCourse().getCourseNo())
+                .teacherId(offering.getTeacher().getId())
+                .teacherName(offering.getTeacher().getName())
+                .classroomId(item.getClassroom().getId())
+                .classroomNo(item.getClassroom().getRoomNo())
+                .classroomCapacity(item.getClassroom().getCapacity())
+                .timeSlots(timeSlots)
+                .scheduled(true)
+                .build();
+    }
+
+    /**
+     * 复制排课分配模板
+     */
+    private ScheduleAssignment copyTemplate(ScheduleAssignment template) {
+        return ScheduleAssignment.builder()
+                .courseOfferingId(template.getCourseOfferingId())
+                .courseName(template.getCourseName())
+                .courseNo(template.getCourseNo())
+                .teacherId(template.getTeacherId())
+                .teacherName(template.getTeacherName())
+                .classroomId(template.getClassroomId())
+                .classroomNo(template.getClassroomNo())
+                .classroomCapacity(template.getClassroomCapacity())
+                .studentCount(template.getStudentCount())
+                .weeklyHours(template.getWeeklyHours())
+                .timeSlots(new ArrayList<>())
+                .scheduled(false)
+                .build();
+    }
+
+    private ScheduleItemDTO toScheduleItemDTO(ScheduleAssignment assignment, TimeSlot timeSlot) {
+        return ScheduleItemDTO.builder()
+                .courseOfferingId(assignment.getCourseOfferingId())
+                .courseName(assignment.getCourseName())
+                .courseNo(assignment.getCourseNo())
+                .teacherId(assignment.getTeacherId())
+                .teacherName(assignment.getTeacherName())
+                .classroomId(assignment.getClassroomId())
+                .classroomNo(assignment.getClassroomNo())
+                .dayOfWeek(timeSlot.getDayOfWeek())
+                .dayOfWeekDescription(getDayOfWeekDescription(timeSlot.getDayOfWeek()))
+                .startSlot(timeSlot.getSlot())
+                .endSlot(timeSlot.getSlot())
+                .timeSlotDescription(getTimeSlotDescriptionBySingleSlot(timeSlot.getSlot()))
+                .studentCount(assignment.getStudentCount())
+                .satisfiesHardConstraints(true)
+                .build();
+    }
+
     /**
      * 检查两个排课项的时间是否重叠
      * 
@@ -795,35 +1229,13 @@ public class SchedulingSolutionServiceImpl implements SchedulingSolutionService
      */
     private void clearSemesterSchedule(Long semesterId, Long excludeSolutionId) {
         log.info("清除学期排课数据: semesterId={}, excludeSolutionId={}", semesterId, excludeSolutionId);
-        
-        // 获取学期的所有课程开课
-        List<CourseOffering> offerings = courseOfferingRepository.findBySemesterId(semesterId);
-        
-        int clearedCount = 0;
-        for (CourseOffering offering : offerings) {
-            if (offering.getSchedule() != null || offering.getLocation() != null) {
-                offering.setSchedule(null);
-                offering.setLocation(null);
-                courseOfferingRepository.save(offering);
-                clearedCount++;
-            }
-        }
-        
+
+        int clearedCount = courseOfferingRepository.clearScheduleBySemesterId(semesterId);
         log.info("已清除{}门课程的排课信息", clearedCount);
-        
+
         // 将学期内其他已应用方案的状态改为已完成
-        List<SchedulingSolution> appliedSolutions = solutionRepository.findAll().stream()
-                .filter(s -> s.getSemester().getId().equals(semesterId))
-                .filter(s -> s.getStatus() == SolutionStatus.APPLIED)
-                .filter(s -> !s.getId().equals(excludeSolutionId))
-                .collect(Collectors.toList());
-        
-        for (SchedulingSolution oldSolution : appliedSolutions) {
-            oldSolution.setStatus(SolutionStatus.COMPLETED);
-            solutionRepository.save(oldSolution);
-        }
-        
-        log.info("已将{}个旧方案的状态改为已完成", appliedSolutions.size());
+        int completedCount = solutionRepository.completeAppliedSolutions(semesterId, excludeSolutionId);
+        log.info("已将{}个旧方案的状态改为已完成", completedCount);
     }
 }
 
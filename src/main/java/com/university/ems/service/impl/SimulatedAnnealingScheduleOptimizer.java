@@ -0,0 +1,584 @@
+package com.university.ems.service.impl;
+
+import com.university.ems.dto.TeacherPreferenceDTO;
+import com.university.ems.model.*;
+import com.university.ems.service.ScheduleOptimizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 模拟退火排课优化器
+ * <p>
+ * 先对未完全排课的课程做一轮补排（必要时更换为同样满足容量且空闲的教室），
+ * 然后在"移动单个时间槽""交换两个时间槽""为未排满课程补一个时间槽"三种邻域上做模拟退火。
+ * 所有移动都保持硬约束（教师、教室不冲突），并与贪心构造一样不让教师的连堂超过上限；目标函数为：
+ * 缺课时 × 100 + 违反教师偏好 × 2 + 超出连堂上限 × 5 + 空闲碎片 × 1
+ * （贪心构造在同一门课程的多个时间槽之间不检查连堂，初始状态可能已超出上限，由该项惩罚逐步消除），
+ * 每次移动只重新计算受影响的 教师×天 的惩罚（增量评分）。
+ * 搜索受最大移动次数和截止时间双重约束，结束时恢复到搜索过程中的最优状态。
+ *
+ * @author Academic System Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SimulatedAnnealingScheduleOptimizer implements ScheduleOptimizer {
+
+    private static final double MISSING_SLOT_PENALTY = 100.0;
+    private static final double PREFERENCE_PENALTY = 2.0;
+    private static final double CONSECUTIVE_PENALTY = 5.0;
+    private static final double IDLE_PENALTY = 1.0;
+
+    private static final double INITIAL_TEMPERATURE = 10.0;
+    private static final double FINAL_TEMPERATURE = 0.05;
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * 每隔多少次移动上报一次进度
+     */
+    private static final int PROGRESS_INTERVAL = 2000;
+
+    private final SchedulingConstraintChecker constraintChecker;
+
+    @Override
+    public long optimize(ScheduleOptimizationContext context) {
+        return new Search(context).run();
+    }
+
+    /**
+     * 单次搜索的状态
+     */
+    private final class Search {
+
+        private final ScheduleOptimizationContext context;
+        private final List<ScheduleAssignment> assignments;
+        private final ScheduleOccupancyIndex occupancy;
+        private final Random random;
+        private final List<TimeSlot> allTimeSlots = new ArrayList<>();
+        private final List<ScheduleAssignment> incomplete = new ArrayList<>();
+        private final List<ScheduleAssignment> placed = new ArrayList<>();
+        private final long startNanos = System.nanoTime();
+
+        private double current;
+        private double best;
+        private boolean currentIsBest = true;
+        private Snapshot bestSnapshot;
+
+        Search(ScheduleOptimizationContext context) {
+            this.context = context;
+            this.assignments = context.getAssignments();
+            this.occupancy = context.getOccupancy();
+            this.random = context.getRandom();
+            for (int day = 1; day <= context.getDaysPerWeek(); day++) {
+                for (int slot = 1; slot <= context.getSlotsPerDay(); slot++) {
+                    allTimeSlots.add(TimeSlot.of(day, slot));
+                }
+            }
+        }
+
+        long run() {
+            refreshLists();
+            fillPass();
+
+            current = totalPenalty();
+            best = current;
+            double initial = current;
+            long maxMoves = context.getMaxMoves();
+            long iteration = 0;
+
+            while (iteration < maxMoves && !placed.isEmpty()) {
+                long now = System.nanoTime();
+                if (now >= context.getDeadlineNanos() || context.getProgressListener().isCancelled()) {
+                    break;
+                }
+                iteration++;
+
+                Move move = nextMove();
+                double delta = move.apply();
+                if (Double.isNaN(delta)) {
+                    continue;
+                }
+
+                double temperature = temperature(iteration, maxMoves, now);
+                if (delta > EPSILON && random.nextDouble() >= Math.exp(-delta / temperature)) {
+                    move.undo();
+                    continue;
+                }
+
+                if (delta > EPSILON && currentIsBest) {
+                    // 离开最优状态前保存快照
+                    move.undo();
+                    bestSnapshot = new Snapshot();
+                    move.apply();
+                }
+
+                current += delta;
+                if (current < best - EPSILON) {
+                    best = current;
+                }
+                currentIsBest = current <= best + EPSILON;
+
+                if (iteration % PROGRESS_INTERVAL == 0) {
+                    reportProgress(iteration, maxMoves);
+                }
+            }
+
+            if (!currentIsBest && bestSnapshot != null) {
+                bestSnapshot.restore();
+                current = best;
+            }
+            reportProgress(iteration, maxMoves);
+
+            log.info("局部搜索优化完成: 移动次数={}, 惩罚值 {} -> {}, 未排满课程={}, 耗时={}ms",
+                    iteration, String.format("%.1f", initial), String.format("%.1f", best),
+                    incomplete.size(), (System.nanoTime() - startNanos) / 1_000_000);
+            return iteration;
+        }
+
+        /**
+         * 补排：为每门未排满的课程按随机顺序尝试所有时间槽
+         */
+        private void fillPass() {
+            for (ScheduleAssignment assignment : new ArrayList<>(incomplete)) {
+                List<TimeSlot> candidates = new ArrayList<>(allTimeSlots);
+                Collections.shuffle(candidates, random);
+                for (TimeSlot candidate : candidates) {
+                    if (assignment.isFullyScheduled()) {
+                        break;
+                    }
+                    new FillMove(assignment, candidate).apply();
+                }
+            }
+        }
+
+        private Move nextMove() {
+            double r = random.nextDouble();
+            TimeSlot target = allTimeSlots.get(random.nextInt(allTimeSlots.size()));
+            if (!incomplete.isEmpty() && r < 0.2) {
+                return new FillMove(incomplete.get(random.nextInt(incomplete.size())), target);
+            }
+
+            ScheduleAssignment first = placed.get(random.nextInt(placed.size()));
+            int firstIndex = random.nextInt(first.getTimeSlots().size());
+            if (r < 0.6) {
+                return new RelocateMove(first, firstIndex, target);
+            }
+            ScheduleAssignment second = placed.get(random.nextInt(placed.size()));
+            int secondIndex = random.nextInt(second.getTimeSlots().size());
+            return new SwapMove(first, firstIndex, second, secondIndex);
+        }
+
+        private double temperature(long iteration, long maxMoves, long now) {
+            double byIterations = (double) iteration / maxMoves;
+            long budget = Math.max(context.getDeadlineNanos() - startNanos, 1);
+            double byTime = (double) (now - startNanos) / budget;
+            double progress = Math.min(Math.max(byIterations, byTime), 1.0);
+            return INITIAL_TEMPERATURE * Math.pow(FINAL_TEMPERATURE / INITIAL_TEMPERATURE, progress);
+        }
+
+        private void reportProgress(long iteration, long maxMoves) {
+            context.getProgressListener().onProgress(SchedulingProgress.builder()
+                    .phase("OPTIMIZING")
+                    .iteration(iteration)
+                    .maxIterations(maxMoves)
+                    .scheduledCount(assignments.size() - incomplete.size())
+                    .totalCount(assignments.size())
+                    .bestPenalty(best)
+                    .elapsedMillis((System.nanoTime() - startNanos) / 1_000_000)
+                    .build());
+            context.getProgressListener().onCheckpoint(this::bestScheduled);
+        }
+
+        /**
+         * 当前最优状态中已排满课程的副本
+         */
+        private List<ScheduleAssignment> bestScheduled() {
+            Snapshot snapshot = currentIsBest || bestSnapshot == null ? new Snapshot() : bestSnapshot;
+            return snapshot.scheduledCopies();
+        }
+
+        private void refreshLists() {
+            incomplete.clear();
+            placed.clear();
+            for (ScheduleAssignment assignment : assignments) {
+                if (!assignment.isFullyScheduled()) {
+                    incomplete.add(assignment);
+                }
+                if (!assignment.getTimeSlots().isEmpty()) {
+                    placed.add(assignment);
+                }
+            }
+        }
+
+        // ========== 评分 ==========
+
+        private double totalPenalty() {
+            double penalty = 0;
+            Set<Long> teacherIds = new HashSet<>();
+            for (ScheduleAssignment assignment : assignments) {
+                penalty += missingSlots(assignment) * MISSING_SLOT_PENALTY;
+                for (TimeSlot timeSlot : assignment.getTimeSlots()) {
+                    penalty += preferencePenalty(assignment.getTeacherId(), timeSlot);
+                }
+                teacherIds.add(assignment.getTeacherId());
+            }
+            for (Long teacherId : teacherIds) {
+                for (int day = 1; day <= context.getDaysPerWeek(); day++) {
+                    penalty += dayPenalty(teacherId, day);
+                }
+            }
+            return penalty;
+        }
+
+        /**
+         * 受影响的 教师×天 的惩罚之和（去重）
+         */
+        private double localPenalty(Long teacherA, Long teacherB, int dayA, int dayB) {
+            double penalty = dayPenalty(teacherA, dayA);
+            if (dayB != dayA) {
+                penalty += dayPenalty(teacherA, dayB);
+            }
+            if (teacherB != null && !teacherB.equals(teacherA)) {
+                penalty += dayPenalty(teacherB, dayA);
+                if (dayB != dayA) {
+                    penalty += dayPenalty(teacherB, dayB);
+                }
+            }
+            return penalty;
+        }
+
+        private double dayPenalty(Long teacherId, int day) {
+            int mask = occupancy.teacherDayMask(teacherId, day);
+            if (mask == 0) {
+                return 0;
+            }
+            return ScheduleOccupancyIndex.idleFragments(mask) * IDLE_PENALTY
+                    + ScheduleOccupancyIndex.consecutiveOverflow(mask, context.getMaxConsecutive()) * CONSECUTIVE_PENALTY;
+        }
+
+        private double preferencePenalty(Long teacherId, TimeSlot timeSlot) {
+            TeacherPreferenceDTO preference = context.getTeacherPreferences().get(teacherId);
+            return constraintChecker.violatesTeacherPreference(timeSlot, preference) ? PREFERENCE_PENALTY : 0;
+        }
+
+        /**
+         * 教师在该时间上课后连堂是否超过上限（与贪心构造的检查一致）
+         */
+        private boolean exceedsConsecutive(Long teacherId, TimeSlot timeSlot) {
+            return constraintChecker.hasTooManyConsecutiveClasses(
+                    occupancy, teacherId, timeSlot, context.getMaxConsecutive());
+        }
+
+        private int missingSlots(ScheduleAssignment assignment) {
+            return Math.max(assignment.getWeeklyHours() - assignment.getTimeSlots().size(), 0);
+        }
+
+        // ========== 邻域移动 ==========
+
+        /**
+         * 邻域移动：apply 返回目标函数增量（不可行时返回 NaN 且不修改状态），undo 撤销
+         */
+        private interface Move {
+
+            double apply();
+
+            void undo();
+        }
+
+        /**
+         * 将某门课程的一个时间槽移动到另一个时间
+         */
+        private final class RelocateMove implements Move {
+
+            private final ScheduleAssignment assignment;
+            private final int index;
+            private final TimeSlot target;
+            private TimeSlot original;
+
+            RelocateMove(ScheduleAssignment assignment, int index, TimeSlot target) {
+                this.assignment = assignment;
+                this.index = index;
+                this.target = target;
+            }
+
+            @Override
+            public double apply() {
+                original = assignment.getTimeSlots().get(index);
+                if (original.equals(target)
+                        || occupancy.isTeacherBusy(assignment.getTeacherId(), target)
+                        || occupancy.isClassroomBusy(assignment.getClassroomId(), target)) {
+                    return Double.NaN;
+                }
+
+                Long teacherId = assignment.getTeacherId();
+                double before = localPenalty(teacherId, null, original.getDayOfWeek(), target.getDayOfWeek())
+                        + preferencePenalty(teacherId, original);
+                occupancy.release(assignment, original);
+                if (exceedsConsecutive(teacherId, target)) {
+                    occupancy.occupy(assignment, original);
+                    return Double.NaN;
+                }
+                assignment.getTimeSlots().set(index, target);
+                occupancy.occupy(assignment, target);
+                double after = localPenalty(teacherId, null, original.getDayOfWeek(), target.getDayOfWeek())
+                        + preferencePenalty(teacherId, target);
+                return after - before;
+            }
+
+            @Override
+            public void undo() {
+                occupancy.release(assignment, target);
+                assignment.getTimeSlots().set(index, original);
+                occupancy.occupy(assignment, original);
+            }
+        }
+
+        /**
+         * 交换两门课程各一个时间槽的上课时间
+         */
+        private final class SwapMove implements Move {
+
+            private final ScheduleAssignment first;
+            private final int firstIndex;
+            private final ScheduleAssignment second;
+            private final int secondIndex;
+            private TimeSlot firstSlot;
+            private TimeSlot secondSlot;
+
+            SwapMove(ScheduleAssignment first, int firstIndex, ScheduleAssignment second, int secondIndex) {
+                this.first = first;
+                this.firstIndex = firstIndex;
+                this.second = second;
+                this.secondIndex = secondIndex;
+            }
+
+            @Override
+            public double apply() {
+                if (first == second) {
+                    return Double.NaN;
+                }
+                firstSlot = first.getTimeSlots().get(firstIndex);
+                secondSlot = second.getTimeSlots().get(secondIndex);
+                if (firstSlot.equals(secondSlot)) {
+                    return Double.NaN;
+                }
+
+                Long teacherA = first.getTeacherId();
+                Long teacherB = second.getTeacherId();
+                int dayA = firstSlot.getDayOfWeek();
+                int dayB = secondSlot.getDayOfWeek();
+                double before = localPenalty(teacherA, teacherB, dayA, dayB)
+                        + preferencePenalty(teacherA, firstSlot) + preferencePenalty(teacherB, secondSlot);
+
+                occupancy.release(first, firstSlot);
+                occupancy.release(second, secondSlot);
+                boolean feasible = !occupancy.isTeacherBusy(teacherA, secondSlot)
+                        && !occupancy.isClassroomBusy(first.getClassroomId(), secondSlot)
+                        && !occupancy.isTeacherBusy(teacherB, firstSlot)
+                        && !occupancy.isClassroomBusy(second.getClassroomId(), firstSlot)
+                        // 同一教师交换后当天的节次不变，不同教师各自检查新时间的连堂
+                        && (teacherA.equals(teacherB)
+                            || !exceedsConsecutive(teacherA, secondSlot) && !exceedsConsecutive(teacherB, firstSlot));
+                if (!feasible) {
+                    occupancy.occupy(first, firstSlot);
+                    occupancy.occupy(second, secondSlot);
+                    return Double.NaN;
+                }
+
+                first.getTimeSlots().set(firstIndex, secondSlot);
+                second.getTimeSlots().set(secondIndex, firstSlot);
+                occupancy.occupy(first, secondSlot);
+                occupancy.occupy(second, firstSlot);
+                double after = localPenalty(teacherA, teacherB, dayA, dayB)
+                        + preferencePenalty(teacherA, secondSlot) + preferencePenalty(teacherB, firstSlot);
+                return after - before;
+            }
+
+            @Override
+            public void undo() {
+                occupancy.release(first, secondSlot);
+                occupancy.release(second, firstSlot);
+                first.getTimeSlots().set(firstIndex, firstSlot);
+                second.getTimeSlots().set(secondIndex, secondSlot);
+                occupancy.occupy(first, firstSlot);
+                occupancy.occupy(second, secondSlot);
+            }
+        }
+
+        /**
+         * 为未排满的课程补一个时间槽，当前教室在该时间被占用时尝试换到其他空闲教室
+         */
+        private final class FillMove implements Move {
+
+            private final ScheduleAssignment assignment;
+            private final TimeSlot target;
+            private RoomState originalRoom;
+
+            FillMove(ScheduleAssignment assignment, TimeSlot target) {
+                this.assignment = assignment;
+                this.target = target;
+            }
+
+            @Override
+            public double apply() {
+                Long teacherId = assignment.getTeacherId();
+                if (assignment.isFullyScheduled() || occupancy.isTeacherBusy(teacherId, target)
+                        || exceedsConsecutive(teacherId, target)) {
+                    return Double.NaN;
+                }
+
+                originalRoom = null;
+                if (occupancy.isClassroomBusy(assignment.getClassroomId(), target)) {
+                    int room = findFreeRoom();
+                    if (room < 0) {
+                        return Double.NaN;
+                    }
+                    originalRoom = new RoomState(assignment);
+                    occupancy.remove(assignment);
+                    context.getClassroomIndex().assign(room, assignment);
+                    occupancy.add(assignment);
+                }
+
+                double before = dayPenalty(teacherId, target.getDayOfWeek());
+                assignment.addTimeSlot(target);
+                occupancy.occupy(assignment, target);
+                double after = dayPenalty(teacherId, target.getDayOfWeek()) + preferencePenalty(teacherId, target);
+
+                if (assignment.getTimeSlots().size() == 1) {
+                    placed.add(assignment);
+                }
+                if (assignment.isFullyScheduled()) {
+                    assignment.setScheduled(true);
+                    incomplete.remove(assignment);
+                }
+                return after - before - MISSING_SLOT_PENALTY;
+            }
+
+            @Override
+            public void undo() {
+                if (assignment.isFullyScheduled()) {
+                    assignment.setScheduled(false);
+                    incomplete.add(assignment);
+                }
+                occupancy.release(assignment, target);
+                List<TimeSlot> slots = assignment.getTimeSlots();
+                slots.remove(slots.size() - 1);
+                if (slots.isEmpty()) {
+                    placed.remove(assignment);
+                }
+                if (originalRoom != null) {
+                    occupancy.remove(assignment);
+                    originalRoom.restoreTo(assignment);
+                    occupancy.add(assignment);
+                }
+            }
+
+            /**
+             * 查找容量足够、且在已排时间和目标时间均空闲的教室（容量从小到大）
+             */
+            private int findFreeRoom() {
+                ClassroomCapacityIndex classroomIndex = context.getClassroomIndex();
+                int studentCount = assignment.getStudentCount() != null ? assignment.getStudentCount() : 0;
+                for (int room = classroomIndex.firstFitting(studentCount); room < classroomIndex.size(); room++) {
+                    Long classroomId = classroomIndex.id(room);
+                    if (classroomId.equals(assignment.getClassroomId())) {
+                        continue;
+                    }
+                    if (occupancy.isClassroomBusy(classroomId, target)) {
+                        continue;
+                    }
+                    boolean free = true;
+                    for (TimeSlot timeSlot : assignment.getTimeSlots()) {
+                        if (occupancy.isClassroomBusy(classroomId, timeSlot)) {
+                            free = false;
+                            break;
+                        }
+                    }
+                    if (free) {
+                        return room;
+                    }
+                }
+                return -1;
+            }
+        }
+
+        // ========== 快照 ==========
+
+        /**
+         * 排课分配的教室信息
+         */
+        private record RoomState(Long classroomId, String classroomNo, Integer classroomCapacity) {
+
+            RoomState(ScheduleAssignment assignment) {
+                this(assignment.getClassroomId(), assignment.getClassroomNo(), assignment.getClassroomCapacity());
+            }
+
+            void restoreTo(ScheduleAssignment assignment) {
+                assignment.setClassroomId(classroomId);
+                assignment.setClassroomNo(classroomNo);
+                assignment.setClassroomCapacity(classroomCapacity);
+            }
+        }
+
+        /**
+         * 全部排课分配的时间槽和教室快照
+         */
+        private final class Snapshot {
+
+            private final List<List<TimeSlot>> timeSlots = new ArrayList<>(assignments.size());
+            private final List<RoomState> rooms = new ArrayList<>(assignments.size());
+
+            Snapshot() {
+                for (ScheduleAssignment assignment : assignments) {
+                    timeSlots.add(new ArrayList<>(assignment.getTimeSlots()));
+                    rooms.add(new RoomState(assignment));
+                }
+            }
+
+            void restore() {
+                occupancy.clear();
+                for (int i = 0; i < assignments.size(); i++) {
+                    ScheduleAssignment assignment = assignments.get(i);
+                    assignment.setTimeSlots(new ArrayList<>(timeSlots.get(i)));
+                    rooms.get(i).restoreTo(assignment);
+                    assignment.setScheduled(assignment.isFullyScheduled());
+                    occupancy.add(assignment);
+                }
+                refreshLists();
+            }
+
+            /**
+             * 快照中已排满课程的独立副本，不影响搜索状态
+             */
+            List<ScheduleAssignment> scheduledCopies() {
+                List<ScheduleAssignment> copies = new ArrayList<>(assignments.size());
+                for (int i = 0; i < assignments.size(); i++) {
+                    ScheduleAssignment assignment = assignments.get(i);
+                    List<TimeSlot> slots = timeSlots.get(i);
+                    if (slots.size() < assignment.getWeeklyHours()) {
+                        continue;
+                    }
+                    RoomState room = rooms.get(i);
+                    copies.add(ScheduleAssignment.builder()
+                            .courseOfferingId(assignment.getCourseOfferingId())
+                            .courseName(assignment.getCourseName())
+                            .courseNo(assignment.getCourseNo())
+                            .teacherId(assignment.getTeacherId())
+                            .teacherName(assignment.getTeacherName())
+                            .classroomId(room.classroomId())
+                            .classroomNo(room.classroomNo())
+                            .classroomCapacity(room.classroomCapacity())
+                            .studentCount(assignment.getStudentCount())
+                            .weeklyHours(assignment.getWeeklyHours())
+                            .timeSlots(new ArrayList<>(slots))
+                            .scheduled(true)
+                            .build());
+                }
+                return copies;
+            }
+        }
+    }
+}
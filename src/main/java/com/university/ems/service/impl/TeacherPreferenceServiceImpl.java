@@ -18,7 +18,10 @@ import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -146,6 +149,19 @@ public class TeacherPreferenceServiceImpl implements TeacherPreferenceService {
                 .orElse(null);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, TeacherPreferenceDTO> getPreferencesByTeacherIds(Collection<Long> teacherIds) {
+        if (teacherIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        log.debug("批量查询教师排课偏好: count={}", teacherIds.size());
+
+        return preferenceRepository.findByTeacherIdIn(teacherIds).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toMap(TeacherPreferenceDTO::getTeacherId, dto -> dto, (a, b) -> a));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public TeacherPreferenceDTO getPreferenceById(Long id) {
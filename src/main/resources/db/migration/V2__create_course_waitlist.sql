@@ -0,0 +1,24 @@
+-- =================================================================
+-- Flyway Migration Script
+-- Version: V2
+-- Description: 新增选课候补表
+-- =================================================================
+
+CREATE TABLE IF NOT EXISTS course_waitlist (
+    id                 BIGINT       NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    student_id         BIGINT       NOT NULL COMMENT '学生ID',
+    course_offering_id BIGINT       NOT NULL COMMENT '开课计划ID',
+    status             VARCHAR(20)  NOT NULL DEFAULT 'WAITING' COMMENT '候补状态：WAITING/PROMOTED/SKIPPED/CANCELLED',
+    waiting_flag       TINYINT GENERATED ALWAYS AS (IF(status = 'WAITING', 1, NULL)) VIRTUAL
+                                    COMMENT '候补中标记（生成列，仅用于唯一约束，已处理的记录为NULL不受约束）',
+    fail_reason        VARCHAR(255) NULL COMMENT '递补失败原因',
+    processed_at       DATETIME     NULL COMMENT '处理时间',
+    created_at         DATETIME     NOT NULL COMMENT '创建时间（即加入候补时间）',
+    updated_at         DATETIME     NULL COMMENT '更新时间',
+    PRIMARY KEY (id),
+    KEY idx_waitlist_offering_status (course_offering_id, status),
+    KEY idx_waitlist_student_status (student_id, status),
+    UNIQUE KEY uk_waitlist_student_offering_waiting (student_id, course_offering_id, waiting_flag),
+    CONSTRAINT fk_waitlist_student FOREIGN KEY (student_id) REFERENCES student (id),
+    CONSTRAINT fk_waitlist_offering FOREIGN KEY (course_offering_id) REFERENCES course_offering (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='选课候补表';
@@ -0,0 +1,10 @@
+-- =================================================================
+-- Flyway Migration Script
+-- Version: V3
+-- Description: 学分汇总表增加加权绩点和，支持成绩公布时增量更新
+-- =================================================================
+
+-- 已有记录保持为空，首次更新时按全量计算初始化
+ALTER TABLE student_credit_summary
+    ADD COLUMN grade_points DOUBLE NULL COMMENT '加权绩点和（学分×绩点，仅统计已公布且及格的课程），为空表示尚未初始化'
+        AFTER practical_credits;
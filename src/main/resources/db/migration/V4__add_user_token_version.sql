@@ -0,0 +1,10 @@
+-- =================================================================
+-- Flyway Migration Script
+-- Version: V4
+-- Description: 用户表增加令牌版本，重置密码、修改用户名或角色、禁用后递增，使已签发的令牌失效
+-- =================================================================
+
+-- 令牌版本与用户信息在同一事务中递增，重启和其他实例都能读取到撤销记录
+ALTER TABLE sys_user
+    ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0 COMMENT '令牌版本，小于该值的令牌已撤销'
+        AFTER first_login;
@@ -0,0 +1,100 @@
+package com.university.academic.aspect;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.university.academic.annotation.OperationLog;
+import com.university.academic.dto.CreateStudentRequest;
+import com.university.academic.service.OperationLogPipeline;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 操作日志切面单元测试（请求参数脱敏）
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("操作日志切面单元测试")
+class OperationLogAspectTest {
+
+    @Mock
+    private OperationLogPipeline operationLogPipeline;
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private MethodSignature signature;
+
+    private OperationLogAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        aspect = new OperationLogAspect(operationLogPipeline, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    @DisplayName("测试请求参数中的密码被掩码")
+    void testPasswordMasked() throws Throwable {
+        CreateStudentRequest request = new CreateStudentRequest();
+        request.setStudentNo("2024001");
+        request.setUsername("student01");
+        request.setPassword("plain-secret");
+
+        String params = invoke("createStudent", CreateStudentRequest.class, request);
+
+        assertThat(params).contains("2024001").contains("student01").doesNotContain("plain-secret");
+    }
+
+    @Test
+    @DisplayName("测试上传文件只记录文件名和大小")
+    void testMultipartFileContentSkipped() throws Throwable {
+        MultipartFile file = new MockMultipartFile("file", "students.xlsx", null, "file-content".getBytes());
+
+        String params = invoke("importStudents", MultipartFile.class, file);
+
+        assertThat(params).contains("students.xlsx").contains("12").doesNotContain("file-content");
+    }
+
+    @SuppressWarnings("unchecked")
+    private String invoke(String methodName, Class<?> parameterType, Object arg) throws Throwable {
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getMethod()).thenReturn(Controller.class.getDeclaredMethod(methodName, parameterType));
+        when(signature.getDeclaringTypeName()).thenReturn(Controller.class.getName());
+        when(signature.getName()).thenReturn(methodName);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{arg});
+
+        aspect.around(joinPoint);
+
+        // 参数在写入线程中序列化，业务线程只提交取值函数
+        ArgumentCaptor<Supplier<String>> captor = ArgumentCaptor.forClass(Supplier.class);
+        verify(operationLogPipeline).submit(any(), captor.capture());
+        return captor.getValue().get();
+    }
+
+    private static class Controller {
+
+        @OperationLog("创建学生")
+        void createStudent(CreateStudentRequest request) {
+        }
+
+        @OperationLog("导入学生数据")
+        void importStudents(MultipartFile file) {
+        }
+    }
+}
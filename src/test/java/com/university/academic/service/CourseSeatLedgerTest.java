@@ -0,0 +1,233 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.CourseOffering;
+import com.university.academic.event.SeatReleasedEvent;
+import com.university.academic.repository.CourseOfferingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 选课名额账本单元测试
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("选课名额账本单元测试")
+class CourseSeatLedgerTest {
+
+    private static final Long OFFERING_ID = 1L;
+
+    @Mock
+    private CourseOfferingRepository offeringRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CourseSeatLedger seatLedger;
+
+    @BeforeEach
+    void setUp() {
+        seatLedger = new CourseSeatLedger(offeringRepository, eventPublisher,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("测试占用名额直到课程已满")
+    void testReserveUntilFull() {
+        CourseOffering offering = offering(2, 0);
+
+        assertThat(seatLedger.tryReserve(offering)).isTrue();
+        assertThat(seatLedger.tryReserve(offering)).isTrue();
+        assertThat(seatLedger.tryReserve(offering)).isFalse();
+        assertThat(seatLedger.hasSeat(offering)).isFalse();
+        assertThat(seatLedger.enrolledOf(OFFERING_ID, 2, 0)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("测试事务回滚后归还名额且不记录增量")
+    void testReserveRollback() {
+        CourseOffering offering = offering(1, 0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(seatLedger.tryReserve(offering)).isTrue();
+        assertThat(seatLedger.hasSeat(offering)).isFalse();
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(seatLedger.hasSeat(offering)).isTrue();
+        seatLedger.flush();
+        verify(offeringRepository, never()).incrementEnrolled(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("测试提交后回写已选人数增量")
+    void testFlushAfterCommit() {
+        CourseOffering offering = offering(10, 3);
+
+        TransactionSynchronizationManager.initSynchronization();
+        seatLedger.tryReserve(offering);
+        seatLedger.tryReserve(offering);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        seatLedger.flush();
+        verify(offeringRepository).incrementEnrolled(OFFERING_ID, 2);
+
+        // 增量已回写，再次回写不产生UPDATE
+        seatLedger.flush();
+        verify(offeringRepository, times(1)).incrementEnrolled(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("测试回写失败时保留增量等待重试")
+    void testFlushFailureKeepsDelta() {
+        CourseOffering offering = offering(10, 0);
+        seatLedger.tryReserve(offering);
+
+        doThrow(new RuntimeException("数据库不可用"))
+                .when(offeringRepository).incrementEnrolled(OFFERING_ID, 1);
+        seatLedger.flush();
+        assertThat(seatLedger.enrolledOf(OFFERING_ID, 10, 0)).isEqualTo(1);
+
+        seatLedger.flush();
+        verify(offeringRepository, times(2)).incrementEnrolled(OFFERING_ID, 1);
+    }
+
+    @Test
+    @DisplayName("测试移除计数器后按未回写增量重新初始化名额")
+    void testEvictReinitializesWithPendingDelta() {
+        CourseOffering offering = offering(2, 0);
+        seatLedger.tryReserve(offering);
+
+        // 扩容后计数器按新容量和未回写的增量重新计算，不会超卖
+        seatLedger.evict(OFFERING_ID);
+        offering.setCapacity(3);
+        assertThat(seatLedger.tryReserve(offering)).isTrue();
+        assertThat(seatLedger.tryReserve(offering)).isTrue();
+        assertThat(seatLedger.tryReserve(offering)).isFalse();
+        assertThat(seatLedger.enrolledOf(OFFERING_ID, 3, 0)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("测试回写后按数据库已选人数重新初始化名额，不信任调用方加载的旧实体")
+    void testReseedAfterFlushUsesCommittedEnrolled() {
+        // 调用方在回写之前加载的实体：已选0人
+        CourseOffering staleOffering = offering(2, 0);
+        seatLedger.tryReserve(staleOffering);
+
+        // 回写提交后数据库已选1人，待回写增量清零
+        seatLedger.flush();
+        verify(offeringRepository).incrementEnrolled(OFFERING_ID, 1);
+        when(offeringRepository.findEnrolledById(OFFERING_ID)).thenReturn(1);
+
+        // 计数器被移除后用旧实体重新初始化，只剩1个名额
+        seatLedger.evict(OFFERING_ID);
+        assertThat(seatLedger.tryReserve(staleOffering)).isTrue();
+        assertThat(seatLedger.tryReserve(staleOffering)).isFalse();
+        assertThat(seatLedger.enrolledOf(OFFERING_ID, 2, 0)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("测试取消开课后回写负增量")
+    void testResetFlushesDroppedCount() {
+        CourseOffering offering = offering(5, 2);
+        seatLedger.tryReserve(offering);
+
+        seatLedger.reset(OFFERING_ID, 3);
+        seatLedger.flush();
+
+        verify(offeringRepository).incrementEnrolled(OFFERING_ID, -2);
+    }
+
+    @Test
+    @DisplayName("测试有候补时名额只留给候补递补")
+    void testSeatsHeldForWaitlist() {
+        CourseOffering offering = offering(1, 0);
+        seatLedger.setWaiting(OFFERING_ID, 1);
+
+        assertThat(seatLedger.hasSeat(offering)).isFalse();
+        assertThat(seatLedger.tryReserve(offering)).isFalse();
+        assertThat(seatLedger.tryReserveForWaitlist(offering)).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试退课归还名额后触发候补递补")
+    void testReleasePublishesSeatReleased() {
+        CourseOffering offering = offering(1, 1);
+        seatLedger.setWaiting(OFFERING_ID, 1);
+
+        seatLedger.release(offering);
+
+        ArgumentCaptor<SeatReleasedEvent> captor = ArgumentCaptor.forClass(SeatReleasedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().getOfferingId()).isEqualTo(OFFERING_ID);
+    }
+
+    @Test
+    @DisplayName("测试加入候补提交时已有空余名额则立即触发递补")
+    void testJoinWaitlistWithFreeSeatPublishesSeatReleased() {
+        CourseOffering offering = offering(1, 0);
+        seatLedger.prime(offering);
+
+        seatLedger.adjustWaiting(OFFERING_ID, 1);
+
+        verify(eventPublisher).publishEvent(any(SeatReleasedEvent.class));
+    }
+
+    @Test
+    @DisplayName("测试退出候补不触发递补")
+    void testLeaveWaitlistDoesNotPublish() {
+        CourseOffering offering = offering(1, 0);
+        seatLedger.prime(offering);
+        seatLedger.setWaiting(OFFERING_ID, 1);
+
+        seatLedger.adjustWaiting(OFFERING_ID, -1);
+
+        assertThat(seatLedger.hasWaiting(OFFERING_ID)).isFalse();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    private CourseOffering offering(int capacity, int enrolled) {
+        CourseOffering offering = CourseOffering.builder()
+                .capacity(capacity)
+                .enrolled(enrolled)
+                .status(CourseOffering.OfferingStatus.PUBLISHED)
+                .build();
+        offering.setId(OFFERING_ID);
+        return offering;
+    }
+
+    private void completeTransaction(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
@@ -0,0 +1,120 @@
+package com.university.academic.service;
+
+import com.university.academic.dto.SelectionTicketDTO;
+import com.university.academic.entity.CourseSelection;
+import com.university.academic.entity.Semester;
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 选课准入控制服务单元测试
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("选课准入控制服务单元测试")
+class CourseSelectionAdmissionServiceTest {
+
+    private static final Long STUDENT_ID = 1L;
+    private static final Long SEMESTER_ID = 100L;
+
+    @Mock
+    private CourseSelectionService selectionService;
+
+    @Mock
+    private SemesterService semesterService;
+
+    private CourseSelectionAdmissionService admissionService;
+
+    private final CountDownLatch releaseWorker = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        admissionService = new CourseSelectionAdmissionService(selectionService, semesterService, 1, 1, 10);
+        when(semesterService.findActiveSemester()).thenReturn(semester(SEMESTER_ID));
+        lenient().when(selectionService.selectCourse(anyLong(), anyLong())).thenAnswer(invocation -> {
+            releaseWorker.await(5, TimeUnit.SECONDS);
+            return CourseSelection.builder().build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseWorker.countDown();
+        admissionService.shutdown();
+    }
+
+    @Test
+    @DisplayName("测试重复提交返回原凭证，不重复入队")
+    void testDuplicateSubmitReturnsSameTicket() {
+        SelectionTicketDTO first = admissionService.submit(STUDENT_ID, 10L);
+        SelectionTicketDTO second = admissionService.submit(STUDENT_ID, 10L);
+
+        assertThat(second.getTicketId()).isEqualTo(first.getTicketId());
+        verify(selectionService, timeout(5000)).selectCourse(STUDENT_ID, 10L);
+    }
+
+    @Test
+    @DisplayName("测试队列已满时拒绝请求，并释放去重键")
+    void testQueueFullReleasesDedupKey() {
+        // 第一个请求被工作线程取走并阻塞，第二个请求占满队列
+        admissionService.submit(STUDENT_ID, 10L);
+        verify(selectionService, timeout(5000)).selectCourse(STUDENT_ID, 10L);
+        admissionService.submit(STUDENT_ID, 11L);
+
+        assertThatThrownBy(() -> admissionService.submit(STUDENT_ID, 12L))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code")
+                .isEqualTo(ErrorCode.SELECTION_QUEUE_FULL.getCode());
+        // 被拒绝的请求不占用去重键，再次提交仍按队列容量判断
+        assertThatThrownBy(() -> admissionService.submit(STUDENT_ID, 12L))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("测试活动学期切换后移除已排空的旧学期队列")
+    void testIdleQueueOfPreviousSemesterEvicted() {
+        releaseWorker.countDown();
+        admissionService.submit(STUDENT_ID, 10L);
+        verify(selectionService, timeout(5000)).selectCourse(STUDENT_ID, 10L);
+        assertThat(queues()).containsKey(SEMESTER_ID);
+
+        admissionService.cleanupTickets();
+        assertThat(queues()).containsKey(SEMESTER_ID);
+
+        when(semesterService.findActiveSemester()).thenReturn(semester(SEMESTER_ID + 1));
+        admissionService.cleanupTickets();
+        assertThat(queues()).doesNotContainKey(SEMESTER_ID);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, ?> queues() {
+        return (Map<Long, ?>) ReflectionTestUtils.getField(admissionService, "queues");
+    }
+
+    private Semester semester(Long id) {
+        Semester semester = new Semester();
+        semester.setId(id);
+        return semester;
+    }
+}
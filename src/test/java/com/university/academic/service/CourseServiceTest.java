@@ -0,0 +1,128 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.Course;
+import com.university.academic.entity.CourseSelection;
+import com.university.academic.repository.CourseOfferingRepository;
+import com.university.academic.repository.CoursePrerequisiteRepository;
+import com.university.academic.repository.CourseRepository;
+import com.university.academic.repository.StudentCreditSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 课程服务单元测试（课程变更后的学分账本失效）
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("课程服务单元测试")
+class CourseServiceTest {
+
+    private static final Long COURSE_ID = 1L;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CoursePrerequisiteRepository coursePrerequisiteRepository;
+
+    @Mock
+    private CourseOfferingRepository offeringRepository;
+
+    @Mock
+    private OfferingCatalogueService offeringCatalogue;
+
+    @Mock
+    private PrerequisiteIndex prerequisiteIndex;
+
+    @Mock
+    private DepartmentService departmentService;
+
+    @Mock
+    private CreditCalculationService creditCalculationService;
+
+    @InjectMocks
+    private CourseService courseService;
+
+    private Course existingCourse;
+
+    @BeforeEach
+    void setUp() {
+        existingCourse = Course.builder()
+                .courseNo("CS101")
+                .name("数据结构")
+                .credits(3)
+                .hours(48)
+                .type(Course.CourseType.REQUIRED)
+                .build();
+        existingCourse.setId(COURSE_ID);
+        lenient().when(courseRepository.findById(COURSE_ID)).thenReturn(Optional.of(existingCourse));
+        lenient().when(courseRepository.save(any(Course.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(offeringRepository.findByCourseId(COURSE_ID)).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("测试修改学分后使学分账本失效")
+    void testCreditsChangeInvalidatesLedgers() {
+        courseService.updateCourse(COURSE_ID, Course.builder().credits(4).build());
+
+        verify(creditCalculationService).invalidateLedgersByCourse(COURSE_ID);
+    }
+
+    @Test
+    @DisplayName("测试修改课程类型后使学分账本失效")
+    void testTypeChangeInvalidatesLedgers() {
+        courseService.updateCourse(COURSE_ID, Course.builder().type(Course.CourseType.ELECTIVE).build());
+
+        verify(creditCalculationService).invalidateLedgersByCourse(COURSE_ID);
+    }
+
+    @Test
+    @DisplayName("测试修改课程名称后使学分账本失效")
+    void testNameChangeInvalidatesLedgers() {
+        courseService.updateCourse(COURSE_ID, Course.builder().name("数据结构实验").build());
+
+        verify(creditCalculationService).invalidateLedgersByCourse(COURSE_ID);
+    }
+
+    @Test
+    @DisplayName("测试只修改学时和描述时不影响学分账本")
+    void testUnrelatedChangeKeepsLedgers() {
+        courseService.updateCourse(COURSE_ID, Course.builder()
+                .name("数据结构")
+                .credits(3)
+                .hours(64)
+                .description("新的课程描述")
+                .build());
+
+        verify(creditCalculationService, never()).invalidateLedgersByCourse(anyLong());
+    }
+
+    @Test
+    @DisplayName("测试学分账本失效只针对修读过该课程的学生")
+    void testInvalidateLedgersByCourse() {
+        StudentCreditSummaryRepository creditSummaryRepository = mock(StudentCreditSummaryRepository.class);
+        CreditCalculationService calculationService = new CreditCalculationService(
+                null, null, creditSummaryRepository, null, null);
+
+        calculationService.invalidateLedgersByCourse(COURSE_ID);
+
+        verify(creditSummaryRepository).invalidateLedgersByCourse(COURSE_ID, CourseSelection.SelectionStatus.COMPLETED);
+    }
+}
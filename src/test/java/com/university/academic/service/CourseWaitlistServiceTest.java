@@ -0,0 +1,223 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.Course;
+import com.university.academic.entity.CourseOffering;
+import com.university.academic.entity.CourseSelection;
+import com.university.academic.entity.CourseWaitlist;
+import com.university.academic.entity.Student;
+import com.university.academic.entity.Teacher;
+import com.university.academic.entity.User;
+import com.university.academic.event.SeatReleasedEvent;
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
+import com.university.academic.repository.CourseOfferingRepository;
+import com.university.academic.repository.CourseSelectionRepository;
+import com.university.academic.repository.CourseWaitlistRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 候补队列服务单元测试
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("候补队列服务单元测试")
+class CourseWaitlistServiceTest {
+
+    private static final Long STUDENT_ID = 10L;
+    private static final Long USER_ID = 100L;
+    private static final Long OFFERING_ID = 1L;
+    private static final Long WAITLIST_ID = 1000L;
+
+    @Mock
+    private CourseWaitlistRepository waitlistRepository;
+
+    @Mock
+    private CourseOfferingRepository offeringRepository;
+
+    @Mock
+    private CourseSelectionRepository selectionRepository;
+
+    @Mock
+    private CourseSelectionService selectionService;
+
+    @Mock
+    private StudentService studentService;
+
+    @Mock
+    private CourseSeatLedger seatLedger;
+
+    @Mock
+    private UserNotificationService userNotificationService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CourseWaitlistService waitlistService;
+
+    private Student student;
+    private CourseOffering offering;
+
+    @BeforeEach
+    void setUp() {
+        waitlistService = new CourseWaitlistService(waitlistRepository, offeringRepository, selectionRepository,
+                selectionService, studentService, seatLedger, userNotificationService, transactionTemplate, 5, 1);
+
+        User user = User.builder().username("student").role(User.UserRole.STUDENT).build();
+        user.setId(USER_ID);
+        student = Student.builder().user(user).build();
+        student.setId(STUDENT_ID);
+        offering = CourseOffering.builder()
+                .course(Course.builder().name("数据结构").build())
+                .teacher(Teacher.builder().name("张老师").build())
+                .capacity(1)
+                .enrolled(1)
+                .status(CourseOffering.OfferingStatus.PUBLISHED)
+                .build();
+        offering.setId(OFFERING_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        waitlistService.shutdown();
+    }
+
+    @Test
+    @DisplayName("测试课程已满时加入候补")
+    void testJoinWhenFull() {
+        stubJoinChecks();
+        when(waitlistRepository.saveAndFlush(any(CourseWaitlist.class))).thenAnswer(invocation -> {
+            CourseWaitlist waitlist = invocation.getArgument(0);
+            waitlist.setId(WAITLIST_ID);
+            return waitlist;
+        });
+
+        waitlistService.join(STUDENT_ID, OFFERING_ID);
+
+        verify(seatLedger).adjustWaiting(OFFERING_ID, 1);
+    }
+
+    @Test
+    @DisplayName("测试课程有空余名额时不能加入候补")
+    void testJoinWhenNotFull() {
+        when(studentService.findById(STUDENT_ID)).thenReturn(student);
+        when(offeringRepository.findById(OFFERING_ID)).thenReturn(Optional.of(offering));
+        when(selectionRepository.findByStudentIdAndOfferingId(STUDENT_ID, OFFERING_ID)).thenReturn(Optional.empty());
+        when(seatLedger.hasSeat(offering)).thenReturn(true);
+
+        assertThatThrownBy(() -> waitlistService.join(STUDENT_ID, OFFERING_ID))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code")
+                .isEqualTo(ErrorCode.SELECTION_COURSE_NOT_FULL.getCode());
+        verify(seatLedger, never()).adjustWaiting(anyLong(), any(Integer.class));
+    }
+
+    @Test
+    @DisplayName("测试并发重复加入候补由唯一索引拦截")
+    void testJoinDuplicateRejectedByUniqueIndex() {
+        stubJoinChecks();
+        when(waitlistRepository.saveAndFlush(any(CourseWaitlist.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_course_waitlist_waiting"));
+
+        assertThatThrownBy(() -> waitlistService.join(STUDENT_ID, OFFERING_ID))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code")
+                .isEqualTo(ErrorCode.SELECTION_WAITLIST_ALREADY_JOINED.getCode());
+        verify(seatLedger, never()).adjustWaiting(anyLong(), any(Integer.class));
+    }
+
+    @Test
+    @DisplayName("测试退出候补")
+    void testLeave() {
+        CourseWaitlist waitlist = waitingEntry();
+        when(waitlistRepository.findById(WAITLIST_ID)).thenReturn(Optional.of(waitlist));
+
+        waitlistService.leave(STUDENT_ID, WAITLIST_ID);
+
+        assertThat(waitlist.getStatus()).isEqualTo(CourseWaitlist.WaitlistStatus.CANCELLED);
+        verify(seatLedger).adjustWaiting(OFFERING_ID, -1);
+    }
+
+    @Test
+    @DisplayName("测试名额释放后递补队首学生")
+    void testSeatReleasedPromotesHead() {
+        CourseWaitlist waitlist = waitingEntry();
+        when(waitlistRepository.findWaitingHead(eq(OFFERING_ID), any(Pageable.class)))
+                .thenReturn(List.of(waitlist))
+                .thenReturn(List.of());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        CourseSelection selection = CourseSelection.builder().build();
+        when(selectionService.promoteFromWaitlist(STUDENT_ID, OFFERING_ID)).thenReturn(selection);
+
+        waitlistService.handleSeatReleased(new SeatReleasedEvent(OFFERING_ID));
+
+        verify(userNotificationService, timeout(5000)).sendToUser(eq(USER_ID), eq("候补递补成功"),
+                anyString(), anyString(), anyString(), eq(WAITLIST_ID));
+        assertThat(waitlist.getStatus()).isEqualTo(CourseWaitlist.WaitlistStatus.PROMOTED);
+        verify(seatLedger).adjustWaiting(OFFERING_ID, -1);
+    }
+
+    @Test
+    @DisplayName("测试名额已被占用时停止递补并保留候补")
+    void testSeatReleasedKeepsWaitingWhenFull() {
+        CourseWaitlist waitlist = waitingEntry();
+        when(waitlistRepository.findWaitingHead(eq(OFFERING_ID), any(Pageable.class)))
+                .thenReturn(List.of(waitlist));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(selectionService.promoteFromWaitlist(STUDENT_ID, OFFERING_ID))
+                .thenThrow(new BusinessException(ErrorCode.SELECTION_COURSE_FULL));
+
+        waitlistService.handleSeatReleased(new SeatReleasedEvent(OFFERING_ID));
+
+        verify(selectionService, timeout(5000)).promoteFromWaitlist(STUDENT_ID, OFFERING_ID);
+        assertThat(waitlist.getStatus()).isEqualTo(CourseWaitlist.WaitlistStatus.WAITING);
+        verify(seatLedger, never()).adjustWaiting(anyLong(), any(Integer.class));
+    }
+
+    private void stubJoinChecks() {
+        when(studentService.findById(STUDENT_ID)).thenReturn(student);
+        when(offeringRepository.findById(OFFERING_ID)).thenReturn(Optional.of(offering));
+        when(selectionRepository.findByStudentIdAndOfferingId(STUDENT_ID, OFFERING_ID)).thenReturn(Optional.empty());
+        when(waitlistRepository.existsByStudentIdAndOfferingIdAndStatus(
+                STUDENT_ID, OFFERING_ID, CourseWaitlist.WaitlistStatus.WAITING)).thenReturn(false);
+        when(seatLedger.hasSeat(offering)).thenReturn(false);
+        when(waitlistRepository.countByStudentIdAndStatus(STUDENT_ID, CourseWaitlist.WaitlistStatus.WAITING))
+                .thenReturn(0L);
+    }
+
+    private CourseWaitlist waitingEntry() {
+        CourseWaitlist waitlist = CourseWaitlist.builder()
+                .student(student)
+                .offering(offering)
+                .status(CourseWaitlist.WaitlistStatus.WAITING)
+                .build();
+        waitlist.setId(WAITLIST_ID);
+        return waitlist;
+    }
+}
@@ -0,0 +1,137 @@
+package com.university.academic.service;
+
+import com.university.academic.dto.CreditRecomputeResultDTO;
+import com.university.academic.exception.BusinessException;
+import com.university.academic.exception.ErrorCode;
+import com.university.academic.repository.CourseSelectionRepository;
+import com.university.academic.repository.StudentCreditSummaryRepository;
+import com.university.academic.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * 学分汇总批量重算服务单元测试
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("学分汇总批量重算服务单元测试")
+class CreditSummaryRecomputeServiceTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private CourseSelectionRepository courseSelectionRepository;
+
+    @Mock
+    private StudentCreditSummaryRepository creditSummaryRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private CreditSummaryRecomputeService recomputeService;
+
+    private final CountDownLatch chunkStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseChunk = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        recomputeService = new CreditSummaryRecomputeService(studentRepository, courseSelectionRepository,
+                creditSummaryRepository, transactionTemplate, jdbcTemplate, cacheManager, 1, 2);
+        lenient().doAnswer(invocation -> {
+            chunkStarted.countDown();
+            releaseChunk.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseChunk.countDown();
+        recomputeService.shutdown();
+    }
+
+    @Test
+    @DisplayName("测试全量重算异步执行并立即返回初始进度")
+    void testRecomputeAllReturnsInitialProgress() throws InterruptedException {
+        when(studentRepository.findAllNonDeletedIds()).thenReturn(List.of(1L, 2L));
+
+        CreditRecomputeResultDTO initial = recomputeService.recomputeAll();
+
+        assertThat(initial.getRunning()).isTrue();
+        assertThat(initial.getTotalStudents()).isEqualTo(2);
+        assertThat(initial.getTotalChunks()).isEqualTo(2);
+        assertThat(chunkStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        releaseChunk.countDown();
+        awaitFinished();
+        assertThat(recomputeService.getProgress().getUpdatedStudents()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("测试已有重算执行时拒绝指定学生重算，且不覆盖进度")
+    void testRecomputeRejectedWhileRunning() throws InterruptedException {
+        when(studentRepository.findAllNonDeletedIds()).thenReturn(List.of(1L, 2L));
+        recomputeService.recomputeAll();
+        assertThat(chunkStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> recomputeService.recompute(List.of(3L)))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code")
+                .isEqualTo(ErrorCode.OPERATION_FAILED.getCode());
+        assertThat(recomputeService.getProgress().getTotalStudents()).isEqualTo(2);
+
+        releaseChunk.countDown();
+        awaitFinished();
+        when(studentRepository.findExistingIds(Set.of(3L))).thenReturn(List.of(3L));
+        assertThat(recomputeService.recompute(List.of(3L)).getTotalStudents()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("测试成绩公布后的重算等待完成且不占用管理端进度")
+    void testRecomputeAndWaitIsUntracked() {
+        releaseChunk.countDown();
+        when(studentRepository.findExistingIds(Set.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+
+        CreditRecomputeResultDTO result = recomputeService.recomputeAndWait(List.of(1L, 2L));
+
+        assertThat(result.getRunning()).isFalse();
+        assertThat(result.getUpdatedStudents()).isEqualTo(2);
+        assertThat(recomputeService.getProgress()).isNull();
+    }
+
+    private void awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (recomputeService.getProgress().getRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(recomputeService.getProgress().getRunning()).isFalse();
+    }
+}
@@ -0,0 +1,136 @@
+package com.university.academic.service;
+
+import com.university.academic.dto.CourseOfferingDTO;
+import com.university.academic.entity.CourseOffering;
+import com.university.academic.entity.Semester;
+import com.university.academic.repository.CourseOfferingRepository;
+import com.university.academic.util.DtoConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 可选课程目录单元测试
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("可选课程目录单元测试")
+class OfferingCatalogueServiceTest {
+
+    private static final Long SEMESTER_ID = 1L;
+    private static final Long OFFERING_ID = 10L;
+
+    @Mock
+    private CourseOfferingRepository offeringRepository;
+
+    @Mock
+    private ConfigSnapshotService configSnapshotService;
+
+    @Mock
+    private CourseSeatLedger seatLedger;
+
+    @Mock
+    private DtoConverter dtoConverter;
+
+    private OfferingCatalogueService catalogueService;
+
+    private CourseOffering offering;
+
+    @BeforeEach
+    void setUp() {
+        catalogueService = new OfferingCatalogueService(offeringRepository, configSnapshotService, seatLedger,
+                dtoConverter, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+        Semester semester = new Semester();
+        semester.setId(SEMESTER_ID);
+        semester.setCourseSelectionEnabled(true);
+        semester.setCourseSelectionStart(LocalDateTime.now().minusDays(1));
+        semester.setCourseSelectionEnd(LocalDateTime.now().plusDays(1));
+        when(configSnapshotService.activeSemester()).thenReturn(semester);
+
+        offering = offering(30);
+        lenient().when(dtoConverter.toCourseOfferingDTO(any(CourseOffering.class))).thenAnswer(invocation -> {
+            CourseOffering source = invocation.getArgument(0);
+            return CourseOfferingDTO.builder()
+                    .id(source.getId())
+                    .semesterId(SEMESTER_ID)
+                    .capacity(source.getCapacity())
+                    .enrolled(source.getEnrolled())
+                    .build();
+        });
+    }
+
+    @Test
+    @DisplayName("测试目录构建后复用，不重复查询")
+    void testCatalogueReused() {
+        when(offeringRepository.findPublishedBySemesterId(SEMESTER_ID)).thenReturn(List.of(offering));
+
+        assertThat(catalogueService.findAvailableOfferings()).hasSize(1);
+        assertThat(catalogueService.findAvailableOfferings()).hasSize(1);
+
+        verify(offeringRepository, times(1)).findPublishedBySemesterId(SEMESTER_ID);
+    }
+
+    @Test
+    @DisplayName("测试构建期间开课计划变更时不保留构建结果，下次访问重新构建")
+    void testModificationDuringBuildDiscardsCatalogue() {
+        when(offeringRepository.findById(OFFERING_ID)).thenReturn(Optional.of(offering));
+        when(offeringRepository.findPublishedBySemesterId(SEMESTER_ID))
+                .thenAnswer(invocation -> {
+                    // 构建读取之后另一事务修改了容量并提交
+                    CourseOffering stale = offering(30);
+                    offering.setCapacity(50);
+                    catalogueService.refreshOffering(OFFERING_ID);
+                    return List.of(stale);
+                })
+                .thenAnswer(invocation -> List.of(offering));
+
+        assertThat(catalogueService.findAvailableOfferings().get(0).getCapacity()).isEqualTo(30);
+        assertThat(catalogueService.findAvailableOfferings().get(0).getCapacity()).isEqualTo(50);
+        assertThat(catalogueService.findAvailableOfferings().get(0).getCapacity()).isEqualTo(50);
+
+        verify(offeringRepository, times(2)).findPublishedBySemesterId(SEMESTER_ID);
+    }
+
+    @Test
+    @DisplayName("测试构建完成后的开课计划变更直接替换目录中的对应项")
+    void testRefreshAfterBuildReplacesOffering() {
+        when(offeringRepository.findPublishedBySemesterId(SEMESTER_ID)).thenReturn(List.of(offering));
+        when(offeringRepository.findById(OFFERING_ID)).thenReturn(Optional.of(offering));
+        catalogueService.findAvailableOfferings();
+
+        offering.setCapacity(50);
+        catalogueService.refreshOffering(OFFERING_ID);
+
+        assertThat(catalogueService.findAvailableOfferings().get(0).getCapacity()).isEqualTo(50);
+        verify(offeringRepository, times(1)).findPublishedBySemesterId(SEMESTER_ID);
+    }
+
+    private CourseOffering offering(int capacity) {
+        CourseOffering result = CourseOffering.builder()
+                .capacity(capacity)
+                .enrolled(0)
+                .status(CourseOffering.OfferingStatus.PUBLISHED)
+                .build();
+        result.setId(OFFERING_ID);
+        return result;
+    }
+}
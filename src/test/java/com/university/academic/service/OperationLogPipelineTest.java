@@ -0,0 +1,70 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.OperationLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 操作日志写入管道单元测试（关闭后提交）
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("操作日志写入管道单元测试")
+class OperationLogPipelineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("测试关闭后提交的日志由调用线程直接写入")
+    void testSubmitAfterShutdownCallerRuns() {
+        OperationLogPipeline pipeline = pipeline(OperationLogPipeline.OverflowPolicy.CALLER_RUNS);
+        pipeline.shutdown();
+
+        pipeline.submit(entry(), () -> "[]");
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(pipeline.getStats().getCallerRuns()).isEqualTo(1);
+        assertThat(pipeline.getStats().getQueueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("测试关闭后提交的日志按丢弃策略计数")
+    void testSubmitAfterShutdownDropped() {
+        OperationLogPipeline pipeline = pipeline(OperationLogPipeline.OverflowPolicy.DROP);
+        pipeline.shutdown();
+
+        pipeline.submit(entry(), () -> "[]");
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(pipeline.getStats().getDropped()).isEqualTo(1);
+        assertThat(pipeline.getStats().getQueueDepth()).isZero();
+    }
+
+    private OperationLogPipeline pipeline(OperationLogPipeline.OverflowPolicy overflowPolicy) {
+        return new OperationLogPipeline(jdbcTemplate, 10, 5, 1000, overflowPolicy);
+    }
+
+    private OperationLog entry() {
+        return OperationLog.builder()
+                .operation("创建学生")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
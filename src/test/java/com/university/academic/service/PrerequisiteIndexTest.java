@@ -0,0 +1,119 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.Course;
+import com.university.academic.entity.Grade;
+import com.university.academic.event.GradePublishEvent;
+import com.university.academic.repository.CoursePrerequisiteRepository;
+import com.university.academic.repository.CourseRepository;
+import com.university.academic.repository.CourseSelectionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 先修课程索引单元测试（毕业审核必修课检查）
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("先修课程索引单元测试")
+class PrerequisiteIndexTest {
+
+    private static final Long STUDENT_ID = 1L;
+    private static final Long REQUIRED_RETAKEN = 10L;
+    private static final Long REQUIRED_PASSED = 11L;
+    private static final Long REQUIRED_FAILED = 12L;
+    private static final Long ELECTIVE_FAILED = 20L;
+
+    @Mock
+    private CoursePrerequisiteRepository prerequisiteRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CourseSelectionRepository selectionRepository;
+
+    @InjectMocks
+    private PrerequisiteIndex prerequisiteIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(prerequisiteRepository.findAllEdges()).thenReturn(List.of());
+        when(courseRepository.findIdsByType(Course.CourseType.REQUIRED))
+                .thenReturn(List.of(REQUIRED_RETAKEN, REQUIRED_PASSED, REQUIRED_FAILED));
+    }
+
+    @Test
+    @DisplayName("测试重修通过的必修课仍按有不及格成绩计入，与逐条检查选课记录的口径一致")
+    void testRetakenRequiredCourseStillCounted() {
+        List<Object[]> outcomes = new ArrayList<>();
+        outcomes.add(outcome(REQUIRED_RETAKEN, Grade.GradeStatus.PUBLISHED, "45"));
+        outcomes.add(outcome(REQUIRED_RETAKEN, Grade.GradeStatus.PUBLISHED, "75"));
+        outcomes.add(outcome(REQUIRED_PASSED, Grade.GradeStatus.PUBLISHED, "90"));
+        outcomes.add(outcome(REQUIRED_FAILED, Grade.GradeStatus.PUBLISHED, "50"));
+        outcomes.add(outcome(ELECTIVE_FAILED, Grade.GradeStatus.PUBLISHED, "30"));
+        when(selectionRepository.findCompletedCourseOutcomes(STUDENT_ID)).thenReturn(outcomes);
+
+        assertThat(prerequisiteIndex.findFailedRequiredCourses(STUDENT_ID))
+                .containsExactlyInAnyOrder(REQUIRED_RETAKEN, REQUIRED_FAILED);
+    }
+
+    @Test
+    @DisplayName("测试未公布的不及格成绩不计入")
+    void testUnpublishedGradeIgnored() {
+        List<Object[]> outcomes = new ArrayList<>();
+        outcomes.add(outcome(REQUIRED_FAILED, Grade.GradeStatus.DRAFT, "50"));
+        when(selectionRepository.findCompletedCourseOutcomes(STUDENT_ID)).thenReturn(outcomes);
+
+        assertThat(prerequisiteIndex.findFailedRequiredCourses(STUDENT_ID)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("测试成绩公布后增量更新，结果相反时重新加载修读记录")
+    void testGradePublishUpdatesRecord() {
+        List<Object[]> outcomes = new ArrayList<>();
+        outcomes.add(outcome(REQUIRED_PASSED, Grade.GradeStatus.PUBLISHED, "90"));
+        when(selectionRepository.findCompletedCourseOutcomes(STUDENT_ID)).thenReturn(outcomes);
+        assertThat(prerequisiteIndex.findFailedRequiredCourses(STUDENT_ID)).isEmpty();
+
+        // 新课程不及格：直接更新位图
+        prerequisiteIndex.handleGradePublish(publish(REQUIRED_FAILED, false));
+        assertThat(prerequisiteIndex.findFailedRequiredCourses(STUDENT_ID)).containsExactly(REQUIRED_FAILED);
+        verify(selectionRepository, times(1)).findCompletedCourseOutcomes(STUDENT_ID);
+
+        // 已通过的课程又公布不及格：无法判断是否修改了同一条成绩，按选课记录重新加载
+        outcomes.clear();
+        outcomes.add(outcome(REQUIRED_PASSED, Grade.GradeStatus.PUBLISHED, "55"));
+        outcomes.add(outcome(REQUIRED_FAILED, Grade.GradeStatus.PUBLISHED, "50"));
+        prerequisiteIndex.handleGradePublish(publish(REQUIRED_PASSED, false));
+        assertThat(prerequisiteIndex.findFailedRequiredCourses(STUDENT_ID))
+                .containsExactlyInAnyOrder(REQUIRED_PASSED, REQUIRED_FAILED);
+        verify(selectionRepository, times(2)).findCompletedCourseOutcomes(STUDENT_ID);
+    }
+
+    private static Object[] outcome(Long courseId, Grade.GradeStatus status, String totalScore) {
+        return new Object[]{courseId, status, new BigDecimal(totalScore)};
+    }
+
+    private static GradePublishEvent publish(Long courseId, boolean passed) {
+        return GradePublishEvent.builder()
+                .studentId(STUDENT_ID)
+                .courseId(courseId)
+                .passed(passed)
+                .build();
+    }
+}
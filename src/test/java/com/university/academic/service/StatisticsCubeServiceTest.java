@@ -0,0 +1,112 @@
+package com.university.academic.service;
+
+import com.university.academic.event.GradePublishEvent;
+import com.university.academic.event.ScholarshipAwardedEvent;
+import com.university.academic.event.TuitionBillChangedEvent;
+import com.university.academic.repository.GradeRepository;
+import com.university.academic.repository.ScholarshipAwardRepository;
+import com.university.academic.repository.StudentRepository;
+import com.university.academic.repository.StudentStatusChangeRepository;
+import com.university.academic.repository.TuitionBillRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 统计汇总服务单元测试（过期切片重建）
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("统计汇总服务单元测试")
+class StatisticsCubeServiceTest {
+
+    private static final String ACADEMIC_YEAR = "2025-2026";
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private GradeRepository gradeRepository;
+
+    @Mock
+    private TuitionBillRepository billRepository;
+
+    @Mock
+    private ScholarshipAwardRepository awardRepository;
+
+    @Mock
+    private StudentStatusChangeRepository statusChangeRepository;
+
+    private StatisticsCubeService cubeService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        cubeService = new StatisticsCubeService(studentRepository, gradeRepository, billRepository,
+                awardRepository, statusChangeRepository, transactionTemplate, 0);
+
+        List<Object[]> counts = new ArrayList<>();
+        counts.add(new Object[]{0L, 0L});
+        lenient().when(gradeRepository.countTotalAndPublished(any()))
+                .thenReturn(counts);
+        lenient().when(gradeRepository.aggregatePublishedScoresGroupByOffering(any()))
+                .thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cubeService.shutdown();
+    }
+
+    @Test
+    @DisplayName("测试重建失败的切片保留过期标记，下一次过期重建时重试")
+    void testFailedRefreshRetried() {
+        when(billRepository.aggregateByAcademicYear(ACADEMIC_YEAR))
+                .thenReturn(List.of())
+                .thenThrow(new RuntimeException("数据库不可用"))
+                .thenReturn(List.of());
+        when(awardRepository.aggregateByAcademicYear(ACADEMIC_YEAR)).thenReturn(List.of());
+        cubeService.tuitionCells(ACADEMIC_YEAR);
+        cubeService.awardCells(ACADEMIC_YEAR);
+
+        cubeService.handleTuitionBillChanged(new TuitionBillChangedEvent(ACADEMIC_YEAR));
+        verify(billRepository, timeout(5000).times(2)).aggregateByAcademicYear(ACADEMIC_YEAR);
+
+        // 其他汇总的变更触发下一次过期重建，失败的学费切片一并重试
+        cubeService.handleScholarshipAwarded(new ScholarshipAwardedEvent(ACADEMIC_YEAR));
+        verify(awardRepository, timeout(5000).times(2)).aggregateByAcademicYear(ACADEMIC_YEAR);
+        verify(billRepository, timeout(5000).times(3)).aggregateByAcademicYear(ACADEMIC_YEAR);
+    }
+
+    @Test
+    @DisplayName("测试成绩公布只重建所属学期和全部学期的成绩切片")
+    void testGradePublishRefreshesOwnSemester() {
+        cubeService.gradeCube(1L);
+        cubeService.gradeCube(2L);
+        cubeService.gradeCube(null);
+
+        cubeService.handleGradePublish(GradePublishEvent.builder().semesterId(1L).build());
+
+        verify(gradeRepository, timeout(5000).times(2)).aggregatePublishedScoresGroupByOffering(1L);
+        verify(gradeRepository, timeout(5000).times(2)).aggregatePublishedScoresGroupByOffering(null);
+        verify(gradeRepository, after(200).times(1)).aggregatePublishedScoresGroupByOffering(2L);
+    }
+}
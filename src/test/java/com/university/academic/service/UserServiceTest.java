@@ -0,0 +1,195 @@
+package com.university.academic.service;
+
+import com.university.academic.entity.User;
+import com.university.academic.repository.UserRepository;
+import com.university.academic.security.TokenVersionRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户服务单元测试（用户信息变更后的令牌撤销）
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("用户服务单元测试")
+class UserServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    private UserService userService;
+
+    private User existingUser;
+
+    /**
+     * 变更前签发的令牌版本
+     */
+    private long issuedVersion;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionRegistry = new TokenVersionRegistry(userRepository);
+        userService = new UserService(userRepository, passwordEncoder, tokenVersionRegistry);
+
+        existingUser = User.builder()
+                .username("teacher01")
+                .role(User.UserRole.TEACHER)
+                .enabled(true)
+                .build();
+        existingUser.setId(USER_ID);
+        lenient().when(userRepository.findById(USER_ID)).thenReturn(Optional.of(existingUser));
+        lenient().when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        issuedVersion = tokenVersionRegistry.currentVersion(existingUser);
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, issuedVersion)).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试修改角色后撤销已签发的令牌")
+    void testRoleChangeRevokesTokens() {
+        userService.updateUser(USER_ID, User.builder()
+                .username("teacher01")
+                .role(User.UserRole.ADMIN)
+                .build());
+
+        assertThat(existingUser.getTokenVersion()).isEqualTo(issuedVersion + 1);
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, issuedVersion)).isFalse();
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, tokenVersionRegistry.currentVersion(existingUser))).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试修改用户名后撤销已签发的令牌")
+    void testUsernameChangeRevokesTokens() {
+        when(userRepository.existsByUsername("teacher02")).thenReturn(false);
+
+        userService.updateUser(USER_ID, User.builder()
+                .username("teacher02")
+                .role(User.UserRole.TEACHER)
+                .build());
+
+        assertThat(existingUser.getTokenVersion()).isEqualTo(issuedVersion + 1);
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, issuedVersion)).isFalse();
+    }
+
+    @Test
+    @DisplayName("测试禁用用户后拒绝其全部令牌")
+    void testDisableRejectsTokens() {
+        userService.updateUser(USER_ID, User.builder()
+                .username("teacher01")
+                .role(User.UserRole.TEACHER)
+                .enabled(false)
+                .build());
+
+        assertThat(existingUser.getTokenVersion()).isEqualTo(issuedVersion + 1);
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, issuedVersion)).isFalse();
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, tokenVersionRegistry.currentVersion(existingUser))).isFalse();
+    }
+
+    @Test
+    @DisplayName("测试未修改用户名、角色和状态时保留令牌")
+    void testUnchangedUserKeepsTokens() {
+        userService.updateUser(USER_ID, User.builder()
+                .username("teacher01")
+                .role(User.UserRole.TEACHER)
+                .enabled(true)
+                .build());
+
+        assertThat(existingUser.getTokenVersion()).isEqualTo(issuedVersion);
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, issuedVersion)).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试重置密码后撤销令牌，重启后按数据库中的令牌版本继续拒绝")
+    void testResetPasswordRevocationSurvivesRestart() {
+        when(passwordEncoder.encode("newPassword")).thenReturn("encoded");
+
+        userService.resetPassword(USER_ID, "newPassword");
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, issuedVersion)).isFalse();
+
+        // 重启后内存登记为空，启动时从用户表加载令牌版本
+        TokenVersionRegistry restarted = new TokenVersionRegistry(userRepository);
+        when(userRepository.findTokenStates()).thenReturn(tokenStates(existingUser));
+        restarted.init();
+
+        assertThat(restarted.isAccepted(USER_ID, issuedVersion)).isFalse();
+        assertThat(restarted.isAccepted(USER_ID, issuedVersion + 1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试其他实例修改角色后，定时同步拒绝本实例登记的旧令牌")
+    void testRevocationOnOtherInstanceSyncedFromDatabase() {
+        // 其他实例在事务中递增令牌版本
+        TokenVersionRegistry otherInstance = new TokenVersionRegistry(userRepository);
+        otherInstance.revoke(existingUser);
+        when(userRepository.findTokenStates()).thenReturn(tokenStates(existingUser));
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, issuedVersion)).isTrue();
+
+        tokenVersionRegistry.scheduledReload();
+
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, issuedVersion)).isFalse();
+    }
+
+    @Test
+    @DisplayName("测试未登记的用户按需查询数据库中的令牌版本")
+    void testUnknownUserLoadedFromDatabase() {
+        TokenVersionRegistry restarted = new TokenVersionRegistry(userRepository);
+        when(userRepository.findTokenVersionById(USER_ID)).thenReturn(Optional.of(issuedVersion + 1));
+
+        assertThat(restarted.isAccepted(USER_ID, issuedVersion)).isFalse();
+        assertThat(restarted.isAccepted(USER_ID, issuedVersion + 1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试删除用户后撤销令牌，重启和同步后仍然无效")
+    void testDeleteRevokesTokens() {
+        userService.deleteUser(USER_ID);
+
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, issuedVersion)).isFalse();
+
+        // 已删除的用户不在用户表中，重启后按需查询也查不到
+        when(userRepository.findTokenStates()).thenReturn(List.of());
+        when(userRepository.findTokenVersionById(USER_ID)).thenReturn(Optional.empty());
+        TokenVersionRegistry restarted = new TokenVersionRegistry(userRepository);
+        restarted.init();
+        assertThat(restarted.isAccepted(USER_ID, issuedVersion)).isFalse();
+    }
+
+    @Test
+    @DisplayName("测试其他实例删除用户后，定时同步拒绝其令牌")
+    void testDeleteOnOtherInstanceSyncedFromDatabase() {
+        when(userRepository.findTokenStates()).thenReturn(List.of());
+        when(userRepository.findTokenVersionById(USER_ID)).thenReturn(Optional.empty());
+
+        tokenVersionRegistry.scheduledReload();
+
+        assertThat(tokenVersionRegistry.isAccepted(USER_ID, issuedVersion)).isFalse();
+    }
+
+    private List<Object[]> tokenStates(User user) {
+        List<Object[]> states = new ArrayList<>();
+        states.add(new Object[]{user.getId(), user.getTokenVersion(), user.getEnabled()});
+        return states;
+    }
+}
@@ -0,0 +1,129 @@
+package com.university.ems.model;
+
+import com.university.academic.entity.Classroom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 教室容量索引单元测试
+ *
+ * @author Academic System Team
+ */
+@DisplayName("教室容量索引单元测试")
+class ClassroomCapacityIndexTest {
+
+    private ClassroomCapacityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // 乱序传入，含同容量教室和没有容量的教室
+        index = new ClassroomCapacityIndex(List.of(
+                classroom(4L, "B201", 60),
+                classroom(1L, "A101", 30),
+                classroom(3L, "A103", 45),
+                classroom(2L, "A102", 45),
+                classroom(5L, "C301", null)));
+    }
+
+    @Test
+    @DisplayName("测试教室按容量升序、同容量按ID排列，忽略没有容量的教室")
+    void testSortedByCapacity() {
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(ids(0)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(index.roomNo(1)).isEqualTo("A102");
+        assertThat(index.capacity(3)).isEqualTo(60);
+        assertThat(index.contains(5L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("测试人数恰好等于容量时该教室可用")
+    void testExactCapacityFits() {
+        assertThat(index.firstFitting(30)).isZero();
+        assertThat(ids(index.firstFitting(45))).containsExactly(2L, 3L, 4L);
+        assertThat(ids(index.firstFitting(60))).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("测试人数比容量多1人时跳到下一档容量")
+    void testOneAboveCapacity() {
+        assertThat(ids(index.firstFitting(31))).containsExactly(2L, 3L, 4L);
+        assertThat(ids(index.firstFitting(46))).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("测试人数超过最大容量时没有可用教室")
+    void testAboveLargestCapacity() {
+        assertThat(index.firstFitting(61)).isEqualTo(index.size());
+        assertThat(index.smallestFitting(61)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("测试人数为0或小于最小容量时全部教室可用")
+    void testBelowSmallestCapacity() {
+        assertThat(index.firstFitting(0)).isZero();
+        assertThat(index.firstFitting(1)).isZero();
+        assertThat(index.smallestFitting(1)).isZero();
+    }
+
+    @Test
+    @DisplayName("测试容量刚好够用的最小教室")
+    void testSmallestFitting() {
+        int room = index.smallestFitting(40);
+        assertThat(index.id(room)).isEqualTo(2L);
+
+        ScheduleAssignment assignment = ScheduleAssignment.builder().build();
+        index.assign(room, assignment);
+        assertThat(assignment.getClassroomId()).isEqualTo(2L);
+        assertThat(assignment.getClassroomNo()).isEqualTo("A102");
+        assertThat(assignment.getClassroomCapacity()).isEqualTo(45);
+    }
+
+    @Test
+    @DisplayName("测试排除停用教室后按剩余教室查询")
+    void testExcluding() {
+        ClassroomCapacityIndex remaining = index.excluding(List.of(2L, 4L));
+
+        assertThat(remaining.size()).isEqualTo(2);
+        assertThat(remaining.contains(2L)).isFalse();
+        assertThat(remaining.contains(3L)).isTrue();
+        assertThat(remaining.id(remaining.smallestFitting(31))).isEqualTo(3L);
+        assertThat(remaining.smallestFitting(46)).isEqualTo(-1);
+        // 原索引不受影响
+        assertThat(index.contains(2L)).isTrue();
+        assertThat(index.excluding(List.of())).isSameAs(index);
+    }
+
+    @Test
+    @DisplayName("测试空索引")
+    void testEmpty() {
+        ClassroomCapacityIndex empty = new ClassroomCapacityIndex(List.of());
+
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(empty.firstFitting(1)).isZero();
+        assertThat(empty.smallestFitting(1)).isEqualTo(-1);
+        assertThat(empty.contains(1L)).isFalse();
+        assertThat(empty.contains(null)).isFalse();
+    }
+
+    private List<Long> ids(int from) {
+        List<Long> ids = new ArrayList<>();
+        for (int room = from; room < index.size(); room++) {
+            ids.add(index.id(room));
+        }
+        return ids;
+    }
+
+    private static Classroom classroom(Long id, String roomNo, Integer capacity) {
+        Classroom classroom = new Classroom();
+        classroom.setId(id);
+        classroom.setRoomNo(roomNo);
+        classroom.setCapacity(capacity);
+        return classroom;
+    }
+}
@@ -0,0 +1,164 @@
+package com.university.ems.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 排课占用索引单元测试
+ *
+ * @author Academic System Team
+ */
+@DisplayName("排课占用索引单元测试")
+class ScheduleOccupancyIndexTest {
+
+    private static final Long TEACHER_ID = 1L;
+    private static final Long OTHER_TEACHER_ID = 2L;
+    private static final Long CLASSROOM_ID = 10L;
+    private static final Long OTHER_CLASSROOM_ID = 11L;
+
+    private ScheduleOccupancyIndex occupancy;
+
+    @BeforeEach
+    void setUp() {
+        occupancy = new ScheduleOccupancyIndex();
+    }
+
+    @Test
+    @DisplayName("测试加入排课后教师和教室在对应时间槽被占用")
+    void testAddMarksTeacherAndClassroomBusy() {
+        occupancy.add(assignment(TEACHER_ID, CLASSROOM_ID, TimeSlot.of(1, 1), TimeSlot.of(1, 2)));
+
+        assertThat(occupancy.isTeacherBusy(TEACHER_ID, TimeSlot.of(1, 1))).isTrue();
+        assertThat(occupancy.isClassroomBusy(CLASSROOM_ID, TimeSlot.of(1, 2))).isTrue();
+        assertThat(occupancy.isTeacherBusy(TEACHER_ID, TimeSlot.of(1, 3))).isFalse();
+        assertThat(occupancy.isTeacherBusy(OTHER_TEACHER_ID, TimeSlot.of(1, 1))).isFalse();
+        assertThat(occupancy.isClassroomBusy(OTHER_CLASSROOM_ID, TimeSlot.of(1, 1))).isFalse();
+        assertThat(occupancy.teacherDayMask(TEACHER_ID, 1))
+                .isEqualTo(ScheduleOccupancyIndex.bit(1) | ScheduleOccupancyIndex.bit(2));
+        assertThat(occupancy.teacherDailyHours(TEACHER_ID, 1)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("测试移除排课后释放全部时间槽")
+    void testRemoveReleasesSlots() {
+        ScheduleAssignment assignment = assignment(TEACHER_ID, CLASSROOM_ID, TimeSlot.of(2, 3), TimeSlot.of(2, 4));
+        occupancy.add(assignment);
+
+        occupancy.remove(assignment);
+
+        assertThat(occupancy.isTeacherBusy(TEACHER_ID, TimeSlot.of(2, 3))).isFalse();
+        assertThat(occupancy.isClassroomBusy(CLASSROOM_ID, TimeSlot.of(2, 4))).isFalse();
+        assertThat(occupancy.teacherDayMask(TEACHER_ID, 2)).isZero();
+        assertThat(occupancy.classroomDayMask(CLASSROOM_ID, 2)).isZero();
+    }
+
+    @Test
+    @DisplayName("测试重复占用计数，释放一次后仍被另一门课程占用")
+    void testDoubleBookingCounts() {
+        ScheduleAssignment first = assignment(TEACHER_ID, CLASSROOM_ID, TimeSlot.of(3, 1));
+        ScheduleAssignment second = assignment(TEACHER_ID, OTHER_CLASSROOM_ID, TimeSlot.of(3, 1));
+        occupancy.add(first);
+        occupancy.add(second);
+
+        assertThat(occupancy.teacherCount(TEACHER_ID, TimeSlot.of(3, 1))).isEqualTo(2);
+        assertThat(occupancy.classroomCount(CLASSROOM_ID, TimeSlot.of(3, 1))).isEqualTo(1);
+
+        occupancy.remove(first);
+        assertThat(occupancy.teacherCount(TEACHER_ID, TimeSlot.of(3, 1))).isEqualTo(1);
+        assertThat(occupancy.isTeacherBusy(TEACHER_ID, TimeSlot.of(3, 1))).isTrue();
+        assertThat(occupancy.isClassroomBusy(CLASSROOM_ID, TimeSlot.of(3, 1))).isFalse();
+
+        // 释放未占用的时间槽不会使计数变为负数
+        occupancy.remove(assignment(TEACHER_ID, CLASSROOM_ID, TimeSlot.of(3, 2)));
+        occupancy.add(assignment(TEACHER_ID, CLASSROOM_ID, TimeSlot.of(3, 2)));
+        assertThat(occupancy.teacherCount(TEACHER_ID, TimeSlot.of(3, 2))).isEqualTo(1);
+        assertThat(occupancy.isTeacherBusy(TEACHER_ID, TimeSlot.of(3, 2))).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试未分配教室的课程只占用教师")
+    void testAssignmentWithoutClassroom() {
+        occupancy.add(assignment(TEACHER_ID, null, TimeSlot.of(1, 1)));
+
+        assertThat(occupancy.isTeacherBusy(TEACHER_ID, TimeSlot.of(1, 1))).isTrue();
+        assertThat(occupancy.isClassroomBusy(null, TimeSlot.of(1, 1))).isFalse();
+        assertThat(occupancy.classroomCount(null, TimeSlot.of(1, 1))).isZero();
+    }
+
+    @Test
+    @DisplayName("测试超出范围的星期和节次被忽略")
+    void testOutOfRangeSlotsIgnored() {
+        occupancy.add(assignment(TEACHER_ID, CLASSROOM_ID, TimeSlot.of(8, 1), TimeSlot.of(1, 0),
+                TimeSlot.of(1, ScheduleOccupancyIndex.MAX_SLOTS + 1)));
+
+        assertThat(occupancy.isTeacherBusy(TEACHER_ID, TimeSlot.of(8, 1))).isFalse();
+        assertThat(occupancy.teacherDayMask(TEACHER_ID, 1)).isZero();
+        assertThat(occupancy.teacherDayMask(TEACHER_ID, 8)).isZero();
+    }
+
+    @Test
+    @DisplayName("测试连堂长度和超出连堂上限的节次")
+    void testConsecutiveRun() {
+        occupancy.add(assignment(TEACHER_ID, CLASSROOM_ID, TimeSlot.of(1, 1), TimeSlot.of(1, 2), TimeSlot.of(1, 4)));
+
+        // 第3节补上后1-4节连成一段
+        assertThat(occupancy.consecutiveRunWith(TEACHER_ID, TimeSlot.of(1, 3))).isEqualTo(4);
+        assertThat(occupancy.consecutiveRunWith(TEACHER_ID, TimeSlot.of(1, 6))).isEqualTo(1);
+        assertThat(occupancy.consecutiveOverflow(TEACHER_ID, 1, 1)).isEqualTo(1);
+        assertThat(occupancy.consecutiveOverflow(TEACHER_ID, 1, 2)).isZero();
+
+        int mask = ScheduleOccupancyIndex.bit(1) | ScheduleOccupancyIndex.bit(2) | ScheduleOccupancyIndex.bit(3)
+                | ScheduleOccupancyIndex.bit(4) | ScheduleOccupancyIndex.bit(6) | ScheduleOccupancyIndex.bit(7);
+        assertThat(ScheduleOccupancyIndex.consecutiveOverflow(mask, 3)).isEqualTo(1);
+        assertThat(ScheduleOccupancyIndex.consecutiveOverflow(mask, 1)).isEqualTo(4);
+        assertThat(ScheduleOccupancyIndex.runLength(mask, 2)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("测试空闲碎片统计")
+    void testIdleFragments() {
+        occupancy.add(assignment(TEACHER_ID, CLASSROOM_ID, TimeSlot.of(1, 1), TimeSlot.of(1, 3), TimeSlot.of(1, 4),
+                TimeSlot.of(1, 7)));
+
+        assertThat(occupancy.idleFragments(TEACHER_ID, 1)).isEqualTo(2);
+        assertThat(occupancy.idleFragments(TEACHER_ID, 2)).isZero();
+        assertThat(ScheduleOccupancyIndex.idleFragments(ScheduleOccupancyIndex.bit(5))).isZero();
+    }
+
+    @Test
+    @DisplayName("测试教师和教室共同空闲的时间槽数量")
+    void testCommonFreeSlotCount() {
+        occupancy.add(assignment(TEACHER_ID, OTHER_CLASSROOM_ID, TimeSlot.of(1, 1), TimeSlot.of(2, 1)));
+        occupancy.add(assignment(OTHER_TEACHER_ID, CLASSROOM_ID, TimeSlot.of(1, 1), TimeSlot.of(1, 2)));
+
+        // 2天×4节共8个时间槽：教师占周一第1节、周二第1节，教室占周一第1、2节
+        assertThat(occupancy.commonFreeSlotCount(TEACHER_ID, CLASSROOM_ID, 2, 4)).isEqualTo(5);
+        assertThat(occupancy.commonFreeSlotCount(OTHER_TEACHER_ID, null, 2, 4)).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("测试清空全部占用")
+    void testClear() {
+        occupancy.add(assignment(TEACHER_ID, CLASSROOM_ID, TimeSlot.of(1, 1)));
+
+        occupancy.clear();
+
+        assertThat(occupancy.isTeacherBusy(TEACHER_ID, TimeSlot.of(1, 1))).isFalse();
+        assertThat(occupancy.isClassroomBusy(CLASSROOM_ID, TimeSlot.of(1, 1))).isFalse();
+    }
+
+    private static ScheduleAssignment assignment(Long teacherId, Long classroomId, TimeSlot... timeSlots) {
+        return ScheduleAssignment.builder()
+                .teacherId(teacherId)
+                .classroomId(classroomId)
+                .weeklyHours(timeSlots.length)
+                .timeSlots(new ArrayList<>(List.of(timeSlots)))
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.university.ems.service.impl;
+
+import com.university.ems.dto.SolutionComparisonDTO;
+import com.university.ems.dto.SolutionComparisonDTO.LoadDelta;
+import com.university.ems.dto.SolutionComparisonDTO.OfferingDiff;
+import com.university.ems.dto.SolutionComparisonDTO.SlotInfo;
+import com.university.ems.dto.SolutionComparisonDTO.SlotMove;
+import com.university.ems.dto.SolutionComparisonDTO.SoftConstraintBreakdown;
+import com.university.ems.dto.TeacherPreferenceDTO;
+import com.university.ems.repository.ScheduleItemRepository;
+import com.university.ems.service.TeacherPreferenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * 排课方案差异计算引擎单元测试
+ * <p>
+ * 固定课表（T1=张老师，仅偏好周一；T2=李老师，无偏好；连堂上限3节）：
+ * <pre>
+ * 开课  教师  方案1                          方案2
+ * 1     T1    周一1-2节R10、周二1节R10        周一1-2节R10、周二1节R11（换教室）
+ * 2     T1    周一3-4节R10                   周二3-4节R10（换时间）
+ * 3     T2    周三1节R11                     周三1节R11、周四1节R11（新增时段）
+ * 4     T2    周三1节R11（与开课3冲突）        -（删除）
+ * 5     T2    -                              周五2节R10（新增课程）
+ * 6     T2    周五4节R11                     周五4节R11（不变）
+ * </pre>
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("排课方案差异计算引擎单元测试")
+class SchedulingSolutionDiffEngineTest {
+
+    private static final Long SOLUTION_1 = 1L;
+    private static final Long SOLUTION_2 = 2L;
+    private static final Long T1 = 100L;
+    private static final Long T2 = 200L;
+    private static final Long R10 = 10L;
+    private static final Long R11 = 11L;
+
+    @Mock
+    private ScheduleItemRepository scheduleItemRepository;
+
+    @Mock
+    private TeacherPreferenceService teacherPreferenceService;
+
+    private SchedulingSolutionDiffEngine diffEngine;
+
+    @BeforeEach
+    void setUp() {
+        diffEngine = new SchedulingSolutionDiffEngine(scheduleItemRepository, teacherPreferenceService,
+                new SchedulingConstraintChecker());
+
+        when(scheduleItemRepository.findDiffRowsBySolutionId(SOLUTION_1)).thenReturn(List.of(
+                row(1L, T1, 1, 1, 2, R10),
+                row(1L, T1, 2, 1, 1, R10),
+                row(2L, T1, 1, 3, 4, R10),
+                row(3L, T2, 3, 1, 1, R11),
+                row(4L, T2, 3, 1, 1, R11),
+                row(6L, T2, 5, 4, 4, R11)));
+        when(scheduleItemRepository.findDiffRowsBySolutionId(SOLUTION_2)).thenReturn(List.of(
+                row(1L, T1, 1, 1, 2, R10),
+                row(1L, T1, 2, 1, 1, R11),
+                row(2L, T1, 2, 3, 4, R10),
+                row(3L, T2, 3, 1, 1, R11),
+                row(3L, T2, 4, 1, 1, R11),
+                row(5L, T2, 5, 2, 2, R10),
+                row(6L, T2, 5, 4, 4, R11)));
+        when(teacherPreferenceService.getPreferencesByTeacherIds(any())).thenReturn(Map.of(
+                T1, TeacherPreferenceDTO.builder().teacherId(T1).preferredDaysList(List.of(1)).build()));
+    }
+
+    @Test
+    @DisplayName("测试课程和时段差异计数")
+    void testDiffCounts() {
+        SolutionComparisonDTO result = diffEngine.compare(SOLUTION_1, SOLUTION_2);
+
+        assertThat(result.getSolution1().getItemCount()).isEqualTo(6);
+        assertThat(result.getSolution2().getItemCount()).isEqualTo(7);
+        assertThat(result.getSolution1().getOfferingCount()).isEqualTo(5);
+        assertThat(result.getSolution2().getOfferingCount()).isEqualTo(5);
+
+        assertThat(result.getUnchangedOfferingCount()).isEqualTo(1);
+        assertThat(result.getChangedOfferingCount()).isEqualTo(3);
+        assertThat(result.getAddedOfferingCount()).isEqualTo(1);
+        assertThat(result.getRemovedOfferingCount()).isEqualTo(1);
+
+        assertThat(result.getUnchangedSlotCount()).isEqualTo(3);
+        assertThat(result.getMovedSlotCount()).isEqualTo(2);
+        assertThat(result.getAddedSlotCount()).isEqualTo(2);
+        assertThat(result.getRemovedSlotCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("测试逐门课程的差异明细")
+    void testOfferingDiffs() {
+        Map<Long, OfferingDiff> diffs = diffEngine.compare(SOLUTION_1, SOLUTION_2).getOfferingDiffs().stream()
+                .collect(Collectors.toMap(OfferingDiff::getCourseOfferingId, Function.identity()));
+
+        // 不变的课程不出现在明细中
+        assertThat(diffs).containsOnlyKeys(1L, 2L, 3L, 4L, 5L);
+
+        OfferingDiff roomChanged = diffs.get(1L);
+        assertThat(roomChanged.getChangeType()).isEqualTo("CHANGED");
+        assertThat(roomChanged.getUnchangedSlots()).containsExactly(slot(1, 1, 2, R10));
+        assertThat(roomChanged.getMovedSlots()).containsExactly(new SlotMove(slot(2, 1, 1, R10), slot(2, 1, 1, R11)));
+
+        OfferingDiff timeChanged = diffs.get(2L);
+        assertThat(timeChanged.getMovedSlots()).containsExactly(new SlotMove(slot(1, 3, 4, R10), slot(2, 3, 4, R10)));
+        assertThat(timeChanged.getTeacherName()).isEqualTo("教师" + T1);
+
+        assertThat(diffs.get(3L).getAddedSlots()).containsExactly(slot(4, 1, 1, R11));
+        assertThat(diffs.get(4L).getChangeType()).isEqualTo("REMOVED");
+        assertThat(diffs.get(4L).getRemovedSlots()).containsExactly(slot(3, 1, 1, R11));
+        assertThat(diffs.get(5L).getChangeType()).isEqualTo("ADDED");
+        assertThat(diffs.get(5L).getAddedSlots()).containsExactly(slot(5, 2, 2, R10));
+    }
+
+    @Test
+    @DisplayName("测试两个方案的约束统计")
+    void testSoftConstraintTallies() {
+        SolutionComparisonDTO result = diffEngine.compare(SOLUTION_1, SOLUTION_2);
+
+        // 方案1：T1周一连上4节超出1节，周二1节违反偏好；开课3、4在周三第1节同时占用T2和R11
+        SoftConstraintBreakdown first = result.getSolution1().getSoftConstraints();
+        assertThat(first.getConsecutiveOverflow()).isEqualTo(1);
+        assertThat(first.getPreferenceViolations()).isEqualTo(1);
+        assertThat(first.getIdleFragments()).isZero();
+        assertThat(first.getTeacherDoubleBookings()).isEqualTo(1);
+        assertThat(first.getClassroomDoubleBookings()).isEqualTo(1);
+
+        // 方案2：T1周二3节均违反偏好且第1、3节之间有空档，T2周五第2、4节之间有空档
+        SoftConstraintBreakdown second = result.getSolution2().getSoftConstraints();
+        assertThat(second.getConsecutiveOverflow()).isZero();
+        assertThat(second.getPreferenceViolations()).isEqualTo(3);
+        assertThat(second.getIdleFragments()).isEqualTo(2);
+        assertThat(second.getTeacherDoubleBookings()).isZero();
+        assertThat(second.getClassroomDoubleBookings()).isZero();
+    }
+
+    @Test
+    @DisplayName("测试教师和教室负载变化只列出有变化的对象")
+    void testLoadDeltas() {
+        SolutionComparisonDTO result = diffEngine.compare(SOLUTION_1, SOLUTION_2);
+
+        assertThat(result.getTeacherLoadDeltas()).containsExactly(new LoadDelta(T2, "教师" + T2, 3, 4, 1));
+        assertThat(result.getClassroomLoadDeltas()).containsExactly(new LoadDelta(R11, "R" + R11, 3, 4, 1));
+    }
+
+    private static Object[] row(Long offeringId, Long teacherId, int day, int startSlot, int endSlot, Long classroomId) {
+        return new Object[]{offeringId, "CS" + offeringId, "课程" + offeringId, teacherId, "教师" + teacherId,
+                day, startSlot, endSlot, classroomId, "R" + classroomId};
+    }
+
+    private static SlotInfo slot(int day, int startSlot, int endSlot, Long classroomId) {
+        return new SlotInfo(day, startSlot, endSlot, classroomId, "R" + classroomId);
+    }
+}
@@ -0,0 +1,142 @@
+package com.university.ems.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.university.academic.entity.Semester;
+import com.university.academic.exception.BusinessException;
+import com.university.academic.service.OfferingCatalogueService;
+import com.university.ems.dto.ApplySolutionRequest;
+import com.university.ems.entity.SchedulingSolution;
+import com.university.ems.enums.SolutionStatus;
+import com.university.ems.repository.ScheduleItemRepository;
+import com.university.ems.repository.SchedulingSolutionRepository;
+import com.university.ems.service.SchedulingNotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 排课方案管理服务单元测试（分批应用方案）
+ *
+ * @author Academic System Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("排课方案管理服务单元测试")
+class SchedulingSolutionServiceImplTest {
+
+    private static final Long SOLUTION_ID = 1L;
+    private static final Long SEMESTER_ID = 10L;
+
+    @Mock
+    private SchedulingSolutionRepository solutionRepository;
+
+    @Mock
+    private ScheduleItemRepository scheduleItemRepository;
+
+    @Mock
+    private SchedulingNotificationService notificationService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private OfferingCatalogueService offeringCatalogue;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private SchedulingSolutionServiceImpl solutionService;
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private SchedulingSolution solution;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.getTransactionManager()).thenReturn(transactionManager);
+        solutionService.initTransactions();
+        ReflectionTestUtils.setField(solutionService, "applyBatchSize", 2);
+
+        Semester semester = new Semester();
+        semester.setId(SEMESTER_ID);
+        solution = SchedulingSolution.builder()
+                .semester(semester)
+                .name("方案一")
+                .conflictCount(0)
+                .status(SolutionStatus.COMPLETED)
+                .build();
+        solution.setId(SOLUTION_ID);
+        when(solutionRepository.findById(SOLUTION_ID)).thenReturn(Optional.of(solution));
+        when(solutionRepository.findAppliedSolutionBySemester(SEMESTER_ID)).thenReturn(Optional.empty());
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long offeringId = 1; offeringId <= 3; offeringId++) {
+            rows.add(new Object[]{offeringId, 1, 1, 2, 100L, "A101"});
+        }
+        when(scheduleItemRepository.findApplyRowsBySolutionId(SOLUTION_ID)).thenReturn(rows);
+    }
+
+    @Test
+    @DisplayName("测试每批更新在独立事务中提交")
+    void testApplyCommitsEachChunk() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[]{1, 1})
+                .thenReturn(new int[]{1});
+
+        solutionService.applySolution(SOLUTION_ID, new ApplySolutionRequest());
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        // 准备、两批更新、方案状态、目录失效各提交一次
+        verify(transactionManager, times(5)).commit(any());
+        assertThat(solution.getStatus()).isEqualTo(SolutionStatus.APPLIED);
+        verify(offeringCatalogue).evictSemester(SEMESTER_ID);
+        verify(notificationService).notifySolutionAppliedAsync(SOLUTION_ID, SEMESTER_ID);
+    }
+
+    @Test
+    @DisplayName("测试中途失败时保留已提交的批次且不修改方案状态")
+    void testApplyFailureKeepsCommittedChunks() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[]{1, 1})
+                .thenThrow(new RuntimeException("锁等待超时"));
+
+        assertThatThrownBy(() -> solutionService.applySolution(SOLUTION_ID, new ApplySolutionRequest()))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("已提交1批");
+
+        // 准备、第一批、目录失效提交，第二批回滚
+        verify(transactionManager, times(3)).commit(any());
+        verify(transactionManager).rollback(any());
+        assertThat(solution.getStatus()).isEqualTo(SolutionStatus.COMPLETED);
+        verify(offeringCatalogue).evictSemester(SEMESTER_ID);
+        verify(notificationService, never()).notifySolutionAppliedAsync(anyLong(), anyLong());
+    }
+}
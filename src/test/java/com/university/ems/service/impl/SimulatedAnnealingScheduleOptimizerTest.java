@@ -0,0 +1,206 @@
+package com.university.ems.service.impl;
+
+import com.university.academic.entity.Classroom;
+import com.university.ems.model.ClassroomCapacityIndex;
+import com.university.ems.model.ScheduleAssignment;
+import com.university.ems.model.ScheduleOccupancyIndex;
+import com.university.ems.model.ScheduleOptimizationContext;
+import com.university.ems.model.TimeSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 模拟退火排课优化器单元测试（邻域移动保持硬约束和连堂上限）
+ *
+ * @author Academic System Team
+ */
+@DisplayName("模拟退火排课优化器单元测试")
+class SimulatedAnnealingScheduleOptimizerTest {
+
+    private static final int DAYS = 2;
+    private static final int SLOTS = 4;
+    private static final int MAX_CONSECUTIVE = 2;
+
+    private final SchedulingConstraintChecker constraintChecker = new SchedulingConstraintChecker();
+
+    private SimulatedAnnealingScheduleOptimizer optimizer;
+
+    private ClassroomCapacityIndex classroomIndex;
+
+    @BeforeEach
+    void setUp() {
+        optimizer = new SimulatedAnnealingScheduleOptimizer(constraintChecker);
+        classroomIndex = new ClassroomCapacityIndex(List.of(classroom(10L, "A101", 40), classroom(11L, "A102", 60)));
+    }
+
+    @Test
+    @DisplayName("测试优化后没有教师和教室冲突、没有超出连堂上限，占用索引与排课一致")
+    void testMovesKeepHardConstraints() {
+        List<ScheduleAssignment> assignments = new ArrayList<>();
+        assignments.add(assignment(1L, 1L, 10L, 40, 30, 3, TimeSlot.of(1, 1), TimeSlot.of(1, 2)));
+        assignments.add(assignment(2L, 1L, 11L, 60, 50, 2, TimeSlot.of(2, 1)));
+        assignments.add(assignment(3L, 2L, 10L, 40, 35, 3));
+        assignments.add(assignment(4L, 2L, 11L, 60, 55, 2, TimeSlot.of(1, 3), TimeSlot.of(1, 4)));
+        assignments.add(assignment(5L, 3L, 11L, 60, 20, 4));
+
+        ScheduleOccupancyIndex occupancy = new ScheduleOccupancyIndex();
+        assignments.forEach(occupancy::add);
+
+        long moves = optimizer.optimize(context(assignments, occupancy, 20_000));
+
+        assertThat(moves).isPositive();
+        assertThat(constraintChecker.checkHardConstraints(assignments)).isEmpty();
+        for (Long teacherId : teacherIds(assignments)) {
+            for (int day = 1; day <= DAYS; day++) {
+                assertThat(occupancy.consecutiveOverflow(teacherId, day, MAX_CONSECUTIVE))
+                        .as("教师%d 周%d 连堂", teacherId, day)
+                        .isZero();
+            }
+        }
+        for (ScheduleAssignment assignment : assignments) {
+            assertThat(assignment.getTimeSlots()).hasSizeLessThanOrEqualTo(assignment.getWeeklyHours());
+            assertThat(classroomIndex.contains(assignment.getClassroomId())).isTrue();
+            assertThat(assignment.getScheduled()).isEqualTo(assignment.isFullyScheduled());
+        }
+        assertConsistent(assignments, occupancy);
+    }
+
+    @Test
+    @DisplayName("测试补排不为减少缺课时而突破连堂上限")
+    void testFillRespectsConsecutiveLimit() {
+        // 一天3节、连堂上限2节，3课时的课程最多只能排2节（第1、3节或相邻两节）
+        List<ScheduleAssignment> assignments = new ArrayList<>();
+        assignments.add(assignment(1L, 1L, 10L, 40, 30, 3));
+        ScheduleOccupancyIndex occupancy = new ScheduleOccupancyIndex();
+
+        optimizer.optimize(ScheduleOptimizationContext.builder()
+                .assignments(assignments)
+                .occupancy(occupancy)
+                .teacherPreferences(Map.of())
+                .classroomIndex(classroomIndex)
+                .daysPerWeek(1)
+                .slotsPerDay(3)
+                .maxConsecutive(MAX_CONSECUTIVE)
+                .maxMoves(5_000)
+                .deadlineNanos(System.nanoTime() + TimeUnit.SECONDS.toNanos(5))
+                .random(new Random(7))
+                .build());
+
+        ScheduleAssignment assignment = assignments.get(0);
+        assertThat(assignment.getTimeSlots()).hasSize(2);
+        assertThat(assignment.isFullyScheduled()).isFalse();
+        assertThat(occupancy.consecutiveOverflow(1L, 1, MAX_CONSECUTIVE)).isZero();
+    }
+
+    @Test
+    @DisplayName("测试补排时原教室被占用则换到容量足够的空闲教室")
+    void testFillSwitchesToFreeClassroom() {
+        // 教室A101全天被其他教师占用，课程只能换到A102
+        List<ScheduleAssignment> assignments = new ArrayList<>();
+        List<TimeSlot> allSlots = new ArrayList<>();
+        for (int day = 1; day <= DAYS; day++) {
+            for (int slot = 1; slot <= SLOTS; slot++) {
+                allSlots.add(TimeSlot.of(day, slot));
+            }
+        }
+        assignments.add(assignment(1L, 1L, 10L, 40, 30, allSlots.size(), allSlots.toArray(TimeSlot[]::new)));
+        assignments.add(assignment(2L, 2L, 10L, 40, 30, 2));
+        ScheduleOccupancyIndex occupancy = new ScheduleOccupancyIndex();
+        assignments.forEach(occupancy::add);
+
+        optimizer.optimize(ScheduleOptimizationContext.builder()
+                .assignments(assignments)
+                .occupancy(occupancy)
+                .teacherPreferences(Map.of())
+                .classroomIndex(classroomIndex)
+                .daysPerWeek(DAYS)
+                .slotsPerDay(SLOTS)
+                .maxConsecutive(SLOTS)
+                .maxMoves(0)
+                .deadlineNanos(System.nanoTime() + TimeUnit.SECONDS.toNanos(5))
+                .random(new Random(7))
+                .build());
+
+        ScheduleAssignment moved = assignments.get(1);
+        assertThat(moved.isFullyScheduled()).isTrue();
+        assertThat(moved.getClassroomId()).isEqualTo(11L);
+        assertThat(moved.getClassroomNo()).isEqualTo("A102");
+        assertThat(moved.getClassroomCapacity()).isEqualTo(60);
+        assertThat(constraintChecker.checkHardConstraints(assignments)).isEmpty();
+        assertConsistent(assignments, occupancy);
+    }
+
+    private ScheduleOptimizationContext context(List<ScheduleAssignment> assignments,
+                                                ScheduleOccupancyIndex occupancy,
+                                                long maxMoves) {
+        return ScheduleOptimizationContext.builder()
+                .assignments(assignments)
+                .occupancy(occupancy)
+                .teacherPreferences(Map.of())
+                .classroomIndex(classroomIndex)
+                .daysPerWeek(DAYS)
+                .slotsPerDay(SLOTS)
+                .maxConsecutive(MAX_CONSECUTIVE)
+                .maxMoves(maxMoves)
+                .deadlineNanos(System.nanoTime() + TimeUnit.SECONDS.toNanos(5))
+                .random(new Random(42))
+                .build();
+    }
+
+    /**
+     * 按排课结果重建占用索引，与优化器增量维护的索引逐个时间槽比较
+     */
+    private static void assertConsistent(List<ScheduleAssignment> assignments, ScheduleOccupancyIndex occupancy) {
+        ScheduleOccupancyIndex rebuilt = new ScheduleOccupancyIndex();
+        assignments.forEach(rebuilt::add);
+        for (ScheduleAssignment assignment : assignments) {
+            for (int day = 1; day <= ScheduleOccupancyIndex.DAYS; day++) {
+                assertThat(occupancy.teacherDayMask(assignment.getTeacherId(), day))
+                        .isEqualTo(rebuilt.teacherDayMask(assignment.getTeacherId(), day));
+                assertThat(occupancy.classroomDayMask(assignment.getClassroomId(), day))
+                        .isEqualTo(rebuilt.classroomDayMask(assignment.getClassroomId(), day));
+            }
+        }
+    }
+
+    private static Set<Long> teacherIds(List<ScheduleAssignment> assignments) {
+        Set<Long> teacherIds = new HashSet<>();
+        assignments.forEach(assignment -> teacherIds.add(assignment.getTeacherId()));
+        return teacherIds;
+    }
+
+    private static ScheduleAssignment assignment(Long offeringId, Long teacherId, Long classroomId, int capacity,
+                                                 int studentCount, int weeklyHours, TimeSlot... timeSlots) {
+        ScheduleAssignment assignment = ScheduleAssignment.builder()
+                .courseOfferingId(offeringId)
+                .courseName("课程" + offeringId)
+                .teacherId(teacherId)
+                .classroomId(classroomId)
+                .classroomCapacity(capacity)
+                .studentCount(studentCount)
+                .weeklyHours(weeklyHours)
+                .timeSlots(new ArrayList<>(List.of(timeSlots)))
+                .build();
+        assignment.setScheduled(assignment.isFullyScheduled());
+        return assignment;
+    }
+
+    private static Classroom classroom(Long id, String roomNo, int capacity) {
+        Classroom classroom = new Classroom();
+        classroom.setId(id);
+        classroom.setRoomNo(roomNo);
+        classroom.setCapacity(capacity);
+        return classroom;
+    }
+}